@@ -74,6 +74,15 @@ public interface PlatformAdapter {
         return Optional.empty();
     }
 
+    /**
+     * 预先计算与单次请求无关的派生配置（如从 token 中解析出的 uid），结果会随平台配置一起缓存复用。
+     * @param config 已合并 apiBaseUrl 的平台配置（可修改的副本）
+     * @return 补充了派生项的配置；默认原样返回
+     */
+    default Map<String, Object> prepareConfig(Map<String, Object> config) {
+        return config;
+    }
+
     /**
      * 根据文章 URL 直接拉取单篇文章内容（仅部分平台支持，如 TimeStore）
      * @param articleUrl 文章详情页 URL（如 https://web.timestore.vip/#/time/pages/timeDetail/index?timeid=102712）
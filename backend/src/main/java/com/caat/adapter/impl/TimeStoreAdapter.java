@@ -48,6 +48,8 @@ public class TimeStoreAdapter implements PlatformAdapter {
     private static final String TIMELINE_SHOW_PATH = "/timeline/show";
     /** 用户资料：头像、简介（api.timestore.vip） */
     private static final String PROFILE_DETAIL_PATH = "/profile/detail";
+    /** prepareConfig 写入的派生项：mate-auth token 中的 userId */
+    private static final String CONFIG_TOKEN_UID = "_tokenUid";
 
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
@@ -62,6 +64,15 @@ public class TimeStoreAdapter implements PlatformAdapter {
         return PLATFORM_TYPE;
     }
 
+    @Override
+    public Map<String, Object> prepareConfig(Map<String, Object> config) {
+        String uid = getUserIdFromMateAuthToken(getMateAuth(config));
+        if (uid != null && !uid.isEmpty()) {
+            config.put(CONFIG_TOKEN_UID, uid);
+        }
+        return config;
+    }
+
     @Override
     public boolean testConnection(Map<String, Object> config) throws BusinessException {
         String baseUrl = getBaseUrl(config);
@@ -200,7 +211,7 @@ public class TimeStoreAdapter implements PlatformAdapter {
                 : (100 + ThreadLocalRandom.current().nextInt(51));
             if (pageSize < 100) pageSize = 100 + ThreadLocalRandom.current().nextInt(51);
             // 使用配置的 userId 作为 uid 请求该用户时间线
-            String uidFromToken = getUserIdFromMateAuthToken(token);
+            String uidFromToken = getTokenUid(config, token);
             String uid = (userId != null && !userId.isEmpty() && !"me".equalsIgnoreCase(userId))
                 ? userId
                 : ((uidFromToken != null && !uidFromToken.isEmpty()) ? uidFromToken : "0");
@@ -529,6 +540,12 @@ public class TimeStoreAdapter implements PlatformAdapter {
         }
     }
 
+    /** 优先使用 prepareConfig 缓存的 token uid，未经缓存的配置再现场解析 */
+    private String getTokenUid(Map<String, Object> config, String mateAuth) {
+        Object cached = config != null ? config.get(CONFIG_TOKEN_UID) : null;
+        return cached != null ? cached.toString() : getUserIdFromMateAuthToken(mateAuth);
+    }
+
     private static String getMateAuth(Map<String, Object> config) {
         if (config == null) return null;
         String v = (String) config.get("mateAuth");
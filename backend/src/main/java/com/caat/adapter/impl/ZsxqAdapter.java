@@ -69,6 +69,16 @@ public class ZsxqAdapter implements PlatformAdapter {
         return PLATFORM_TYPE;
     }
 
+    /** 统一 token 字段名为 accessToken（签名与 Cookie 都使用它），后续请求不再逐个回退查找 */
+    @Override
+    public Map<String, Object> prepareConfig(Map<String, Object> config) {
+        String token = getAccessToken(config).trim();
+        if (!token.isEmpty()) {
+            config.put("accessToken", token);
+        }
+        return config;
+    }
+
     @Override
     public boolean testConnection(Map<String, Object> config) throws BusinessException {
         String groupId = getGroupId(config, null);
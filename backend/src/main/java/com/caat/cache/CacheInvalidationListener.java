@@ -0,0 +1,46 @@
+package com.caat.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 接收其他节点的缓存失效广播，清理本节点 L1（认证、权限等不在 Spring Cache 中的缓存经 LocalCacheInvalidator 处理）
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationListener implements MessageListener {
+
+    private final TwoLevelCacheManager cacheManager;
+    private final CacheInvalidationPublisher publisher;
+    private final ObjectMapper objectMapper;
+    private final List<LocalCacheInvalidator> localCaches;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            CacheInvalidationMessage msg = objectMapper.readValue(
+                new String(message.getBody(), StandardCharsets.UTF_8), CacheInvalidationMessage.class);
+            if (publisher.getNodeId().equals(msg.nodeId())) {
+                return;
+            }
+            for (LocalCacheInvalidator localCache : localCaches) {
+                if (localCache.cacheName().equals(msg.cacheName())) {
+                    localCache.evictLocal(msg.key());
+                    return;
+                }
+            }
+            cacheManager.evictLocal(msg.cacheName(), msg.key());
+            log.debug("收到缓存失效广播: cache={}, key={}, from={}", msg.cacheName(), msg.key(), msg.nodeId());
+        } catch (Exception e) {
+            log.warn("解析缓存失效广播失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.caat.cache;
+
+/**
+ * 跨节点 L1 缓存失效消息，key 为 null 表示清空整个缓存
+ */
+public record CacheInvalidationMessage(String nodeId, String cacheName, String key) {
+}
@@ -0,0 +1,59 @@
+package com.caat.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * 通过 Redis pub/sub 广播缓存失效，其他节点收到后清理各自的进程内缓存
+ * （Spring Cache 的 L1 与 Hibernate 二级缓存各用一个频道）
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationPublisher {
+
+    public static final String CHANNEL = "caat:cache:invalidate";
+    public static final String ENTITY_CHANNEL = "caat:hibernate:invalidate";
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        publish(new CacheInvalidationMessage(nodeId, cacheName, key));
+    }
+
+    public void publishClear(String cacheName) {
+        publish(new CacheInvalidationMessage(nodeId, cacheName, null));
+    }
+
+    /**
+     * 广播二级缓存实体变更，id 为 null 表示新增（只需失效查询缓存）
+     */
+    public void publishEntityEvict(String entityName, String id) {
+        publish(ENTITY_CHANNEL, new CacheInvalidationMessage(nodeId, entityName, id));
+    }
+
+    private void publish(CacheInvalidationMessage message) {
+        publish(CHANNEL, message);
+    }
+
+    private void publish(String channel, CacheInvalidationMessage message) {
+        try {
+            stringRedisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(message));
+        } catch (Exception e) {
+            // 广播失败时其他节点的 L1 最迟在 TTL 到期后失效
+            log.warn("缓存失效广播失败: cache={}, key={}, error={}", message.cacheName(), message.key(), e.getMessage());
+        }
+    }
+}
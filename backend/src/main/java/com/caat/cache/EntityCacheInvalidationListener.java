@@ -0,0 +1,110 @@
+package com.caat.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Hibernate 二级缓存的集群失效：本地提交后广播实体变更，其他节点收到后清理对应实体与查询缓存。
+ * 二级缓存是每个节点独立的进程内 Ehcache，没有这一步其他节点会一直读到旧数据直到 TTL 过期。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EntityCacheInvalidationListener implements MessageListener,
+        PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheInvalidationPublisher publisher;
+    private final ObjectMapper objectMapper;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = sessionFactory().getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getPersister().canWriteToCache()) {
+            publisher.publishEntityEvict(event.getPersister().getEntityName(), null);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getPersister().canWriteToCache()) {
+            publisher.publishEntityEvict(event.getPersister().getEntityName(), String.valueOf(event.getId()));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getPersister().canWriteToCache()) {
+            publisher.publishEntityEvict(event.getPersister().getEntityName(), String.valueOf(event.getId()));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            CacheInvalidationMessage msg = objectMapper.readValue(
+                new String(message.getBody(), StandardCharsets.UTF_8), CacheInvalidationMessage.class);
+            if (publisher.getNodeId().equals(msg.nodeId())) {
+                return;
+            }
+            org.hibernate.Cache cache = sessionFactory().getCache();
+            if (msg.key() != null) {
+                // 本项目实体主键统一为 UUID
+                cache.evictEntityData(msg.cacheName(), UUID.fromString(msg.key()));
+            }
+            // 其他节点的表更新时间戳不会同步过来，查询缓存只能整体失效
+            cache.evictQueryRegions();
+            log.debug("收到二级缓存失效广播: entity={}, id={}, from={}", msg.cacheName(), msg.key(), msg.nodeId());
+        } catch (Exception e) {
+            log.warn("处理二级缓存失效广播失败: {}", e.getMessage());
+        }
+    }
+
+    private SessionFactoryImplementor sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+}
@@ -0,0 +1,14 @@
+package com.caat.cache;
+
+/**
+ * 不经 Spring Cache 管理的进程内缓存，按缓存名接收其他节点的失效广播
+ */
+public interface LocalCacheInvalidator {
+
+    String cacheName();
+
+    /**
+     * 清除本节点缓存，key 为 null 表示清空
+     */
+    void evictLocal(String key);
+}
@@ -0,0 +1,230 @@
+package com.caat.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 二级缓存：L1 为进程内有界缓存（按容量与 TTL 淘汰），L2 为 Redis。
+ * 读先查 L1，未命中再查 L2 并回填 L1；put/evict/clear 同时作用于两级，并通过 Redis pub/sub 通知其他节点清理各自的 L1。
+ * L1 保存与 Redis 相同序列化格式的字节，每次命中反序列化出独立副本（与读 L2 一致），
+ * 调用方修改返回值（如 JPA 实体）不会污染缓存。
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final Cache remoteCache;
+    private final com.google.common.cache.Cache<String, byte[]> localCache;
+    private final RedisSerializer<Object> valueSerializer;
+    private final CacheInvalidationPublisher publisher;
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    private final Timer localLatency;
+    private final Timer remoteLatency;
+
+    public TwoLevelCache(String name, Cache remoteCache, long localMaxSize, Duration localTtl,
+                         RedisSerializer<Object> valueSerializer,
+                         CacheInvalidationPublisher publisher, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.remoteCache = remoteCache;
+        this.valueSerializer = valueSerializer;
+        this.publisher = publisher;
+        this.localCache = com.google.common.cache.CacheBuilder.newBuilder()
+            .maximumSize(localMaxSize)
+            .expireAfterWrite(localTtl.toMillis(), TimeUnit.MILLISECONDS)
+            .build();
+
+        this.localHits = counter(meterRegistry, "l1", "hit");
+        this.localMisses = counter(meterRegistry, "l1", "miss");
+        this.remoteHits = counter(meterRegistry, "l2", "hit");
+        this.remoteMisses = counter(meterRegistry, "l2", "miss");
+        this.localLatency = timer(meterRegistry, "l1");
+        this.remoteLatency = timer(meterRegistry, "l2");
+        Gauge.builder("cache.l1.size", localCache, com.google.common.cache.Cache::size)
+            .tag("cache", name)
+            .description("进程内 L1 缓存条目数")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return localCache;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = toLocalKey(key);
+        long start = System.nanoTime();
+        Object local = readLocal(localKey);
+        localLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (local != null) {
+            localHits.increment();
+            return new SimpleValueWrapper(local);
+        }
+        localMisses.increment();
+
+        start = System.nanoTime();
+        ValueWrapper remote = remoteCache.get(key);
+        remoteLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (remote != null && remote.get() != null) {
+            remoteHits.increment();
+            writeLocal(localKey, remote.get());
+            return remote;
+        }
+        remoteMisses.increment();
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("缓存值类型不匹配: cache=" + name + ", key=" + key
+                + ", expected=" + type.getName() + ", actual=" + value.getClass().getName());
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value = remoteCache.get(key, valueLoader);
+        if (value != null) {
+            writeLocal(toLocalKey(key), value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = toLocalKey(key);
+        remoteCache.put(key, value);
+        if (value != null) {
+            writeLocal(localKey, value);
+        } else {
+            localCache.invalidate(localKey);
+        }
+        // 其他节点 L1 中的旧值需立即失效，否则最长保留到 L1 TTL
+        publisher.publishEvict(name, localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        String localKey = toLocalKey(key);
+        ValueWrapper existing = remoteCache.putIfAbsent(key, value);
+        Object effective = existing != null ? existing.get() : value;
+        if (effective != null) {
+            writeLocal(localKey, effective);
+        }
+        if (existing == null) {
+            publisher.publishEvict(name, localKey);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = toLocalKey(key);
+        remoteCache.evict(key);
+        localCache.invalidate(localKey);
+        publisher.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        localCache.invalidateAll();
+        publisher.publishClear(name);
+    }
+
+    /**
+     * 仅清理本节点 L1（收到其他节点的失效广播时调用）
+     */
+    void evictLocal(String localKey) {
+        localCache.invalidate(localKey);
+    }
+
+    /**
+     * 仅清空本节点 L1（收到其他节点的失效广播时调用）
+     */
+    void clearLocal() {
+        localCache.invalidateAll();
+    }
+
+    /**
+     * 读 L1 并反序列化为独立副本；数据损坏时丢弃该条目按未命中处理
+     */
+    private Object readLocal(String localKey) {
+        byte[] bytes = localCache.getIfPresent(localKey);
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return valueSerializer.deserialize(bytes);
+        } catch (SerializationException e) {
+            localCache.invalidate(localKey);
+            return null;
+        }
+    }
+
+    /**
+     * 以序列化字节写入 L1，调用方之后修改原对象不影响缓存；无法序列化时只保留 L2（L2 同样会失败）
+     */
+    private void writeLocal(String localKey, Object value) {
+        try {
+            byte[] bytes = valueSerializer.serialize(value);
+            if (bytes != null) {
+                localCache.put(localKey, bytes);
+                return;
+            }
+        } catch (SerializationException e) {
+            // 落到下方的失效处理
+        }
+        localCache.invalidate(localKey);
+    }
+
+    /** L1 与 Redis 的 key 规则保持一致（RedisCache 同样以 toString 作为 key），保证跨节点失效能对上 */
+    private static String toLocalKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private Counter counter(MeterRegistry registry, String tier, String result) {
+        return Counter.builder("cache.tier.gets")
+            .tag("cache", name)
+            .tag("tier", tier)
+            .tag("result", result)
+            .description("分层缓存读取次数")
+            .register(registry);
+    }
+
+    private Timer timer(MeterRegistry registry, String tier) {
+        return Timer.builder("cache.tier.latency")
+            .tag("cache", name)
+            .tag("tier", tier)
+            .description("分层缓存读取耗时")
+            .register(registry);
+    }
+}
@@ -0,0 +1,80 @@
+package com.caat.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分层缓存管理器：包装 Redis 缓存管理器，为每个缓存叠加进程内 L1。
+ * L1 的 TTL 取全局 L1 TTL 与该缓存 L2 TTL 的较小值，避免本地副本比 Redis 活得更久；
+ * L1 与 Redis 使用同一个值序列化器。
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final CacheManager remoteCacheManager;
+    private final Map<String, Duration> remoteTtls;
+    private final Duration defaultRemoteTtl;
+    private final long localMaxSize;
+    private final Duration localTtl;
+    private final RedisSerializer<Object> valueSerializer;
+    private final CacheInvalidationPublisher publisher;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, Map<String, Duration> remoteTtls,
+                                Duration defaultRemoteTtl, long localMaxSize, Duration localTtl,
+                                RedisSerializer<Object> valueSerializer,
+                                CacheInvalidationPublisher publisher, MeterRegistry meterRegistry) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.remoteTtls = Map.copyOf(remoteTtls);
+        this.defaultRemoteTtl = defaultRemoteTtl;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+        this.valueSerializer = valueSerializer;
+        this.publisher = publisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> {
+            Duration remoteTtl = remoteTtls.getOrDefault(n, defaultRemoteTtl);
+            Duration ttl = localTtl.compareTo(remoteTtl) < 0 ? localTtl : remoteTtl;
+            return new TwoLevelCache(n, remote, localMaxSize, ttl, valueSerializer, publisher, meterRegistry);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    /**
+     * 处理其他节点的失效广播：key 为 null 表示清空整个缓存
+     */
+    public void evictLocal(String cacheName, String key) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (key == null) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(key);
+        }
+    }
+}
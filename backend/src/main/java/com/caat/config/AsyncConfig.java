@@ -1,5 +1,6 @@
 package com.caat.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -42,6 +43,111 @@ public class AsyncConfig {
         return executor;
     }
 
+    /**
+     * 导出任务执行线程池，与抓取任务的 taskExecutor 隔离
+     * 线程数即最大并发导出数；排队由 ExportTaskScheduler 基于数据库队列完成，内存队列只用于衔接刚结束的线程
+     */
+    @Bean(name = "exportTaskExecutor")
+    public ThreadPoolTaskExecutor exportTaskExecutor(@Value("${app.export.queue.max-concurrent:2}") int maxConcurrent) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(maxConcurrent);
+        executor.setThreadNamePrefix("export-task-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * PDF 分批渲染线程池：各批次（15 天）并行生成临时 PDF，再按批次顺序合并
+     * 线程数默认 2；单批内存占用由 PdfWordExportService 的内存预算另行限制
+     */
+    @Bean(name = "exportPdfRenderExecutor")
+    public ThreadPoolTaskExecutor exportPdfRenderExecutor(@Value("${app.export.pdf.render-threads:2}") int renderThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(renderThreads);
+        executor.setMaxPoolSize(renderThreads);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("export-pdf-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 上传图片缩略图生成线程池：线程数与队列均有上限，队列满时拒绝（调用方改为返回原图），避免列表页突发请求占满 CPU 与内存
+     */
+    @Bean(name = "thumbnailExecutor")
+    public ThreadPoolTaskExecutor thumbnailExecutor(@Value("${app.uploads.thumbnail.threads:2}") int threads,
+                                                    @Value("${app.uploads.thumbnail.queue-capacity:64}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("thumbnail-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 任务进度 SSE 推送线程池：抓取、导出线程只把事件放入各订阅方的有界队列，由此线程池发送，慢客户端不阻塞任务执行；
+     * 队列满时拒绝（对应订阅被关闭，前端重连后重新获取快照）
+     */
+    @Bean(name = "progressSseExecutor")
+    public ThreadPoolTaskExecutor progressSseExecutor(@Value("${app.progress.sse-threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("progress-sse-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 按作者批量删除任务执行线程池：同时执行的删除任务数有限，多出的排队
+     */
+    @Bean(name = "contentDeleteTaskExecutor")
+    public ThreadPoolTaskExecutor contentDeleteTaskExecutor(@Value("${app.content-delete.max-concurrent:2}") int maxConcurrent) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("content-delete-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 批量删除时并行删除图片、附件的线程池（对象存储下每个删除是一次网络请求）
+     */
+    @Bean(name = "contentDeleteFileExecutor")
+    public ThreadPoolTaskExecutor contentDeleteFileExecutor(@Value("${app.content-delete.file-threads:8}") int fileThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(fileThreads);
+        executor.setMaxPoolSize(fileThreads);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("content-delete-file-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 批量标记后同步搜索索引的线程池：单线程顺序执行，接口无需等待索引更新；队列满时由调用线程执行
+     */
+    @Bean(name = "searchIndexExecutor")
+    public ThreadPoolTaskExecutor searchIndexExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("search-index-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
     /**
      * TimeStore 文章修复专用的线程池，用于并发处理文章修复
      * 核心线程数：5，最大线程数：10，队列容量：100
@@ -0,0 +1,46 @@
+package com.caat.config;
+
+import com.caat.storage.BlobStore;
+import com.caat.storage.LocalBlobStore;
+import com.caat.storage.S3BlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * 上传文件存储后端：app.storage.type=local（默认，app.upload-dir 目录）或 s3（S3 兼容对象存储，多节点共享）
+ */
+@Slf4j
+@Configuration
+public class BlobStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.storage", name = "type", havingValue = "local", matchIfMissing = true)
+    public BlobStore localBlobStore(UploadDirResolver uploadDirResolver) {
+        return new LocalBlobStore(uploadDirResolver.getResolvedPath());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.storage", name = "type", havingValue = "s3")
+    public BlobStore s3BlobStore(@Value("${app.storage.s3.endpoint}") String endpoint,
+                                 @Value("${app.storage.s3.public-endpoint:}") String publicEndpoint,
+                                 @Value("${app.storage.s3.region:us-east-1}") String region,
+                                 @Value("${app.storage.s3.bucket}") String bucket,
+                                 @Value("${app.storage.s3.access-key}") String accessKey,
+                                 @Value("${app.storage.s3.secret-key}") String secretKey,
+                                 @Value("${app.storage.s3.path-style:true}") boolean pathStyle,
+                                 @Value("${app.storage.s3.part-size-mb:8}") int partSizeMb,
+                                 @Value("${app.storage.s3.request-timeout-seconds:120}") long requestTimeoutSeconds,
+                                 @Value("${app.storage.cache.dir:cache/blobs}") String cacheDir,
+                                 @Value("${app.storage.cache.max-size-mb:2048}") long cacheMaxSizeMb) {
+        S3BlobStore.Settings settings = new S3BlobStore.Settings(endpoint, publicEndpoint, region, bucket,
+            accessKey, secretKey, pathStyle, partSizeMb * 1024 * 1024, Duration.ofSeconds(requestTimeoutSeconds));
+        log.info("上传文件存储使用对象存储: endpoint={}, bucket={}", endpoint, bucket);
+        return new S3BlobStore(settings, Paths.get(cacheDir), cacheMaxSizeMb * 1024L * 1024L);
+    }
+}
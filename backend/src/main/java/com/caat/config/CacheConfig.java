@@ -1,53 +1,91 @@
 package com.caat.config;
 
+import com.caat.cache.CacheInvalidationListener;
+import com.caat.cache.CacheInvalidationPublisher;
+import com.caat.cache.EntityCacheInvalidationListener;
+import com.caat.cache.TwoLevelCacheManager;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.CollectionType;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.springframework.cache.CacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
- * Redis 缓存配置
+ * 缓存配置：进程内 L1 + Redis L2 两级缓存，L1 通过 Redis pub/sub 跨节点失效
  */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(30); // 默认缓存30分钟
+
     /**
      * 配置缓存管理器
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                             CacheInvalidationPublisher cacheInvalidationPublisher,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${app.cache.local.max-size:1000}") long localMaxSize,
+                                             @Value("${app.cache.local.ttl:60s}") Duration localTtl) {
         // 配置ObjectMapper支持Java 8时间类型
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        
+
         GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
-        
+
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(30)) // 默认缓存30分钟
+                .entryTtl(DEFAULT_TTL)
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer))
                 .disableCachingNullValues(); // 不缓存null值
 
         // 为不同的缓存配置不同的过期时间
-        return RedisCacheManager.builder(redisConnectionFactory)
-                .cacheDefaults(config)
-                .withCacheConfiguration("platforms", config.entryTtl(Duration.ofHours(1))) // 平台配置缓存1小时
-                .withCacheConfiguration("users", config.entryTtl(Duration.ofMinutes(15))) // 用户信息缓存15分钟
-                .withCacheConfiguration("tags", config.entryTtl(Duration.ofHours(1))) // 标签缓存1小时
-                .withCacheConfiguration("stats", config.entryTtl(Duration.ofMinutes(5))) // 统计数据缓存5分钟
-                .build();
+        Map<String, Duration> ttls = new LinkedHashMap<>();
+        ttls.put("platforms", Duration.ofHours(1)); // 平台配置缓存1小时
+        ttls.put("users", Duration.ofMinutes(15)); // 用户信息缓存15分钟
+        ttls.put("tags", Duration.ofHours(1)); // 标签缓存1小时
+        ttls.put("stats", Duration.ofMinutes(5)); // 统计数据缓存5分钟
+
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(redisConnectionFactory)
+                .cacheDefaults(config);
+        ttls.forEach((name, ttl) -> builder.withCacheConfiguration(name, config.entryTtl(ttl)));
+        RedisCacheManager redisCacheManager = builder.build();
+        // 非 Spring Bean，需手动初始化以加载上面的分缓存配置
+        redisCacheManager.afterPropertiesSet();
+
+        return new TwoLevelCacheManager(redisCacheManager, ttls, DEFAULT_TTL,
+                localMaxSize, localTtl, serializer, cacheInvalidationPublisher, meterRegistry);
+    }
+
+    /**
+     * 订阅 L1 缓存与 Hibernate 二级缓存的失效广播
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory redisConnectionFactory,
+            CacheInvalidationListener cacheInvalidationListener,
+            EntityCacheInvalidationListener entityCacheInvalidationListener) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(cacheInvalidationListener, new ChannelTopic(CacheInvalidationPublisher.CHANNEL));
+        container.addMessageListener(entityCacheInvalidationListener,
+                new ChannelTopic(CacheInvalidationPublisher.ENTITY_CHANNEL));
+        return container;
     }
 }
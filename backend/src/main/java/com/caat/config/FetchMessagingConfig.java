@@ -0,0 +1,155 @@
+package com.caat.config;
+
+import com.caat.adapter.AdapterFactory;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 刷新任务消息模式（app.fetch.messaging.enabled=true）：
+ * 按平台类型拆分刷新指令队列 caat.fetch.&lt;平台&gt;，图片本地化使用独立队列 caat.asset.download；
+ * 消费方被拒绝（抛出异常）的消息不重新入队，经死信交换机进入 caat.fetch.dead / caat.asset.dead 待人工排查；
+ * 对应的刷新任务由本地轮询兜底，文章图片由 ContentAssetSweeper 按待办标记补偿下载。
+ * 消费并发与 prefetch 决定每个工作节点同时处理的消息数，未确认的消息留在 broker，形成背压。
+ * 未启用时不声明任何队列，刷新任务仍由 FetchTaskQueue 在进程内认领执行。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.fetch.messaging", name = "enabled", havingValue = "true")
+public class FetchMessagingConfig {
+
+    public static final String FETCH_EXCHANGE = "caat.fetch";
+    public static final String DEAD_LETTER_EXCHANGE = "caat.fetch.dlx";
+    public static final String FETCH_QUEUE_PREFIX = "caat.fetch.";
+    public static final String FETCH_DEAD_QUEUE = "caat.fetch.dead";
+    public static final String ASSET_QUEUE = "caat.asset.download";
+    public static final String ASSET_DEAD_QUEUE = "caat.asset.dead";
+    public static final String ASSET_ROUTING_KEY = "asset";
+    public static final String FETCH_DEAD_ROUTING_KEY = "fetch.dead";
+    public static final String ASSET_DEAD_ROUTING_KEY = "asset.dead";
+
+    /** 平台类型对应的路由键，同时作为队列名后缀 */
+    public static String fetchRoutingKey(String platformType) {
+        return platformType.toLowerCase(Locale.ROOT);
+    }
+
+    @Bean
+    public DirectExchange fetchExchange() {
+        return new DirectExchange(FETCH_EXCHANGE, true, false);
+    }
+
+    @Bean
+    public DirectExchange fetchDeadLetterExchange() {
+        return new DirectExchange(DEAD_LETTER_EXCHANGE, true, false);
+    }
+
+    /**
+     * 为每个已注册的平台适配器声明一个刷新指令队列，并声明图片队列与死信队列
+     */
+    @Bean
+    public Declarables fetchQueues(AdapterFactory adapterFactory,
+                                   DirectExchange fetchExchange,
+                                   DirectExchange fetchDeadLetterExchange) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (String platformType : adapterFactory.getSupportedPlatformTypes()) {
+            String routingKey = fetchRoutingKey(platformType);
+            Queue queue = QueueBuilder.durable(FETCH_QUEUE_PREFIX + routingKey)
+                .deadLetterExchange(DEAD_LETTER_EXCHANGE)
+                .deadLetterRoutingKey(FETCH_DEAD_ROUTING_KEY)
+                .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(fetchExchange).with(routingKey));
+        }
+        Queue assetQueue = QueueBuilder.durable(ASSET_QUEUE)
+            .deadLetterExchange(DEAD_LETTER_EXCHANGE)
+            .deadLetterRoutingKey(ASSET_DEAD_ROUTING_KEY)
+            .build();
+        declarables.add(assetQueue);
+        declarables.add(BindingBuilder.bind(assetQueue).to(fetchExchange).with(ASSET_ROUTING_KEY));
+
+        Queue fetchDead = QueueBuilder.durable(FETCH_DEAD_QUEUE).build();
+        Queue assetDead = QueueBuilder.durable(ASSET_DEAD_QUEUE).build();
+        declarables.add(fetchDead);
+        declarables.add(assetDead);
+        declarables.add(deadBinding(fetchDead, fetchDeadLetterExchange, FETCH_DEAD_ROUTING_KEY));
+        declarables.add(deadBinding(assetDead, fetchDeadLetterExchange, ASSET_DEAD_ROUTING_KEY));
+        return new Declarables(declarables);
+    }
+
+    /**
+     * 本节点消费的刷新指令队列：consume-platforms 为空时消费全部平台，可按平台把抓取分配到不同工作节点
+     */
+    @Bean
+    public String[] fetchCommandQueueNames(AdapterFactory adapterFactory,
+                                           @Value("${app.fetch.messaging.consume-platforms:}") List<String> consumePlatforms) {
+        List<String> platforms = consumePlatforms == null || consumePlatforms.stream().allMatch(String::isBlank)
+            ? adapterFactory.getSupportedPlatformTypes()
+            : consumePlatforms;
+        return platforms.stream()
+            .filter(p -> p != null && !p.isBlank())
+            .map(p -> FETCH_QUEUE_PREFIX + fetchRoutingKey(p.trim()))
+            .distinct()
+            .toArray(String[]::new);
+    }
+
+    @Bean
+    public MessageConverter fetchMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
+    /**
+     * 刷新指令消费：一次抓取可能持续数分钟，prefetch 取 1，并发不超过本节点刷新容量
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory fetchListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            MessageConverter fetchMessageConverter,
+            @Value("${app.fetch.messaging.fetch-prefetch:1}") int prefetch,
+            @Value("${app.fetch.messaging.fetch-concurrency:2}") int concurrency) {
+        return containerFactory(connectionFactory, fetchMessageConverter, prefetch, concurrency);
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory assetListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            MessageConverter fetchMessageConverter,
+            @Value("${app.fetch.messaging.asset-prefetch:5}") int prefetch,
+            @Value("${app.fetch.messaging.asset-concurrency:2}") int concurrency) {
+        return containerFactory(connectionFactory, fetchMessageConverter, prefetch, concurrency);
+    }
+
+    private static SimpleRabbitListenerContainerFactory containerFactory(ConnectionFactory connectionFactory,
+                                                                         MessageConverter converter,
+                                                                         int prefetch, int concurrency) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(converter);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setPrefetchCount(Math.max(1, prefetch));
+        factory.setConcurrentConsumers(Math.max(1, concurrency));
+        factory.setMaxConcurrentConsumers(Math.max(1, concurrency));
+        // 处理失败的消息进入死信队列，不在队首反复重投
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
+
+    private static Binding deadBinding(Queue queue, DirectExchange exchange, String routingKey) {
+        return BindingBuilder.bind(queue).to(exchange).with(routingKey);
+    }
+}
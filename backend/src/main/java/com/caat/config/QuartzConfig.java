@@ -30,7 +30,7 @@ public class QuartzConfig {
     
     /**
      * 内容拉取任务 Trigger
-     * 每 10 分钟执行一次
+     * 每 10 分钟从数据库同步一次自适应拉取队列
      */
     @Bean
     public SimpleTriggerFactoryBean contentFetchTrigger() {
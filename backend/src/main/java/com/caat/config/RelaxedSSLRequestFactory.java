@@ -11,6 +11,7 @@ import java.net.HttpURLConnection;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.X509Certificate;
+import java.util.function.Consumer;
 
 /**
  * 用于访问证书不被 JVM 默认信任的 HTTPS 服务（如部分第三方 API）。
@@ -43,6 +44,13 @@ public class RelaxedSSLRequestFactory extends SimpleClientHttpRequestFactory {
         }
     }
 
+    /** 建立连接前回调（如登记到刷新任务取消注册表，取消时断开），可为 null */
+    private Consumer<HttpURLConnection> connectionListener;
+
+    public void setConnectionListener(Consumer<HttpURLConnection> connectionListener) {
+        this.connectionListener = connectionListener;
+    }
+
     @Override
     protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
         if (connection instanceof HttpsURLConnection) {
@@ -50,5 +58,8 @@ public class RelaxedSSLRequestFactory extends SimpleClientHttpRequestFactory {
             ((HttpsURLConnection) connection).setHostnameVerifier((hostname, session) -> true);
         }
         super.prepareConnection(connection, httpMethod);
+        if (connectionListener != null) {
+            connectionListener.accept(connection);
+        }
     }
 }
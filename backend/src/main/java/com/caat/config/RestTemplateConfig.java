@@ -1,5 +1,6 @@
 package com.caat.config;
 
+import com.caat.service.FetchCancellationRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -7,12 +8,22 @@ import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
 /**
  * RestTemplate 配置
  */
 @Configuration
 public class RestTemplateConfig {
 
+    /** 刷新任务线程上发起的请求登记到取消注册表，取消任务时断开进行中的连接 */
+    private final FetchCancellationRegistry fetchCancellationRegistry;
+
+    public RestTemplateConfig(FetchCancellationRegistry fetchCancellationRegistry) {
+        this.fetchCancellationRegistry = fetchCancellationRegistry;
+    }
+
     @Primary
     @Bean
     public RestTemplate restTemplate() {
@@ -25,6 +36,7 @@ public class RestTemplateConfig {
     @Bean(name = "timeStoreRestTemplate")
     public RestTemplate timeStoreRestTemplate() {
         RelaxedSSLRequestFactory factory = new RelaxedSSLRequestFactory();
+        factory.setConnectionListener(fetchCancellationRegistry::bindConnection);
         factory.setConnectTimeout(10000);  // 10s，部分 CDN 握手较慢
         factory.setReadTimeout(30000);     // 30s，大图下载
         return new RestTemplate(factory);
@@ -32,7 +44,13 @@ public class RestTemplateConfig {
     
     @Bean
     public ClientHttpRequestFactory clientHttpRequestFactory() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory() {
+            @Override
+            protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+                super.prepareConnection(connection, httpMethod);
+                fetchCancellationRegistry.bindConnection(connection);
+            }
+        };
         factory.setConnectTimeout(5000); // 5秒连接超时
         factory.setReadTimeout(10000); // 10秒读取超时
         return factory;
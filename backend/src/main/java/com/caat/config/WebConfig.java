@@ -10,11 +10,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -25,26 +22,16 @@ import java.time.format.DateTimeFormatter;
 @RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
-    private final UploadDirResolver uploadDirResolver;
     private final RateLimitInterceptor rateLimitInterceptor;
     
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        Path base = uploadDirResolver.getResolvedPath();
-        String location = base.toUri().toString();
-        if (!location.endsWith("/")) {
-            location += "/";
-        }
-        registry.addResourceHandler("/api/v1/uploads/**")
-                .addResourceLocations(location);
-    }
-    
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
                 .allowedOrigins("*")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders(RateLimitInterceptor.HEADER_LIMIT, RateLimitInterceptor.HEADER_REMAINING,
+                        RateLimitInterceptor.HEADER_RETRY_AFTER)
                 .maxAge(3600);
     }
     
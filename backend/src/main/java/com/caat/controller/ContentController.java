@@ -1,9 +1,14 @@
 package com.caat.controller;
 
 import com.caat.dto.ApiResponse;
+import com.caat.dto.ContentBatchUpdateRequest;
 import com.caat.entity.Content;
+import com.caat.entity.ContentDeleteTask;
 import com.caat.entity.ContentDocument;
 import com.caat.entity.SearchHistory;
+import com.caat.ratelimit.RateLimitClass;
+import com.caat.ratelimit.RateLimited;
+import com.caat.service.ContentBulkDeleteService;
 import com.caat.service.ContentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -30,6 +35,7 @@ import java.util.UUID;
 public class ContentController {
     
     private final ContentService contentService;
+    private final ContentBulkDeleteService contentBulkDeleteService;
     
     @Operation(summary = "获取内容列表", description = "分页获取内容列表，支持过滤与关键词搜索，支持按平台、作者、时间范围、标签、类型分类")
     @GetMapping
@@ -96,6 +102,7 @@ public class ContentController {
 
     @Operation(summary = "刷新单篇内容图片", description = "仅刷新 mediaUrls 中的图片：若为外部地址则下载到本地并更新为本地地址")
     @PostMapping("/{id}/refresh-assets")
+    @RateLimited(RateLimitClass.FETCH)
     public ApiResponse<Content> refreshContentAssets(@PathVariable UUID id) {
         return ApiResponse.success(contentService.refreshContentAssets(id));
     }
@@ -118,11 +125,22 @@ public class ContentController {
         return ApiResponse.success(contentService.updateContent(id, content));
     }
     
-    @Operation(summary = "按作者删除内容", description = "删除指定作者（追踪用户）下的全部内容")
+    @Operation(summary = "批量标记已读/收藏", description = "按 id 列表（最多 1000 条）或按作者、平台、发布时间范围批量设置 isRead/isFavorite，返回实际改动的条数")
+    @PostMapping("/batch-update")
+    public ApiResponse<ContentService.BatchUpdateResult> batchUpdateContents(@RequestBody ContentBatchUpdateRequest request) {
+        return ApiResponse.success(contentService.batchUpdateFlags(request));
+    }
+    
+    @Operation(summary = "按作者删除内容", description = "后台分批删除指定作者（追踪用户）下的全部内容及其图片、附件，返回删除任务，进度经 /delete-tasks/{taskId} 查询")
     @DeleteMapping("/by-author/{userId}")
-    public ApiResponse<Integer> deleteContentsByAuthor(@PathVariable UUID userId) {
-        int deleted = contentService.deleteContentsByUserId(userId);
-        return ApiResponse.success(deleted);
+    public ApiResponse<ContentDeleteTask> deleteContentsByAuthor(@PathVariable UUID userId) {
+        return ApiResponse.success(contentBulkDeleteService.submit(userId));
+    }
+
+    @Operation(summary = "查询按作者删除任务", description = "获取删除任务的状态与进度")
+    @GetMapping("/delete-tasks/{taskId}")
+    public ApiResponse<ContentDeleteTask> getDeleteTask(@PathVariable UUID taskId) {
+        return ApiResponse.success(contentBulkDeleteService.getTask(taskId));
     }
 
     @Operation(summary = "删除内容", description = "删除指定内容")
@@ -142,6 +160,7 @@ public class ContentController {
     
     @Operation(summary = "Elasticsearch 全文搜索", description = "使用 Elasticsearch 进行全文搜索")
     @GetMapping("/search")
+    @RateLimited(RateLimitClass.SEARCH)
     public ApiResponse<Page<ContentDocument>> searchInElasticsearch(
         @RequestParam String query,
         @RequestParam(defaultValue = "0") int page,
@@ -153,6 +172,7 @@ public class ContentController {
     
     @Operation(summary = "正则表达式搜索", description = "使用正则表达式进行高级搜索")
     @GetMapping("/search/regex")
+    @RateLimited(RateLimitClass.SEARCH)
     public ApiResponse<Page<ContentDocument>> searchByRegex(
         @RequestParam String pattern,
         @RequestParam(defaultValue = "0") int page,
@@ -164,6 +184,7 @@ public class ContentController {
     
     @Operation(summary = "高级搜索", description = "支持多个条件组合的高级搜索")
     @GetMapping("/search/advanced")
+    @RateLimited(RateLimitClass.SEARCH)
     public ApiResponse<Page<ContentDocument>> advancedSearch(
         @RequestParam String query,
         @RequestParam(required = false) String contentType,
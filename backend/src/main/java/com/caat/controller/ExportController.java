@@ -2,25 +2,38 @@ package com.caat.controller;
 
 import com.caat.dto.ApiResponse;
 import com.caat.entity.ExportTask;
+import com.caat.ratelimit.RateLimitClass;
+import com.caat.ratelimit.RateLimited;
 import com.caat.repository.ExportTaskRepository;
 import com.caat.service.ExportService;
 import com.caat.service.PdfWordExportService;
+import com.caat.service.TaskProgressBus;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Paths;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -38,115 +51,121 @@ public class ExportController {
     private final ExportService exportService;
     private final ExportTaskRepository exportTaskRepository;
     private final PdfWordExportService pdfWordExportService;
+    private final TaskProgressBus progressBus;
     
     @Operation(summary = "导出JSON格式", description = "导出内容为JSON格式")
     @GetMapping("/json")
-    public ResponseEntity<byte[]> exportJson(
+    @RateLimited(RateLimitClass.EXPORT)
+    public ResponseEntity<StreamingResponseBody> exportJson(
             @RequestParam(required = false) UUID userId,
             @RequestParam(required = false) LocalDateTime startTime,
             @RequestParam(required = false) LocalDateTime endTime
-    ) throws Exception {
-        byte[] data = exportService.exportToJson(userId, startTime, endTime);
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=export.json")
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(data);
+    ) {
+        return streamExport(ExportTask.ExportFormat.JSON, userId, startTime, endTime);
     }
     
     @Operation(summary = "导出Markdown格式", description = "导出内容为Markdown格式")
     @GetMapping("/markdown")
-    public ResponseEntity<byte[]> exportMarkdown(
+    @RateLimited(RateLimitClass.EXPORT)
+    public ResponseEntity<StreamingResponseBody> exportMarkdown(
             @RequestParam(required = false) UUID userId,
             @RequestParam(required = false) LocalDateTime startTime,
             @RequestParam(required = false) LocalDateTime endTime
-    ) throws Exception {
-        byte[] data = exportService.exportToMarkdown(userId, startTime, endTime);
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=export.md")
-                .contentType(MediaType.TEXT_PLAIN)
-                .body(data);
+    ) {
+        return streamExport(ExportTask.ExportFormat.MARKDOWN, userId, startTime, endTime);
     }
     
     @Operation(summary = "导出CSV格式", description = "导出内容为CSV格式")
     @GetMapping("/csv")
-    public ResponseEntity<byte[]> exportCsv(
+    @RateLimited(RateLimitClass.EXPORT)
+    public ResponseEntity<StreamingResponseBody> exportCsv(
             @RequestParam(required = false) UUID userId,
             @RequestParam(required = false) LocalDateTime startTime,
             @RequestParam(required = false) LocalDateTime endTime
-    ) throws Exception {
-        byte[] data = exportService.exportToCsv(userId, startTime, endTime);
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=export.csv")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .body(data);
+    ) {
+        return streamExport(ExportTask.ExportFormat.CSV, userId, startTime, endTime);
     }
     
     @Operation(summary = "导出HTML格式", description = "导出内容为HTML格式")
     @GetMapping("/html")
-    public ResponseEntity<byte[]> exportHtml(
+    @RateLimited(RateLimitClass.EXPORT)
+    public ResponseEntity<StreamingResponseBody> exportHtml(
             @RequestParam(required = false) UUID userId,
             @RequestParam(required = false) LocalDateTime startTime,
             @RequestParam(required = false) LocalDateTime endTime
-    ) throws Exception {
-        byte[] data = exportService.exportToHtml(userId, startTime, endTime);
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=export.html")
-                .contentType(MediaType.TEXT_HTML)
-                .body(data);
+    ) {
+        return streamExport(ExportTask.ExportFormat.HTML, userId, startTime, endTime);
+    }
+
+    @Operation(summary = "导出ZIP归档", description = "每篇文章一个 Markdown 文件（按年/月分目录），附带本地图片与附件原文件；边读库边写出")
+    @GetMapping("/zip")
+    @RateLimited(RateLimitClass.EXPORT)
+    public ResponseEntity<StreamingResponseBody> exportZip(
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) LocalDateTime startTime,
+            @RequestParam(required = false) LocalDateTime endTime
+    ) {
+        return streamExport(ExportTask.ExportFormat.ZIP, userId, startTime, endTime);
     }
 
     @Operation(summary = "导出PDF格式", description = "导出选中用户全部文章为PDF，按年/月/日组织，支持日期排序")
     @GetMapping("/pdf")
-    public ResponseEntity<byte[]> exportPdf(
+    @RateLimited(RateLimitClass.EXPORT)
+    public ResponseEntity<StreamingResponseBody> exportPdf(
             @RequestParam UUID userId,
             @RequestParam(defaultValue = "DESC") String sortOrder
     ) throws Exception {
         PdfWordExportService.SortOrder order = "ASC".equalsIgnoreCase(sortOrder)
                 ? PdfWordExportService.SortOrder.ASC
                 : PdfWordExportService.SortOrder.DESC;
-        PdfWordExportService.ExportResult result = pdfWordExportService.exportToPdf(userId, order, null);
-        if (result.data().length == 0) {
-            return ResponseEntity.noContent().build();
+        Path tempFile = Files.createTempFile("export-", ".pdf");
+        PdfWordExportService.ExportResult result;
+        try {
+            result = pdfWordExportService.exportToPdf(userId, order, null, tempFile);
+        } catch (Exception e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
         }
-        String filename = result.suggestedFileName() != null ? result.suggestedFileName() : "export.pdf";
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, contentDispositionWithFilename(filename))
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(result.data());
+        return renderedFileResponse(result, tempFile, "export.pdf", ExportTask.ExportFormat.PDF);
     }
 
     @Operation(summary = "导出Word格式", description = "导出选中用户全部文章为Word，按年/月/日组织，支持日期排序")
     @GetMapping("/word")
-    public ResponseEntity<byte[]> exportWord(
+    @RateLimited(RateLimitClass.EXPORT)
+    public ResponseEntity<StreamingResponseBody> exportWord(
             @RequestParam UUID userId,
             @RequestParam(defaultValue = "DESC") String sortOrder
     ) throws Exception {
         PdfWordExportService.SortOrder order = "ASC".equalsIgnoreCase(sortOrder)
                 ? PdfWordExportService.SortOrder.ASC
                 : PdfWordExportService.SortOrder.DESC;
-        PdfWordExportService.ExportResult result = pdfWordExportService.exportToWord(userId, order, null);
-        if (result.data().length == 0) {
-            return ResponseEntity.noContent().build();
+        Path tempFile = Files.createTempFile("export-", ".docx");
+        PdfWordExportService.ExportResult result;
+        try {
+            result = pdfWordExportService.exportToWord(userId, order, null, tempFile);
+        } catch (Exception e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
         }
-        String filename = result.suggestedFileName() != null ? result.suggestedFileName() : "export.docx";
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, contentDispositionWithFilename(filename))
-                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.wordprocessingml.document"))
-                .body(result.data());
+        return renderedFileResponse(result, tempFile, "export.docx", ExportTask.ExportFormat.WORD);
     }
     
-    @Operation(summary = "创建异步导出任务", description = "创建异步导出任务，支持JSON、Markdown、CSV、HTML、PDF、Word格式；PDF/Word需传userId和sortOrder")
+    @Operation(summary = "创建异步导出任务", description = "创建异步导出任务并进入导出队列，支持JSON、Markdown、CSV、HTML、ZIP、PDF、Word格式；PDF/Word需传userId和sortOrder；priority 0-9 越大越先执行；incremental=true 时只导出该作者同格式上一卷以来新增或更新的文章，作为新的一卷")
     @PostMapping("/async")
+    @RateLimited(RateLimitClass.EXPORT)
     public ApiResponse<ExportTask> createAsyncExport(
             @RequestParam(required = false) UUID userId,
             @RequestParam ExportTask.ExportFormat format,
             @RequestParam(required = false) LocalDateTime startTime,
             @RequestParam(required = false) LocalDateTime endTime,
-            @RequestParam(required = false, defaultValue = "DESC") String sortOrder
+            @RequestParam(required = false, defaultValue = "DESC") String sortOrder,
+            @RequestParam(required = false) Integer priority,
+            @RequestParam(defaultValue = "false") boolean incremental
     ) {
-        log.info("收到创建异步导出任务请求: userId={}, format={}, sortOrder={}", userId, format, sortOrder);
+        log.info("收到创建异步导出任务请求: userId={}, format={}, sortOrder={}, priority={}, incremental={}",
+                userId, format, sortOrder, priority, incremental);
         try {
-            ExportTask task = exportService.createExportTask(userId, format, startTime, endTime, sortOrder);
+            ExportTask task = exportService.createExportTask(userId, format, startTime, endTime, sortOrder, priority, incremental);
             log.info("创建异步导出任务成功: taskId={}, status={}", task.getId(), task.getStatus());
             return ApiResponse.success(task);
         } catch (Exception e) {
@@ -178,22 +197,115 @@ public class ExportController {
         return ApiResponse.success(exportService.getExportTask(taskId));
     }
     
-    @Operation(summary = "下载导出文件", description = "下载已完成的导出文件")
+    @Operation(summary = "订阅导出任务进度", description = "SSE 推送进度与新增日志：snapshot 为完整快照，progress 为增量，done 为结束；任务不在本节点运行时不推送，需轮询详情兜底")
+    @GetMapping(value = "/tasks/{taskId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeExportTask(@PathVariable UUID taskId) {
+        return progressBus.subscribe(taskId);
+    }
+    
+    /**
+     * Tomcat 零拷贝发送文件（sendfile）的请求属性：连接器支持时由容器在响应提交后直接从文件发送到 socket。
+     * 下载路径不经 ApiLoggingFilter 的响应缓存包装（见其 STREAMING_PATTERNS），回退的文件流同样直接写出
+     */
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Operation(summary = "下载导出文件", description = "下载已完成的导出文件；支持 Range 断点续传与 ETag 条件请求")
     @GetMapping("/tasks/{taskId}/download")
-    public ResponseEntity<byte[]> downloadExportFile(@PathVariable UUID taskId) throws Exception {
+    public ResponseEntity<?> downloadExportFile(
+            @PathVariable UUID taskId,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            HttpServletRequest request,
+            WebRequest webRequest
+    ) throws Exception {
         ExportTask task = exportService.getExportTask(taskId);
         if (task.getStatus() != ExportTask.TaskStatus.COMPLETED) {
             throw new RuntimeException("导出任务未完成");
         }
         
-        byte[] data = exportService.getExportFile(taskId);
-        String fileName = task.getFilePath() != null ? Paths.get(task.getFilePath()).getFileName().toString()
-                : ("export." + getFileExtension(task.getExportFormat()));
+        Path file = exportService.getExportFile(taskId);
+        long size = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        // 强 ETag：任务 ID + 文件大小 + 修改时间，文件被重新生成时随之变化
+        String etag = "\"" + taskId + "-" + size + "-" + lastModified + "\"";
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return null;
+        }
+        String fileName = file.getFileName().toString();
         
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, contentDispositionWithFilename(fileName))
-                .contentType(getMediaType(task.getExportFormat()))
-                .body(data);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, contentDispositionWithFilename(fileName));
+        headers.setContentType(getMediaType(task.getExportFormat()));
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+        headers.setETag(etag);
+        headers.setLastModified(lastModified);
+        // If-Range 不匹配：文件已变化，忽略 Range 返回完整内容
+        boolean rangeApplies = range != null && (ifRange == null || ifRange.equals(etag));
+        ResponseEntity<?> zeroCopy = sendfile(request, headers, file, size, rangeApplies ? range : null);
+        if (zeroCopy != null) {
+            return zeroCopy;
+        }
+        if (!rangeApplies && range != null) {
+            return ResponseEntity.ok().headers(headers).contentLength(size)
+                    .body((StreamingResponseBody) out -> Files.copy(file, out));
+        }
+        // 不支持 sendfile 或多区段请求：Resource 响应体由 Spring 处理 Range（206/416）并按需读取文件区段
+        return ResponseEntity.ok().headers(headers).body(new FileSystemResource(file));
+    }
+
+    /**
+     * 由容器以 sendfile 发送整个文件或单个区段，数据不经过用户态缓冲；
+     * 连接器不支持、非 GET、多区段或区段无效（由 Spring 返回 416）时返回 null，调用方改用 Resource 响应
+     */
+    private ResponseEntity<?> sendfile(HttpServletRequest request, HttpHeaders headers, Path file, long size,
+                                       String range) throws IOException {
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED)) || !"GET".equals(request.getMethod())
+                || size == 0) {
+            return null;
+        }
+        long start = 0;
+        long end = size - 1;
+        HttpStatus status = HttpStatus.OK;
+        if (range != null) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+                if (ranges.size() != 1) {
+                    return null;
+                }
+                start = ranges.get(0).getRangeStart(size);
+                end = ranges.get(0).getRangeEnd(size);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            status = HttpStatus.PARTIAL_CONTENT;
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+        request.setAttribute(SENDFILE_START, start);
+        // 结束位置不含
+        request.setAttribute(SENDFILE_END, end + 1);
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setContentLength(end - start + 1);
+        return ResponseEntity.status(status).headers(headers).build();
+    }
+
+    @Operation(summary = "合并增量卷", description = "把某个 PDF 增量卷及之前直到全量卷的各卷合并为一个文件（只复制页面，不重新渲染），作为后续增量导出的起点")
+    @PostMapping("/tasks/{taskId}/compact")
+    public ApiResponse<ExportTask> compactExportVolumes(@PathVariable UUID taskId) {
+        log.info("收到合并增量卷请求: taskId={}", taskId);
+        return ApiResponse.success(exportService.createCompactionTask(taskId));
+    }
+
+    @Operation(summary = "取消导出任务", description = "取消排队中或运行中的导出任务；运行中的任务在下一个进度检查点中止")
+    @PutMapping("/tasks/{taskId}/cancel")
+    public ApiResponse<Void> cancelExportTask(@PathVariable UUID taskId) {
+        log.info("收到取消导出任务请求: taskId={}", taskId);
+        exportService.cancelExportTask(taskId);
+        return ApiResponse.success(null);
     }
 
     @Operation(summary = "删除导出任务", description = "根据任务ID删除导出任务记录及其本地导出文件")
@@ -220,6 +332,42 @@ public class ExportController {
         return ApiResponse.success(deletedCount);
     }
     
+    /**
+     * JSON/Markdown/CSV/HTML/ZIP 同步导出：边读库边写响应，不设条数上限
+     */
+    private ResponseEntity<StreamingResponseBody> streamExport(ExportTask.ExportFormat format, UUID userId,
+                                                               LocalDateTime startTime, LocalDateTime endTime) {
+        StreamingResponseBody body = out -> exportService.writeExport(userId, format, startTime, endTime, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=export." + getFileExtension(format))
+                .contentType(getMediaType(format))
+                .body(body);
+    }
+
+    /**
+     * PDF/Word 同步导出：已渲染到临时文件，流式写出后删除；无内容时返回 204
+     */
+    private ResponseEntity<StreamingResponseBody> renderedFileResponse(PdfWordExportService.ExportResult result, Path tempFile,
+                                                                      String defaultFileName, ExportTask.ExportFormat format) throws IOException {
+        if (result.isEmpty()) {
+            Files.deleteIfExists(tempFile);
+            return ResponseEntity.noContent().build();
+        }
+        String filename = result.suggestedFileName() != null ? result.suggestedFileName() : defaultFileName;
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(tempFile, out);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDispositionWithFilename(filename))
+                .contentType(getMediaType(format))
+                .contentLength(result.size())
+                .body(body);
+    }
+
     /**
      * 构建支持 Unicode 文件名的 Content-Disposition 头。
      * 使用 RFC 5987 filename* 参数，避免 Tomcat 对非 ASCII 字符编码时报错。
@@ -246,6 +394,7 @@ public class ExportController {
             case HTML -> "html";
             case PDF -> "pdf";
             case WORD -> "docx";
+            case ZIP -> "zip";
         };
     }
     
@@ -257,6 +406,7 @@ public class ExportController {
             case HTML -> MediaType.TEXT_HTML;
             case PDF -> MediaType.APPLICATION_PDF;
             case WORD -> MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.wordprocessingml.document");
+            case ZIP -> MediaType.parseMediaType("application/zip");
         };
     }
 }
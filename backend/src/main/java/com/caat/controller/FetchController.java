@@ -4,9 +4,11 @@ import com.caat.dto.ApiResponse;
 import com.caat.dto.BatchFetchRequest;
 import com.caat.entity.FetchTask;
 import com.caat.entity.TrackedUser;
+import com.caat.ratelimit.RateLimitClass;
+import com.caat.ratelimit.RateLimited;
 import com.caat.repository.FetchTaskRepository;
 import com.caat.repository.TrackedUserRepository;
-import com.caat.service.ContentFetchService;
+import com.caat.service.FetchTaskQueue;
 import com.caat.exception.BusinessException;
 import com.caat.exception.ErrorCode;
 import io.swagger.v3.oas.annotations.Operation;
@@ -33,12 +35,13 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class FetchController {
     
-    private final ContentFetchService contentFetchService;
+    private final FetchTaskQueue fetchTaskQueue;
     private final FetchTaskRepository fetchTaskRepository;
     private final TrackedUserRepository trackedUserRepository;
     
     @Operation(summary = "刷新用户内容", description = "手动触发拉取指定用户的内容，完整拉取逐页直至无数据")
     @PostMapping("/users/{id}/fetch")
+    @RateLimited(RateLimitClass.FETCH)
     public ApiResponse<FetchTask> fetchUserContent(@PathVariable UUID id) {
         TrackedUser user = trackedUserRepository.findById(id)
             .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND));
@@ -46,12 +49,14 @@ public class FetchController {
         task.setUser(user);
         task.setTaskType(FetchTask.TaskType.MANUAL);
         task = fetchTaskRepository.save(task);
-        contentFetchService.fetchUserContentAsync(id, null, null, task.getId());
+        // 写入队列后发布刷新指令或唤醒本节点认领；该用户已有运行中的任务时排队等待其结束
+        fetchTaskQueue.submit(task);
         return ApiResponse.success(fetchTaskRepository.findByIdWithUser(task.getId()).orElse(task));
     }
     
     @Operation(summary = "批量刷新用户内容", description = "批量刷新多个用户的内容")
     @PostMapping("/users/batch-fetch")
+    @RateLimited(RateLimitClass.FETCH)
     public ApiResponse<List<FetchTask>> batchFetchUsers(@Valid @RequestBody BatchFetchRequest request) {
         LocalDateTime startTime = request.getStartTime();
         LocalDateTime endTime = LocalDateTime.now();
@@ -5,7 +5,9 @@ import com.caat.entity.FetchTask;
 import com.caat.exception.BusinessException;
 import com.caat.exception.ErrorCode;
 import com.caat.repository.FetchTaskRepository;
+import com.caat.service.FetchCancellationRegistry;
 import com.caat.service.ScheduleService;
+import com.caat.service.TaskProgressBus;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -13,8 +15,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -32,6 +36,8 @@ public class TaskController {
     
     private final ScheduleService scheduleService;
     private final FetchTaskRepository fetchTaskRepository;
+    private final TaskProgressBus progressBus;
+    private final FetchCancellationRegistry fetchCancellationRegistry;
     
     @Operation(summary = "获取定时任务状态", description = "获取全局定时任务启用状态")
     @GetMapping("/schedule/status")
@@ -128,6 +134,13 @@ public class TaskController {
         return ApiResponse.success(fetchTaskRepository.findAllByOrderByCreatedAtDesc(pageable));
     }
     
+    /** 须在 /fetch/{taskId} 之前声明 */
+    @Operation(summary = "订阅刷新任务进度", description = "SSE 推送本节点运行中刷新任务的进度（snapshot / progress / done 事件），列表页据此原地更新")
+    @GetMapping(value = "/fetch/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeFetchTasks() {
+        return progressBus.subscribeKind(TaskProgressBus.KIND_FETCH);
+    }
+    
     @Operation(summary = "获取刷新任务详情", description = "根据任务 ID 获取刷新任务详情")
     @GetMapping("/fetch/{taskId}")
     public ApiResponse<FetchTask> getFetchTask(@PathVariable UUID taskId) {
@@ -135,14 +148,16 @@ public class TaskController {
             .orElseThrow(() -> new BusinessException(ErrorCode.FETCH_TASK_NOT_FOUND)));
     }
     
-    @Operation(summary = "取消刷新任务", description = "取消进行中的刷新任务")
+    @Operation(summary = "取消刷新任务", description = "取消排队中或进行中的刷新任务；本节点运行中的任务立即中断等待与进行中的请求")
     @PutMapping("/fetch/{taskId}/cancel")
     public ApiResponse<Void> cancelFetchTask(@PathVariable UUID taskId) {
         FetchTask task = fetchTaskRepository.findById(taskId)
             .orElseThrow(() -> new BusinessException(ErrorCode.FETCH_TASK_NOT_FOUND));
-        if (task.getStatus() == FetchTask.TaskStatus.RUNNING) {
+        if (task.getStatus() == FetchTask.TaskStatus.RUNNING || task.getStatus() == FetchTask.TaskStatus.PENDING) {
             task.setStatus(FetchTask.TaskStatus.CANCELLED);
             fetchTaskRepository.save(task);
+            // 运行中的任务由执行线程在退出时写入取消终态并推送结束事件
+            fetchCancellationRegistry.cancel(taskId);
         }
         return ApiResponse.success(null);
     }
@@ -0,0 +1,113 @@
+package com.caat.controller;
+
+import com.caat.service.UploadServingService;
+import com.caat.storage.BlobStore;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * 上传文件访问（头像、文章图片与附件）。
+ * 存储键为不可变的 UUID 文件名，响应带长期 immutable 缓存与强 ETag（If-None-Match 返回 304），支持 Range 断点与分段读取；
+ * 图片可带 ?w= 取缩略图（向上取整到固定档位，生成一次后磁盘缓存）；缩略图暂不可用（队列满、超时、生成失败）时本次返回原图，
+ * 该响应不允许缓存，避免浏览器与 CDN 在缩略图地址下长期保留原图。
+ * 对象存储模式下访问原文件默认 302 跳转到限时直连地址，API 节点不承载文件流量；关闭跳转时经本节点读缓存返回。
+ */
+@Slf4j
+@Tag(name = "上传文件", description = "头像、文章图片与附件访问")
+@RestController
+@RequestMapping("/api/v1/uploads")
+public class UploadController {
+
+    private final BlobStore blobStore;
+    private final UploadServingService uploadServingService;
+    private final boolean redirect;
+    private final Duration presignTtl;
+    private final CacheControl cacheControl;
+
+    public UploadController(BlobStore blobStore,
+                            UploadServingService uploadServingService,
+                            @Value("${app.storage.s3.redirect-downloads:true}") boolean redirect,
+                            @Value("${app.storage.s3.presign-ttl-seconds:3600}") long presignTtlSeconds,
+                            @Value("${app.uploads.cache-max-age-days:365}") long cacheMaxAgeDays) {
+        this.blobStore = blobStore;
+        this.uploadServingService = uploadServingService;
+        this.redirect = redirect;
+        this.presignTtl = Duration.ofSeconds(Math.max(60, presignTtlSeconds));
+        this.cacheControl = CacheControl.maxAge(Duration.ofDays(Math.max(1, cacheMaxAgeDays))).cachePublic().immutable();
+    }
+
+    @Operation(summary = "访问上传文件")
+    @GetMapping("/**")
+    public ResponseEntity<Resource> get(HttpServletRequest request,
+                                        @Parameter(description = "缩略图宽度（像素），仅对 jpg/png/bmp 图片生效")
+                                        @RequestParam(value = "w", required = false) Integer width) throws IOException {
+        String key = BlobStore.keyFromUrl(UriUtils.decode(request.getRequestURI(), StandardCharsets.UTF_8)).orElse(null);
+        if (key == null) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean thumbnailFallback = false;
+        if (width != null) {
+            Optional<Path> thumbnail = uploadServingService.thumbnail(key, width);
+            if (thumbnail.isPresent()) {
+                return serve(thumbnail.get(), key, "w" + width, UploadServingService.thumbnailMediaType(key), cacheControl);
+            }
+            thumbnailFallback = true;
+        }
+        if (redirect) {
+            Optional<URI> url = blobStore.presignedUrl(key, presignTtl);
+            if (url.isPresent()) {
+                // 浏览器缓存跳转结果的时间短于链接有效期；缩略图回退为原图时不缓存，下次请求重新尝试缩略图
+                return ResponseEntity.status(302)
+                    .location(url.get())
+                    .cacheControl(thumbnailFallback ? CacheControl.noStore()
+                        : CacheControl.maxAge(presignTtl.dividedBy(2)).cachePrivate())
+                    .build();
+            }
+        }
+        Optional<Path> file = blobStore.localFile(key);
+        if (file.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return serve(file.get(), key, "original",
+            MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM),
+            thumbnailFallback ? CacheControl.noStore() : cacheControl);
+    }
+
+    /**
+     * 文件内容由键与版本唯一确定，ETag 取键、版本与大小的摘要；304 与 Range（206）由 Spring 按请求头处理
+     */
+    private ResponseEntity<Resource> serve(Path file, String key, String variant, MediaType mediaType,
+                                           CacheControl cacheControl) throws IOException {
+        String etag = "\"" + DigestUtils.md5DigestAsHex(
+            (key + "|" + variant + "|" + Files.size(file)).getBytes(StandardCharsets.UTF_8)) + "\"";
+        return ResponseEntity.ok()
+            .contentType(mediaType)
+            .cacheControl(cacheControl)
+            .eTag(etag)
+            .body(new FileSystemResource(file));
+    }
+}
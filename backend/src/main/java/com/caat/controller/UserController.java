@@ -6,6 +6,8 @@ import com.caat.dto.UserStatsResponse;
 import com.caat.dto.UserUpdateRequest;
 import com.caat.entity.Platform;
 import com.caat.entity.TrackedUser;
+import com.caat.ratelimit.RateLimitClass;
+import com.caat.ratelimit.RateLimited;
 import com.caat.service.TrackedUserService;
 import com.caat.service.UserAvatarService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -117,6 +119,7 @@ public class UserController {
     
     @Operation(summary = "拉取用户资料", description = "从平台拉取用户头像与简介并更新到数据库（仅 TimeStore 等支持 profile 的平台有效）")
     @PostMapping("/{id}/refresh-profile")
+    @RateLimited(RateLimitClass.FETCH)
     public ApiResponse<TrackedUser> refreshProfile(@PathVariable UUID id) {
         return ApiResponse.success(trackedUserService.refreshProfile(id));
     }
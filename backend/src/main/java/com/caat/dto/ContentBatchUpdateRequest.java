@@ -0,0 +1,26 @@
+package com.caat.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 批量标记已读/收藏请求
+ * 指定 ids 时按 id 列表更新；否则按作者、平台、发布时间范围过滤（均不填为全部内容）
+ */
+@Data
+public class ContentBatchUpdateRequest {
+    private List<UUID> ids;
+    private UUID userId;
+    private UUID platformId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Boolean isRead;
+    private Boolean isFavorite;
+
+    public boolean hasFilter() {
+        return userId != null || platformId != null || startTime != null || endTime != null;
+    }
+}
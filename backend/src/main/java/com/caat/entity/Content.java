@@ -1,18 +1,25 @@
 package com.caat.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Generated;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.generator.EventType;
 import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 /**
@@ -90,6 +97,67 @@ public class Content {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    /**
+     * 导出内容（标题、正文、图片、备注等）最后修改时间；已读、收藏等标记变更不更新，增量导出据此取变更。
+     * 实际取值由数据库触发器按数据库时钟写入（V32，与水位线同源）；实体中写入的 JVM 时间只是「有变化」的标记，
+     * 每次插入/更新后回读库中的值，避免整行更新把旧标记写回而误判为变化
+     */
+    @Generated(event = {EventType.INSERT, EventType.UPDATE}, writable = true)
+    @Column(name = "content_modified_at", nullable = false)
+    private LocalDateTime contentModifiedAt;
+
+    /** 图片本地化待办起始时间（消息模式下保存时写入，图片队列处理完成后清空），超过宽限期仍未清空时由补偿任务重试 */
+    @JsonIgnore
+    @Column(name = "assets_pending_since")
+    private LocalDateTime assetsPendingSince;
+
+    /** 补偿任务已重试图片本地化的次数 */
+    @JsonIgnore
+    @Column(name = "asset_localize_attempts", nullable = false)
+    private Integer assetLocalizeAttempts = 0;
+
+    /** 加载时的导出内容字段引用，更新前比较以判断导出内容是否变化 */
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Object[] loadedExportState;
+
+    /**
+     * 设置图片列表：与原列表不同时改写修改标记，使主表产生更新、由触发器刷新导出内容修改时间
+     * （图片列表在子表，集合变更不会触发实体的 @PreUpdate）
+     */
+    public void setMediaUrls(List<String> mediaUrls) {
+        if (id != null && !Objects.equals(this.mediaUrls, mediaUrls)) {
+            contentModifiedAt = LocalDateTime.now();
+        }
+        this.mediaUrls = mediaUrls;
+    }
+
+    @PostLoad
+    void rememberExportState() {
+        loadedExportState = exportState();
+    }
+
+    @PrePersist
+    void initContentModifiedAt() {
+        if (contentModifiedAt == null) {
+            contentModifiedAt = LocalDateTime.now();
+        }
+    }
+
+    @PreUpdate
+    void touchContentModifiedAt() {
+        if (loadedExportState == null || !Arrays.equals(loadedExportState, exportState())) {
+            contentModifiedAt = LocalDateTime.now();
+        }
+        loadedExportState = exportState();
+    }
+
+    private Object[] exportState() {
+        return new Object[]{title, body, url, contentType, publishedAt, metadata, notes};
+    }
+
     public enum ContentType {
         TEXT, IMAGE, VIDEO, LINK
     }
@@ -0,0 +1,66 @@
+package com.caat.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 按作者批量删除内容任务表
+ */
+@Entity
+@Table(name = "content_delete_tasks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentDeleteTask {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId; // 被删除内容的作者（追踪用户）
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TaskStatus status = TaskStatus.PENDING;
+
+    @Column(nullable = false)
+    private Integer progress = 0; // 进度百分比 0-100
+
+    @Column(name = "total_count")
+    private Integer totalCount; // 开始时该作者的内容数
+
+    @Column(name = "deleted_count", nullable = false)
+    private Integer deletedCount = 0;
+
+    @Column(name = "files_deleted", nullable = false)
+    private Integer filesDeleted = 0; // 已删除的图片、附件数
+
+    @Column(name = "error_message", columnDefinition = "text")
+    private String errorMessage;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /** 每批提交时刷新，运行中任务长时间未刷新说明执行节点已中断 */
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum TaskStatus {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+}
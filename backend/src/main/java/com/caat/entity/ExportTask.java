@@ -57,6 +57,39 @@ public class ExportTask {
     @Column(name = "log_messages", columnDefinition = "text")
     private String logMessages; // 进度日志，JSON 数组字符串，如 ["开始加载...","已加载 100 篇"]
 
+    @Column(nullable = false)
+    private Integer priority = 5; // 排队优先级 0-9，数值越大越先执行
+
+    @Column(name = "estimated_cost")
+    private Long estimatedCost; // 预估成本（文章数 + 图片数加权），用于导出队列准入控制
+
+    @Column(nullable = false)
+    private Boolean incremental = false; // 增量导出：只导出上一卷水位线之后新增或更新的文章
+
+    @Column(nullable = false)
+    private Boolean compaction = false; // 合并任务：把增量卷链合并为一个文件（仅 PDF）
+
+    @Column(name = "since_watermark")
+    private LocalDateTime sinceWatermark; // 本卷起始水位线（不含），全量导出/合并为 null
+
+    @Column(name = "watermark")
+    private LocalDateTime watermark; // 本卷截止水位线（含），取开始执行时的数据库时间减安全延迟，下一卷从这里接续
+
+    @Column(name = "previous_task_id")
+    private UUID previousTaskId; // 上一卷的导出任务
+
+    @Column(name = "volume_number")
+    private Integer volumeNumber; // 卷号，全量导出为第 1 卷
+
+    @Column(name = "lease_owner")
+    private String leaseOwner; // 执行节点，运行中由该节点定时续约
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt; // 租约到期时间（数据库时钟），过期后任务由任一节点放回队列
+
+    @Transient
+    private Integer queuePosition; // 排队位置（从 1 开始），仅 PENDING 任务在查询时填充
+
     @Column(name = "started_at")
     private LocalDateTime startedAt;
 
@@ -68,7 +101,7 @@ public class ExportTask {
     private LocalDateTime createdAt;
 
     public enum ExportFormat {
-        JSON, MARKDOWN, CSV, HTML, PDF, WORD
+        JSON, MARKDOWN, CSV, HTML, PDF, WORD, ZIP
     }
 
     public enum TaskStatus {
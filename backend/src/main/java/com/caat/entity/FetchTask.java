@@ -1,5 +1,6 @@
 package com.caat.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -64,6 +65,47 @@ public class FetchTask {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    /** 租约持有节点（多节点队列认领时写入） */
+    @JsonIgnore
+    @Column(name = "lease_owner", length = 200)
+    private String leaseOwner;
+
+    /** 租约到期时间，持有节点定时续约；过期后任务可被其他节点回收 */
+    @JsonIgnore
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    /** 断点：拉取阶段，为 null 表示尚未完成任何一页 */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "checkpoint_phase", length = 30)
+    private FetchPhase checkpointPhase;
+
+    /** 断点：下一页游标（null 表示从阶段第一页开始） */
+    @Column(name = "checkpoint_cursor", length = 1000)
+    private String checkpointCursor;
+
+    /** 断点：本阶段已完成页数 */
+    @Column(name = "checkpoint_page")
+    private Integer checkpointPage;
+
+    /** 断点：已保存条数（跨阶段累计） */
+    @Column(name = "checkpoint_saved")
+    private Integer checkpointSaved;
+
+    /** 断点：本阶段的发布时间范围 */
+    @Column(name = "checkpoint_range_start")
+    private LocalDateTime checkpointRangeStart;
+
+    @Column(name = "checkpoint_range_end")
+    private LocalDateTime checkpointRangeEnd;
+
+    @Column(name = "checkpoint_at")
+    private LocalDateTime checkpointAt;
+
+    /** 重启后被续拉的次数 */
+    @Column(name = "resume_count", nullable = false)
+    private Integer resumeCount = 0;
+
     public enum TaskType {
         MANUAL, SCHEDULED
     }
@@ -71,4 +113,12 @@ public class FetchTask {
     public enum TaskStatus {
         PENDING, RUNNING, COMPLETED, FAILED, CANCELLED
     }
+
+    /**
+     * 拉取阶段：RANGE 按时间范围分页；BACKFILL 完整拉取时先向前补历史，之后进入 CATCH_UP 拉取最新；
+     * ZSXQ_ALL 知识星球无文章时全部保存；ZSXQ_NEW 知识星球已有文章时遇到重复即停止
+     */
+    public enum FetchPhase {
+        RANGE, BACKFILL, CATCH_UP, ZSXQ_ALL, ZSXQ_NEW
+    }
 }
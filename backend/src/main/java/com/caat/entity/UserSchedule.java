@@ -39,6 +39,18 @@ public class UserSchedule {
     @Column(name = "next_run_at")
     private LocalDateTime nextRunAt;
 
+    /** 当前自适应拉取间隔（分钟），为空时按近期发文频率估算 */
+    @Column(name = "interval_minutes")
+    private Integer intervalMinutes;
+
+    /** 连续没有拉到新文章的次数 */
+    @Column(name = "empty_streak", nullable = false)
+    private Integer emptyStreak = 0;
+
+    /** 最近一次拉取保存的新文章数 */
+    @Column(name = "last_saved_count")
+    private Integer lastSavedCount;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
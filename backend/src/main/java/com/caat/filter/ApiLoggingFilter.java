@@ -32,8 +32,15 @@ public class ApiLoggingFilter extends OncePerRequestFilter {
     @Value("${app.api-logging.max-body-length:2048}")
     private int maxBodyLength;
 
-    /** 不打印请求/响应体的路径（敏感或二进制） */
-    private static final String[] SKIP_BODY_PATTERNS = { "/api/v1/auth/", "/api/v1/uploads/" };
+    /** 不打印请求/响应体的路径（敏感信息） */
+    private static final String[] SKIP_BODY_PATTERNS = { "/api/v1/auth/" };
+    /**
+     * 流式响应不能经缓存包装：ContentCachingResponseWrapper 在首次分派返回时 copyBodyToResponse，
+     * 而 StreamingResponseBody / SSE 在异步阶段才写出（本过滤器不参与异步分派），内容会留在缓存里发不出去，
+     * 同步写出的大文件也会整份攒在堆里。
+     * 包括导出（游标流式导出、下载）、上传文件（原图、附件及 Range 分段）与进度事件流。
+     */
+    private static final String[] STREAMING_PATTERNS = { "/api/v1/export/", "/api/v1/uploads/", "/events" };
 
     @Override
     protected void doFilterInternal(
@@ -52,6 +59,14 @@ public class ApiLoggingFilter extends OncePerRequestFilter {
 
         String method = request.getMethod();
         String query = request.getQueryString();
+        if (isStreaming(uri)) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                log.debug("API 调用  {} {} {} query={} (流式响应，不记录出入参)", method, uri, response.getStatus(), query);
+            }
+            return;
+        }
         boolean skipBody = shouldSkipBody(uri);
 
         ContentCachingRequestWrapper requestWrapper = request instanceof ContentCachingRequestWrapper
@@ -73,6 +88,13 @@ public class ApiLoggingFilter extends OncePerRequestFilter {
         }
     }
 
+    private static boolean isStreaming(String uri) {
+        for (String p : STREAMING_PATTERNS) {
+            if (p.startsWith("/api/") ? uri.startsWith(p) : uri.endsWith(p)) return true;
+        }
+        return false;
+    }
+
     private static boolean shouldSkipBody(String uri) {
         if (uri == null) return true;
         for (String p : SKIP_BODY_PATTERNS) {
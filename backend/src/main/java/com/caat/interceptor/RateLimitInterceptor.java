@@ -1,47 +1,86 @@
 package com.caat.interceptor;
 
-import com.caat.config.RateLimitConfig;
-import com.google.common.util.concurrent.RateLimiter;
+import com.caat.ratelimit.RateLimitClass;
+import com.caat.ratelimit.RateLimitDecision;
+import com.caat.ratelimit.RateLimited;
+import com.caat.ratelimit.RateLimiterService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 /**
- * API 访问频率限制拦截器
+ * API 访问频率限制拦截器：按认证主体（未登录时按客户端地址）与接口限流类别（{@link RateLimited}）限流，
+ * 未登录请求另受共享的全局限额约束；
+ * 响应头返回 X-RateLimit-Limit / X-RateLimit-Remaining，超限时返回 429 与 Retry-After
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class RateLimitInterceptor implements HandlerInterceptor {
-    
-    private final RateLimitConfig rateLimitConfig;
-    
+
+    public static final String HEADER_LIMIT = "X-RateLimit-Limit";
+    public static final String HEADER_REMAINING = "X-RateLimit-Remaining";
+    public static final String HEADER_RETRY_AFTER = "Retry-After";
+    private static final String ANONYMOUS_PREFIX = "ip:";
+
+    private final RateLimiterService rateLimiterService;
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        // 获取用户 ID（从请求头或 Token 中）
-        String userId = request.getHeader("X-User-Id");
-        
-        RateLimiter rateLimiter;
-        if (userId != null && !userId.isEmpty()) {
-            // 使用用户级别的速率限制
-            rateLimiter = rateLimitConfig.getUserRateLimiter(userId);
-        } else {
-            // 使用全局速率限制
-            rateLimiter = rateLimitConfig.globalRateLimiter();
+        RateLimitClass limitClass = resolveClass(handler);
+        String principal = resolvePrincipal(request);
+        RateLimitDecision decision = rateLimiterService.tryAcquire(limitClass, principal);
+        if (decision.allowed() && principal.startsWith(ANONYMOUS_PREFIX)) {
+            RateLimitDecision global = rateLimiterService.tryAcquireAnonymousGlobal();
+            if (global != null && !global.allowed()) {
+                decision = global;
+            }
         }
-        
-        // 尝试获取许可
-        if (!rateLimiter.tryAcquire()) {
-            log.warn("API 访问频率超限: userId={}, path={}", userId, request.getRequestURI());
+
+        response.setHeader(HEADER_LIMIT, String.valueOf(decision.limit()));
+        response.setHeader(HEADER_REMAINING, String.valueOf(decision.remaining()));
+        if (!decision.allowed()) {
+            long retryAfterSeconds = Math.max(1, (decision.retryAfterMillis() + 999) / 1000);
+            log.warn("API 访问频率超限: principal={}, class={}, path={}", principal, limitClass.key(), request.getRequestURI());
+            response.setHeader(HEADER_RETRY_AFTER, String.valueOf(retryAfterSeconds));
             response.setStatus(429); // Too Many Requests
             response.setContentType("application/json;charset=UTF-8");
             response.getWriter().write("{\"code\":429,\"message\":\"请求过于频繁，请稍后再试\"}");
             return false;
         }
-        
+
         return true;
     }
+
+    private RateLimitClass resolveClass(Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            RateLimited rateLimited = handlerMethod.getMethodAnnotation(RateLimited.class);
+            if (rateLimited == null) {
+                rateLimited = handlerMethod.getBeanType().getAnnotation(RateLimited.class);
+            }
+            if (rateLimited != null) {
+                return rateLimited.value();
+            }
+        }
+        return RateLimitClass.DEFAULT;
+    }
+
+    /**
+     * 认证用户按用户名，匿名请求按客户端地址；不再信任客户端可伪造的 X-User-Id 请求头
+     */
+    private String resolvePrincipal(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "u:" + authentication.getName();
+        }
+        return ANONYMOUS_PREFIX + request.getRemoteAddr();
+    }
 }
@@ -0,0 +1,38 @@
+package com.caat.ratelimit;
+
+/**
+ * 限流类别：每类独立的令牌桶，容量与补充速率见 app.rate-limit.&lt;key&gt;.capacity / refill-per-second
+ */
+public enum RateLimitClass {
+
+    /** 未标注的接口（列表、详情、轮询等） */
+    DEFAULT("default", 60, 20.0),
+    /** 全文、正则、高级搜索 */
+    SEARCH("search", 10, 2.0),
+    /** 同步导出与创建导出任务 */
+    EXPORT("export", 5, 0.2),
+    /** 触发访问外部平台的拉取、刷新 */
+    FETCH("fetch", 10, 0.5);
+
+    private final String key;
+    private final int defaultCapacity;
+    private final double defaultRefillPerSecond;
+
+    RateLimitClass(String key, int defaultCapacity, double defaultRefillPerSecond) {
+        this.key = key;
+        this.defaultCapacity = defaultCapacity;
+        this.defaultRefillPerSecond = defaultRefillPerSecond;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public int defaultCapacity() {
+        return defaultCapacity;
+    }
+
+    public double defaultRefillPerSecond() {
+        return defaultRefillPerSecond;
+    }
+}
@@ -0,0 +1,11 @@
+package com.caat.ratelimit;
+
+/**
+ * 一次限流判定结果
+ *
+ * @param limit            桶容量（X-RateLimit-Limit）
+ * @param remaining        本次判定后剩余令牌数（X-RateLimit-Remaining）
+ * @param retryAfterMillis 被拒绝时距下一个令牌的毫秒数
+ */
+public record RateLimitDecision(boolean allowed, int limit, long remaining, long retryAfterMillis) {
+}
@@ -0,0 +1,16 @@
+package com.caat.ratelimit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 指定接口所属的限流类别；未标注的接口按 {@link RateLimitClass#DEFAULT} 限流
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+
+    RateLimitClass value();
+}
@@ -0,0 +1,188 @@
+package com.caat.ratelimit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 分布式限流：按「限流类别 + 认证主体」在 Redis 中维护令牌桶（Lua 脚本原子扣减，多节点共享配额）。
+ * 进程内保留同参数的本地令牌桶作为快速路径（Guava LRU，条目数上限 app.rate-limit.local-max-entries）：
+ * 全局桶的令牌只会比本地桶少，本地桶拒绝或 Redis 刚判定拒绝（等待期内）时直接拒绝，不访问 Redis；
+ * Redis 不可用时退回本地判定，并在一段时间内不再尝试 Redis。
+ * 未登录请求另受一个共享的全局令牌桶限制（app.rate-limit.anonymous-global，默认每秒 100 次），更换客户端地址也无法绕过。
+ */
+@Slf4j
+@Service
+public class RateLimiterService {
+
+    /** Redis 出错后跳过 Redis、仅按本地令牌桶判定的时长 */
+    static final long REDIS_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(5);
+    static final String ANONYMOUS_GLOBAL_KEY = "global:anonymous";
+    private static final String ANONYMOUS_GLOBAL_PREFIX = "app.rate-limit.anonymous-global.";
+
+    record Limit(int capacity, double refillPerSecond) {
+    }
+
+    private static final class LocalState {
+        final TokenBucket bucket;
+        /** Redis 判定拒绝后，在该时刻（nanoTime）前直接拒绝 */
+        volatile long blockedUntilNanos;
+
+        LocalState(TokenBucket bucket, long nowNanos) {
+            this.bucket = bucket;
+            // nanoTime 可能为负，不能以 0 作为「未拒绝」
+            this.blockedUntilNanos = nowNanos;
+        }
+    }
+
+    private final RedisTokenBucketStore redisStore;
+    private final boolean distributed;
+    private final Map<RateLimitClass, Limit> limits;
+    private final Map<RateLimitClass, Counter> rejectedCounters = new EnumMap<>(RateLimitClass.class);
+    /** 未登录请求共享的全局限额，null 表示不限 */
+    private final Limit anonymousGlobalLimit;
+    private final Counter anonymousGlobalRejected;
+    private final Cache<String, LocalState> localStates;
+    private final LongSupplier nanoClock;
+    private volatile long redisRetryAtNanos;
+
+    @Autowired
+    public RateLimiterService(RedisTokenBucketStore redisStore,
+                              Environment environment,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.rate-limit.distributed:true}") boolean distributed,
+                              @Value("${app.rate-limit.local-max-entries:10000}") long localMaxEntries,
+                              @Value("${app.rate-limit.local-idle-ttl:10m}") Duration localIdleTtl) {
+        this(redisStore, resolveLimits(environment), resolveAnonymousGlobalLimit(environment), meterRegistry,
+            distributed, localMaxEntries, localIdleTtl, System::nanoTime);
+    }
+
+    RateLimiterService(RedisTokenBucketStore redisStore,
+                       Map<RateLimitClass, Limit> limits,
+                       Limit anonymousGlobalLimit,
+                       MeterRegistry meterRegistry,
+                       boolean distributed,
+                       long localMaxEntries,
+                       Duration localIdleTtl,
+                       LongSupplier nanoClock) {
+        this.redisStore = redisStore;
+        this.limits = limits;
+        this.distributed = distributed;
+        this.nanoClock = nanoClock;
+        this.anonymousGlobalLimit = anonymousGlobalLimit;
+        // nanoTime 可能为负，以当前时刻为初值，保证启动后立即使用 Redis
+        this.redisRetryAtNanos = nanoClock.getAsLong();
+        this.localStates = CacheBuilder.newBuilder()
+            .maximumSize(localMaxEntries)
+            .expireAfterAccess(localIdleTtl.toMillis(), TimeUnit.MILLISECONDS)
+            .build();
+        for (RateLimitClass limitClass : RateLimitClass.values()) {
+            rejectedCounters.put(limitClass, Counter.builder("ratelimit.rejected")
+                .description("被限流拒绝的请求数")
+                .tag("class", limitClass.key())
+                .register(meterRegistry));
+        }
+        anonymousGlobalRejected = Counter.builder("ratelimit.rejected")
+            .description("被限流拒绝的请求数")
+            .tag("class", "anonymous-global")
+            .register(meterRegistry);
+        Gauge.builder("ratelimit.local.entries", localStates, Cache::size)
+            .description("本地令牌桶条目数").register(meterRegistry);
+    }
+
+    /**
+     * 为主体（如 u:用户名、ip:地址）在指定类别下消耗一个令牌
+     */
+    public RateLimitDecision tryAcquire(RateLimitClass limitClass, String principal) {
+        return acquire(limitClass.key() + ":" + principal, limits.get(limitClass), rejectedCounters.get(limitClass));
+    }
+
+    /**
+     * 未登录请求在共享的全局令牌桶中消耗一个令牌；未配置全局限额时返回 null
+     */
+    public RateLimitDecision tryAcquireAnonymousGlobal() {
+        if (anonymousGlobalLimit == null) {
+            return null;
+        }
+        return acquire(ANONYMOUS_GLOBAL_KEY, anonymousGlobalLimit, anonymousGlobalRejected);
+    }
+
+    private RateLimitDecision acquire(String key, Limit limit, Counter rejected) {
+        long now = nanoClock.getAsLong();
+        LocalState state = localStates.asMap().computeIfAbsent(key,
+            k -> new LocalState(new TokenBucket(limit.capacity(), limit.refillPerSecond(), now), now));
+
+        long blockedFor = state.blockedUntilNanos - now;
+        if (blockedFor > 0) {
+            return reject(rejected, new RateLimitDecision(false, limit.capacity(), 0,
+                Math.max(1, TimeUnit.NANOSECONDS.toMillis(blockedFor))));
+        }
+        RateLimitDecision local = state.bucket.tryAcquire(now);
+        if (!local.allowed()) {
+            return reject(rejected, local);
+        }
+        if (!distributed || now - redisRetryAtNanos < 0) {
+            return local;
+        }
+
+        RateLimitDecision global;
+        try {
+            global = redisStore.tryAcquire(key, limit.capacity(), limit.refillPerSecond());
+        } catch (Exception e) {
+            redisRetryAtNanos = now + REDIS_BACKOFF_NANOS;
+            log.warn("Redis 限流不可用，{} 秒内按本节点令牌桶限流: {}",
+                TimeUnit.NANOSECONDS.toSeconds(REDIS_BACKOFF_NANOS), e.getMessage());
+            return local;
+        }
+        if (!global.allowed()) {
+            state.blockedUntilNanos = now + TimeUnit.MILLISECONDS.toNanos(global.retryAfterMillis());
+            return reject(rejected, global);
+        }
+        return global;
+    }
+
+    private static RateLimitDecision reject(Counter rejected, RateLimitDecision decision) {
+        rejected.increment();
+        return decision;
+    }
+
+    static Map<RateLimitClass, Limit> resolveLimits(Environment environment) {
+        Map<RateLimitClass, Limit> resolved = new EnumMap<>(RateLimitClass.class);
+        for (RateLimitClass limitClass : RateLimitClass.values()) {
+            String prefix = "app.rate-limit." + limitClass.key() + ".";
+            int capacity = environment.getProperty(prefix + "capacity", Integer.class, limitClass.defaultCapacity());
+            double refill = environment.getProperty(prefix + "refill-per-second", Double.class, limitClass.defaultRefillPerSecond());
+            if (capacity < 1 || refill <= 0) {
+                throw new IllegalStateException("限流配置无效: " + prefix + "capacity=" + capacity + ", refill-per-second=" + refill);
+            }
+            resolved.put(limitClass, new Limit(capacity, refill));
+        }
+        return resolved;
+    }
+
+    /** refill-per-second 为 0 时关闭未登录请求的全局限额 */
+    static Limit resolveAnonymousGlobalLimit(Environment environment) {
+        double refill = environment.getProperty(ANONYMOUS_GLOBAL_PREFIX + "refill-per-second", Double.class, 100.0);
+        if (refill <= 0) {
+            return null;
+        }
+        int capacity = environment.getProperty(ANONYMOUS_GLOBAL_PREFIX + "capacity", Integer.class, 100);
+        if (capacity < 1) {
+            throw new IllegalStateException("限流配置无效: " + ANONYMOUS_GLOBAL_PREFIX + "capacity=" + capacity);
+        }
+        return new Limit(capacity, refill);
+    }
+}
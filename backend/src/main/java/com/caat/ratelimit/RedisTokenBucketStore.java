@@ -0,0 +1,68 @@
+package com.caat.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Redis 中的令牌桶：一个 Hash（tokens、ts）对应一个「类别 + 主体」，由 Lua 脚本原子地补充并扣减，
+ * 时间取 Redis 服务器时钟，各节点共享同一配额；空闲到桶满后键自动过期。
+ */
+@Component
+@RequiredArgsConstructor
+public class RedisTokenBucketStore {
+
+    static final String KEY_PREFIX = "caat:ratelimit:";
+
+    /** KEYS[1] 桶键；ARGV[1] 容量，ARGV[2] 每毫秒补充令牌数。返回 {是否允许, 剩余令牌, 需等待毫秒} */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCRIPT = new DefaultRedisScript<>("""
+        local capacity = tonumber(ARGV[1])
+        local rate = tonumber(ARGV[2])
+        local t = redis.call('TIME')
+        local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+        local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+        local tokens = tonumber(state[1])
+        local ts = tonumber(state[2])
+        if tokens == nil or ts == nil then
+          tokens = capacity
+          ts = now
+        end
+        if now > ts then
+          tokens = math.min(capacity, tokens + (now - ts) * rate)
+          ts = now
+        end
+        local allowed = 0
+        local retry = 0
+        if tokens >= 1 then
+          tokens = tokens - 1
+          allowed = 1
+        else
+          retry = math.ceil((1 - tokens) / rate)
+        end
+        redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(ts))
+        redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate) + 1000)
+        return {allowed, math.floor(tokens), retry}
+        """, List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 扣减一个令牌；Redis 不可用时抛出异常，由调用方降级
+     */
+    public RateLimitDecision tryAcquire(String key, int capacity, double refillPerSecond) {
+        List<?> result = stringRedisTemplate.execute(SCRIPT, List.of(KEY_PREFIX + key),
+            String.valueOf(capacity), String.valueOf(refillPerSecond / 1000.0));
+        if (result == null || result.size() < 3) {
+            throw new IllegalStateException("限流脚本返回异常: " + result);
+        }
+        boolean allowed = ((Number) result.get(0)).longValue() == 1;
+        long remaining = ((Number) result.get(1)).longValue();
+        long retryAfterMillis = ((Number) result.get(2)).longValue();
+        return new RateLimitDecision(allowed, capacity, Math.max(0, remaining), allowed ? 0 : Math.max(1, retryAfterMillis));
+    }
+}
@@ -0,0 +1,32 @@
+package com.caat.ratelimit;
+
+/**
+ * 进程内令牌桶，算法与 Redis 脚本一致：按经过时间补充令牌，不超过容量，每次请求消耗一个
+ */
+final class TokenBucket {
+
+    private final int capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastNanos;
+
+    TokenBucket(int capacity, double refillPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / 1e9;
+        this.tokens = capacity;
+        this.lastNanos = nowNanos;
+    }
+
+    synchronized RateLimitDecision tryAcquire(long nowNanos) {
+        if (nowNanos - lastNanos > 0) {
+            tokens = Math.min(capacity, tokens + (nowNanos - lastNanos) * tokensPerNano);
+            lastNanos = nowNanos;
+        }
+        if (tokens >= 1) {
+            tokens -= 1;
+            return new RateLimitDecision(true, capacity, (long) tokens, 0);
+        }
+        long retryAfterMillis = (long) Math.ceil((1 - tokens) / tokensPerNano / 1_000_000);
+        return new RateLimitDecision(false, capacity, 0, Math.max(1, retryAfterMillis));
+    }
+}
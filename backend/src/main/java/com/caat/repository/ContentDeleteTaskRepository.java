@@ -0,0 +1,21 @@
+package com.caat.repository;
+
+import com.caat.entity.ContentDeleteTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ContentDeleteTaskRepository extends JpaRepository<ContentDeleteTask, UUID> {
+
+    /** 该作者未结束的删除任务（重复发起时直接返回） */
+    Optional<ContentDeleteTask> findFirstByUserIdAndStatusInOrderByCreatedAtDesc(UUID userId, Collection<ContentDeleteTask.TaskStatus> statuses);
+
+    /** 长时间未刷新的未结束任务（执行节点已中断） */
+    List<ContentDeleteTask> findByStatusInAndUpdatedAtBefore(Collection<ContentDeleteTask.TaskStatus> statuses, LocalDateTime before);
+}
@@ -1,18 +1,23 @@
 package com.caat.repository;
 
 import com.caat.entity.Content;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface ContentRepository extends JpaRepository<Content, UUID> {
@@ -83,6 +88,82 @@ public interface ContentRepository extends JpaRepository<Content, UUID> {
         Pageable pageable
     );
 
+    /**
+     * 导出用流式游标：按作者、发布时间范围逐批读取（服务端 fetch size），需在事务内消费并关闭 Stream
+     */
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Content c LEFT JOIN FETCH c.platform LEFT JOIN FETCH c.user " +
+        "WHERE c.user.id = :userId AND c.publishedAt >= :startTime AND c.publishedAt <= :endTime " +
+        "ORDER BY c.publishedAt DESC")
+    Stream<Content> streamByUserIdAndPublishedAtBetween(
+        @Param("userId") UUID userId,
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime
+    );
+
+    /** 导出用流式游标：全部作者，按发布时间范围 */
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Content c LEFT JOIN FETCH c.platform LEFT JOIN FETCH c.user " +
+        "WHERE c.publishedAt >= :startTime AND c.publishedAt <= :endTime ORDER BY c.publishedAt DESC")
+    Stream<Content> streamByPublishedAtBetween(
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime
+    );
+
+    /** 增量导出用流式游标：某作者在 (after, until] 内新增或修改了导出内容的文章（不含仅已读、收藏变更） */
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Content c LEFT JOIN FETCH c.platform LEFT JOIN FETCH c.user " +
+        "WHERE c.user.id = :userId AND c.contentModifiedAt > :after AND c.contentModifiedAt <= :until ORDER BY c.publishedAt DESC")
+    Stream<Content> streamByUserIdAndContentModifiedAtBetween(
+        @Param("userId") UUID userId,
+        @Param("after") LocalDateTime after,
+        @Param("until") LocalDateTime until
+    );
+
+    /** 按用户与导出内容修改时间窗口分页（PDF/Word 增量卷），一次性加载 platform、user */
+    @Query(value = "SELECT c FROM Content c LEFT JOIN FETCH c.platform LEFT JOIN FETCH c.user " +
+           "WHERE c.user.id = :userId AND c.contentModifiedAt > :after AND c.contentModifiedAt <= :until",
+           countQuery = "SELECT COUNT(c) FROM Content c WHERE c.user.id = :userId AND c.contentModifiedAt > :after AND c.contentModifiedAt <= :until")
+    Page<Content> findByUserIdAndContentModifiedAtBetweenWithPlatformAndUser(
+        @Param("userId") UUID userId,
+        @Param("after") LocalDateTime after,
+        @Param("until") LocalDateTime until,
+        Pageable pageable
+    );
+
+    @Query("SELECT COUNT(c) FROM Content c WHERE c.user.id = :userId AND c.contentModifiedAt > :after AND c.contentModifiedAt <= :until")
+    long countByUserIdAndContentModifiedAtBetween(
+        @Param("userId") UUID userId,
+        @Param("after") LocalDateTime after,
+        @Param("until") LocalDateTime until
+    );
+
+    @Query("SELECT COUNT(c) FROM Content c WHERE c.user.id = :userId AND c.publishedAt >= :startTime AND c.publishedAt <= :endTime")
+    long countByUserIdAndPublishedAtBetween(
+        @Param("userId") UUID userId,
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime
+    );
+
+    @Query("SELECT COUNT(c) FROM Content c WHERE c.publishedAt >= :startTime AND c.publishedAt <= :endTime")
+    long countByPublishedAtBetween(
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime
+    );
+
+    /** 某作者全部文章的媒体（图片）URL 总数，用于导出成本预估 */
+    @Query("SELECT COUNT(m) FROM Content c JOIN c.mediaUrls m WHERE c.user.id = :userId")
+    long countMediaUrlsByUserId(@Param("userId") UUID userId);
+
     /** 按平台、用户、发布时间范围分页（用于内容管理「某月/某年文章」） */
     @Query(value = "SELECT c FROM Content c LEFT JOIN FETCH c.platform LEFT JOIN FETCH c.user " +
         "WHERE (:platformId IS NULL OR c.platform.id = :platformId) AND c.user.id = :userId " +
@@ -213,14 +294,57 @@ public interface ContentRepository extends JpaRepository<Content, UUID> {
     List<Object[]> findContentGrowthTrend(@Param("startDate") LocalDateTime startDate,
                                           @Param("endDate") LocalDateTime endDate);
 
-    /** 按作者（追踪用户）查询该用户下的全部内容（用于删除前清理关联文件） */
-    @Query("SELECT c FROM Content c WHERE c.user.id = :userId")
-    List<Content> findAllByUserId(@Param("userId") UUID userId);
+    /** 按作者键集分页取内容 id（批量删除用，每批只取 id） */
+    @Query(value = "SELECT c.id FROM contents c WHERE c.user_id = :userId AND c.id > :afterId " +
+            "ORDER BY c.id LIMIT :limit", nativeQuery = true)
+    List<UUID> findIdPageByUserId(@Param("userId") UUID userId, @Param("afterId") UUID afterId, @Param("limit") int limit);
+
+    /** 取一批内容中可能引用上传文件的列，返回 [id, body, metadata]，不加载实体 */
+    @Query(value = "SELECT c.id, c.body, CAST(c.metadata AS text) FROM contents c WHERE c.id IN (:ids)", nativeQuery = true)
+    List<Object[]> findAssetColumnsByIds(@Param("ids") List<UUID> ids);
+
+    /** 取一批内容的图片链接，返回 [content_id, media_url] */
+    @Query(value = "SELECT m.content_id, m.media_url FROM content_media_urls m WHERE m.content_id IN (:ids)", nativeQuery = true)
+    List<Object[]> findMediaUrlsByContentIds(@Param("ids") List<UUID> ids);
 
-    /** 按作者（追踪用户）删除该用户下的全部内容 */
+    /** 按 id 批量删除（图片链接、标签、通知由外键级联删除） */
     @Modifying
-    @Query("DELETE FROM Content c WHERE c.user.id = :userId")
-    int deleteByUserId(@Param("userId") UUID userId);
+    @Query(value = "DELETE FROM contents WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIdIn(@Param("ids") List<UUID> ids);
+
+    /** 按 id 批量设置已读状态，只改动状态不同的行，返回改动行数 */
+    @Modifying
+    @Query("UPDATE Content c SET c.isRead = :isRead, c.updatedAt = :now WHERE c.id IN :ids AND c.isRead <> :isRead")
+    int updateIsReadByIdIn(@Param("ids") List<UUID> ids, @Param("isRead") boolean isRead, @Param("now") LocalDateTime now);
+
+    /** 按 id 批量设置收藏状态，只改动状态不同的行，返回改动行数 */
+    @Modifying
+    @Query("UPDATE Content c SET c.isFavorite = :isFavorite, c.updatedAt = :now WHERE c.id IN :ids AND c.isFavorite <> :isFavorite")
+    int updateIsFavoriteByIdIn(@Param("ids") List<UUID> ids, @Param("isFavorite") boolean isFavorite, @Param("now") LocalDateTime now);
+
+    /** 按作者、平台、发布时间范围（参数为 null 不过滤）批量设置已读状态，返回改动行数 */
+    @Modifying
+    @Query("UPDATE Content c SET c.isRead = :isRead, c.updatedAt = :now WHERE c.isRead <> :isRead " +
+        "AND (:userId IS NULL OR c.user.id = :userId) AND (:platformId IS NULL OR c.platform.id = :platformId) " +
+        "AND (:startTime IS NULL OR c.publishedAt >= :startTime) AND (:endTime IS NULL OR c.publishedAt <= :endTime)")
+    int updateIsReadByFilter(@Param("userId") UUID userId,
+                             @Param("platformId") UUID platformId,
+                             @Param("startTime") LocalDateTime startTime,
+                             @Param("endTime") LocalDateTime endTime,
+                             @Param("isRead") boolean isRead,
+                             @Param("now") LocalDateTime now);
+
+    /** 按作者、平台、发布时间范围（参数为 null 不过滤）批量设置收藏状态，返回改动行数 */
+    @Modifying
+    @Query("UPDATE Content c SET c.isFavorite = :isFavorite, c.updatedAt = :now WHERE c.isFavorite <> :isFavorite " +
+        "AND (:userId IS NULL OR c.user.id = :userId) AND (:platformId IS NULL OR c.platform.id = :platformId) " +
+        "AND (:startTime IS NULL OR c.publishedAt >= :startTime) AND (:endTime IS NULL OR c.publishedAt <= :endTime)")
+    int updateIsFavoriteByFilter(@Param("userId") UUID userId,
+                                 @Param("platformId") UUID platformId,
+                                 @Param("startTime") LocalDateTime startTime,
+                                 @Param("endTime") LocalDateTime endTime,
+                                 @Param("isFavorite") boolean isFavorite,
+                                 @Param("now") LocalDateTime now);
 
     /** 按平台类型查询所有内容（用于 TimeStore 图片修复等） */
     @Query("SELECT c FROM Content c LEFT JOIN FETCH c.platform LEFT JOIN FETCH c.user WHERE c.platform.type = :platformType")
@@ -253,4 +377,50 @@ public interface ContentRepository extends JpaRepository<Content, UUID> {
     @Query(value = "SELECT c FROM Content c LEFT JOIN FETCH c.platform LEFT JOIN FETCH c.user " +
             "WHERE c.user.id = :userId AND c.publishedAt > :publishedAt ORDER BY c.publishedAt ASC")
     List<Content> findNextContentByUser(@Param("userId") UUID userId, @Param("publishedAt") LocalDateTime publishedAt, Pageable pageable);
+
+    /**
+     * 孤儿文件回收：按 id 键集分页扫描正文或元数据中出现上传路径的内容，返回 [id, body, metadata]
+     */
+    @Query(value = "SELECT c.id, c.body, CAST(c.metadata AS text) FROM contents c " +
+            "WHERE c.id > :afterId AND (c.body LIKE '%contents/%' OR CAST(c.metadata AS text) LIKE '%contents/%') " +
+            "ORDER BY c.id LIMIT :limit", nativeQuery = true)
+    List<Object[]> findUploadReferencePage(@Param("afterId") UUID afterId, @Param("limit") int limit);
+
+    /**
+     * 孤儿文件回收：按主键 (content_id, media_url) 键集分页扫描图片链接，返回 [content_id, media_url]
+     */
+    @Query(value = "SELECT m.content_id, m.media_url FROM content_media_urls m " +
+            "WHERE (m.content_id, m.media_url) > (:afterContentId, :afterUrl) " +
+            "ORDER BY m.content_id, m.media_url LIMIT :limit", nativeQuery = true)
+    List<Object[]> findMediaUrlPage(@Param("afterContentId") UUID afterContentId,
+                                    @Param("afterUrl") String afterUrl,
+                                    @Param("limit") int limit);
+
+    /** 数据库当前时间（会话时区与 JVM 一致），增量导出水位线以数据库时钟为准，不受各节点时钟偏差影响 */
+    @Query(value = "SELECT LOCALTIMESTAMP", nativeQuery = true)
+    LocalDateTime currentDatabaseTime();
+
+    /** 图片本地化待办超过宽限期仍未完成的内容 id（数据库时钟），按待办时间先后 */
+    @Query(value = "SELECT c.id FROM contents c WHERE c.assets_pending_since IS NOT NULL"
+            + " AND c.assets_pending_since <= LOCALTIMESTAMP - make_interval(secs => :graceSeconds)"
+            + " ORDER BY c.assets_pending_since LIMIT :limit", nativeQuery = true)
+    List<UUID> findStaleAssetLocalizations(@Param("graceSeconds") long graceSeconds, @Param("limit") int limit);
+
+    /**
+     * 认领一条超期的图片本地化待办：待办时间推到当前并累加重试次数，其他节点在宽限期内不会重复处理；返回 1 表示认领成功
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE contents SET assets_pending_since = LOCALTIMESTAMP,"
+            + " asset_localize_attempts = asset_localize_attempts + 1"
+            + " WHERE id = :id AND assets_pending_since <= LOCALTIMESTAMP - make_interval(secs => :graceSeconds)",
+            nativeQuery = true)
+    int claimAssetLocalization(@Param("id") UUID id, @Param("graceSeconds") long graceSeconds);
+
+    /** 放弃重试次数已用尽的图片本地化待办（文章保留远程图片），返回条数 */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE contents SET assets_pending_since = NULL"
+            + " WHERE assets_pending_since IS NOT NULL AND asset_localize_attempts >= :maxAttempts", nativeQuery = true)
+    int abandonAssetLocalizations(@Param("maxAttempts") int maxAttempts);
 }
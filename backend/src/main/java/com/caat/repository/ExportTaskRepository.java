@@ -4,9 +4,16 @@ import com.caat.entity.ExportTask;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -18,4 +25,62 @@ public interface ExportTaskRepository extends JpaRepository<ExportTask, UUID> {
     Page<ExportTask> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
     
     Page<ExportTask> findByStatusOrderByCreatedAtDesc(ExportTask.TaskStatus status, Pageable pageable);
+
+    /** 导出队列：按优先级降序、创建时间升序 */
+    List<ExportTask> findByStatusOrderByPriorityDescCreatedAtAsc(ExportTask.TaskStatus status);
+
+    /** 排队任务 ID（队列顺序），只取 ID 用于计算排队位置 */
+    @Query("SELECT t.id FROM ExportTask t WHERE t.status = :status ORDER BY t.priority DESC, t.createdAt ASC")
+    List<UUID> findIdsByStatusInQueueOrder(@Param("status") ExportTask.TaskStatus status);
+
+    /** 队列中排在指定优先级与创建时间之前的任务数 */
+    @Query("SELECT COUNT(t) FROM ExportTask t WHERE t.status = :status"
+        + " AND (t.priority > :priority OR (t.priority = :priority AND t.createdAt < :createdAt))")
+    long countQueuedAhead(@Param("status") ExportTask.TaskStatus status, @Param("priority") int priority,
+                          @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * 条件更新状态（仅当当前状态为 from 时），用于认领排队任务、取消排队任务；返回 1 表示成功，多节点下同一任务只会被认领一次
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ExportTask t SET t.status = :to WHERE t.id = :id AND t.status = :from")
+    int updateStatusIfCurrent(@Param("id") UUID id,
+                              @Param("from") ExportTask.TaskStatus from,
+                              @Param("to") ExportTask.TaskStatus to);
+
+    /** （作者, 格式）最近一卷已完成且有文件的导出，作为增量导出的起点；同一水位线下合并任务完成得晚，优先 */
+    Optional<ExportTask> findFirstByUserIdAndExportFormatAndStatusAndWatermarkIsNotNullAndFilePathIsNotNullOrderByWatermarkDescCompletedAtDesc(
+            UUID userId, ExportTask.ExportFormat exportFormat, ExportTask.TaskStatus status);
+
+    /**
+     * 认领排队任务：PENDING -> RUNNING 并写入租约（到期时间按数据库时钟计算）；返回 1 表示成功，多节点下同一任务只会被认领一次
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE export_tasks SET status = 'RUNNING', lease_owner = :owner,"
+            + " lease_expires_at = LOCALTIMESTAMP + make_interval(secs => :ttlSeconds)"
+            + " WHERE id = :id AND status = 'PENDING'", nativeQuery = true)
+    int claimWithLease(@Param("id") UUID id, @Param("owner") String owner, @Param("ttlSeconds") long ttlSeconds);
+
+    /** 续约本节点持有的运行中任务，返回续约条数 */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE export_tasks SET lease_expires_at = LOCALTIMESTAMP + make_interval(secs => :ttlSeconds)"
+            + " WHERE id IN (:ids) AND lease_owner = :owner AND status = 'RUNNING'", nativeQuery = true)
+    int renewLeases(@Param("ids") Collection<UUID> ids, @Param("owner") String owner, @Param("ttlSeconds") long ttlSeconds);
+
+    /** 把租约已过期（或升级前遗留、没有租约）的运行中任务放回队列 */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE export_tasks SET status = 'PENDING', lease_owner = NULL, lease_expires_at = NULL"
+            + " WHERE status = 'RUNNING' AND (lease_expires_at IS NULL OR lease_expires_at < LOCALTIMESTAMP)", nativeQuery = true)
+    int requeueExpiredLeases();
+
+    /** 把指定节点持有的运行中任务放回队列（节点重启后，上次进程中断的任务） */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE export_tasks SET status = 'PENDING', lease_owner = NULL, lease_expires_at = NULL"
+            + " WHERE status = 'RUNNING' AND lease_owner = :owner", nativeQuery = true)
+    int requeueLeasesOwnedBy(@Param("owner") String owner);
 }
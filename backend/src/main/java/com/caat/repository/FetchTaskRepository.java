@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,6 +20,10 @@ public interface FetchTaskRepository extends JpaRepository<FetchTask, UUID> {
     List<FetchTask> findByUserIdOrderByCreatedAtDesc(UUID userId);
     
     List<FetchTask> findByStatus(FetchTask.TaskStatus status);
+
+    List<FetchTask> findByStatusIn(List<FetchTask.TaskStatus> statuses);
+
+    boolean existsByUserIdAndStatusIn(UUID userId, List<FetchTask.TaskStatus> statuses);
     
     Page<FetchTask> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
     
@@ -36,6 +41,52 @@ public interface FetchTaskRepository extends JpaRepository<FetchTask, UUID> {
     @Query("SELECT t FROM FetchTask t LEFT JOIN FETCH t.user WHERE t.id = :id")
     Optional<FetchTask> findByIdWithUser(@Param("id") UUID id);
 
+    /**
+     * 锁定最早的一条可认领任务：PENDING、创建已超过 minAgeSeconds（按数据库时钟，0 表示不限）且该用户没有运行中的任务；
+     * 已被其他节点锁定的行跳过（SKIP LOCKED），需在事务内调用，随后由 claim 改为 RUNNING
+     */
+    @Query(value = "SELECT CAST(t.id AS varchar) FROM fetch_tasks t"
+        + " WHERE t.status = 'PENDING'"
+        + " AND (:minAgeSeconds <= 0 OR t.created_at <= LOCALTIMESTAMP - make_interval(secs => :minAgeSeconds))"
+        + " AND NOT EXISTS (SELECT 1 FROM fetch_tasks r WHERE r.user_id = t.user_id AND r.status = 'RUNNING')"
+        + " ORDER BY t.created_at LIMIT 1 FOR UPDATE OF t SKIP LOCKED", nativeQuery = true)
+    List<String> lockNextClaimable(@Param("minAgeSeconds") long minAgeSeconds);
+
+    /**
+     * 认领：PENDING -> RUNNING 并写入租约；租约到期时间按数据库时钟计算，各节点时钟偏差不影响回收判断。
+     * 同一用户已有运行中的任务时违反唯一索引
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE fetch_tasks SET status = 'RUNNING', lease_owner = :owner,"
+        + " lease_expires_at = LOCALTIMESTAMP + make_interval(secs => :ttlSeconds)"
+        + " WHERE id = :id AND status = 'PENDING'", nativeQuery = true)
+    int claim(@Param("id") UUID id, @Param("owner") String owner, @Param("ttlSeconds") long ttlSeconds);
+
+    /** 续约本节点持有的运行中任务（数据库时钟），返回续约条数 */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE fetch_tasks SET lease_expires_at = LOCALTIMESTAMP + make_interval(secs => :ttlSeconds)"
+        + " WHERE id IN (:ids) AND lease_owner = :owner AND status = 'RUNNING'", nativeQuery = true)
+    int renewLeases(@Param("ids") Collection<UUID> ids, @Param("owner") String owner,
+                    @Param("ttlSeconds") long ttlSeconds);
+
+    /** 租约已过期（按数据库时钟；或升级前遗留、没有租约）的运行中任务 */
+    @Query(value = "SELECT * FROM fetch_tasks WHERE status = 'RUNNING'"
+        + " AND (lease_expires_at IS NULL OR lease_expires_at < LOCALTIMESTAMP)", nativeQuery = true)
+    List<FetchTask> findExpiredLeases();
+
+    /** 回收过期租约：RUNNING -> PENDING；已被其他节点回收或已续约时返回 0 */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE fetch_tasks SET status = 'PENDING', lease_owner = NULL, lease_expires_at = NULL"
+        + " WHERE id = :id AND status = 'RUNNING'"
+        + " AND (lease_expires_at IS NULL OR lease_expires_at < LOCALTIMESTAMP)", nativeQuery = true)
+    int reclaimExpired(@Param("id") UUID id);
+
+    /** 放回队列（本节点认领后未能提交执行） */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE fetch_tasks SET status = 'PENDING', lease_owner = NULL, lease_expires_at = NULL"
+        + " WHERE id = :id AND lease_owner = :owner AND status = 'RUNNING'", nativeQuery = true)
+    int releaseLease(@Param("id") UUID id, @Param("owner") String owner);
+
     /** 按类型删除所有任务记录，返回删除条数 */
     @Modifying
     @Query("DELETE FROM FetchTask t WHERE t.taskType = :taskType")
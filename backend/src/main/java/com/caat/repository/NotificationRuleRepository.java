@@ -1,12 +1,16 @@
 package com.caat.repository;
 
 import com.caat.entity.NotificationRule;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 import java.util.UUID;
 
 public interface NotificationRuleRepository extends JpaRepository<NotificationRule, UUID> {
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<NotificationRule> findByIsEnabledTrueOrderByCreatedAtDesc();
 }
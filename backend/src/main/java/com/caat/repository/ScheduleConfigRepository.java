@@ -1,7 +1,10 @@
 package com.caat.repository;
 
 import com.caat.entity.ScheduleConfig;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,7 +13,9 @@ import java.util.UUID;
 
 @Repository
 public interface ScheduleConfigRepository extends JpaRepository<ScheduleConfig, UUID> {
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<ScheduleConfig> findByType(ScheduleConfig.ConfigType type);
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<ScheduleConfig> findByTypeAndUserId(ScheduleConfig.ConfigType type, UUID userId);
     /** 所有指定类型的配置（用于批量查询用户定时任务状态） */
     List<ScheduleConfig> findByTypeOrderByCreatedAtAsc(ScheduleConfig.ConfigType type);
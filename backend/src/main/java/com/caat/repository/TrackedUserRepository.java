@@ -1,11 +1,14 @@
 package com.caat.repository;
 
 import com.caat.entity.TrackedUser;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -29,6 +32,7 @@ public interface TrackedUserRepository extends JpaRepository<TrackedUser, UUID>
     @Query("SELECT u FROM TrackedUser u JOIN FETCH u.platform WHERE u.platform.type = :platformType")
     List<TrackedUser> findByPlatformTypeWithPlatform(@Param("platformType") String platformType);
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<TrackedUser> findByIsActiveTrue();
 
     @Query("SELECT u FROM TrackedUser u WHERE u.platform.id = :platformId AND u.userId = :userId")
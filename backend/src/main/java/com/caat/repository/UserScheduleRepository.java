@@ -2,6 +2,7 @@ package com.caat.repository;
 
 import com.caat.entity.UserSchedule;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +14,11 @@ public interface UserScheduleRepository extends JpaRepository<UserSchedule, UUID
     Optional<UserSchedule> findByUserId(UUID userId);
     
     List<UserSchedule> findByIsEnabledTrue();
+
+    /** 启用中的活跃用户的调度记录（连同用户），用于重建到期队列 */
+    @Query("SELECT s FROM UserSchedule s JOIN FETCH s.user u WHERE s.isEnabled = true AND u.isActive = true")
+    List<UserSchedule> findEnabledForActiveUsers();
+
+    @Query("SELECT s.user.id FROM UserSchedule s")
+    List<UUID> findAllUserIds();
 }
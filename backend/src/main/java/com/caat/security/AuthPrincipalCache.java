@@ -0,0 +1,157 @@
+package com.caat.security;
+
+import com.caat.cache.CacheInvalidationPublisher;
+import com.caat.cache.LocalCacheInvalidator;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 认证缓存：已验签 Token（Token 的 SHA-256 → 用户名与过期时间）与短 TTL 的用户主体（用户名 → UserDetails）。
+ * 命中时 JwtAuthenticationFilter 不再解析 JWT、不再查询用户及角色权限；Token 过期时间逐条校验，不因缓存延长有效期。
+ * 用户、角色变更提交后清除主体缓存并经 Redis pub/sub 通知其他节点；广播丢失时最迟在 TTL（app.cache.auth.principal-ttl）后生效。
+ */
+@Slf4j
+@Component
+public class AuthPrincipalCache implements LocalCacheInvalidator {
+
+    /** 跨节点失效广播中使用的缓存名 */
+    public static final String CACHE_NAME = "auth-principals";
+
+    record VerifiedToken(String username, long expiresAtMillis) {
+    }
+
+    private final Cache<String, VerifiedToken> tokens;
+    private final Cache<String, UserDetails> principals;
+    private final CacheInvalidationPublisher publisher;
+    /** 每次失效加一；加载期间发生失效时不回填，避免旧主体覆盖失效结果 */
+    private final AtomicLong generation = new AtomicLong();
+
+    public AuthPrincipalCache(CacheInvalidationPublisher publisher,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.cache.auth.token-max-size:10000}") long tokenMaxSize,
+                              @Value("${app.cache.auth.principal-max-size:1000}") long principalMaxSize,
+                              @Value("${app.cache.auth.principal-ttl:60s}") Duration principalTtl) {
+        this.publisher = publisher;
+        this.tokens = CacheBuilder.newBuilder()
+            .maximumSize(tokenMaxSize)
+            .build();
+        this.principals = CacheBuilder.newBuilder()
+            .maximumSize(principalMaxSize)
+            .expireAfterWrite(principalTtl.toMillis(), TimeUnit.MILLISECONDS)
+            .build();
+        Gauge.builder("auth.cache.tokens", tokens, Cache::size)
+            .description("已验签 Token 缓存条目数").register(meterRegistry);
+        Gauge.builder("auth.cache.principals", principals, Cache::size)
+            .description("用户主体缓存条目数").register(meterRegistry);
+    }
+
+    /**
+     * 已验签且未过期的 Token 对应的用户名；未缓存或已过期返回 null
+     */
+    public String getVerifiedUsername(String token) {
+        String key = tokenKey(token);
+        VerifiedToken verified = tokens.getIfPresent(key);
+        if (verified == null) {
+            return null;
+        }
+        if (verified.expiresAtMillis() <= System.currentTimeMillis()) {
+            tokens.invalidate(key);
+            return null;
+        }
+        return verified.username();
+    }
+
+    public void putVerifiedToken(String token, String username, Date expiration) {
+        if (username == null || expiration == null) {
+            return;
+        }
+        tokens.put(tokenKey(token), new VerifiedToken(username, expiration.getTime()));
+    }
+
+    /**
+     * 取用户主体，未命中时用 loader 加载（加载异常原样抛出，不缓存）
+     */
+    public UserDetails getPrincipal(String username, Function<String, UserDetails> loader) {
+        UserDetails cached = principals.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+        long before = generation.get();
+        UserDetails loaded = loader.apply(username);
+        if (loaded != null && generation.get() == before) {
+            principals.put(username, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * 事务提交后清除该用户的主体缓存（本节点与其他节点）
+     */
+    public void evictUserAfterCommit(String username) {
+        afterCommit(() -> {
+            evictLocal(username);
+            publisher.publishEvict(CACHE_NAME, username);
+        });
+    }
+
+    /**
+     * 事务提交后清除全部主体缓存（角色变更影响的用户无法逐个确定）
+     */
+    public void evictAllAfterCommit() {
+        afterCommit(() -> {
+            evictLocal(null);
+            publisher.publishClear(CACHE_NAME);
+        });
+    }
+
+    @Override
+    public String cacheName() {
+        return CACHE_NAME;
+    }
+
+    /**
+     * 清除本节点缓存，username 为 null 时清空全部
+     */
+    @Override
+    public void evictLocal(String username) {
+        generation.incrementAndGet();
+        if (username == null) {
+            principals.invalidateAll();
+        } else {
+            principals.invalidate(username);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String tokenKey(String token) {
+        return Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString();
+    }
+}
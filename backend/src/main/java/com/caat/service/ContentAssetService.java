@@ -1,8 +1,10 @@
 package com.caat.service;
 
-import com.caat.config.UploadDirResolver;
 import com.caat.exception.BusinessException;
 import com.caat.exception.ErrorCode;
+import com.caat.storage.BlobStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpHeaders;
@@ -13,18 +15,22 @@ import org.springframework.stereotype.Service;
 import org.springframework.http.HttpEntity;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.UUID;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * 内容附件：从 URL 下载图片或文件并保存到 uploads/contents/，用于正文展示。
+ * 内容附件：从 URL 下载图片或文件并保存到上传存储 contents/ 下（本地目录或对象存储），用于正文展示。
  */
 @Slf4j
 @Service
@@ -40,9 +46,12 @@ public class ContentAssetService {
     private static final int DOWNLOAD_MAX_RETRIES = 3;
     private static final long DOWNLOAD_RETRY_DELAY_MS = 800;
 
-    private final UploadDirResolver uploadDirResolver;
+    private static final Pattern BODY_UPLOAD_SRC = Pattern.compile("src\\s*=\\s*[\"']([^\"']*?/api/v1/uploads/[^\"']+)[\"']");
+
+    private final BlobStore blobStore;
     private final RestTemplate restTemplate;
     private final RestTemplate timeStoreRestTemplate;
+    private final ObjectMapper objectMapper;
 
     /** TimeStore 图片域名，需使用放宽 SSL 的 RestTemplate */
     private static final String[] TIMESTORE_IMAGE_HOSTS = {"img.timestore.vip", "timestore.vip", "os-bucket-pm.oss-accelerate.aliyuncs.com"};
@@ -53,12 +62,14 @@ public class ContentAssetService {
         return "https://os-bucket-pm.oss-accelerate.aliyuncs.com/" + url.substring("https://img.timestore.vip/".length());
     }
 
-    public ContentAssetService(UploadDirResolver uploadDirResolver,
+    public ContentAssetService(BlobStore blobStore,
                               RestTemplate restTemplate,
-                              @Qualifier("timeStoreRestTemplate") RestTemplate timeStoreRestTemplate) {
-        this.uploadDirResolver = uploadDirResolver;
+                              @Qualifier("timeStoreRestTemplate") RestTemplate timeStoreRestTemplate,
+                              ObjectMapper objectMapper) {
+        this.blobStore = blobStore;
         this.restTemplate = restTemplate;
         this.timeStoreRestTemplate = timeStoreRestTemplate;
+        this.objectMapper = objectMapper;
     }
 
     private RestTemplate selectRestTemplate(String url) {
@@ -71,7 +82,7 @@ public class ContentAssetService {
     }
 
     /**
-     * 从 URL 下载图片并保存到 uploads/contents/images/，返回可访问路径。带重试。
+     * 从 URL 下载图片并保存到 contents/images/，返回可访问路径。带重试。
      */
     public String downloadImageAndSave(String imageUrl) {
         if (imageUrl == null || imageUrl.isBlank()) return null;
@@ -105,17 +116,14 @@ public class ContentAssetService {
                 String ext = extFromContentType(resp.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
                 if (ext == null) ext = extFromUrl(trimmed);
                 if (ext == null || !IMAGE_EXT.contains(ext.toLowerCase(Locale.ROOT))) ext = "png";
-                String filename = UUID.randomUUID() + "." + ext;
-                Path dir = uploadDirResolver.getResolvedPath().resolve(IMAGES_SUBDIR).toAbsolutePath().normalize();
-                Path target = dir.resolve(filename);
-                Files.createDirectories(dir);
-                Files.write(target, resp.getBody());
+                String key = IMAGES_SUBDIR + "/" + UUID.randomUUID() + "." + ext;
+                blobStore.put(key, resp.getBody(), resp.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
                 if (!urlToUse.equals(trimmed)) {
                     log.info("下载图片成功（OSS 直连）: 原url={}", trimmed);
                 } else if (attempt > 1) {
                     log.info("下载图片成功（第 {} 次重试）: url={}", attempt, trimmed);
                 }
-                return "/api/v1/uploads/" + IMAGES_SUBDIR + "/" + filename;
+                return BlobStore.urlFor(key);
             } catch (BusinessException e) {
                 throw e;
             } catch (Exception e) {
@@ -141,8 +149,8 @@ public class ContentAssetService {
     }
 
     /**
-     * 从 URL 下载文件并保存到 uploads/contents/files/，返回可访问路径。
-     * suggestedExt 可为 null，则从 Content-Type 或 URL 推断，否则用 .bin。
+     * 从 URL 下载文件并流式保存到 contents/files/（不整体载入内存，大附件在对象存储上分片上传），返回可访问路径。
+     * suggestedExt 可为 null，则从 Content-Disposition、Content-Type 或 URL 推断，否则用 .bin。
      */
     public String downloadFileAndSave(String fileUrl, String suggestedExt) {
         if (fileUrl == null || fileUrl.isBlank()) return null;
@@ -151,44 +159,28 @@ public class ContentAssetService {
             return trimmed;
         }
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setAccept(Arrays.asList(MediaType.APPLICATION_OCTET_STREAM, MediaType.ALL));
-            headers.set("User-Agent", USER_AGENT);
             RestTemplate client = selectRestTemplate(trimmed);
-            ResponseEntity<byte[]> resp = client.exchange(
-                    URI.create(trimmed),
-                    HttpMethod.GET,
-                    new HttpEntity<>(headers),
-                    byte[].class);
-            if (resp.getBody() == null || resp.getBody().length == 0) {
-                throw new BusinessException(ErrorCode.BAD_REQUEST, "无法从该 URL 获取文件");
-            }
-            if (resp.getBody().length > MAX_FILE_BYTES) {
-                throw new BusinessException(ErrorCode.BAD_REQUEST, "文件大小不能超过 50MB");
-            }
-            String ext = suggestedExt;
-            if (ext == null || ext.isBlank()) {
-                String disposition = resp.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION);
-                if (disposition != null) {
-                    java.util.regex.Matcher m = FILENAME_DISPOSITION.matcher(disposition);
-                    if (m.find()) {
-                        String name = m.group(1).trim();
-                        int i = name.lastIndexOf('.');
-                        if (i > 0) ext = name.substring(i + 1).toLowerCase(Locale.ROOT);
+            String key = client.execute(URI.create(trimmed), HttpMethod.GET,
+                request -> {
+                    request.getHeaders().setAccept(Arrays.asList(MediaType.APPLICATION_OCTET_STREAM, MediaType.ALL));
+                    request.getHeaders().set("User-Agent", USER_AGENT);
+                },
+                response -> {
+                    HttpHeaders respHeaders = response.getHeaders();
+                    if (respHeaders.getContentLength() > MAX_FILE_BYTES) {
+                        throw new BusinessException(ErrorCode.BAD_REQUEST, "文件大小不能超过 50MB");
                     }
-                }
-            }
-            if (ext == null || ext.isBlank()) {
-                ext = extFromContentType(resp.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
-            }
-            if (ext == null || ext.isBlank()) ext = extFromUrl(trimmed);
-            if (ext == null || ext.isBlank()) ext = "bin";
-            String filename = UUID.randomUUID() + "." + ext.replaceAll("[^a-zA-Z0-9]", "");
-            Path dir = uploadDirResolver.getResolvedPath().resolve(FILES_SUBDIR).toAbsolutePath().normalize();
-            Path target = dir.resolve(filename);
-            Files.createDirectories(dir);
-            Files.write(target, resp.getBody());
-            return "/api/v1/uploads/" + FILES_SUBDIR + "/" + filename;
+                    String ext = resolveFileExt(suggestedExt, respHeaders, trimmed);
+                    String fileKey = FILES_SUBDIR + "/" + UUID.randomUUID() + "." + ext;
+                    CountingInputStream body = new CountingInputStream(response.getBody(), MAX_FILE_BYTES);
+                    blobStore.put(fileKey, body, respHeaders.getContentLength(), respHeaders.getFirst(HttpHeaders.CONTENT_TYPE));
+                    if (body.count() == 0) {
+                        blobStore.delete(fileKey);
+                        throw new BusinessException(ErrorCode.BAD_REQUEST, "无法从该 URL 获取文件");
+                    }
+                    return fileKey;
+                });
+            return BlobStore.urlFor(key);
         } catch (BusinessException e) {
             throw e;
         } catch (Exception e) {
@@ -197,6 +189,64 @@ public class ContentAssetService {
         }
     }
 
+    private static String resolveFileExt(String suggestedExt, HttpHeaders headers, String url) {
+        String ext = suggestedExt;
+        if (ext == null || ext.isBlank()) {
+            String disposition = headers.getFirst(HttpHeaders.CONTENT_DISPOSITION);
+            if (disposition != null) {
+                java.util.regex.Matcher m = FILENAME_DISPOSITION.matcher(disposition);
+                if (m.find()) {
+                    String name = m.group(1).trim();
+                    int i = name.lastIndexOf('.');
+                    if (i > 0) ext = name.substring(i + 1).toLowerCase(Locale.ROOT);
+                }
+            }
+        }
+        if (ext == null || ext.isBlank()) {
+            ext = extFromContentType(headers.getFirst(HttpHeaders.CONTENT_TYPE));
+        }
+        if (ext == null || ext.isBlank()) ext = extFromUrl(url);
+        if (ext == null || ext.isBlank()) ext = "bin";
+        ext = ext.replaceAll("[^a-zA-Z0-9]", "");
+        return ext.isEmpty() ? "bin" : ext;
+    }
+
+    /** 计数并限制读取字节数，超出上限时中止写入 */
+    private static final class CountingInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        CountingInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) add(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) add(n);
+            return n;
+        }
+
+        private void add(long n) {
+            count += n;
+            if (count > limit) {
+                throw new BusinessException(ErrorCode.BAD_REQUEST, "文件大小不能超过 50MB");
+            }
+        }
+
+        long count() {
+            return count;
+        }
+    }
+
     private static String extFromContentType(String ct) {
         if (ct == null) return null;
         if (ct.contains("png")) return "png";
@@ -218,38 +268,55 @@ public class ContentAssetService {
     }
 
     /**
-     * 根据 URL 删除本地文件。仅处理 /api/v1/uploads/ 开头的本地上传路径。
+     * 根据 URL 删除上传存储中的文件。仅处理 /api/v1/uploads/ 路径。
      * @param url 如 /api/v1/uploads/contents/images/xxx.png 或带 origin 的完整 URL
-     * @return true 表示已删除，false 表示未删除（非本地路径或文件不存在）
+     * @return true 表示已删除，false 表示未删除（非上传路径或文件不存在）
      */
     public boolean deleteLocalFileByUrl(String url) {
-        if (url == null || url.isBlank()) return false;
-        String u = url.trim();
-        // 提取 /api/v1/uploads/ 之后的相对路径
-        String prefix = "/api/v1/uploads/";
-        int idx = u.indexOf(prefix);
-        if (idx < 0) {
-            // 可能是完整 URL，如 https://xxx/api/v1/uploads/contents/images/xxx.png
-            idx = u.lastIndexOf(prefix);
-            if (idx < 0) return false;
-        }
-        String relPath = u.substring(idx + prefix.length());
-        if (relPath.isEmpty()) return false;
+        String key = BlobStore.keyFromUrl(url).orElse(null);
+        if (key == null) return false;
         try {
-            Path base = uploadDirResolver.getResolvedPath().toAbsolutePath().normalize();
-            Path target = base.resolve(relPath).toAbsolutePath().normalize();
-            if (!target.startsWith(base)) {
-                log.warn("拒绝删除非 uploads 目录下的文件: url={}", url);
-                return false;
-            }
-            if (Files.exists(target) && Files.isRegularFile(target)) {
-                Files.delete(target);
-                log.info("已删除内容关联文件: {}", relPath);
+            if (blobStore.delete(key)) {
+                log.info("已删除内容关联文件: {}", key);
                 return true;
             }
         } catch (Exception e) {
-            log.warn("删除本地上传文件失败: url={}, error={}", url, e.getMessage());
+            log.warn("删除上传文件失败: url={}, error={}", url, e.getMessage());
         }
         return false;
     }
+
+    /**
+     * 收集内容关联的上传文件路径：mediaUrls、metadata.downloaded_file_urls[].local_url、正文 img 标签中的 /api/v1/uploads/ 路径
+     */
+    public Set<String> collectLocalUrls(Collection<String> mediaUrls, String body, String metadata) {
+        Set<String> urls = new LinkedHashSet<>();
+        if (mediaUrls != null) {
+            for (String url : mediaUrls) {
+                if (url != null && url.contains(BlobStore.URL_PREFIX)) {
+                    urls.add(url.trim());
+                }
+            }
+        }
+        if (metadata != null && !metadata.isBlank() && metadata.contains(BlobStore.URL_PREFIX)) {
+            try {
+                JsonNode files = objectMapper.readTree(metadata).path("downloaded_file_urls");
+                for (JsonNode item : files) {
+                    String localUrl = item.path("local_url").asText(null);
+                    if (localUrl != null && localUrl.contains(BlobStore.URL_PREFIX)) {
+                        urls.add(localUrl.trim());
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("解析 metadata 获取 downloaded_file_urls 失败: {}", e.getMessage());
+            }
+        }
+        if (body != null && body.contains(BlobStore.URL_PREFIX)) {
+            Matcher m = BODY_UPLOAD_SRC.matcher(body);
+            while (m.find()) {
+                urls.add(m.group(1).trim());
+            }
+        }
+        return urls;
+    }
 }
@@ -0,0 +1,72 @@
+package com.caat.service;
+
+import com.caat.repository.ContentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 图片本地化补偿（消息模式且本节点消费指令时启用）：保存文章时记录图片本地化待办，图片队列处理完成后清除。
+ * 指令发布后丢失、消费失败进入死信队列 caat.asset.dead 或本地下载失败时，待办超过宽限期
+ * （app.fetch.messaging.asset-sweep.grace-seconds）仍在，由本任务在本节点重新下载；
+ * 认领为条件更新，多个节点不会同时处理同一篇文章；重试次数用尽后放弃，文章保留远程图片。
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${app.fetch.messaging.enabled:false} and ${app.fetch.messaging.consumer-enabled:true}")
+public class ContentAssetSweeper {
+
+    private final ContentRepository contentRepository;
+    private final ContentFetchService contentFetchService;
+    private final long graceSeconds;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    public ContentAssetSweeper(ContentRepository contentRepository,
+                               ContentFetchService contentFetchService,
+                               @Value("${app.fetch.messaging.asset-sweep.grace-seconds:600}") long graceSeconds,
+                               @Value("${app.fetch.messaging.asset-sweep.batch-size:50}") int batchSize,
+                               @Value("${app.fetch.messaging.asset-sweep.max-attempts:5}") int maxAttempts) {
+        this.contentRepository = contentRepository;
+        this.contentFetchService = contentFetchService;
+        this.graceSeconds = graceSeconds;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    @Scheduled(fixedDelayString = "${app.fetch.messaging.asset-sweep.interval-ms:300000}",
+               initialDelayString = "${app.fetch.messaging.asset-sweep.interval-ms:300000}")
+    public void sweep() {
+        List<UUID> stale;
+        try {
+            int abandoned = contentRepository.abandonAssetLocalizations(maxAttempts);
+            if (abandoned > 0) {
+                log.warn("图片本地化已重试 {} 次仍未完成，放弃 {} 篇文章，保留远程图片", maxAttempts, abandoned);
+            }
+            stale = contentRepository.findStaleAssetLocalizations(graceSeconds, batchSize);
+        } catch (Exception e) {
+            log.warn("查询未完成的图片本地化失败", e);
+            return;
+        }
+        int retried = 0;
+        for (UUID contentId : stale) {
+            try {
+                if (contentRepository.claimAssetLocalization(contentId, graceSeconds) == 0) {
+                    continue;
+                }
+                contentFetchService.localizeContentImages(contentId);
+                retried++;
+            } catch (Exception e) {
+                log.warn("补偿下载文章图片失败，稍后重试: contentId={}, error={}", contentId, e.getMessage());
+            }
+        }
+        if (retried > 0) {
+            log.info("补偿完成 {} 篇文章的图片本地化", retried);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.caat.service;
+
+import com.caat.entity.ContentDeleteTask;
+import com.caat.exception.BusinessException;
+import com.caat.exception.ErrorCode;
+import com.caat.repository.ContentDeleteTaskRepository;
+import com.caat.repository.ContentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 按作者批量删除内容：后台任务按 id 键集分批（app.content-delete.chunk-size）处理，不加载实体。
+ * 每批只查询 id 与可能引用上传文件的列，先在独立事务中删除该批内容并提交进度，再在线程池中并行删除其图片与附件；
+ * 文件删除失败只留下孤儿文件，由 UploadGarbageCollector 兜底回收。全部删除后按 userId 单次 delete-by-query 清理搜索索引。
+ * 内存与单次事务大小只与批大小有关，与作者的内容数无关；进度写入 content_delete_tasks 供前端轮询。
+ */
+@Slf4j
+@Service
+public class ContentBulkDeleteService {
+
+    private static final List<ContentDeleteTask.TaskStatus> ACTIVE_STATUSES =
+        List.of(ContentDeleteTask.TaskStatus.PENDING, ContentDeleteTask.TaskStatus.RUNNING);
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    private final ContentRepository contentRepository;
+    private final ContentDeleteTaskRepository contentDeleteTaskRepository;
+    private final ContentDeleteTaskProgressUpdater progressUpdater;
+    private final ContentAssetService contentAssetService;
+    private final ElasticsearchService elasticsearchService;
+    private final Executor taskExecutor;
+    private final Executor fileExecutor;
+    private final int chunkSize;
+    private final long staleMinutes;
+
+    public ContentBulkDeleteService(ContentRepository contentRepository,
+                                    ContentDeleteTaskRepository contentDeleteTaskRepository,
+                                    ContentDeleteTaskProgressUpdater progressUpdater,
+                                    ContentAssetService contentAssetService,
+                                    ElasticsearchService elasticsearchService,
+                                    @Qualifier("contentDeleteTaskExecutor") Executor taskExecutor,
+                                    @Qualifier("contentDeleteFileExecutor") Executor fileExecutor,
+                                    @Value("${app.content-delete.chunk-size:500}") int chunkSize,
+                                    @Value("${app.content-delete.stale-minutes:10}") long staleMinutes) {
+        this.contentRepository = contentRepository;
+        this.contentDeleteTaskRepository = contentDeleteTaskRepository;
+        this.progressUpdater = progressUpdater;
+        this.contentAssetService = contentAssetService;
+        this.elasticsearchService = elasticsearchService;
+        this.taskExecutor = taskExecutor;
+        this.fileExecutor = fileExecutor;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.staleMinutes = Math.max(1, staleMinutes);
+    }
+
+    /**
+     * 发起按作者删除；该作者已有未结束的删除任务时直接返回该任务，
+     * 该任务超过 stale-minutes 未更新（执行节点已中断）时先标记为失败再创建新任务
+     */
+    public ContentDeleteTask submit(UUID userId) {
+        Optional<ContentDeleteTask> active = contentDeleteTaskRepository
+            .findFirstByUserIdAndStatusInOrderByCreatedAtDesc(userId, ACTIVE_STATUSES);
+        if (active.isPresent()) {
+            ContentDeleteTask existing = active.get();
+            if (!isStale(existing, LocalDateTime.now().minusMinutes(staleMinutes))) {
+                return existing;
+            }
+            markInterrupted(existing);
+        }
+        ContentDeleteTask task = new ContentDeleteTask();
+        task.setUserId(userId);
+        task = contentDeleteTaskRepository.save(task);
+        UUID taskId = task.getId();
+        try {
+            taskExecutor.execute(() -> run(taskId, userId));
+        } catch (RejectedExecutionException e) {
+            progressUpdater.markFailed(taskId, "删除任务过多，未能开始执行");
+            throw new BusinessException(ErrorCode.INTERNAL_ERROR, "删除任务过多，请稍后重试");
+        }
+        log.info("已创建按作者删除任务: taskId={}, userId={}", taskId, userId);
+        return task;
+    }
+
+    public ContentDeleteTask getTask(UUID taskId) {
+        return contentDeleteTaskRepository.findById(taskId)
+            .orElseThrow(() -> new BusinessException(ErrorCode.NOT_FOUND, "删除任务不存在"));
+    }
+
+    /**
+     * 执行节点中断（重启、宕机）后遗留的未结束任务标记为失败：启动时及定时（app.content-delete.stale-check-interval-ms）检查，
+     * 其他节点宕机遗留的任务也能及时结束；已提交的批次已删除，重新发起即可从剩余内容继续
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.content-delete.stale-check-interval-ms:300000}",
+               initialDelayString = "${app.content-delete.stale-check-interval-ms:300000}")
+    public void failStaleTasks() {
+        try {
+            List<ContentDeleteTask> stale = contentDeleteTaskRepository.findByStatusInAndUpdatedAtBefore(
+                ACTIVE_STATUSES, LocalDateTime.now().minusMinutes(staleMinutes));
+            stale.forEach(this::markInterrupted);
+        } catch (Exception e) {
+            log.warn("检查中断的删除任务失败", e);
+        }
+    }
+
+    /** 运行中每批提交都会刷新 updatedAt，超过 stale-minutes 未更新说明执行节点已中断 */
+    private static boolean isStale(ContentDeleteTask task, LocalDateTime cutoff) {
+        return task.getUpdatedAt() != null && task.getUpdatedAt().isBefore(cutoff);
+    }
+
+    private void markInterrupted(ContentDeleteTask task) {
+        log.warn("删除任务长时间未更新，标记为失败: taskId={}, userId={}", task.getId(), task.getUserId());
+        progressUpdater.markFailed(task.getId(), "执行节点中断，已删除 " + task.getDeletedCount() + " 条，可重新发起删除剩余内容");
+    }
+
+    void run(UUID taskId, UUID userId) {
+        int deleted = 0;
+        int filesDeleted = 0;
+        try {
+            Long total = contentRepository.countByUserId(userId);
+            progressUpdater.markRunning(taskId, total != null ? total.intValue() : 0);
+            UUID afterId = MIN_UUID;
+            while (true) {
+                List<UUID> ids = contentRepository.findIdPageByUserId(userId, afterId, chunkSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                Set<String> urls = collectLocalUrls(ids);
+                deleted += progressUpdater.deleteChunk(taskId, ids, filesDeleted);
+                filesDeleted += deleteFiles(urls);
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+                afterId = ids.get(ids.size() - 1);
+            }
+            progressUpdater.markCompleted(taskId, filesDeleted);
+            log.info("已按作者删除 {} 条内容、{} 个文件: userId={}, taskId={}", deleted, filesDeleted, userId, taskId);
+        } catch (Exception e) {
+            log.error("按作者删除内容失败: userId={}, taskId={}, 已删除 {} 条", userId, taskId, deleted, e);
+            progressUpdater.markFailed(taskId, e.getMessage());
+        } finally {
+            // 中途失败时剩余内容也从搜索中移除，用户已确认删除
+            elasticsearchService.deleteByUserId(userId);
+        }
+    }
+
+    /** 一批内容关联的上传文件路径（图片链接、附件、正文图片） */
+    private Set<String> collectLocalUrls(List<UUID> ids) {
+        Map<UUID, List<String>> mediaUrls = new HashMap<>();
+        for (Object[] row : contentRepository.findMediaUrlsByContentIds(ids)) {
+            mediaUrls.computeIfAbsent((UUID) row[0], k -> new ArrayList<>()).add((String) row[1]);
+        }
+        Set<String> urls = new LinkedHashSet<>();
+        for (Object[] row : contentRepository.findAssetColumnsByIds(ids)) {
+            urls.addAll(contentAssetService.collectLocalUrls(mediaUrls.get((UUID) row[0]), (String) row[1], (String) row[2]));
+        }
+        return urls;
+    }
+
+    /** 并行删除文件，返回实际删除数；线程池满时由调用线程执行 */
+    private int deleteFiles(Set<String> urls) {
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            futures.add(CompletableFuture.supplyAsync(() -> contentAssetService.deleteLocalFileByUrl(url), fileExecutor));
+        }
+        int deleted = 0;
+        for (CompletableFuture<Boolean> f : futures) {
+            if (Boolean.TRUE.equals(f.join())) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,80 @@
+package com.caat.service;
+
+import com.caat.entity.ContentDeleteTask;
+import com.caat.repository.ContentDeleteTaskRepository;
+import com.caat.repository.ContentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 批量删除任务进度更新服务
+ * 使用 REQUIRES_NEW 事务：每批内容的删除与进度计数在同一事务内提交，中断时已提交的批次不回滚，计数与实际一致
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContentDeleteTaskProgressUpdater {
+
+    private final ContentDeleteTaskRepository contentDeleteTaskRepository;
+    private final ContentRepository contentRepository;
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markRunning(UUID taskId, int totalCount) {
+        contentDeleteTaskRepository.findById(taskId).ifPresent(task -> {
+            task.setStatus(ContentDeleteTask.TaskStatus.RUNNING);
+            task.setStartedAt(LocalDateTime.now());
+            task.setTotalCount(totalCount);
+            contentDeleteTaskRepository.saveAndFlush(task);
+        });
+    }
+
+    /**
+     * 删除一批内容并累加进度（同一事务）
+     *
+     * @param filesDeleted 截至上一批已删除的文件数
+     * @return 本批删除的内容条数
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int deleteChunk(UUID taskId, List<UUID> contentIds, int filesDeleted) {
+        int deleted = contentRepository.deleteByIdIn(contentIds);
+        contentDeleteTaskRepository.findById(taskId).ifPresent(task -> {
+            int total = task.getDeletedCount() + deleted;
+            task.setDeletedCount(total);
+            task.setFilesDeleted(filesDeleted);
+            Integer expected = task.getTotalCount();
+            if (expected != null && expected > 0) {
+                task.setProgress(Math.min(99, (int) (total * 100L / expected)));
+            }
+            contentDeleteTaskRepository.saveAndFlush(task);
+        });
+        return deleted;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markCompleted(UUID taskId, int filesDeleted) {
+        contentDeleteTaskRepository.findById(taskId).ifPresent(task -> {
+            task.setStatus(ContentDeleteTask.TaskStatus.COMPLETED);
+            task.setProgress(100);
+            task.setFilesDeleted(filesDeleted);
+            task.setCompletedAt(LocalDateTime.now());
+            contentDeleteTaskRepository.saveAndFlush(task);
+        });
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markFailed(UUID taskId, String errorMessage) {
+        contentDeleteTaskRepository.findById(taskId).ifPresent(task -> {
+            task.setStatus(ContentDeleteTask.TaskStatus.FAILED);
+            task.setErrorMessage(errorMessage);
+            task.setCompletedAt(LocalDateTime.now());
+            contentDeleteTaskRepository.saveAndFlush(task);
+        });
+    }
+}
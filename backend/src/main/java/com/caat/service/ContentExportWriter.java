@@ -0,0 +1,373 @@
+package com.caat.service;
+
+import com.caat.entity.Content;
+import com.caat.entity.ExportTask;
+import com.caat.repository.ContentRepository;
+import com.caat.storage.BlobStore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * JSON/Markdown/CSV/HTML/ZIP 流式导出：通过数据库游标逐条读取内容并直接写入输出流，
+ * 时间范围下推到 SQL，写出后立即从持久化上下文分离，内存占用与导出条数无关。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ContentExportWriter {
+
+    /** 未指定时间范围时的哨兵值（PostgreSQL 无法推断 null 参数类型，不使用 IS NULL 判断） */
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    /** 每写出多少条检查一次输出流状态（客户端断开时尽早停止读库） */
+    private static final int CHECK_INTERVAL = 200;
+
+    /** 正文与媒体中的本地上传地址（可带 origin），分组 1 为上传目录下的相对路径 */
+    private static final Pattern UPLOAD_URL_PATTERN =
+            Pattern.compile("(?:https?://[^/\\s\"'()<>]+)?/api/v1/uploads/([^\\s\"'()<>?#]+)");
+    private static final DateTimeFormatter DAY_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private final ContentRepository contentRepository;
+    private final ObjectMapper objectMapper;
+    private final BlobStore blobStore;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 将指定范围的内容按格式写入输出流，不关闭输出流
+     *
+     * @return 写出的内容条数
+     */
+    @Transactional(readOnly = true)
+    public long write(UUID userId, ExportTask.ExportFormat format, LocalDateTime startTime,
+                      LocalDateTime endTime, OutputStream out) throws IOException {
+        return write(userId, format, startTime, endTime, null, out);
+    }
+
+    /**
+     * 同上；volume 为增量卷时按更新时间窗口取文章（忽略发布时间范围），Markdown/HTML 在开头注明卷号并链接上一卷
+     */
+    @Transactional(readOnly = true)
+    public long write(UUID userId, ExportTask.ExportFormat format, LocalDateTime startTime,
+                      LocalDateTime endTime, ExportVolume volume, OutputStream out) throws IOException {
+        if (volume != null && volume.isIncremental() && userId == null) {
+            throw new IllegalArgumentException("增量导出必须指定用户");
+        }
+        Scope scope = new Scope(userId, startTime != null ? startTime : MIN_TIME,
+                endTime != null ? endTime : MAX_TIME, volume != null && volume.isIncremental() ? volume : null);
+        return switch (format) {
+            case JSON -> writeJson(scope, out);
+            case MARKDOWN -> writeMarkdown(scope, out);
+            case CSV -> writeCsv(scope, out);
+            case HTML -> writeHtml(scope, out);
+            case ZIP -> writeZip(scope, out);
+            case PDF, WORD -> throw new UnsupportedOperationException("PDF/Word 请使用异步导出");
+        };
+    }
+
+    private long writeJson(Scope scope, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long count = 0;
+        try (SequenceWriter sequence = objectMapper.writerWithDefaultPrettyPrinter().writeValues(generator).init(true);
+             Stream<Content> contents = openStream(scope)) {
+            Iterator<Content> it = contents.iterator();
+            while (it.hasNext()) {
+                Content content = it.next();
+                sequence.write(content);
+                entityManager.detach(content);
+                count++;
+            }
+        }
+        generator.flush();
+        return count;
+    }
+
+    private long writeMarkdown(Scope scope, OutputStream out) throws IOException {
+        PrintWriter writer = newWriter(out);
+        writer.println(scope.volume() != null ? "# 内容导出（增量第 " + scope.volume().number() + " 卷）" : "# 内容导出");
+        writer.println();
+        writer.println("导出时间: " + LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        writer.println("内容数量: " + count(scope));
+        if (scope.volume() != null) {
+            writer.println();
+            writer.println("> " + scope.volume().describe(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            String previous = scope.volume().previousFileName();
+            if (previous != null) {
+                writer.println(">");
+                writer.println("> 上一卷: [" + previous + "](" + previous.replace(" ", "%20") + ")");
+            }
+        }
+        writer.println();
+
+        return forEach(scope, writer, content -> {
+            writer.println("## " + (content.getTitle() != null ? content.getTitle() : "无标题"));
+            writer.println();
+            writer.println("- **平台**: " + (content.getPlatform() != null ? content.getPlatform().getName() : "未知"));
+            writer.println("- **作者**: " + (content.getUser() != null ? content.getUser().getUsername() : "未知"));
+            writer.println("- **发布时间**: " + content.getPublishedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            writer.println("- **链接**: " + content.getUrl());
+            if (content.getBody() != null && !content.getBody().isEmpty()) {
+                writer.println();
+                writer.println(content.getBody());
+            }
+            writer.println();
+            writer.println("---");
+            writer.println();
+        });
+    }
+
+    private long writeCsv(Scope scope, OutputStream out) throws IOException {
+        PrintWriter writer = newWriter(out);
+        // CSV头部
+        writer.println("标题,平台,作者,发布时间,链接,已读,收藏");
+
+        return forEach(scope, writer, content ->
+            writer.printf("\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",%s,%s%n",
+                    escapeCsv(content.getTitle()),
+                    escapeCsv(content.getPlatform() != null ? content.getPlatform().getName() : ""),
+                    escapeCsv(content.getUser() != null ? content.getUser().getUsername() : ""),
+                    content.getPublishedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                    escapeCsv(content.getUrl()),
+                    content.getIsRead(),
+                    content.getIsFavorite()
+            ));
+    }
+
+    private long writeHtml(Scope scope, OutputStream out) throws IOException {
+        PrintWriter writer = newWriter(out);
+        writer.println("<!DOCTYPE html>");
+        writer.println("<html><head><meta charset='UTF-8'><title>内容导出</title>");
+        writer.println("<style>body{font-family:Arial,sans-serif;margin:20px;}h1{color:#333;}h2{border-bottom:2px solid #eee;padding-bottom:10px;margin-top:30px;}.meta{color:#666;font-size:14px;}.content{margin:20px 0;}</style>");
+        writer.println("</head><body>");
+        writer.println(scope.volume() != null ? "<h1>内容导出（增量第 " + scope.volume().number() + " 卷）</h1>" : "<h1>内容导出</h1>");
+        writer.println("<p>导出时间: " + LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "</p>");
+        writer.println("<p>内容数量: " + count(scope) + "</p>");
+        if (scope.volume() != null) {
+            writer.println("<p class='meta'>" + escapeHtml(scope.volume().describe(DateTimeFormatter.ISO_LOCAL_DATE_TIME)) + "</p>");
+            String previous = scope.volume().previousFileName();
+            if (previous != null) {
+                writer.println("<p class='meta'>上一卷: <a href='" + escapeHtml(previous) + "'>" + escapeHtml(previous) + "</a></p>");
+            }
+        }
+
+        long count = forEach(scope, writer, content -> {
+            writer.println("<div>");
+            writer.println("<h2>" + escapeHtml(content.getTitle() != null ? content.getTitle() : "无标题") + "</h2>");
+            writer.println("<div class='meta'>");
+            writer.println("平台: " + escapeHtml(content.getPlatform() != null ? content.getPlatform().getName() : "未知") + " | ");
+            writer.println("作者: " + escapeHtml(content.getUser() != null ? content.getUser().getUsername() : "未知") + " | ");
+            writer.println("发布时间: " + content.getPublishedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + " | ");
+            writer.println("<a href='" + escapeHtml(content.getUrl()) + "'>查看原文</a>");
+            writer.println("</div>");
+            if (content.getBody() != null && !content.getBody().isEmpty()) {
+                writer.println("<div class='content'>" + escapeHtml(content.getBody()) + "</div>");
+            }
+            writer.println("</div>");
+            writer.println("<hr>");
+        });
+        writer.println("</body></html>");
+        flush(writer);
+        return count;
+    }
+
+    /**
+     * ZIP：每篇文章一个 Markdown 文件，按 年/月 分目录；正文与媒体引用的本地上传文件以 STORED 方式
+     * 写入 assets/ 并改写为相对链接。逐条读库逐条写出，内存占用与文章数、附件总大小无关
+     */
+    private long writeZip(Scope scope, OutputStream out) throws IOException {
+        ZipArchiveWriter zip = new ZipArchiveWriter(out, blobStore);
+        StringBuilder index = new StringBuilder();
+        index.append(scope.volume() != null ? "# 内容导出（增量第 " + scope.volume().number() + " 卷）" : "# 内容导出").append("\n\n");
+        index.append("导出时间: ").append(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)).append("\n");
+        index.append("内容数量: ").append(count(scope)).append("\n\n");
+        if (scope.volume() != null) {
+            index.append("> ").append(scope.volume().describe(DateTimeFormatter.ISO_LOCAL_DATE_TIME)).append("\n");
+            if (scope.volume().previousFileName() != null) {
+                index.append(">\n> 上一卷: ").append(scope.volume().previousFileName()).append("\n");
+            }
+            index.append("\n");
+        }
+        index.append("文章按 年/月 目录存放，附件位于 assets/ 目录。\n");
+        zip.addText("README.md", index.toString());
+
+        long count = 0;
+        try (Stream<Content> contents = openStream(scope)) {
+            Iterator<Content> it = contents.iterator();
+            while (it.hasNext()) {
+                Content content = it.next();
+                zip.addText(zipEntryName(content), toZipMarkdown(content, zip));
+                entityManager.detach(content);
+                count++;
+            }
+        }
+        zip.finish();
+        log.info("ZIP 导出完成: 文章 {} 篇，附件 {} 个", count, zip.assetCount());
+        return count;
+    }
+
+    /** 如 2024/05/2024-05-03-标题-1a2b3c4d.md（id 前缀保证同日同名文章不冲突） */
+    private String zipEntryName(Content content) {
+        LocalDateTime publishedAt = content.getPublishedAt();
+        String title = content.getTitle() != null ? content.getTitle() : "";
+        String slug = title.replaceAll("[\\\\/:*?\"<>|\\s#%]+", "-").replaceAll("^-+|-+$", "");
+        if (slug.length() > 40) {
+            slug = slug.substring(0, 40);
+        }
+        if (slug.isEmpty()) {
+            slug = "无标题";
+        }
+        String id = content.getId() != null ? content.getId().toString().substring(0, 8) : Long.toHexString(System.nanoTime());
+        return String.format("%04d/%02d/%s-%s-%s.md", publishedAt.getYear(), publishedAt.getMonthValue(),
+                publishedAt.format(DAY_FMT), slug, id);
+    }
+
+    /** 单篇文章 Markdown：本地上传地址写入附件并改写为相对路径（文章位于 年/月/ 两级目录下） */
+    private String toZipMarkdown(Content content, ZipArchiveWriter zip) throws IOException {
+        StringBuilder md = new StringBuilder();
+        md.append("# ").append(content.getTitle() != null ? content.getTitle() : "无标题").append("\n\n");
+        md.append("- **平台**: ").append(content.getPlatform() != null ? content.getPlatform().getName() : "未知").append("\n");
+        md.append("- **作者**: ").append(content.getUser() != null ? content.getUser().getUsername() : "未知").append("\n");
+        md.append("- **发布时间**: ").append(content.getPublishedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)).append("\n");
+        md.append("- **链接**: ").append(content.getUrl()).append("\n\n");
+        Set<String> linked = new LinkedHashSet<>();
+        if (content.getBody() != null && !content.getBody().isEmpty()) {
+            md.append(rewriteUploads(content.getBody(), zip, linked)).append("\n\n");
+        }
+        StringBuilder attachments = new StringBuilder();
+        if (content.getMediaUrls() != null) {
+            for (String url : content.getMediaUrls()) {
+                Matcher m = url != null ? UPLOAD_URL_PATTERN.matcher(url) : null;
+                if (m != null && m.matches()) {
+                    String entry = zip.addUpload(m.group(1));
+                    if (entry != null && linked.add(entry)) {
+                        attachments.append("- [").append(entry.substring(entry.lastIndexOf('/') + 1))
+                                .append("](../../").append(entry).append(")\n");
+                    }
+                } else if (url != null && !url.isBlank()) {
+                    attachments.append("- <").append(url).append(">\n");
+                }
+            }
+        }
+        if (attachments.length() > 0) {
+            md.append("## 附件\n\n").append(attachments);
+        }
+        return md.toString();
+    }
+
+    private String rewriteUploads(String body, ZipArchiveWriter zip, Set<String> linked) throws IOException {
+        Matcher m = UPLOAD_URL_PATTERN.matcher(body);
+        StringBuilder sb = new StringBuilder();
+        while (m.find()) {
+            String entry = zip.addUpload(m.group(1));
+            String replacement = m.group();
+            if (entry != null) {
+                linked.add(entry);
+                replacement = "../../" + entry;
+            }
+            m.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+        }
+        m.appendTail(sb);
+        return sb.toString();
+    }
+
+    /**
+     * 逐条消费游标并写出；每条写出后从持久化上下文分离，避免一级缓存随导出条数增长
+     */
+    private long forEach(Scope scope, PrintWriter writer, Consumer<Content> rowWriter) throws IOException {
+        long count = 0;
+        try (Stream<Content> contents = openStream(scope)) {
+            Iterator<Content> it = contents.iterator();
+            while (it.hasNext()) {
+                Content content = it.next();
+                rowWriter.accept(content);
+                entityManager.detach(content);
+                if (++count % CHECK_INTERVAL == 0) {
+                    flush(writer);
+                }
+            }
+        }
+        flush(writer);
+        return count;
+    }
+
+    private Stream<Content> openStream(Scope scope) {
+        if (scope.volume() != null) {
+            return contentRepository.streamByUserIdAndContentModifiedAtBetween(scope.userId(),
+                    scope.volume().changedAfter(), scope.volume().changedUntil());
+        }
+        return scope.userId() != null
+                ? contentRepository.streamByUserIdAndPublishedAtBetween(scope.userId(), scope.start(), scope.end())
+                : contentRepository.streamByPublishedAtBetween(scope.start(), scope.end());
+    }
+
+    private long count(Scope scope) {
+        if (scope.volume() != null) {
+            return contentRepository.countByUserIdAndContentModifiedAtBetween(scope.userId(),
+                    scope.volume().changedAfter(), scope.volume().changedUntil());
+        }
+        return scope.userId() != null
+                ? contentRepository.countByUserIdAndPublishedAtBetween(scope.userId(), scope.start(), scope.end())
+                : contentRepository.countByPublishedAtBetween(scope.start(), scope.end());
+    }
+
+    /** 不关闭底层输出流，由调用方负责 */
+    private PrintWriter newWriter(OutputStream out) {
+        return new PrintWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+    }
+
+    /** PrintWriter 会吞掉 IOException，这里显式检查以便客户端断开时中止游标读取 */
+    private void flush(PrintWriter writer) throws IOException {
+        if (writer.checkError()) {
+            throw new IOException("写出导出内容失败（输出流已关闭或客户端已断开）");
+        }
+    }
+
+    /** 导出范围：作者 + 发布时间范围；增量卷时改用 volume 的更新时间窗口 */
+    private record Scope(UUID userId, LocalDateTime start, LocalDateTime end, ExportVolume volume) {}
+
+    /**
+     * CSV转义
+     */
+    private String escapeCsv(String str) {
+        if (str == null) return "";
+        return str.replace("\"", "\"\"");
+    }
+
+    /**
+     * HTML转义
+     */
+    private String escapeHtml(String str) {
+        if (str == null) return "";
+        return str.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&#39;");
+    }
+}
@@ -34,6 +34,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -60,6 +61,9 @@ public class ContentFetchService {
     private final ZsxqFileService zsxqFileService;
     private final FetchTaskProgressUpdater fetchTaskProgressUpdater;
     private final ScheduleService scheduleService;
+    private final PlatformConfigCache platformConfigCache;
+    private final TaskProgressBus progressBus;
+    private final FetchCancellationRegistry cancellationRegistry;
 
 
     /** 用于单条保存时开启新事务，避免一条失败导致整批回滚（setter 注入打破循环依赖） */
@@ -70,47 +74,177 @@ public class ContentFetchService {
     public void setSelf(ContentFetchService self) {
         this.self = self;
     }
+
+    /** 拉取结束后按结果调整该用户的自适应拉取间隔 */
+    private FetchPollingScheduler pollingScheduler;
+
+    @Lazy
+    @Autowired
+    public void setPollingScheduler(FetchPollingScheduler pollingScheduler) {
+        this.pollingScheduler = pollingScheduler;
+    }
+
+    /** 消息模式下图片下载交给图片队列（未启用消息模式时为 null，保存时同步下载） */
+    private FetchMessagePublisher messagePublisher;
+
+    @Autowired(required = false)
+    public void setMessagePublisher(FetchMessagePublisher messagePublisher) {
+        this.messagePublisher = messagePublisher;
+    }
     
+    /** 续拉断点：从 phase 阶段的 cursor 页继续，此前已完成 page 页、累计保存 saved 条 */
+    private record Checkpoint(FetchTask.FetchPhase phase, String cursor, int page, int saved,
+                              LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+
+        static Checkpoint of(FetchTask task) {
+            if (task.getCheckpointPhase() == null) {
+                return null;
+            }
+            return new Checkpoint(task.getCheckpointPhase(), task.getCheckpointCursor(),
+                task.getCheckpointPage() != null ? task.getCheckpointPage() : 0,
+                task.getCheckpointSaved() != null ? task.getCheckpointSaved() : 0,
+                task.getCheckpointRangeStart(), task.getCheckpointRangeEnd());
+        }
+    }
+
     @Async
     @Transactional
-    public void fetchUserContentAsync(UUID userId, LocalDateTime startTime, LocalDateTime endTime, UUID taskId) {
+    public CompletableFuture<Void> fetchUserContentAsync(UUID userId, LocalDateTime startTime, LocalDateTime endTime, UUID taskId) {
         TrackedUser user = trackedUserRepository.findById(userId).orElse(null);
         if (user == null) {
             markTaskFailed(taskId, "用户不存在");
             throw new BusinessException(ErrorCode.USER_NOT_FOUND);
         }
         FetchTask task = getOrCreateTask(user, startTime, endTime, taskId);
+        runFetch(user, task, startTime, endTime, null);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * 续拉中断的任务（节点宕机后租约过期被回收）：有断点时从断点所在阶段的下一页继续，不重复已完成的页；
+     * 尚未完成任何一页时按任务记录的时间范围重新开始
+     */
+    @Async
+    @Transactional
+    public CompletableFuture<Void> resumeFetchTaskAsync(UUID taskId) {
+        FetchTask task = fetchTaskRepository.findByIdWithUser(taskId).orElse(null);
+        if (task == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        TrackedUser user = trackedUserRepository.findById(task.getUser().getId()).orElse(null);
+        if (user == null) {
+            markTaskFailed(taskId, "用户不存在");
+            return CompletableFuture.completedFuture(null);
+        }
+        Checkpoint checkpoint = Checkpoint.of(task);
+        int resumes = fetchTaskProgressUpdater.incrementResumeCount(taskId);
+        log.info("续拉中断的刷新任务: taskId={}, userId={}, 第 {} 次续拉, 断点={}", taskId, user.getId(), resumes, checkpoint);
+        runFetch(user, task, task.getStartTime(), task.getEndTime(), checkpoint);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void runFetch(TrackedUser user, FetchTask task, LocalDateTime startTime, LocalDateTime endTime,
+                          Checkpoint resume) {
+        UUID userId = user.getId();
         UUID effectiveTaskId = task.getId();
+        if (task.getStatus() == FetchTask.TaskStatus.CANCELLED) {
+            // 排队期间已被取消，不再占用线程
+            log.info("刷新任务已取消，跳过执行: taskId={}", effectiveTaskId);
+            notifyPollingScheduler(userId, -1);
+            return;
+        }
+        cancellationRegistry.register(effectiveTaskId);
+        int savedForSchedule = -1;
         try {
             fetchTaskProgressUpdater.updateStatusRunning(effectiveTaskId, LocalDateTime.now());
-            boolean fullFetchNoDate = (startTime == null && endTime == null);
-            var timeRange = resolveTimeRange(userId, startTime, endTime, fullFetchNoDate);
-            fetchTaskProgressUpdater.updateStartEndTime(effectiveTaskId, timeRange.start(), timeRange.end());
+            // 逐页进度只写内存并推送，由进度总线定时合并写库
+            progressBus.track(effectiveTaskId, TaskProgressBus.KIND_FETCH, null, snapshot ->
+                    fetchTaskProgressUpdater.updateProgress(effectiveTaskId, snapshot.progress(),
+                            snapshot.fetchedCount() != null ? snapshot.fetchedCount() : 0, snapshot.totalCount()));
+            TimeRange timeRange;
+            if (resume != null) {
+                // 断点中已记录本阶段范围，不再重新推算（此时库中已有本任务保存的文章）
+                timeRange = new TimeRange(startTime, endTime);
+                progressBus.update(effectiveTaskId, 0, resume.saved(), resume.saved(), null);
+            } else {
+                boolean fullFetchNoDate = (startTime == null && endTime == null);
+                timeRange = resolveTimeRange(userId, startTime, endTime, fullFetchNoDate);
+                fetchTaskProgressUpdater.updateStartEndTime(effectiveTaskId, timeRange.start(), timeRange.end());
+            }
 
             PlatformAdapter adapter = adapterFactory.getAdapter(user.getPlatform().getType());
-            Map<String, Object> config = PlatformConfigUtil.mergePlatformConfig(
-                user.getPlatform(),
-                PlatformConfigUtil.parseConfig(objectMapper, user.getPlatform().getConfig())
-            );
+            Map<String, Object> config = platformConfigCache.getConfig(user.getPlatform());
 
             String platformType = user.getPlatform().getType().toUpperCase();
 
             int totalSaved = switch (platformType) {
-                case "ZSXQ" -> runZsxqTwoPhaseFetch(adapter, config, user, task, userId);
-                default -> runGenericPagination(adapter, config, user, task, timeRange.start(), timeRange.end(), 100, userId);
+                case "ZSXQ" -> runZsxqTwoPhaseFetch(adapter, config, user, task, userId, resume);
+                default -> runGenericPagination(adapter, config, user, task, timeRange.start(), timeRange.end(), 100, userId, resume);
             };
 
-            fetchTaskProgressUpdater.updateCompleted(effectiveTaskId, LocalDateTime.now(), totalSaved, totalSaved);
+            // 先解除登记并清除可能的中断标记，再写终态
+            cancellationRegistry.release(effectiveTaskId);
+            finishTask(effectiveTaskId, FetchTask.TaskStatus.COMPLETED, 100,
+                    () -> fetchTaskProgressUpdater.updateCompleted(effectiveTaskId, LocalDateTime.now(), totalSaved, totalSaved));
             user.setLastFetchedAt(LocalDateTime.now());
             trackedUserRepository.save(user);
             log.info("拉取内容完成: userId={}, savedCount={}", userId, totalSaved);
-        } catch (BusinessException e) {
-            log.error("拉取内容失败（业务异常）: userId={}", userId, e);
-            fetchTaskProgressUpdater.updateFailed(effectiveTaskId, LocalDateTime.now(), e.getMessage());
-            throw e;
+            savedForSchedule = totalSaved;
+        } catch (Exception e) {
+            // 取消会断开连接、中断等待，适配器可能因此抛出任意异常，以取消标记为准
+            boolean cancelled = cancellationRegistry.isCancelled(effectiveTaskId);
+            boolean abandoned = cancellationRegistry.isAbandoned(effectiveTaskId);
+            cancellationRegistry.release(effectiveTaskId);
+            if (abandoned) {
+                // 租约已被回收，任务可能已由其他节点续拉，只结束本地跟踪，不改写任务状态
+                log.warn("刷新任务租约已被回收，本节点放弃执行: userId={}, taskId={}", userId, effectiveTaskId);
+                progressBus.complete(effectiveTaskId, FetchTask.TaskStatus.PENDING.name(), null,
+                        "执行节点失联，任务已由其他节点接手", logs -> { });
+            } else if (cancelled) {
+                log.info("刷新任务已取消: userId={}, taskId={}", userId, effectiveTaskId);
+                finishTask(effectiveTaskId, FetchTask.TaskStatus.CANCELLED, null,
+                        () -> fetchTaskProgressUpdater.updateCancelled(effectiveTaskId, LocalDateTime.now()));
+            } else if (e instanceof BusinessException be) {
+                log.error("拉取内容失败（业务异常）: userId={}", userId, e);
+                finishTask(effectiveTaskId, FetchTask.TaskStatus.FAILED, null,
+                        () -> fetchTaskProgressUpdater.updateFailed(effectiveTaskId, LocalDateTime.now(), be.getMessage()));
+                throw be;
+            } else {
+                log.error("拉取内容失败: userId={}", userId, e);
+                finishTask(effectiveTaskId, FetchTask.TaskStatus.FAILED, null,
+                        () -> fetchTaskProgressUpdater.updateFailed(effectiveTaskId, LocalDateTime.now(), e.getMessage()));
+            }
+        } finally {
+            cancellationRegistry.release(effectiveTaskId);
+            notifyPollingScheduler(userId, savedForSchedule);
+        }
+    }
+
+    private void notifyPollingScheduler(UUID userId, int savedCount) {
+        if (pollingScheduler == null) {
+            return;
+        }
+        try {
+            pollingScheduler.onFetchFinished(userId, savedCount);
+        } catch (Exception e) {
+            log.warn("更新自适应拉取间隔失败: userId={}, error={}", userId, e.getMessage());
+        }
+    }
+
+    /** 记录断点；写入失败只影响重启后的续拉位置，不中断本次拉取 */
+    private void checkpoint(FetchTask task, FetchTask.FetchPhase phase, String cursor, int page, int saved,
+                            LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+        try {
+            fetchTaskProgressUpdater.updateCheckpoint(task.getId(), phase, cursor, page, saved, rangeStart, rangeEnd);
         } catch (Exception e) {
-            log.error("拉取内容失败: userId={}", userId, e);
-            fetchTaskProgressUpdater.updateFailed(effectiveTaskId, LocalDateTime.now(), e.getMessage());
+            log.warn("记录刷新任务断点失败: taskId={}, phase={}, page={}, error={}", task.getId(), phase, page, e.getMessage());
+        }
+    }
+
+    /** 结束进度跟踪：先提交终态再推送结束事件；任务未被跟踪时直接提交终态 */
+    private void finishTask(UUID taskId, FetchTask.TaskStatus status, Integer progress, Runnable terminalWrite) {
+        if (!progressBus.complete(taskId, status.name(), progress, null, logs -> terminalWrite.run())) {
+            terminalWrite.run();
         }
     }
 
@@ -138,22 +272,41 @@ public class ContentFetchService {
         return new TimeRange(effectiveStart, endTime);
     }
 
-    /** 通用分页拉取：支持完整拉取时的两阶段（先向前补历史，再拉最新） */
+    /** 通用分页拉取：支持完整拉取时的两阶段（先向前补历史，再拉最新）；resume 非空时从断点继续 */
     private int runGenericPagination(PlatformAdapter adapter, Map<String, Object> config, TrackedUser user,
                                     FetchTask task, LocalDateTime effectiveStart, LocalDateTime effectiveEnd,
-                                    int limit, UUID userId) throws Exception {
-        boolean fullFetchNoDate = (effectiveStart == null && effectiveEnd == null);
-        Long existingCount = fullFetchNoDate ? contentRepository.countByUserId(userId) : null;
-        boolean hadExistingContent = (existingCount != null && existingCount > 0);
-        String cursor = hadExistingContent && fullFetchNoDate
-            ? String.valueOf(Math.max(1, (existingCount / 100) + 1))
-            : null;
-
-        int totalSaved = runPaginationPhase(adapter, config, user, task, effectiveStart, effectiveEnd, cursor, limit, 0, userId);
-        if (fullFetchNoDate && hadExistingContent) {
+                                    int limit, UUID userId, Checkpoint resume) throws Exception {
+        FetchTask.FetchPhase phase;
+        String cursor;
+        int startPage = 0;
+        int savedOffset = 0;
+        if (resume != null) {
+            phase = resume.phase();
+            cursor = resume.cursor();
+            startPage = resume.page();
+            savedOffset = resume.saved();
+            effectiveStart = resume.rangeStart();
+            effectiveEnd = resume.rangeEnd();
+        } else {
+            boolean fullFetchNoDate = (effectiveStart == null && effectiveEnd == null);
+            Long existingCount = fullFetchNoDate ? contentRepository.countByUserId(userId) : null;
+            boolean hadExistingContent = (existingCount != null && existingCount > 0);
+            cursor = hadExistingContent && fullFetchNoDate
+                ? String.valueOf(Math.max(1, (existingCount / 100) + 1))
+                : null;
+            phase = fullFetchNoDate && hadExistingContent ? FetchTask.FetchPhase.BACKFILL : FetchTask.FetchPhase.RANGE;
+        }
+
+        int totalSaved = savedOffset + runPaginationPhase(adapter, config, user, task, phase, effectiveStart, effectiveEnd,
+            cursor, startPage, limit, savedOffset, userId);
+        if (phase == FetchTask.FetchPhase.BACKFILL) {
             LocalDateTime maxPub = contentRepository.findMaxPublishedAtByUserId(userId).orElse(null);
             if (maxPub != null) {
-                totalSaved += runPaginationPhase(adapter, config, user, task, maxPub, LocalDateTime.now(), null, limit, totalSaved, userId);
+                LocalDateTime now = LocalDateTime.now();
+                // 补历史阶段结束，记录进入拉最新阶段的断点，重启后不再重复补历史
+                checkpoint(task, FetchTask.FetchPhase.CATCH_UP, null, 0, totalSaved, maxPub, now);
+                totalSaved += runPaginationPhase(adapter, config, user, task, FetchTask.FetchPhase.CATCH_UP, maxPub, now,
+                    null, 0, limit, totalSaved, userId);
             }
         }
         return totalSaved;
@@ -165,9 +318,12 @@ public class ContentFetchService {
      * 二、用户已有文章：第一页不带 end_time 拉取 20 条，按条顺序处理，若某条已存在（contentId/hash）则只保存本页中该条之前的新文章并停止；若本页无重复则用本页第 20 条（时间最久）的 create_time 作为 end_time 拉取下一页，同样按条判断，一旦遇到重复则保存本页此前新文章并停止；重复直到某一页出现重复为止。
      */
     private int runZsxqTwoPhaseFetch(PlatformAdapter adapter, Map<String, Object> config, TrackedUser user,
-                                    FetchTask task, UUID userId) throws Exception {
-        long existingCount = contentRepository.countByUserId(userId);
-        boolean hasExistingContent = (existingCount > 0);
+                                    FetchTask task, UUID userId, Checkpoint resume) throws Exception {
+        // 续拉时沿用中断前的模式：此时库中已有本任务保存的文章，不能再据此判断
+        boolean hasExistingContent = resume != null
+            ? resume.phase() == FetchTask.FetchPhase.ZSXQ_NEW
+            : contentRepository.countByUserId(userId) > 0;
+        FetchTask.FetchPhase phase = hasExistingContent ? FetchTask.FetchPhase.ZSXQ_NEW : FetchTask.FetchPhase.ZSXQ_ALL;
 
         final int limit = 20;
         final int retryMax = 5;
@@ -176,12 +332,12 @@ public class ContentFetchService {
         /** 单用户最多翻页次数，避免在 API 一直返回 hasMore 时无限请求 */
         final int maxPages = 50;
 
-        String cursor = null;
+        String cursor = resume != null ? resume.cursor() : null;
         log.info("知识星球拉取: userId={}, 已有文章={}, 从最新一页开始，用每页时间最久的一篇的 create_time 作为 end_time 翻页，随机等待 {}～{} 秒，失败重试 {} 次，最多 {} 页",
             userId, hasExistingContent, delaySecMin, delaySecMax, retryMax, maxPages);
 
-        int savedInPhase = 0;
-        int pageNum = 0;
+        int savedInPhase = resume != null ? resume.saved() : 0;
+        int pageNum = resume != null ? resume.page() : 0;
         boolean stopDueToDuplicate = false;
 
         while (true) {
@@ -190,7 +346,7 @@ public class ContentFetchService {
                 log.warn("知识星球: 已达最大页数 {}，停止拉取 userId={}", maxPages, userId);
                 break;
             }
-            randomWait(delaySecMin, delaySecMax);
+            randomWait(task.getId(), delaySecMin, delaySecMax);
             FetchResult result = null;
             int retries = 0;
             while (retries <= retryMax) {
@@ -203,8 +359,9 @@ public class ContentFetchService {
                         log.error("知识星球 第 {} 页失败，已重试 {} 次: userId={}", pageNum, retryMax, userId, e);
                         throw e;
                     }
+                    cancellationRegistry.checkCancelled(task.getId());
                     int sleepSec = delaySecMin + ThreadLocalRandom.current().nextInt(delaySecMax - delaySecMin + 1);
-                    Thread.sleep(sleepSec * 1000L);
+                    cancellationRegistry.sleep(task.getId(), sleepSec * 1000L);
                     log.warn("知识星球 第 {} 页失败，{} 秒后重试 ({}/{}): {}", pageNum, sleepSec, retries, retryMax, e.getMessage());
                 }
             }
@@ -217,6 +374,7 @@ public class ContentFetchService {
             if (hasExistingContent) {
                 // 用户有文章：按条保存，遇到已存在的 contentId 则保存此前新文章并停止
                 for (PlatformContent pc : result.getContents()) {
+                    cancellationRegistry.checkCancelled(task.getId());
                     if (contentExists(pc)) {
                         log.info("知识星球: 遇到重复文章 contentId={}，保存本页新文章后停止", pc.getContentId());
                         stopDueToDuplicate = true;
@@ -231,6 +389,7 @@ public class ContentFetchService {
             } else {
                 // 用户没有文章：本页全部保存
                 for (PlatformContent pc : result.getContents()) {
+                    cancellationRegistry.checkCancelled(task.getId());
                     try {
                         if (self.saveContent(pc, user.getPlatform(), user) != null) savedInPhase++;
                     } catch (Exception e) {
@@ -239,37 +398,43 @@ public class ContentFetchService {
                 }
             }
 
-            fetchTaskProgressUpdater.updateProgress(task.getId(), result.isHasMore() ? 99 : 100, savedInPhase, savedInPhase);
+            progressBus.update(task.getId(), result.isHasMore() ? 99 : 100, savedInPhase, savedInPhase, null);
 
             if (stopDueToDuplicate || !result.isHasMore()) break;
             cursor = result.getNextCursor();
+            checkpoint(task, phase, cursor, pageNum, savedInPhase, null, null);
         }
 
-        fetchTaskProgressUpdater.updateProgress(task.getId(), 100, savedInPhase, savedInPhase);
+        progressBus.update(task.getId(), 100, savedInPhase, savedInPhase, null);
         log.info("知识星球拉取结束: userId={}, 保存={}", userId, savedInPhase);
         return savedInPhase;
     }
 
-    private void randomWait(int secMin, int secMax) throws InterruptedException {
+    private void randomWait(UUID taskId, int secMin, int secMax) throws InterruptedException {
         int sec = secMin + ThreadLocalRandom.current().nextInt(Math.max(1, secMax - secMin + 1));
-        Thread.sleep(sec * 1000L);
+        cancellationRegistry.sleep(taskId, sec * 1000L);
     }
 
     /**
-     * 执行一轮分页拉取：按页请求适配器、逐页保存并更新任务进度，返回本阶段新保存条数。
+     * 执行一轮分页拉取：按页请求适配器、逐页保存并更新任务进度，每页保存完成后记录断点，返回本阶段新保存条数。
+     * @param phase 本阶段，写入断点
+     * @param pagesDone 本阶段此前已完成的页数（续拉时非 0）
      * @param totalSavedOffset 本阶段开始前已保存总数，用于 task.setFetchedCount(offset + 本阶段保存数)
      * @return 本阶段新保存条数
      */
     private int runPaginationPhase(PlatformAdapter adapter, Map<String, Object> config, TrackedUser user,
-                                   FetchTask task, LocalDateTime effectiveStart, LocalDateTime effectiveEnd,
-                                   String initialCursor, int limit, int totalSavedOffset, UUID userId) throws Exception {
+                                   FetchTask task, FetchTask.FetchPhase phase,
+                                   LocalDateTime effectiveStart, LocalDateTime effectiveEnd,
+                                   String initialCursor, int pagesDone, int limit, int totalSavedOffset,
+                                   UUID userId) throws Exception {
         String cursor = initialCursor;
         int savedInPhase = 0;
-        int pageNum = 0;
+        int pageNum = pagesDone;
         final int maxRetries = 10;
         final int retrySleepSecMin = 10;
         final int retrySleepSecMax = 60;
         do {
+            cancellationRegistry.checkCancelled(task.getId());
             pageNum++;
             int retries = 0;
             FetchResult result = null;
@@ -290,8 +455,9 @@ public class ContentFetchService {
                         log.error("拉取第 {} 页失败，已重试 {} 次，放弃: userId={}", pageNum, maxRetries, userId, e);
                         throw e;
                     }
+                    cancellationRegistry.checkCancelled(task.getId());
                     int sleepSec = retrySleepSecMin + ThreadLocalRandom.current().nextInt(retrySleepSecMax - retrySleepSecMin + 1);
-                    Thread.sleep(sleepSec * 1000L);
+                    cancellationRegistry.sleep(task.getId(), sleepSec * 1000L);
                     log.warn("拉取第 {} 页失败，{} 秒后重试 ({}/{}): {}", pageNum, sleepSec, retries, maxRetries, e.getMessage());
                 }
             }
@@ -303,11 +469,13 @@ public class ContentFetchService {
                 if (pageNum == 1) log.warn("[保存排查] 适配器返回空内容");
                 if (!result.isHasMore()) break;
                 cursor = result.getNextCursor();
-                Thread.sleep(2000 + ThreadLocalRandom.current().nextInt(4000));
+                checkpoint(task, phase, cursor, pageNum, totalSavedOffset + savedInPhase, effectiveStart, effectiveEnd);
+                cancellationRegistry.sleep(task.getId(), 2000 + ThreadLocalRandom.current().nextInt(4000));
                 continue;
             }
             int savedThisPage = 0;
             for (PlatformContent platformContent : result.getContents()) {
+                cancellationRegistry.checkCancelled(task.getId());
                 try {
                     if (self.saveContent(platformContent, user.getPlatform(), user) != null) {
                         savedThisPage++;
@@ -320,10 +488,12 @@ public class ContentFetchService {
             log.info("[保存排查] 第 {} 页保存 {} 条, 本阶段累计 {} 条", pageNum, savedThisPage, savedInPhase);
             int totalSoFar = totalSavedOffset + savedInPhase;
             int progress = result.isHasMore() ? Math.min(99, totalSoFar > 0 ? 99 : 0) : 100;
-            fetchTaskProgressUpdater.updateProgress(task.getId(), progress, totalSoFar, totalSoFar);
+            progressBus.update(task.getId(), progress, totalSoFar, totalSoFar, null);
             if (!result.isHasMore()) break;
             cursor = result.getNextCursor();
-            Thread.sleep(2000 + ThreadLocalRandom.current().nextInt(4000));
+            // 本页已全部保存，记录下一页游标作为断点
+            checkpoint(task, phase, cursor, pageNum, totalSoFar, effectiveStart, effectiveEnd);
+            cancellationRegistry.sleep(task.getId(), 2000 + ThreadLocalRandom.current().nextInt(4000));
         } while (true);
         return savedInPhase;
     }
@@ -368,7 +538,7 @@ public class ContentFetchService {
             ? new HashMap<>(platformContent.getMetadata()) : new HashMap<>();
 
         // 3. 平台特定资产处理（图片下载、附件下载等）
-        applyPlatformAssetProcessor(platformContent, platform, user, content, metadataMap);
+        boolean imagesDeferred = applyPlatformAssetProcessor(platformContent, platform, user, content, metadataMap);
 
         // 如果策略未设置 mediaUrls（null 或空且平台有数据），则回退到原始平台数据
         List<String> current = content.getMediaUrls();
@@ -399,6 +569,10 @@ public class ContentFetchService {
         content.setHash(hash);
         content.setIsRead(false);
         content.setIsFavorite(false);
+        if (imagesDeferred) {
+            // 图片队列处理完成后清除；指令丢失或进入死信队列时由 ContentAssetSweeper 补偿
+            content.setAssetsPendingSince(LocalDateTime.now());
+        }
 
         Content saved = contentRepository.save(content);
         log.info("[保存排查] 保存内容成功: contentId={}, id={}", platformContent.getContentId(), saved.getId());
@@ -411,6 +585,12 @@ public class ContentFetchService {
                     content.getPlatform() != null ? content.getPlatform().getName() : null);
         }
 
+        // 图片交给图片队列，事务提交后发布指令；发布失败时在本节点直接下载
+        if (imagesDeferred) {
+            UUID savedId = saved.getId();
+            messagePublisher.publishAssetAfterCommit(savedId, () -> self.localizeContentImages(savedId));
+        }
+
         // 7. 触发通知规则（如 QQ 群推送）：异步避免阻塞拉取
         try {
             notificationService.checkAndNotify(saved);
@@ -420,42 +600,57 @@ public class ContentFetchService {
         return saved;
     }
 
-    private void applyPlatformAssetProcessor(PlatformContent platformContent,
-                                             Platform platform,
-                                             TrackedUser user,
-                                             Content content,
-                                             Map<String, Object> metadataMap) {
+    /**
+     * @return 图片是否推迟到图片队列下载（保存后需发布图片本地化指令）
+     */
+    private boolean applyPlatformAssetProcessor(PlatformContent platformContent,
+                                                Platform platform,
+                                                TrackedUser user,
+                                                Content content,
+                                                Map<String, Object> metadataMap) {
         // 关闭附件下载时，直接保留平台原始 URL，不做任何本地下载与替换
         if (!scheduleService.isContentAssetDownloadEnabled()) {
             List<String> urls = platformContent.getMediaUrls();
             content.setMediaUrls(urls != null ? new ArrayList<>(urls) : new ArrayList<>());
-            return;
+            return false;
         }
-        if (platform == null || platform.getType() == null) return;
+        if (platform == null || platform.getType() == null) return false;
         String type = platform.getType().toUpperCase();
+        boolean deferImages = messagePublisher != null && messagePublisher.isAssetQueueEnabled();
         try {
             switch (type) {
-                case "ZSXQ" -> processZsxqAssets(platformContent, platform, user, content, metadataMap);
-                case "TIMESTORE" -> processTimestoreAssets(platformContent, platform, user, content, metadataMap);
-                default -> { /* 无平台特定处理 */ }
+                case "ZSXQ" -> processZsxqAssets(platformContent, platform, user, content, metadataMap, deferImages);
+                case "TIMESTORE" -> {
+                    if (!deferImages) {
+                        processTimestoreAssets(platformContent, platform, user, content, metadataMap);
+                    }
+                }
+                default -> {
+                    /* 无平台特定处理 */
+                    return false;
+                }
             }
         } catch (Exception e) {
             log.warn("平台资产处理失败，将使用原始数据: platformType={}, contentId={}, error={}",
                 platform.getType(), platformContent.getContentId(), e.getMessage());
         }
+        return deferImages;
     }
 
     /**
-     * 知识星球：下载图片与附件到本地，并更新 mediaUrls 与元数据。
+     * 知识星球：下载图片与附件到本地，并更新 mediaUrls 与元数据；图片推迟到图片队列时只下载附件（附件链接有时效）。
      */
     private void processZsxqAssets(PlatformContent platformContent,
                                    Platform platform,
                                    TrackedUser user,
                                    Content content,
-                                   Map<String, Object> metadataMap) {
+                                   Map<String, Object> metadataMap,
+                                   boolean deferImages) {
         List<String> mediaUrls = platformContent.getMediaUrls();
-        mediaUrls = downloadImagesToLocal(mediaUrls);
-        content.setMediaUrls(mediaUrls);
+        if (!deferImages) {
+            mediaUrls = downloadImagesToLocal(mediaUrls);
+        }
+        content.setMediaUrls(mediaUrls != null ? new ArrayList<>(mediaUrls) : new ArrayList<>());
 
         List<Map<String, String>> downloadedFiles = downloadZsxqFilesToLocal(platform, metadataMap);
         if (!downloadedFiles.isEmpty()) {
@@ -497,6 +692,42 @@ public class ContentFetchService {
         }
     }
     
+    /**
+     * 图片队列消费：把已保存文章 mediaUrls 与正文中的远程图片下载到本地并替换链接，并清除图片本地化待办（独立事务）。
+     * 也用于指令发布失败时的本地下载与 ContentAssetSweeper 的补偿重试。
+     *
+     * @return 本地化的图片数；文章不存在时为 0
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int localizeContentImages(UUID contentId) {
+        Content content = contentRepository.findById(contentId).orElse(null);
+        if (content == null) {
+            log.warn("图片本地化跳过，文章不存在: contentId={}", contentId);
+            return 0;
+        }
+        Set<String> urlsToDownload = new LinkedHashSet<>();
+        if (content.getMediaUrls() != null) {
+            urlsToDownload.addAll(content.getMediaUrls());
+        }
+        urlsToDownload.addAll(extractImgUrlsFromHtml(content.getBody()));
+        Map<String, String> remoteToLocal = downloadImagesToLocalMap(new ArrayList<>(urlsToDownload));
+        content.setAssetsPendingSince(null);
+        if (remoteToLocal.isEmpty()) {
+            contentRepository.save(content);
+            return 0;
+        }
+        if (content.getMediaUrls() != null) {
+            List<String> newMediaUrls = new ArrayList<>();
+            for (String u : content.getMediaUrls()) {
+                newMediaUrls.add(u != null ? remoteToLocal.getOrDefault(u.trim(), u) : null);
+            }
+            content.setMediaUrls(newMediaUrls);
+        }
+        content.setBody(replaceRemoteImagesInBody(content.getBody(), remoteToLocal));
+        contentRepository.save(content);
+        return remoteToLocal.size();
+    }
+
     /**
      * 将图片 URL 下载到本地，返回远程 URL -> 本地 URL 映射（失败则保留原 URL）
      */
@@ -571,10 +802,7 @@ public class ContentFetchService {
         if (fileIdsObj == null || !(fileIdsObj instanceof List)) return result;
         List<?> fileIds = (List<?>) fileIdsObj;
         if (fileIds.isEmpty()) return result;
-        Map<String, Object> config = PlatformConfigUtil.mergePlatformConfig(
-            platform,
-            PlatformConfigUtil.parseConfig(objectMapper, platform.getConfig())
-        );
+        Map<String, Object> config = platformConfigCache.getConfig(platform);
         for (Object fidObj : fileIds) {
             String fileId = fidObj != null ? fidObj.toString() : null;
             if (fileId == null || fileId.isEmpty()) continue;
@@ -3,6 +3,7 @@ package com.caat.service;
 import com.caat.adapter.AdapterFactory;
 import com.caat.adapter.PlatformAdapter;
 import com.caat.adapter.model.PlatformContent;
+import com.caat.dto.ContentBatchUpdateRequest;
 import com.caat.entity.Content;
 import com.caat.entity.ContentDocument;
 import com.caat.entity.Platform;
@@ -22,6 +23,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -47,6 +50,9 @@ import java.util.regex.Pattern;
 @Service
 @RequiredArgsConstructor
 public class ContentService {
+
+    /** 按 id 列表批量标记的单次上限 */
+    static final int MAX_BATCH_UPDATE_IDS = 1000;
     
     private final ContentRepository contentRepository;
     private final ElasticsearchService elasticsearchService;
@@ -637,6 +643,65 @@ public class ContentService {
         return saved;
     }
     
+    /**
+     * 批量标记已读/收藏：按 id 列表或按作者、平台、时间范围执行一条集合 UPDATE，只改动状态不同的行；
+     * 提交后异步同步搜索索引（按 id 批量局部更新，按条件单次 update-by-query）。
+     * 返回各标记实际改动的行数，调用方据此增量调整未读数、收藏数，无需重新统计。
+     */
+    @Transactional
+    public BatchUpdateResult batchUpdateFlags(ContentBatchUpdateRequest request) {
+        if (request.getIsRead() == null && request.getIsFavorite() == null) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "请指定 isRead 或 isFavorite");
+        }
+        List<UUID> ids = request.getIds();
+        if (ids != null) {
+            if (request.hasFilter()) {
+                throw new BusinessException(ErrorCode.BAD_REQUEST, "ids 与作者、平台、时间范围条件不能同时指定");
+            }
+            if (ids.size() > MAX_BATCH_UPDATE_IDS) {
+                throw new BusinessException(ErrorCode.BAD_REQUEST, "单次最多更新 " + MAX_BATCH_UPDATE_IDS + " 条，请改用按条件更新");
+            }
+            if (ids.isEmpty()) {
+                return new BatchUpdateResult(0, 0);
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int readUpdated = 0;
+        int favoriteUpdated = 0;
+        if (request.getIsRead() != null) {
+            readUpdated = ids != null
+                ? contentRepository.updateIsReadByIdIn(ids, request.getIsRead(), now)
+                : contentRepository.updateIsReadByFilter(request.getUserId(), request.getPlatformId(),
+                    request.getStartTime(), request.getEndTime(), request.getIsRead(), now);
+        }
+        if (request.getIsFavorite() != null) {
+            favoriteUpdated = ids != null
+                ? contentRepository.updateIsFavoriteByIdIn(ids, request.getIsFavorite(), now)
+                : contentRepository.updateIsFavoriteByFilter(request.getUserId(), request.getPlatformId(),
+                    request.getStartTime(), request.getEndTime(), request.getIsFavorite(), now);
+        }
+        log.info("批量标记内容: ids={}, userId={}, platformId={}, isRead={} ({} 条), isFavorite={} ({} 条)",
+            ids != null ? ids.size() : null, request.getUserId(), request.getPlatformId(),
+            request.getIsRead(), readUpdated, request.getIsFavorite(), favoriteUpdated);
+        if (readUpdated + favoriteUpdated > 0) {
+            syncFlagsToSearchIndexAfterCommit(request);
+        }
+        return new BatchUpdateResult(readUpdated, favoriteUpdated);
+    }
+
+    private void syncFlagsToSearchIndexAfterCommit(ContentBatchUpdateRequest request) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    elasticsearchService.updateFlags(request);
+                }
+            });
+        } else {
+            elasticsearchService.updateFlags(request);
+        }
+    }
+
     /**
      * 删除内容，包括文字、图片、附件等该文章下的所有关联资源。
      * 会删除 mediaUrls、metadata.downloaded_file_urls、body 中 img 标签引用的本地文件。
@@ -658,44 +723,8 @@ public class ContentService {
      * 从 mediaUrls、metadata.downloaded_file_urls、body 中 img 标签提取本地路径并删除。
      */
     private void deleteLocalFilesForContent(Content content) {
-        Set<String> localUrlsToDelete = new HashSet<>();
-
-        if (content.getMediaUrls() != null) {
-            for (String url : content.getMediaUrls()) {
-                if (url != null && url.contains("/api/v1/uploads/")) {
-                    localUrlsToDelete.add(url.trim());
-                }
-            }
-        }
-
-        if (content.getMetadata() != null && !content.getMetadata().isBlank()) {
-            try {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> meta = objectMapper.readValue(content.getMetadata(), Map.class);
-                Object list = meta.get("downloaded_file_urls");
-                if (list instanceof List<?> urls) {
-                    for (Object item : urls) {
-                        if (item instanceof Map<?, ?> m) {
-                            Object localUrl = m.get("local_url");
-                            if (localUrl instanceof String s && s.contains("/api/v1/uploads/")) {
-                                localUrlsToDelete.add(s.trim());
-                            }
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                log.warn("解析 metadata 获取 downloaded_file_urls 失败: id={}", content.getId(), e);
-            }
-        }
-
-        if (content.getBody() != null && content.getBody().contains("/api/v1/uploads/")) {
-            Matcher m = Pattern.compile("src\\s*=\\s*[\"']([^\"']*?/api/v1/uploads/[^\"']+)[\"']")
-                .matcher(content.getBody());
-            while (m.find()) {
-                localUrlsToDelete.add(m.group(1).trim());
-            }
-        }
-
+        Set<String> localUrlsToDelete = contentAssetService.collectLocalUrls(
+            content.getMediaUrls(), content.getBody(), content.getMetadata());
         for (String url : localUrlsToDelete) {
             try {
                 contentAssetService.deleteLocalFileByUrl(url);
@@ -705,29 +734,6 @@ public class ContentService {
         }
     }
 
-    /**
-     * 按作者（追踪用户）删除该用户下的全部内容，包括文字、图片、附件等。
-     * @param userId 追踪用户 ID（content.user.id）
-     * @return 删除条数
-     */
-    @Transactional
-    public int deleteContentsByUserId(UUID userId) {
-        List<Content> contents = contentRepository.findAllByUserId(userId);
-        for (Content c : contents) {
-            deleteLocalFilesForContent(c);
-            try {
-                elasticsearchService.deleteContent(c.getId());
-            } catch (Exception e) {
-                log.warn("删除 Elasticsearch 索引失败: id={}", c.getId(), e);
-            }
-        }
-        int deleted = contentRepository.deleteByUserId(userId);
-        if (deleted > 0) {
-            log.info("已按作者删除 {} 条内容（含图片、附件）: userId={}", deleted, userId);
-        }
-        return deleted;
-    }
-
     /**
      * 获取内容统计（按用户或全局）
      */
@@ -753,6 +759,9 @@ public class ContentService {
 
     public record ContentStats(Long total, Long unread, Long favorite) {}
 
+    /** 批量标记结果：已读、收藏各自实际改动的行数 */
+    public record BatchUpdateResult(int readUpdated, int favoriteUpdated) {}
+
     /**
      * 修复 TimeStore 已保存文章中的外部图片：下载到本地并更新数据库中的地址。
      *
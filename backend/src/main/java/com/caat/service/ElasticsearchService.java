@@ -1,5 +1,6 @@
 package com.caat.service;
 
+import com.caat.dto.ContentBatchUpdateRequest;
 import com.caat.entity.Content;
 import com.caat.entity.ContentDocument;
 import org.springframework.data.domain.Page;
@@ -19,6 +20,12 @@ public interface ElasticsearchService {
 
     void deleteContent(UUID contentId);
 
+    /** 按作者删除全部索引文档（单次 delete-by-query） */
+    void deleteByUserId(UUID userId);
+
+    /** 批量更新已读/收藏标记：按 id 列表时批量局部更新，按过滤条件时单次 update-by-query */
+    void updateFlags(ContentBatchUpdateRequest request);
+
     Page<ContentDocument> search(String query, Pageable pageable);
 
     Page<ContentDocument> searchByRegex(String regexPattern, Pageable pageable);
@@ -1,5 +1,6 @@
 package com.caat.service;
 
+import com.caat.dto.ContentBatchUpdateRequest;
 import com.caat.entity.Content;
 import com.caat.entity.ContentDocument;
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +37,16 @@ public class ElasticsearchServiceDisabled implements ElasticsearchService {
         // no-op
     }
 
+    @Override
+    public void deleteByUserId(UUID userId) {
+        // no-op
+    }
+
+    @Override
+    public void updateFlags(ContentBatchUpdateRequest request) {
+        // no-op
+    }
+
     @Override
     public Page<ContentDocument> search(String query, Pageable pageable) {
         return new PageImpl<>(Collections.emptyList(), pageable, 0);
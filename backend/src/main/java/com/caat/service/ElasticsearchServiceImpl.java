@@ -1,5 +1,6 @@
 package com.caat.service;
 
+import com.caat.dto.ContentBatchUpdateRequest;
 import com.caat.entity.Content;
 import com.caat.entity.ContentDocument;
 import com.caat.repository.ContentDocumentRepository;
@@ -8,9 +9,24 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.query.ByQueryResponse;
+import org.springframework.data.elasticsearch.core.query.Criteria;
+import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
+import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.data.elasticsearch.core.query.ScriptType;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -22,7 +38,11 @@ import java.util.UUID;
 @ConditionalOnProperty(name = "app.elasticsearch.enabled", havingValue = "true", matchIfMissing = true)
 public class ElasticsearchServiceImpl implements ElasticsearchService {
 
+    /** 与 ContentDocument 日期字段的 pattern 一致 */
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
     private final ContentDocumentRepository contentDocumentRepository;
+    private final ElasticsearchOperations elasticsearchOperations;
 
     @Override
     @Transactional
@@ -53,6 +73,66 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         }
     }
 
+    @Override
+    public void deleteByUserId(UUID userId) {
+        try {
+            ByQueryResponse response = elasticsearchOperations.delete(
+                new CriteriaQuery(Criteria.where("userId").is(userId.toString())), ContentDocument.class);
+            log.info("已按作者从 Elasticsearch 删除 {} 个文档: userId={}", response.getDeleted(), userId);
+        } catch (Exception e) {
+            log.error("按作者从 Elasticsearch 删除失败: userId={}", userId, e);
+        }
+    }
+
+    /**
+     * 在 searchIndexExecutor 上执行，调用方（数据库批量更新提交后）无需等待索引更新
+     */
+    @Override
+    @Async("searchIndexExecutor")
+    public void updateFlags(ContentBatchUpdateRequest request) {
+        Map<String, Object> fields = new HashMap<>();
+        if (request.getIsRead() != null) {
+            fields.put("isRead", request.getIsRead());
+        }
+        if (request.getIsFavorite() != null) {
+            fields.put("isFavorite", request.getIsFavorite());
+        }
+        if (fields.isEmpty()) {
+            return;
+        }
+        try {
+            if (request.getIds() != null) {
+                List<UpdateQuery> updates = new ArrayList<>(request.getIds().size());
+                for (UUID id : request.getIds()) {
+                    updates.add(UpdateQuery.builder(id.toString())
+                        .withDocument(Document.from(fields))
+                        .withRetryOnConflict(3)
+                        .build());
+                }
+                elasticsearchOperations.bulkUpdate(updates, ContentDocument.class);
+                log.debug("已批量更新 Elasticsearch 标记: count={}, fields={}", updates.size(), fields);
+                return;
+            }
+            StringBuilder script = new StringBuilder();
+            for (String field : fields.keySet()) {
+                script.append("ctx._source.").append(field).append(" = params.").append(field).append(";");
+            }
+            UpdateQuery updateQuery = UpdateQuery.builder(flagFilterQuery(request))
+                .withScriptType(ScriptType.INLINE)
+                .withLang("painless")
+                .withScript(script.toString())
+                .withParams(fields)
+                .withAbortOnVersionConflict(false)
+                .build();
+            ByQueryResponse response = elasticsearchOperations.updateByQuery(updateQuery,
+                elasticsearchOperations.getIndexCoordinatesFor(ContentDocument.class));
+            log.info("已按条件更新 Elasticsearch 标记 {} 个文档: userId={}, platformId={}, fields={}",
+                response.getUpdated(), request.getUserId(), request.getPlatformId(), fields);
+        } catch (Exception e) {
+            log.error("批量更新 Elasticsearch 标记失败: fields={}", fields, e);
+        }
+    }
+
     @Override
     public Page<ContentDocument> search(String query, Pageable pageable) {
         return contentDocumentRepository.findByTitleContainingOrBodyContaining(query, query, pageable);
@@ -73,6 +153,34 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         return contentDocumentRepository.advancedSearch(query, contentType, pageable);
     }
 
+    private static Query flagFilterQuery(ContentBatchUpdateRequest request) {
+        if (!request.hasFilter()) {
+            return Query.findAll();
+        }
+        List<Criteria> parts = new ArrayList<>();
+        if (request.getUserId() != null) {
+            parts.add(Criteria.where("userId").is(request.getUserId().toString()));
+        }
+        if (request.getPlatformId() != null) {
+            parts.add(Criteria.where("platformId").is(request.getPlatformId().toString()));
+        }
+        if (request.getStartTime() != null) {
+            parts.add(Criteria.where("publishedAt").greaterThanEqual(formatDate(request.getStartTime())));
+        }
+        if (request.getEndTime() != null) {
+            parts.add(Criteria.where("publishedAt").lessThanEqual(formatDate(request.getEndTime())));
+        }
+        Criteria criteria = parts.get(0);
+        for (int i = 1; i < parts.size(); i++) {
+            criteria = criteria.and(parts.get(i));
+        }
+        return new CriteriaQuery(criteria);
+    }
+
+    private static String formatDate(LocalDateTime time) {
+        return DATE_FORMAT.format(time);
+    }
+
     private ContentDocument convertToDocument(Content content) {
         ContentDocument document = new ContentDocument();
         document.setId(content.getId().toString());
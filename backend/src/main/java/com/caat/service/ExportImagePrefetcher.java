@@ -0,0 +1,188 @@
+package com.caat.service;
+
+import com.caat.entity.Content;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 导出图片预取流水线：按文章写出顺序，在图片下载线程池中提前下载并压缩后续若干篇文章的图片，
+ * 写文档的线程取用时通常已就绪。
+ * 预取窗口同时受「领先文章数」与「已就绪未取用的字节数」限制；单张图片失败或等待超时仅返回 null，不影响导出。
+ * 非线程安全：只应由写文档的单个线程调用 {@link #get}。
+ */
+@Slf4j
+class ExportImagePrefetcher implements AutoCloseable {
+
+    /** 图片加载（下载/读取本地文件并压缩），返回 null 表示无可用图片 */
+    interface ImageLoader {
+        byte[] load(String url) throws Exception;
+    }
+
+    private final List<Content> contents;
+    private final Function<Content, List<String>> urlExtractor;
+    private final ImageLoader loader;
+    private final Executor executor;
+    private final int lookAhead;
+    private final long memoryBudgetBytes;
+    private final long waitTimeoutMillis;
+
+    private final Map<Content, Integer> indexOf = new IdentityHashMap<>();
+    private final Map<Integer, Map<String, CompletableFuture<byte[]>>> scheduled = new HashMap<>();
+    /** 已下载完成但尚未被取用的字节数 */
+    private final AtomicLong readyBytes = new AtomicLong();
+    private int nextToSchedule = 0;
+
+    ExportImagePrefetcher(List<Content> contents, Function<Content, List<String>> urlExtractor, ImageLoader loader,
+                          Executor executor, int lookAhead, long memoryBudgetBytes, long waitTimeoutMillis) {
+        this.contents = contents;
+        this.urlExtractor = urlExtractor;
+        this.loader = loader;
+        this.executor = executor;
+        this.lookAhead = Math.max(0, lookAhead);
+        this.memoryBudgetBytes = Math.max(0, memoryBudgetBytes);
+        this.waitTimeoutMillis = Math.max(1, waitTimeoutMillis);
+        for (int i = 0; i < contents.size(); i++) {
+            indexOf.put(contents.get(i), i);
+        }
+    }
+
+    /**
+     * 取某篇文章的一张图片；命中预取则等待其完成（最多 waitTimeoutMillis，超时取消并跳过该图），否则同步加载
+     */
+    byte[] get(Content content, String url) {
+        Integer index = indexOf.get(content);
+        if (index == null) {
+            return loadQuietly(url);
+        }
+        discardBefore(index);
+        fill(index);
+        Map<String, CompletableFuture<byte[]>> futures = scheduled.get(index);
+        CompletableFuture<byte[]> future = futures != null ? futures.remove(url) : null;
+        if (futures != null && futures.isEmpty()) {
+            scheduled.remove(index);
+        }
+        if (future == null) {
+            return loadQuietly(url);
+        }
+        byte[] bytes;
+        try {
+            bytes = future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (future.cancel(false)) {
+                log.warn("等待预取图片超时（{} ms），跳过: {}", waitTimeoutMillis, url);
+                return null;
+            }
+            // 取消前刚好完成
+            bytes = future.getNow(null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+        if (bytes != null) {
+            readyBytes.addAndGet(-bytes.length);
+        }
+        return bytes;
+    }
+
+    /** 当前已就绪未取用的字节数（用于监控与测试） */
+    long readyBytes() {
+        return readyBytes.get();
+    }
+
+    @Override
+    public void close() {
+        for (Map<String, CompletableFuture<byte[]>> futures : scheduled.values()) {
+            futures.values().forEach(f -> f.cancel(false));
+        }
+        scheduled.clear();
+    }
+
+    /**
+     * 推进预取窗口：当前文章总是调度；之后的文章在窗口与内存预算允许时调度
+     */
+    private void fill(int current) {
+        if (nextToSchedule < current) {
+            nextToSchedule = current;
+        }
+        while (nextToSchedule < contents.size() && nextToSchedule <= current + lookAhead
+                && (nextToSchedule == current || readyBytes.get() < memoryBudgetBytes)) {
+            schedule(nextToSchedule++);
+        }
+    }
+
+    private void schedule(int index) {
+        Map<String, CompletableFuture<byte[]>> futures = new LinkedHashMap<>();
+        for (String url : urlExtractor.apply(contents.get(index))) {
+            futures.computeIfAbsent(url, this::loadAsync);
+        }
+        if (!futures.isEmpty()) {
+            scheduled.put(index, futures);
+        }
+    }
+
+    /**
+     * 在线程池中加载一张图片：已取消（超时或 close）的任务在开始前直接跳过；
+     * 加载期间被取消时结果作废并归还已计入的预算
+     */
+    private CompletableFuture<byte[]> loadAsync(String url) {
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            byte[] bytes = loadQuietly(url);
+            if (bytes != null) {
+                readyBytes.addAndGet(bytes.length);
+            }
+            if (!future.complete(bytes) && bytes != null) {
+                readyBytes.addAndGet(-bytes.length);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 丢弃已写过的文章中未被取用的预取结果（例如重复 URL），完成后归还其占用的预算
+     */
+    private void discardBefore(int current) {
+        Iterator<Map.Entry<Integer, Map<String, CompletableFuture<byte[]>>>> it = scheduled.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, Map<String, CompletableFuture<byte[]>>> entry = it.next();
+            if (entry.getKey() < current) {
+                for (CompletableFuture<byte[]> future : entry.getValue().values()) {
+                    future.thenAccept(bytes -> {
+                        if (bytes != null) {
+                            readyBytes.addAndGet(-bytes.length);
+                        }
+                    });
+                }
+                it.remove();
+            }
+        }
+    }
+
+    private byte[] loadQuietly(String url) {
+        try {
+            return loader.load(url);
+        } catch (Exception e) {
+            log.warn("预取图片失败，跳过: {}, error={}", url, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package com.caat.service;
 
-import com.caat.entity.Content;
 import com.caat.entity.ExportTask;
+import com.caat.exception.BusinessException;
+import com.caat.exception.ErrorCode;
 import com.caat.repository.ContentRepository;
 import com.caat.repository.ExportTaskRepository;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -9,26 +10,31 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
 
 /**
  * 数据导出服务
@@ -38,31 +44,50 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ExportService {
     
-    private final ContentRepository contentRepository;
     private final ExportTaskRepository exportTaskRepository;
     private final PdfWordExportService pdfWordExportService;
     private final ExportTaskProgressUpdater progressUpdater;
     private final ObjectMapper objectMapper;
+    private final ContentExportWriter contentExportWriter;
+    private final ContentRepository contentRepository;
+    private final TaskProgressBus progressBus;
     
-    /** 用于异步方法调用，避免同一类内调用时 @Async 不生效（self-injection） */
-    private ExportService self;
+    /** 导出队列调度器（与本服务互相依赖，延迟注入） */
+    private ExportTaskScheduler exportTaskScheduler;
     
     @Lazy
     @Autowired
-    public void setSelf(ExportService self) {
-        this.self = self;
+    public void setExportTaskScheduler(ExportTaskScheduler exportTaskScheduler) {
+        this.exportTaskScheduler = exportTaskScheduler;
     }
     
     private static final String EXPORT_DIR = "exports";
+    /** 默认排队优先级 */
+    public static final int DEFAULT_PRIORITY = 5;
+    /** 成本预估中每张图片折合的文章数（下载、压缩、嵌入文档的开销远高于文字） */
+    static final long IMAGE_COST_WEIGHT = 10;
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    
+    /** 水位线相对数据库当前时间的安全延迟，覆盖执行中事务的提交延迟与节点时钟偏差 */
+    @Value("${app.export.incremental.watermark-lag:2m}")
+    private Duration watermarkLag = Duration.ofMinutes(2);
     
     /**
-     * 创建异步导出任务
+     * 创建异步导出任务：写入导出队列，由 ExportTaskScheduler 按优先级与成本预算调度执行
      * @param sortOrder PDF/Word 日期排序：ASC | DESC，默认 DESC
+     * @param priority 排队优先级 0-9，数值越大越先执行，默认 5
+     * @param incremental 增量导出：只导出该作者同格式上一卷以来新增或更新的文章，作为新的一卷（忽略发布时间范围）
      */
     @Transactional
     public ExportTask createExportTask(UUID userId, ExportTask.ExportFormat format, 
-                                      LocalDateTime startTime, LocalDateTime endTime, String sortOrder) {
-        log.info("开始创建导出任务: userId={}, format={}, sortOrder={}", userId, format, sortOrder);
+                                      LocalDateTime startTime, LocalDateTime endTime, String sortOrder,
+                                      Integer priority, boolean incremental) {
+        log.info("开始创建导出任务: userId={}, format={}, sortOrder={}, priority={}, incremental={}",
+                userId, format, sortOrder, priority, incremental);
+        if (incremental && userId == null) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "增量导出必须指定用户");
+        }
         ExportTask task = new ExportTask();
         task.setUserId(userId);
         task.setExportFormat(format);
@@ -70,60 +95,147 @@ public class ExportService {
         task.setEndTime(endTime);
         task.setSortOrder(sortOrder != null ? sortOrder : "DESC");
         task.setStatus(ExportTask.TaskStatus.PENDING);
+        task.setPriority(priority != null ? Math.max(0, Math.min(9, priority)) : DEFAULT_PRIORITY);
+        task.setIncremental(incremental);
+        task.setEstimatedCost(estimateCost(userId, format, startTime, endTime, incremental));
+        return enqueue(task, "任务已创建，已进入导出队列（预估成本 " + task.getEstimatedCost() + "）");
+    }
+    
+    /**
+     * 创建合并任务：把某个 PDF 增量卷及其之前直到全量卷的整条卷链合并为一个文件，合并结果作为后续增量导出的起点
+     */
+    @Transactional
+    public ExportTask createCompactionTask(UUID volumeTaskId) {
+        ExportTask source = getExportTask(volumeTaskId);
+        if (source.getExportFormat() != ExportTask.ExportFormat.PDF) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "仅 PDF 支持合并增量卷，其他格式请直接全量导出");
+        }
+        if (source.getStatus() != ExportTask.TaskStatus.COMPLETED || source.getFilePath() == null
+                || source.getSinceWatermark() == null) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "只能从已完成的增量卷发起合并");
+        }
+        ExportTask task = new ExportTask();
+        task.setUserId(source.getUserId());
+        task.setExportFormat(ExportTask.ExportFormat.PDF);
+        task.setSortOrder(source.getSortOrder());
+        task.setStatus(ExportTask.TaskStatus.PENDING);
+        task.setPriority(DEFAULT_PRIORITY);
+        task.setCompaction(true);
+        task.setPreviousTaskId(source.getId());
+        // 合并只复制页面，成本按卷数计
+        task.setEstimatedCost(source.getVolumeNumber() != null ? source.getVolumeNumber().longValue() : 1L);
+        return enqueue(task, "合并任务已创建，将合并至第 " + source.getVolumeNumber() + " 卷");
+    }
+    
+    /** 保存 PENDING 任务并在事务提交后唤醒调度器 */
+    private ExportTask enqueue(ExportTask task, String initialLog) {
         task.setProgress(1); // 设置初始进度，表示任务已创建
         try {
-            task.setLogMessages(objectMapper.writeValueAsString(List.of("任务已创建，准备开始...")));
+            task.setLogMessages(objectMapper.writeValueAsString(List.of(initialLog)));
         } catch (Exception e) {
             log.warn("设置初始日志失败", e);
         }
         // 立即保存任务，确保任务ID生成
         task = exportTaskRepository.saveAndFlush(task);
-        log.info("导出任务已创建: taskId={}, status={}, progress={}", task.getId(), task.getStatus(), task.getProgress());
+        log.info("导出任务已入队: taskId={}, priority={}, estimatedCost={}", task.getId(), task.getPriority(), task.getEstimatedCost());
         
-        // 在事务提交后异步执行导出任务，确保任务已保存到数据库
+        // 事务提交后唤醒调度器，确保调度器能读到新任务
         final UUID taskId = task.getId();
         if (TransactionSynchronizationManager.isActualTransactionActive()) {
             TransactionSynchronizationManager.registerSynchronization(
                 new org.springframework.transaction.support.TransactionSynchronization() {
                     @Override
                     public void afterCommit() {
-                        log.info("事务已提交，启动异步导出任务: taskId={}", taskId);
-                        try {
-                            // 使用 self 调用，确保 @Async 生效
-                            self.executeExportTaskAsync(taskId);
-                            log.info("已启动异步导出任务: taskId={}", taskId);
-                        } catch (Exception e) {
-                            log.error("启动异步导出任务失败: taskId={}", taskId, e);
-                        }
+                        wakeUpScheduler(taskId);
                     }
                 }
             );
         } else {
-            // 如果没有活动事务，直接启动异步任务
-            log.info("无活动事务，直接启动异步导出任务: taskId={}", taskId);
-            try {
-                // 使用 self 调用，确保 @Async 生效
-                self.executeExportTaskAsync(taskId);
-                log.info("已启动异步导出任务: taskId={}", taskId);
-            } catch (Exception e) {
-                log.error("启动异步导出任务失败: taskId={}", taskId, e);
-            }
+            wakeUpScheduler(taskId);
         }
         
-        // 立即返回任务，不等待异步任务执行
-        log.info("返回任务给前端: taskId={}", taskId);
+        // 立即返回任务，不等待导出执行
+        task.setQueuePosition(exportTaskScheduler.queuePosition(task));
         return task;
     }
     
+    private void wakeUpScheduler(UUID taskId) {
+        try {
+            exportTaskScheduler.wakeUp();
+        } catch (Exception e) {
+            // 定时派发会兜底
+            log.warn("唤醒导出调度器失败: taskId={}", taskId, e);
+        }
+    }
+    
     /**
-     * 异步执行导出任务
+     * 预估导出成本：文章数 + 图片数 × 权重（PDF/Word 嵌入图片；其余格式只写文字，成本为文章数）
+     */
+    long estimateCost(UUID userId, ExportTask.ExportFormat format, LocalDateTime startTime, LocalDateTime endTime,
+                      boolean incremental) {
+        try {
+            // 增量导出按上一卷以来的变更文章数估算
+            Long changed = null;
+            if (incremental) {
+                changed = exportTaskRepository
+                        .findFirstByUserIdAndExportFormatAndStatusAndWatermarkIsNotNullAndFilePathIsNotNullOrderByWatermarkDescCompletedAtDesc(
+                                userId, format, ExportTask.TaskStatus.COMPLETED)
+                        .map(base -> contentRepository.countByUserIdAndContentModifiedAtBetween(userId, base.getWatermark(), MAX_TIME))
+                        .orElse(null);
+            }
+            if (format == ExportTask.ExportFormat.PDF || format == ExportTask.ExportFormat.WORD) {
+                if (userId == null) {
+                    return 0L;
+                }
+                // PDF/Word 导出该作者全部文章，不按时间范围过滤；增量时按该作者的平均图片数折算
+                Long total = contentRepository.countByUserId(userId);
+                long contents = total != null ? total : 0L;
+                long images = contentRepository.countMediaUrlsByUserId(userId);
+                if (changed != null) {
+                    return changed + (contents > 0 ? changed * images * IMAGE_COST_WEIGHT / contents : 0L);
+                }
+                return contents + images * IMAGE_COST_WEIGHT;
+            }
+            if (changed != null) {
+                return changed;
+            }
+            LocalDateTime start = startTime != null ? startTime : MIN_TIME;
+            LocalDateTime end = endTime != null ? endTime : MAX_TIME;
+            return userId != null
+                    ? contentRepository.countByUserIdAndPublishedAtBetween(userId, start, end)
+                    : contentRepository.countByPublishedAtBetween(start, end);
+        } catch (Exception e) {
+            log.warn("预估导出成本失败，按 0 处理: userId={}, format={}", userId, format, e);
+            return 0L;
+        }
+    }
+    
+    /**
+     * 取消导出任务：排队中的立即取消，运行中的在下一个进度检查点中止并清理临时文件
+     */
+    public void cancelExportTask(UUID taskId) {
+        ExportTask task = getExportTask(taskId);
+        if (task.getStatus() != ExportTask.TaskStatus.PENDING && task.getStatus() != ExportTask.TaskStatus.RUNNING) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "任务已结束，无法取消");
+        }
+        if (!exportTaskScheduler.cancel(taskId)) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "任务不在本节点运行或已结束，无法取消");
+        }
+        if (task.getStatus() == ExportTask.TaskStatus.PENDING) {
+            appendLogAndFinish(taskId, ExportTask.TaskStatus.CANCELLED, "导出已取消");
+        }
+    }
+    
+    /**
+     * 执行导出任务（由 ExportTaskScheduler 在导出线程池中调用，任务已被认领为 RUNNING）
      */
-    @Async
     @Transactional
-    public void executeExportTaskAsync(UUID taskId) {
-        log.info("异步导出任务开始执行: taskId={}", taskId);
+    public void executeExportTask(UUID taskId) {
+        log.info("导出任务开始执行: taskId={}", taskId);
         ExportTask task = exportTaskRepository.findById(taskId)
                 .orElseThrow(() -> new RuntimeException("导出任务不存在: " + taskId));
+        // JSON/Markdown/CSV/HTML/ZIP 直接写入最终文件，失败或取消时需删除
+        Path textFile = null;
         
         try {
             log.info("更新任务状态为RUNNING: taskId={}", taskId);
@@ -148,10 +260,39 @@ public class ExportService {
             }
             progressUpdater.updateStatusWithStartedAt(taskId, ExportTask.TaskStatus.RUNNING, startedAt, 2, logMessagesJson);
             log.info("任务状态已更新为RUNNING: taskId={}, progress=2", taskId);
+            // 之后的进度只写内存并推送给订阅者，由进度总线定时合并写库
+            progressBus.track(taskId, TaskProgressBus.KIND_EXPORT, initialLogs, snapshot -> {
+                try {
+                    progressUpdater.updateProgress(taskId, snapshot.progress(), objectMapper.writeValueAsString(snapshot.logs()));
+                } catch (Exception e) {
+                    log.debug("刷写导出进度失败: taskId={}, error={}", taskId, e.getMessage());
+                }
+            });
             
-            byte[] data;
-            String suggestedFileName = null;
-            if (task.getExportFormat() == ExportTask.ExportFormat.PDF || task.getExportFormat() == ExportTask.ExportFormat.WORD) {
+            Path exportPath = Paths.get(EXPORT_DIR);
+            if (!Files.exists(exportPath)) {
+                Files.createDirectories(exportPath);
+            }
+            // 水位线取数据库时间减去安全延迟：本卷包含此刻之前的变更，之后（含尚未提交的写入）留给下一卷
+            ExportVolume volume = null;
+            List<Path> volumeChain = null;
+            String compactedFileName = null;
+            if (Boolean.TRUE.equals(task.getCompaction())) {
+                List<ExportTask> chain = volumeChain(task.getPreviousTaskId());
+                ExportTask newest = chain.get(chain.size() - 1);
+                volumeChain = chain.stream().map(t -> Paths.get(t.getFilePath())).toList();
+                String baseName = volumeChain.get(0).getFileName().toString().replaceFirst("(-合订至第\\d+卷)?\\.pdf$", "");
+                compactedFileName = baseName + "-合订至第" + newest.getVolumeNumber() + "卷.pdf";
+                // 合并结果沿用最新一卷的水位线与卷号，后续增量卷从这里接续编号
+                progressUpdater.updateVolume(taskId, null, newest.getWatermark(), newest.getId(), newest.getVolumeNumber());
+            } else {
+                volume = resolveVolume(task, contentRepository.currentDatabaseTime().minus(watermarkLag));
+            }
+            PdfWordExportService.ExportResult rendered = null;
+            if (volumeChain != null) {
+                rendered = pdfWordExportService.mergeVolumes(volumeChain, compactedFileName,
+                        progressLogger(taskId), partFilePath(taskId));
+            } else if (task.getExportFormat() == ExportTask.ExportFormat.PDF || task.getExportFormat() == ExportTask.ExportFormat.WORD) {
                 // PDF/Word 使用 PdfWordExportService，带进度回调
                 if (task.getUserId() == null) {
                     throw new IllegalArgumentException("PDF/Word 导出必须指定用户");
@@ -159,171 +300,251 @@ public class ExportService {
                 PdfWordExportService.SortOrder order = "ASC".equalsIgnoreCase(task.getSortOrder())
                         ? PdfWordExportService.SortOrder.ASC
                         : PdfWordExportService.SortOrder.DESC;
-                final List<String> logList = new ArrayList<>();
-                try {
-                    if (task.getLogMessages() != null) {
-                        logList.addAll(objectMapper.readValue(task.getLogMessages(), new TypeReference<List<String>>() {}));
-                    }
-                } catch (Exception ignored) {}
-                final UUID finalTaskId = taskId;
-                PdfWordExportService.ProgressCallback callback = (progress, message) -> {
-                    logList.add(message);
-                    log.debug("导出进度更新: taskId={}, progress={}%, message={}", finalTaskId, progress, message);
-                    try {
-                        String logJson = objectMapper.writeValueAsString(logList);
-                        progressUpdater.updateProgress(finalTaskId, progress, logJson);
-                    } catch (IllegalStateException e) {
-                        log.debug("无法更新任务进度：应用上下文已关闭，taskId={}", finalTaskId);
-                    } catch (org.springframework.beans.factory.BeanCreationException e) {
-                        log.debug("无法更新任务进度：应用上下文正在重新加载，taskId={}", finalTaskId);
-                    } catch (org.springframework.context.ApplicationContextException e) {
-                        log.debug("无法更新任务进度：应用上下文异常，taskId={}", finalTaskId);
-                    } catch (Exception ex) {
-                        String exMsg = ex.getMessage();
-                        String exClassName = ex.getClass().getName();
-                        if (exMsg != null && (
-                            exMsg.contains("has been closed") ||
-                            exMsg.contains("ApplicationContext") ||
-                            exMsg.contains("BeanFactory") ||
-                            exMsg.contains("FlywayProperties") ||
-                            exMsg.contains("Could not bind properties") ||
-                            exClassName.contains("ConfigurationProperties") ||
-                            exClassName.contains("BeanCreation") ||
-                            exClassName.contains("ApplicationContext")
-                        )) {
-                            log.debug("无法更新任务进度：应用上下文问题，taskId={}, error={}", finalTaskId, exMsg);
-                        } else {
-                            log.warn("更新导出任务日志失败，taskId={}, error={}", finalTaskId, ex.getMessage());
-                        }
-                    }
-                };
-                PdfWordExportService.ExportResult result;
+                PdfWordExportService.ProgressCallback callback = progressLogger(taskId);
+                // 先写入任务专属的临时文件，完成后再按建议文件名原子改名，避免下载到半成品
+                Path partFile = partFilePath(taskId);
                 if (task.getExportFormat() == ExportTask.ExportFormat.PDF) {
-                    result = pdfWordExportService.exportToPdf(task.getUserId(), order, callback);
+                    rendered = pdfWordExportService.exportToPdf(task.getUserId(), order, callback, partFile, volume);
                 } else {
-                    result = pdfWordExportService.exportToWord(task.getUserId(), order, callback);
-                }
-                data = result.data();
-                suggestedFileName = result.suggestedFileName();
-            } else {
-                // JSON/Markdown/CSV/HTML 使用原有逻辑
-                try {
-                    progressUpdater.updateProgress(taskId, 10, objectMapper.writeValueAsString(List.of("开始加载数据...")));
-                } catch (Exception e) {
-                    log.warn("更新进度失败: taskId={}", taskId, e);
-                }
-                data = exportToFormat(task.getUserId(), task.getExportFormat(), 
-                        task.getStartTime(), task.getEndTime());
-                try {
-                    progressUpdater.updateProgress(taskId, 80, objectMapper.writeValueAsString(List.of("开始加载数据...", "数据加载完成，正在生成文件...")));
-                } catch (Exception e) {
-                    log.warn("更新进度失败: taskId={}", taskId, e);
+                    rendered = pdfWordExportService.exportToWord(task.getUserId(), order, callback, partFile, volume);
                 }
             }
             
-            if (data.length == 0 && (task.getExportFormat() == ExportTask.ExportFormat.PDF || task.getExportFormat() == ExportTask.ExportFormat.WORD)) {
-                List<String> finalLogs = new ArrayList<>();
-                try {
-                    if (task.getLogMessages() != null) {
-                        finalLogs = objectMapper.readValue(task.getLogMessages(), new TypeReference<List<String>>() {});
-                    }
-                } catch (Exception ignored) {}
-                finalLogs.add("导出完成（无内容）");
-                try {
-                    progressUpdater.updateCompleted(taskId, ExportTask.TaskStatus.COMPLETED, LocalDateTime.now(), 
-                            null, null, 100, objectMapper.writeValueAsString(finalLogs));
-                } catch (Exception e) {
-                    log.warn("更新完成状态失败: taskId={}", taskId, e);
-                }
+            if (rendered != null && rendered.isEmpty()) {
+                Files.deleteIfExists(partFilePath(taskId));
+                finishTask(taskId, ExportTask.TaskStatus.COMPLETED, 100, "导出完成（无内容）",
+                        logJson -> progressUpdater.updateCompleted(taskId, ExportTask.TaskStatus.COMPLETED, LocalDateTime.now(),
+                                null, null, 100, logJson));
                 log.info("导出任务完成(无内容): taskId={}, format={}", taskId, task.getExportFormat());
                 return;
             }
             
             // 保存文件（PDF/Word 使用 username-平台-时间 命名）
+            String suggestedFileName = rendered != null ? rendered.suggestedFileName() : null;
             String fileName = (suggestedFileName != null && !suggestedFileName.isEmpty())
-                    ? suggestedFileName : generateFileName(task.getExportFormat());
-            Path exportPath = Paths.get(EXPORT_DIR);
-            if (!Files.exists(exportPath)) {
-                Files.createDirectories(exportPath);
-            }
+                    ? suggestedFileName : generateFileName(task.getExportFormat(), volume);
             
             Path filePath = exportPath.resolve(fileName);
-            Files.write(filePath, data);
-            
-            // 更新任务状态（使用 REQUIRES_NEW 事务立即提交）
-            List<String> finalLogs = new ArrayList<>();
-            try {
-                // 重新查询任务以获取最新的日志
-                ExportTask latestTask = exportTaskRepository.findById(taskId).orElse(null);
-                if (latestTask != null && latestTask.getLogMessages() != null) {
-                    try {
-                        finalLogs = objectMapper.readValue(latestTask.getLogMessages(), new TypeReference<List<String>>() {});
-                    } catch (Exception ignored) {}
+            if (rendered != null) {
+                Files.move(partFilePath(taskId), filePath, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                // JSON/Markdown/CSV/HTML/ZIP 经数据库游标逐条写入文件，不在内存中拼装
+                progressBus.update(taskId, 10, null, null, "开始导出数据...");
+                long written;
+                textFile = filePath;
+                try (OutputStream out = new BufferedOutputStream(cancellable(Files.newOutputStream(filePath), taskId))) {
+                    written = contentExportWriter.write(task.getUserId(), task.getExportFormat(),
+                            task.getStartTime(), task.getEndTime(), volume, out);
                 }
-            } catch (Exception ignored) {}
-            finalLogs.add("导出完成");
-            try {
-                progressUpdater.updateCompleted(taskId, ExportTask.TaskStatus.COMPLETED, LocalDateTime.now(), 
-                        filePath.toString(), (long) data.length, 100, objectMapper.writeValueAsString(finalLogs));
-            } catch (Exception e) {
-                log.warn("更新完成状态失败: taskId={}", taskId, e);
+                progressBus.update(taskId, 90, null, null, "已写出 " + written + " 条内容");
             }
+            long fileSize = Files.size(filePath);
+            
+            // 更新任务状态（使用 REQUIRES_NEW 事务立即提交）
+            finishTask(taskId, ExportTask.TaskStatus.COMPLETED, 100, "导出完成",
+                    logJson -> progressUpdater.updateCompleted(taskId, ExportTask.TaskStatus.COMPLETED, LocalDateTime.now(),
+                            filePath.toString(), fileSize, 100, logJson));
             
             log.info("导出任务完成: taskId={}, format={}, fileSize={}", 
-                    taskId, task.getExportFormat(), data.length);
+                    taskId, task.getExportFormat(), fileSize);
         } catch (Exception e) {
-            log.error("导出任务失败: taskId={}", taskId, e);
-            List<String> errLogs = new ArrayList<>();
             try {
-                // 重新查询任务以获取最新的日志
-                ExportTask latestTask = exportTaskRepository.findById(taskId).orElse(null);
-                if (latestTask != null && latestTask.getLogMessages() != null) {
-                    try {
-                        errLogs = objectMapper.readValue(latestTask.getLogMessages(), new TypeReference<List<String>>() {});
-                    } catch (Exception ignored) {}
+                Files.deleteIfExists(partFilePath(taskId));
+                if (textFile != null) {
+                    Files.deleteIfExists(textFile);
                 }
-            } catch (Exception ignored) {}
-            errLogs.add("导出失败: " + e.getMessage());
+            } catch (IOException ioe) {
+                log.warn("删除导出临时文件失败: taskId={}", taskId, ioe);
+            }
+            // 租约已被回收时任务可能已由其他节点重新执行，不改写任务状态
+            if (exportTaskScheduler.isLeaseLost(taskId)) {
+                log.warn("导出任务租约已被回收，本节点放弃执行: taskId={}", taskId);
+                progressBus.complete(taskId, ExportTask.TaskStatus.PENDING.name(), null,
+                        "执行节点失联，任务已放回队列", logs -> { });
+                return;
+            }
+            // 取消异常可能被渲染线程包装，以调度器中的取消标记为准
+            if (exportTaskScheduler.isCancelRequested(taskId)) {
+                log.info("导出任务已取消: taskId={}", taskId);
+                appendLogAndFinish(taskId, ExportTask.TaskStatus.CANCELLED, "导出已取消");
+                return;
+            }
+            log.error("导出任务失败: taskId={}", taskId, e);
+            finishTask(taskId, ExportTask.TaskStatus.FAILED, null, "导出失败: " + e.getMessage(),
+                    logJson -> progressUpdater.updateFailed(taskId, LocalDateTime.now(), e.getMessage(), logJson));
+        }
+    }
+    
+    /**
+     * 进度回调：追加日志并更新进度总线（推送给订阅者，定时合并写库）；被请求取消时抛出 CancellationException 中止导出
+     */
+    private PdfWordExportService.ProgressCallback progressLogger(UUID taskId) {
+        return (progress, message) -> {
+            checkCancelled(taskId);
+            log.debug("导出进度更新: taskId={}, progress={}%, message={}", taskId, progress, message);
+            progressBus.update(taskId, progress, null, null, message);
+        };
+    }
+    
+    /**
+     * 确定本次导出的卷：增量任务接续（作者, 格式）最近一卷的水位线，找不到上一卷时退化为全量；结果立即写入任务。
+     * 只有覆盖作者全部文章的导出才记录水位线（可作为后续增量卷的起点），限定发布时间范围或未指定作者的导出不记录
+     */
+    private ExportVolume resolveVolume(ExportTask task, LocalDateTime watermark) {
+        ExportTask base = null;
+        if (Boolean.TRUE.equals(task.getIncremental())) {
+            base = exportTaskRepository
+                    .findFirstByUserIdAndExportFormatAndStatusAndWatermarkIsNotNullAndFilePathIsNotNullOrderByWatermarkDescCompletedAtDesc(
+                            task.getUserId(), task.getExportFormat(), ExportTask.TaskStatus.COMPLETED)
+                    .orElse(null);
+            if (base == null) {
+                log.info("未找到上一卷，增量导出按全量执行: taskId={}", task.getId());
+            }
+        }
+        ExportVolume volume = base == null
+                ? ExportVolume.full(watermark)
+                : new ExportVolume((base.getVolumeNumber() != null ? base.getVolumeNumber() : 1) + 1,
+                        base.getWatermark(), watermark, Paths.get(base.getFilePath()).getFileName().toString());
+        progressUpdater.updateVolume(task.getId(), volume.changedAfter(), coversAllContents(task) ? watermark : null,
+                base != null ? base.getId() : null, volume.number());
+        return volume;
+    }
+    
+    /** 增量卷与 PDF/Word（始终导出作者全部文章）覆盖作者全部文章；文本格式限定了发布时间范围时不覆盖 */
+    static boolean coversAllContents(ExportTask task) {
+        if (task.getUserId() == null) {
+            return false;
+        }
+        if (Boolean.TRUE.equals(task.getIncremental())
+                || task.getExportFormat() == ExportTask.ExportFormat.PDF
+                || task.getExportFormat() == ExportTask.ExportFormat.WORD) {
+            return true;
+        }
+        return task.getStartTime() == null && task.getEndTime() == null;
+    }
+    
+    /**
+     * 从某一卷沿 previousTaskId 回溯到全量卷（或上一次合并结果），按从旧到新返回
+     */
+    private List<ExportTask> volumeChain(UUID newestVolumeId) {
+        List<ExportTask> chain = new ArrayList<>();
+        UUID id = newestVolumeId;
+        while (id != null) {
+            ExportTask volumeTask = exportTaskRepository.findById(id)
+                    .orElseThrow(() -> new IllegalStateException("增量卷链不完整，请重新全量导出"));
+            if (volumeTask.getFilePath() == null || !Files.isReadable(Paths.get(volumeTask.getFilePath()))) {
+                throw new IllegalStateException("第 " + volumeTask.getVolumeNumber() + " 卷文件不存在，请重新全量导出");
+            }
+            chain.add(0, volumeTask);
+            if (volumeTask.getSinceWatermark() == null) {
+                break;
+            }
+            id = volumeTask.getPreviousTaskId();
+        }
+        return chain;
+    }
+    
+    /** 运行中任务被请求取消或租约已被回收时，在进度检查点抛出以中止导出 */
+    private void checkCancelled(UUID taskId) {
+        if (exportTaskScheduler.isCancelRequested(taskId) || exportTaskScheduler.isLeaseLost(taskId)) {
+            throw new CancellationException("导出任务已取消");
+        }
+    }
+    
+    /** 写文件时检查取消标记（BufferedOutputStream 之下，约每 8KB 检查一次） */
+    private OutputStream cancellable(OutputStream out, UUID taskId) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                checkCancelled(taskId);
+                out.write(b, off, len);
+            }
+        };
+    }
+    
+    /** 追加一条日志并以指定状态结束任务 */
+    private void appendLogAndFinish(UUID taskId, ExportTask.TaskStatus status, String message) {
+        finishTask(taskId, status, null, message,
+                logJson -> progressUpdater.updateCompleted(taskId, status, LocalDateTime.now(), null, null, null, logJson));
+    }
+    
+    /**
+     * 结束任务：追加最后一条日志后由 terminalWriter 提交终态，再推送结束事件；
+     * 任务未被进度总线跟踪（如启动前即失败）时从数据库读取已有日志
+     */
+    private void finishTask(UUID taskId, ExportTask.TaskStatus status, Integer progress, String message,
+                            Consumer<String> terminalWriter) {
+        Consumer<List<String>> writer = logs -> {
             try {
-                String errLogJson = objectMapper.writeValueAsString(errLogs);
-                progressUpdater.updateFailed(taskId, LocalDateTime.now(), e.getMessage(), errLogJson);
-            } catch (Exception updateEx) {
-                log.warn("更新失败状态失败: taskId={}", taskId, updateEx);
+                terminalWriter.accept(objectMapper.writeValueAsString(logs));
+            } catch (Exception e) {
+                log.warn("更新任务状态失败: taskId={}, status={}", taskId, status, e);
             }
+        };
+        if (progressBus.complete(taskId, status.name(), progress, message, writer)) {
+            return;
         }
+        List<String> logs = new ArrayList<>();
+        try {
+            ExportTask latestTask = exportTaskRepository.findById(taskId).orElse(null);
+            if (latestTask != null && latestTask.getLogMessages() != null) {
+                logs = objectMapper.readValue(latestTask.getLogMessages(), new TypeReference<List<String>>() {});
+            }
+        } catch (Exception ignored) {}
+        logs.add(message);
+        writer.accept(logs);
     }
     
     /**
      * 获取导出任务
      */
     public ExportTask getExportTask(UUID taskId) {
-        return exportTaskRepository.findById(taskId)
+        ExportTask task = exportTaskRepository.findById(taskId)
                 .orElseThrow(() -> new RuntimeException("导出任务不存在"));
+        task.setQueuePosition(exportTaskScheduler.queuePosition(task));
+        return task;
     }
     
     /**
      * 获取用户的导出任务列表（分页）
      */
     public Page<ExportTask> getExportTasksByUser(UUID userId, Pageable pageable) {
-        return exportTaskRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+        return fillQueuePositions(exportTaskRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable));
     }
     
     /**
      * 获取所有导出任务列表（分页）
      */
     public Page<ExportTask> getAllExportTasks(Pageable pageable) {
-        return exportTaskRepository.findAll(pageable);
+        return fillQueuePositions(exportTaskRepository.findAll(pageable));
+    }
+    
+    private Page<ExportTask> fillQueuePositions(Page<ExportTask> tasks) {
+        if (tasks.stream().anyMatch(t -> t.getStatus() == ExportTask.TaskStatus.PENDING)) {
+            Map<UUID, Integer> positions = exportTaskScheduler.queuePositions();
+            tasks.forEach(t -> t.setQueuePosition(positions.get(t.getId())));
+        }
+        return tasks;
     }
     
     /**
-     * 获取导出文件内容
+     * 获取导出文件路径（由调用方流式读取，不整体载入内存）
      */
-    public byte[] getExportFile(UUID taskId) throws IOException {
+    public Path getExportFile(UUID taskId) {
         ExportTask task = getExportTask(taskId);
         if (task.getStatus() != ExportTask.TaskStatus.COMPLETED || task.getFilePath() == null) {
             throw new RuntimeException("导出任务未完成或文件不存在");
         }
-        return Files.readAllBytes(Paths.get(task.getFilePath()));
+        Path filePath = Paths.get(task.getFilePath());
+        if (!Files.isReadable(filePath)) {
+            throw new BusinessException(ErrorCode.NOT_FOUND, "导出文件不存在或已被删除");
+        }
+        return filePath;
+    }
+
+    /** PDF/Word 渲染中的临时文件（与最终文件同目录，便于原子改名） */
+    private Path partFilePath(UUID taskId) {
+        return Paths.get(EXPORT_DIR).resolve(taskId + ".part");
     }
 
     /**
@@ -422,7 +643,7 @@ public class ExportService {
     /**
      * 生成文件名
      */
-    private String generateFileName(ExportTask.ExportFormat format) {
+    private String generateFileName(ExportTask.ExportFormat format, ExportVolume volume) {
         String extension = switch (format) {
             case JSON -> "json";
             case MARKDOWN -> "md";
@@ -430,190 +651,20 @@ public class ExportService {
             case HTML -> "html";
             case PDF -> "pdf";
             case WORD -> "docx";
+            case ZIP -> "zip";
         };
+        String volumeSuffix = volume != null && volume.isIncremental() ? "_v" + volume.number() : "";
         return "export_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) 
-                + "." + extension;
-    }
-    
-    /**
-     * 导出为JSON格式（同步）
-     */
-    public byte[] exportToJson(UUID userId, LocalDateTime startTime, LocalDateTime endTime) throws IOException {
-        return exportToFormat(userId, ExportTask.ExportFormat.JSON, startTime, endTime);
-    }
-    
-    /**
-     * 根据格式导出
-     */
-    private byte[] exportToFormat(UUID userId, ExportTask.ExportFormat format, 
-                                   LocalDateTime startTime, LocalDateTime endTime) throws IOException {
-        return switch (format) {
-            case JSON -> exportToJsonInternal(userId, startTime, endTime);
-            case MARKDOWN -> exportToMarkdown(userId, startTime, endTime);
-            case CSV -> exportToCsv(userId, startTime, endTime);
-            case HTML -> exportToHtml(userId, startTime, endTime);
-            case PDF, WORD -> throw new UnsupportedOperationException("PDF/Word 请使用异步导出");
-        };
-    }
-    
-    /**
-     * 导出为JSON格式（内部方法）
-     */
-    private byte[] exportToJsonInternal(UUID userId, LocalDateTime startTime, LocalDateTime endTime) throws IOException {
-        List<Content> contents = getContents(userId, startTime, endTime);
-        return objectMapper.writerWithDefaultPrettyPrinter()
-                .writeValueAsBytes(contents);
-    }
-    
-    /**
-     * 导出为Markdown格式
-     */
-    public byte[] exportToMarkdown(UUID userId, LocalDateTime startTime, LocalDateTime endTime) throws IOException {
-        List<Content> contents = getContents(userId, startTime, endTime);
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PrintWriter writer = new PrintWriter(baos);
-        
-        writer.println("# 内容导出");
-        writer.println();
-        writer.println("导出时间: " + LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-        writer.println("内容数量: " + contents.size());
-        writer.println();
-        
-        for (Content content : contents) {
-            writer.println("## " + (content.getTitle() != null ? content.getTitle() : "无标题"));
-            writer.println();
-            writer.println("- **平台**: " + (content.getPlatform() != null ? content.getPlatform().getName() : "未知"));
-            writer.println("- **作者**: " + (content.getUser() != null ? content.getUser().getUsername() : "未知"));
-            writer.println("- **发布时间**: " + content.getPublishedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-            writer.println("- **链接**: " + content.getUrl());
-            if (content.getBody() != null && !content.getBody().isEmpty()) {
-                writer.println();
-                writer.println(content.getBody());
-            }
-            writer.println();
-            writer.println("---");
-            writer.println();
-        }
-        
-        writer.flush();
-        return baos.toByteArray();
-    }
-    
-    /**
-     * 导出为CSV格式
-     */
-    public byte[] exportToCsv(UUID userId, LocalDateTime startTime, LocalDateTime endTime) throws IOException {
-        List<Content> contents = getContents(userId, startTime, endTime);
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PrintWriter writer = new PrintWriter(baos);
-        
-        // CSV头部
-        writer.println("标题,平台,作者,发布时间,链接,已读,收藏");
-        
-        // CSV数据
-        for (Content content : contents) {
-            writer.printf("\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",%s,%s%n",
-                    escapeCsv(content.getTitle()),
-                    escapeCsv(content.getPlatform() != null ? content.getPlatform().getName() : ""),
-                    escapeCsv(content.getUser() != null ? content.getUser().getUsername() : ""),
-                    content.getPublishedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
-                    escapeCsv(content.getUrl()),
-                    content.getIsRead(),
-                    content.getIsFavorite()
-            );
-        }
-        
-        writer.flush();
-        return baos.toByteArray();
-    }
-    
-    /**
-     * 导出为HTML格式
-     */
-    public byte[] exportToHtml(UUID userId, LocalDateTime startTime, LocalDateTime endTime) throws IOException {
-        List<Content> contents = getContents(userId, startTime, endTime);
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PrintWriter writer = new PrintWriter(baos);
-        
-        writer.println("<!DOCTYPE html>");
-        writer.println("<html><head><meta charset='UTF-8'><title>内容导出</title>");
-        writer.println("<style>body{font-family:Arial,sans-serif;margin:20px;}h1{color:#333;}h2{border-bottom:2px solid #eee;padding-bottom:10px;margin-top:30px;}.meta{color:#666;font-size:14px;}.content{margin:20px 0;}</style>");
-        writer.println("</head><body>");
-        writer.println("<h1>内容导出</h1>");
-        writer.println("<p>导出时间: " + LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "</p>");
-        writer.println("<p>内容数量: " + contents.size() + "</p>");
-        
-        for (Content content : contents) {
-            writer.println("<div>");
-            writer.println("<h2>" + escapeHtml(content.getTitle() != null ? content.getTitle() : "无标题") + "</h2>");
-            writer.println("<div class='meta'>");
-            writer.println("平台: " + escapeHtml(content.getPlatform() != null ? content.getPlatform().getName() : "未知") + " | ");
-            writer.println("作者: " + escapeHtml(content.getUser() != null ? content.getUser().getUsername() : "未知") + " | ");
-            writer.println("发布时间: " + content.getPublishedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + " | ");
-            writer.println("<a href='" + escapeHtml(content.getUrl()) + "'>查看原文</a>");
-            writer.println("</div>");
-            if (content.getBody() != null && !content.getBody().isEmpty()) {
-                writer.println("<div class='content'>" + escapeHtml(content.getBody()) + "</div>");
-            }
-            writer.println("</div>");
-            writer.println("<hr>");
-        }
-        
-        writer.println("</body></html>");
-        writer.flush();
-        return baos.toByteArray();
-    }
-    
-    /**
-     * 获取内容列表
-     */
-    private List<Content> getContents(UUID userId, LocalDateTime startTime, LocalDateTime endTime) {
-        Pageable pageable = PageRequest.of(0, 10000); // 最大10000条
-        Page<Content> page;
-        
-        if (userId != null) {
-            page = contentRepository.findByUserId(userId, pageable);
-        } else {
-            page = contentRepository.findAll(pageable);
-        }
-        
-        List<Content> contents = page.getContent();
-        
-        // 时间过滤
-        if (startTime != null || endTime != null) {
-            contents = contents.stream()
-                    .filter(content -> {
-                        if (startTime != null && content.getPublishedAt().isBefore(startTime)) {
-                            return false;
-                        }
-                        if (endTime != null && content.getPublishedAt().isAfter(endTime)) {
-                            return false;
-                        }
-                        return true;
-                    })
-                    .toList();
-        }
-        
-        return contents;
-    }
-    
-    /**
-     * CSV转义
-     */
-    private String escapeCsv(String str) {
-        if (str == null) return "";
-        return str.replace("\"", "\"\"");
+                + volumeSuffix + "." + extension;
     }
     
     /**
-     * HTML转义
+     * 流式导出 JSON/Markdown/CSV/HTML/ZIP 到输出流（不关闭输出流），内存占用与导出条数无关
+     *
+     * @return 写出的内容条数
      */
-    private String escapeHtml(String str) {
-        if (str == null) return "";
-        return str.replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\"", "&quot;")
-                .replace("'", "&#39;");
+    public long writeExport(UUID userId, ExportTask.ExportFormat format, LocalDateTime startTime,
+                            LocalDateTime endTime, OutputStream out) throws IOException {
+        return contentExportWriter.write(userId, format, startTime, endTime, out);
     }
 }
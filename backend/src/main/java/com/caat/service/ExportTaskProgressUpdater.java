@@ -84,6 +84,26 @@ public class ExportTaskProgressUpdater {
         }
     }
 
+    /**
+     * 记录本次导出的卷信息与水位线（立即提交，不依赖外部事务）
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void updateVolume(UUID taskId, LocalDateTime sinceWatermark, LocalDateTime watermark,
+                             UUID previousTaskId, Integer volumeNumber) {
+        ExportTask task = exportTaskRepository.findById(taskId).orElse(null);
+        if (task != null) {
+            task.setSinceWatermark(sinceWatermark);
+            task.setWatermark(watermark);
+            task.setPreviousTaskId(previousTaskId);
+            task.setVolumeNumber(volumeNumber);
+            exportTaskRepository.saveAndFlush(task);
+            log.debug("任务卷信息已立即提交: taskId={}, volume={}, since={}, watermark={}",
+                    taskId, volumeNumber, sinceWatermark, watermark);
+        } else {
+            log.warn("无法更新任务卷信息：任务不存在，taskId={}", taskId);
+        }
+    }
+
     /**
      * 更新任务完成状态（立即提交，不依赖外部事务）
      */
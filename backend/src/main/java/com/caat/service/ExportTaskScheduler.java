@@ -0,0 +1,263 @@
+package com.caat.service;
+
+import com.caat.entity.ExportTask;
+import com.caat.repository.ExportTaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * 导出任务调度器：以 export_tasks 表中的 PENDING 任务为持久化队列，在独立线程池中按优先级执行。
+ * 准入控制：本节点并发数不超过 max-concurrent，且运行中任务的预估成本之和不超过 cost-budget；
+ * 空闲时总会放行一个任务（即使单个任务超出预算），队首放不下时不跳过它去执行后面的小任务，避免大任务饿死。
+ * 认领通过条件更新 PENDING -> RUNNING 完成并写入租约，多节点部署时同一任务只会被一个节点执行；
+ * 执行节点由心跳定时续约，节点宕机后租约过期，任务由任一节点放回队列；续约时发现租约已被回收（本节点长时间失联）则中止本地执行。
+ */
+@Slf4j
+@Component
+public class ExportTaskScheduler {
+
+    private final ExportTaskRepository exportTaskRepository;
+    private final Executor exportTaskExecutor;
+    private final int maxConcurrent;
+    private final long costBudget;
+    private final long leaseTtlSeconds;
+    private final String nodeId;
+
+    /** 本节点运行中的任务及其预估成本 */
+    private final Map<UUID, Long> running = new ConcurrentHashMap<>();
+    /** 已请求取消、等待执行线程在下一个检查点退出的任务 */
+    private final Set<UUID> cancelRequested = ConcurrentHashMap.newKeySet();
+    /** 租约已被回收（可能已由其他节点重新执行）、本节点需放弃执行的任务 */
+    private final Set<UUID> leaseLost = ConcurrentHashMap.newKeySet();
+
+    private ExportService exportService;
+
+    public ExportTaskScheduler(ExportTaskRepository exportTaskRepository,
+                               @Qualifier("exportTaskExecutor") Executor exportTaskExecutor,
+                               @Value("${app.export.queue.max-concurrent:2}") int maxConcurrent,
+                               @Value("${app.export.queue.cost-budget:200000}") long costBudget,
+                               @Value("${app.export.queue.lease-ttl-seconds:90}") long leaseTtlSeconds,
+                               @Value("${app.export.queue.node-id:${app.fetch.queue.node-id:}}") String nodeId) {
+        this.exportTaskRepository = exportTaskRepository;
+        this.exportTaskExecutor = exportTaskExecutor;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.costBudget = Math.max(1, costBudget);
+        this.leaseTtlSeconds = Math.max(15, leaseTtlSeconds);
+        this.nodeId = nodeId != null && !nodeId.isBlank() ? nodeId : FetchTaskQueue.defaultNodeId();
+    }
+
+    @Lazy
+    @Autowired
+    public void setExportService(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * 启动时把本节点上次进程中断的任务（固定 node-id 时）及租约已过期的任务放回队列；其他存活节点持有租约的任务不受影响
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void requeueInterruptedTasks() {
+        try {
+            int requeued = exportTaskRepository.requeueLeasesOwnedBy(nodeId) + exportTaskRepository.requeueExpiredLeases();
+            if (requeued > 0) {
+                log.info("已将 {} 个中断的导出任务放回队列", requeued);
+            }
+        } catch (Exception e) {
+            log.warn("恢复中断的导出任务失败", e);
+        }
+        dispatch();
+    }
+
+    /**
+     * 定时回收租约过期的任务（执行节点宕机且不再重启时由存活节点接手）
+     */
+    @Scheduled(fixedDelayString = "${app.export.queue.reclaim-interval-ms:30000}",
+               initialDelayString = "${app.export.queue.reclaim-interval-ms:30000}")
+    public void reclaimExpiredLeases() {
+        int requeued;
+        try {
+            requeued = exportTaskRepository.requeueExpiredLeases();
+        } catch (Exception e) {
+            log.warn("回收租约过期的导出任务失败: {}", e.getMessage());
+            return;
+        }
+        if (requeued > 0) {
+            log.info("已将 {} 个租约过期的导出任务放回队列", requeued);
+            dispatch();
+        }
+    }
+
+    /**
+     * 心跳：续约本节点运行中的任务；租约已被回收的任务在下一个进度检查点中止，不改写任务状态
+     */
+    @Scheduled(fixedDelayString = "${app.export.queue.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        Set<UUID> ids = new HashSet<>(running.keySet());
+        if (ids.isEmpty()) {
+            return;
+        }
+        int renewed;
+        try {
+            renewed = exportTaskRepository.renewLeases(ids, nodeId, leaseTtlSeconds);
+        } catch (Exception e) {
+            log.warn("导出任务续约失败: {}", e.getMessage());
+            return;
+        }
+        if (renewed == ids.size()) {
+            return;
+        }
+        for (ExportTask task : exportTaskRepository.findAllById(ids)) {
+            if (task.getStatus() != ExportTask.TaskStatus.RUNNING || !nodeId.equals(task.getLeaseOwner())) {
+                if (running.containsKey(task.getId()) && leaseLost.add(task.getId())) {
+                    log.warn("导出任务租约已被回收，本节点中止执行: taskId={}, status={}, owner={}",
+                            task.getId(), task.getStatus(), task.getLeaseOwner());
+                }
+            }
+        }
+    }
+
+    /**
+     * 定时兜底派发（新任务提交、任务结束时也会立即派发）
+     */
+    @Scheduled(fixedDelayString = "${app.export.queue.poll-interval-ms:5000}")
+    public void scheduledDispatch() {
+        dispatch();
+    }
+
+    /** 有新任务入队或任务结束时调用，立即尝试派发 */
+    public void wakeUp() {
+        dispatch();
+    }
+
+    /**
+     * 按队列顺序认领并执行任务，直到并发数或成本预算用尽
+     */
+    synchronized void dispatch() {
+        if (running.size() >= maxConcurrent) {
+            return;
+        }
+        List<ExportTask> pending;
+        try {
+            pending = exportTaskRepository.findByStatusOrderByPriorityDescCreatedAtAsc(ExportTask.TaskStatus.PENDING);
+        } catch (Exception e) {
+            log.warn("读取导出队列失败: {}", e.getMessage());
+            return;
+        }
+        for (ExportTask task : pending) {
+            if (running.size() >= maxConcurrent) {
+                break;
+            }
+            long cost = task.getEstimatedCost() != null ? task.getEstimatedCost() : 0L;
+            if (!running.isEmpty() && runningCost() + cost > costBudget) {
+                log.debug("导出队首任务超出剩余成本预算，等待运行中任务结束: taskId={}, cost={}, runningCost={}",
+                        task.getId(), cost, runningCost());
+                break;
+            }
+            if (exportTaskRepository.claimWithLease(task.getId(), nodeId, leaseTtlSeconds) == 0) {
+                // 已被取消或被其他节点认领
+                continue;
+            }
+            start(task.getId(), cost);
+        }
+    }
+
+    private void start(UUID taskId, long cost) {
+        running.put(taskId, cost);
+        log.info("导出任务出队执行: taskId={}, cost={}, running={}", taskId, cost, running.size());
+        try {
+            exportTaskExecutor.execute(() -> {
+                try {
+                    exportService.executeExportTask(taskId);
+                } catch (Exception e) {
+                    log.error("导出任务执行异常: taskId={}", taskId, e);
+                } finally {
+                    running.remove(taskId);
+                    cancelRequested.remove(taskId);
+                    leaseLost.remove(taskId);
+                    dispatch();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            running.remove(taskId);
+            exportTaskRepository.updateStatusIfCurrent(taskId, ExportTask.TaskStatus.RUNNING, ExportTask.TaskStatus.PENDING);
+            log.warn("导出线程池已满，任务放回队列: taskId={}", taskId);
+        }
+    }
+
+    /**
+     * 取消任务：排队中的直接标记为 CANCELLED；本节点运行中的在下一个进度检查点中止
+     *
+     * @return 是否已受理取消
+     */
+    public boolean cancel(UUID taskId) {
+        if (exportTaskRepository.updateStatusIfCurrent(taskId,
+                ExportTask.TaskStatus.PENDING, ExportTask.TaskStatus.CANCELLED) > 0) {
+            log.info("已取消排队中的导出任务: taskId={}", taskId);
+            return true;
+        }
+        if (running.containsKey(taskId)) {
+            cancelRequested.add(taskId);
+            log.info("已请求取消运行中的导出任务: taskId={}", taskId);
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isCancelRequested(UUID taskId) {
+        return cancelRequested.contains(taskId);
+    }
+
+    /** 租约已被回收，本节点应放弃执行且不再写入任务状态 */
+    public boolean isLeaseLost(UUID taskId) {
+        return leaseLost.contains(taskId);
+    }
+
+    /**
+     * 当前排队任务的位置（从 1 开始），只查询 ID
+     */
+    public Map<UUID, Integer> queuePositions() {
+        Map<UUID, Integer> positions = new HashMap<>();
+        List<UUID> pending = exportTaskRepository.findIdsByStatusInQueueOrder(ExportTask.TaskStatus.PENDING);
+        for (int i = 0; i < pending.size(); i++) {
+            positions.put(pending.get(i), i + 1);
+        }
+        return positions;
+    }
+
+    /**
+     * 单个任务的排队位置（从 1 开始），按排在它前面的任务计数；非排队任务返回 null
+     */
+    public Integer queuePosition(ExportTask task) {
+        if (task.getStatus() != ExportTask.TaskStatus.PENDING || task.getCreatedAt() == null) {
+            return null;
+        }
+        int priority = task.getPriority() != null ? task.getPriority() : 0;
+        return (int) exportTaskRepository.countQueuedAhead(ExportTask.TaskStatus.PENDING, priority, task.getCreatedAt()) + 1;
+    }
+
+    /** 运行中任务数（用于监控与测试） */
+    int runningCount() {
+        return running.size();
+    }
+
+    private long runningCost() {
+        return running.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,28 @@
+package com.caat.service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 导出卷信息：全量导出为第 1 卷；增量卷只包含 (changedAfter, changedUntil] 内新增或更新的文章，并在文档开头链接上一卷
+ *
+ * @param number           卷号
+ * @param changedAfter     起始水位线（不含），null 表示全量
+ * @param changedUntil     截止水位线（含）
+ * @param previousFileName 上一卷文件名（与本卷同目录），用于文档内链接；无上一卷时为 null
+ */
+public record ExportVolume(int number, LocalDateTime changedAfter, LocalDateTime changedUntil, String previousFileName) {
+
+    public static ExportVolume full(LocalDateTime changedUntil) {
+        return new ExportVolume(1, null, changedUntil, null);
+    }
+
+    public boolean isIncremental() {
+        return changedAfter != null;
+    }
+
+    /** 文档开头的卷说明，如「增量第 3 卷：收录 2024-05-01 08:00:00 之后新增或更新的文章」 */
+    public String describe(DateTimeFormatter formatter) {
+        return "增量第 " + number + " 卷：收录 " + changedAfter.format(formatter) + " 之后新增或更新的文章";
+    }
+}
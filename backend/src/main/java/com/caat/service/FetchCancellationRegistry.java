@@ -0,0 +1,165 @@
+package com.caat.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.net.HttpURLConnection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 刷新任务协作式取消：本节点运行中的拉取任务在开始时登记执行线程，取消时
+ * 1) 唤醒拉取循环中的等待（翻页间隔、重试退避）；
+ * 2) 断开该线程上正在进行的 HTTP 请求（经 RestTemplate 请求工厂登记的连接）；
+ * 3) 中断线程，使适配器与附件下载中的 Thread.sleep 立即返回。
+ * 拉取循环在每页、每条保存前检查取消标记，任务结束时清除线程中断标记再归还线程池。
+ */
+@Slf4j
+@Component
+public class FetchCancellationRegistry {
+
+    /** 拉取任务被取消时抛出 */
+    public static class FetchCancelledException extends CancellationException {
+        public FetchCancelledException(UUID taskId) {
+            super("刷新任务已取消: " + taskId);
+        }
+    }
+
+    private final Map<UUID, Entry> running = new ConcurrentHashMap<>();
+    /** 当前线程正在执行的任务，供请求工厂登记连接 */
+    private final ThreadLocal<Entry> current = new ThreadLocal<>();
+
+    /**
+     * 登记当前线程开始执行任务
+     */
+    public void register(UUID taskId) {
+        Entry entry = new Entry(taskId, Thread.currentThread());
+        running.put(taskId, entry);
+        current.set(entry);
+    }
+
+    /**
+     * 任务结束（含取消）：解除登记并清除取消时留下的线程中断标记，可重复调用
+     */
+    public void release(UUID taskId) {
+        Entry entry = running.remove(taskId);
+        current.remove();
+        if (entry != null) {
+            synchronized (entry) {
+                entry.released = true;
+                entry.connection = null;
+            }
+        }
+        // 取消时可能中断了本线程，归还线程池前清除
+        Thread.interrupted();
+    }
+
+    /**
+     * 取消任务
+     *
+     * @return 任务是否正在本节点运行
+     */
+    public boolean cancel(UUID taskId) {
+        Entry entry = running.get(taskId);
+        if (entry == null) {
+            return false;
+        }
+        HttpURLConnection connection;
+        synchronized (entry) {
+            if (entry.released) {
+                return false;
+            }
+            entry.cancelled.countDown();
+            connection = entry.connection;
+            entry.thread.interrupt();
+        }
+        if (connection != null) {
+            try {
+                connection.disconnect();
+            } catch (Exception e) {
+                log.debug("断开刷新任务的 HTTP 连接失败: taskId={}, error={}", taskId, e.getMessage());
+            }
+        }
+        log.info("已请求取消运行中的刷新任务: taskId={}", taskId);
+        return true;
+    }
+
+    /**
+     * 租约已被回收：与取消一样中止本地执行，但任务可能已由其他节点续拉，执行方不应改写任务状态
+     *
+     * @return 任务是否正在本节点运行
+     */
+    public boolean abandon(UUID taskId) {
+        Entry entry = running.get(taskId);
+        if (entry == null) {
+            return false;
+        }
+        entry.abandoned = true;
+        return cancel(taskId);
+    }
+
+    /** 租约已被回收、本地执行已被中止 */
+    public boolean isAbandoned(UUID taskId) {
+        Entry entry = running.get(taskId);
+        return entry != null && entry.abandoned;
+    }
+
+    public boolean isCancelled(UUID taskId) {
+        Entry entry = running.get(taskId);
+        return entry != null && entry.cancelled.getCount() == 0;
+    }
+
+    /** 已取消时抛出 FetchCancelledException */
+    public void checkCancelled(UUID taskId) {
+        if (isCancelled(taskId)) {
+            throw new FetchCancelledException(taskId);
+        }
+    }
+
+    /**
+     * 可被取消立即唤醒的等待，用于翻页间隔与重试退避
+     */
+    public void sleep(UUID taskId, long millis) throws InterruptedException {
+        Entry entry = running.get(taskId);
+        if (entry == null) {
+            Thread.sleep(millis);
+            return;
+        }
+        if (entry.cancelled.await(millis, TimeUnit.MILLISECONDS)) {
+            throw new FetchCancelledException(taskId);
+        }
+    }
+
+    /**
+     * 由 RestTemplate 请求工厂在建立连接前调用：当前线程正在执行拉取任务时登记该连接，取消时断开
+     */
+    public void bindConnection(HttpURLConnection connection) {
+        Entry entry = current.get();
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            if (!entry.released) {
+                entry.connection = connection;
+            }
+        }
+    }
+
+    private static final class Entry {
+        final UUID taskId;
+        final Thread thread;
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        HttpURLConnection connection;
+        boolean released;
+        volatile boolean abandoned;
+
+        Entry(UUID taskId, Thread thread) {
+            this.taskId = taskId;
+            this.thread = thread;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.caat.service;
+
+import com.caat.entity.FetchTask;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 工作节点的刷新指令与图片本地化指令消费方（消息模式且 app.fetch.messaging.consumer-enabled 时启用）。
+ * 刷新指令按 ID 认领任务后交给 FetchTaskQueue 执行，消费线程等待任务结束才确认消息，
+ * 因此每个节点同时执行的抓取数不超过消费并发，其余消息留在 broker 排队。
+ * 任务已被认领、取消或结束的重复指令直接确认；无法解析或处理时抛出的异常使消息进入死信队列。
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${app.fetch.messaging.enabled:false} and ${app.fetch.messaging.consumer-enabled:true}")
+public class FetchMessageConsumer {
+
+    private final FetchTaskQueue fetchTaskQueue;
+    private final ContentFetchService contentFetchService;
+
+    public FetchMessageConsumer(FetchTaskQueue fetchTaskQueue, ContentFetchService contentFetchService) {
+        this.fetchTaskQueue = fetchTaskQueue;
+        this.contentFetchService = contentFetchService;
+    }
+
+    @RabbitListener(queues = "#{@fetchCommandQueueNames}", containerFactory = "fetchListenerContainerFactory")
+    public void handleFetch(FetchMessagePublisher.FetchCommand command) {
+        if (command == null || command.taskId() == null) {
+            throw new IllegalArgumentException("刷新指令缺少 taskId");
+        }
+        Optional<FetchTask> claimed;
+        try {
+            claimed = fetchTaskQueue.claim(command.taskId());
+        } catch (DataIntegrityViolationException e) {
+            // 该用户已有运行中的任务：任务保持 PENDING，前一个任务结束后由本地轮询兜底认领
+            log.info("用户已有运行中的刷新任务，指令暂不执行: taskId={}, userId={}", command.taskId(), command.userId());
+            return;
+        }
+        if (claimed.isEmpty()) {
+            log.debug("刷新任务已被认领或已结束，忽略指令: taskId={}", command.taskId());
+            return;
+        }
+        CompletableFuture<Void> future = fetchTaskQueue.start(claimed.get());
+        if (future == null) {
+            // 线程池已满，任务已放回 PENDING
+            return;
+        }
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            // 失败已记录到任务状态，不再重投
+            log.debug("刷新任务执行失败: taskId={}, error={}", command.taskId(), e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        }
+    }
+
+    @RabbitListener(queues = "caat.asset.download", containerFactory = "assetListenerContainerFactory")
+    public void handleAsset(FetchMessagePublisher.AssetCommand command) {
+        if (command == null || command.contentId() == null) {
+            throw new IllegalArgumentException("图片本地化指令缺少 contentId");
+        }
+        int localized = contentFetchService.localizeContentImages(command.contentId());
+        log.debug("文章图片本地化完成: contentId={}, 图片数={}", command.contentId(), localized);
+    }
+}
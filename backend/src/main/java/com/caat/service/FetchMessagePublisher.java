@@ -0,0 +1,91 @@
+package com.caat.service;
+
+import com.caat.config.FetchMessagingConfig;
+import com.caat.entity.FetchTask;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * 刷新指令与图片本地化指令的发布方（仅消息模式启用）。
+ * 消息只携带任务 ID，任务本身仍以 fetch_tasks 为准：消息丢失时任务保持 PENDING，由 FetchTaskQueue 超过宽限期后在本地认领兜底。
+ * 图片本地化指令发布失败时在本节点直接下载；指令丢失或进入死信队列时由 ContentAssetSweeper 按文章的待办标记补偿。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.fetch.messaging", name = "enabled", havingValue = "true")
+public class FetchMessagePublisher {
+
+    /** 刷新指令 */
+    public record FetchCommand(UUID taskId, UUID userId, String platformType) {
+    }
+
+    /** 图片本地化指令 */
+    public record AssetCommand(UUID contentId) {
+    }
+
+    private final RabbitTemplate rabbitTemplate;
+    private final boolean assetQueueEnabled;
+
+    public FetchMessagePublisher(RabbitTemplate rabbitTemplate,
+                                 @Value("${app.fetch.messaging.async-assets:true}") boolean assetQueueEnabled) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.assetQueueEnabled = assetQueueEnabled;
+    }
+
+    /**
+     * 按平台类型路由刷新指令
+     */
+    public void publishFetch(FetchTask task) {
+        String platformType = task.getUser().getPlatform().getType();
+        FetchCommand command = new FetchCommand(task.getId(), task.getUser().getId(), platformType);
+        rabbitTemplate.convertAndSend(FetchMessagingConfig.FETCH_EXCHANGE,
+            FetchMessagingConfig.fetchRoutingKey(platformType), command);
+        log.debug("已发布刷新指令: taskId={}, platform={}", task.getId(), platformType);
+    }
+
+    /** 保存文章时是否把图片下载交给图片队列 */
+    public boolean isAssetQueueEnabled() {
+        return assetQueueEnabled;
+    }
+
+    /**
+     * 发布图片本地化指令；在事务内调用时推迟到提交之后，避免消费方读不到刚保存的文章
+     *
+     * @param inlineFallback 发布失败时在当前线程执行的本地下载（需自行开启事务）
+     */
+    public void publishAssetAfterCommit(UUID contentId, Runnable inlineFallback) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishAsset(contentId, inlineFallback);
+                }
+            });
+        } else {
+            publishAsset(contentId, inlineFallback);
+        }
+    }
+
+    void publishAsset(UUID contentId, Runnable inlineFallback) {
+        try {
+            rabbitTemplate.convertAndSend(FetchMessagingConfig.FETCH_EXCHANGE,
+                FetchMessagingConfig.ASSET_ROUTING_KEY, new AssetCommand(contentId));
+            return;
+        } catch (Exception e) {
+            log.warn("发布图片本地化指令失败，改为本节点下载: contentId={}, error={}", contentId, e.getMessage());
+        }
+        try {
+            inlineFallback.run();
+        } catch (Exception e) {
+            // 待办标记仍在，由 ContentAssetSweeper 稍后重试
+            log.warn("本节点下载文章图片失败，等待补偿重试: contentId={}, error={}", contentId, e.getMessage());
+        }
+    }
+}
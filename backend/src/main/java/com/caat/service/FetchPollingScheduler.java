@@ -0,0 +1,318 @@
+package com.caat.service;
+
+import com.caat.entity.FetchTask;
+import com.caat.entity.ScheduleConfig;
+import com.caat.entity.TrackedUser;
+import com.caat.entity.UserSchedule;
+import com.caat.repository.ContentRepository;
+import com.caat.repository.FetchTaskRepository;
+import com.caat.repository.ScheduleConfigRepository;
+import com.caat.repository.TrackedUserRepository;
+import com.caat.repository.UserScheduleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按作者自适应的定时拉取调度：每个活跃用户在 user_schedules 中记录拉取间隔与下次拉取时间 next_run_at，
+ * 内存中按到期时间维护小顶堆，定时 tick 只查看堆顶，到期才派发拉取任务（没有到期用户时不访问数据库）。
+ * 每次拉取结束按结果调整间隔：拉到新文章时按 backoff-factor 缩短，没有新文章或失败时按 backoff-factor 退避，
+ * 限定在 [min-interval, max-interval] 之间，并加随机抖动分散请求。首次调度按近 30 天发文频率估算初始间隔。
+ * 派发只写入 PENDING 任务，由 FetchTaskQueue 按各节点容量认领执行。已有进行中任务的用户不会重复派发。Quartz 的 contentFetchJob 负责周期性地从数据库重建队列（新增用户、开关变更）。
+ */
+@Slf4j
+@Component
+public class FetchPollingScheduler {
+
+    /** 估算初始间隔时参考的发文统计窗口 */
+    private static final int RATE_WINDOW_DAYS = 30;
+    private static final List<FetchTask.TaskStatus> IN_FLIGHT =
+        List.of(FetchTask.TaskStatus.RUNNING, FetchTask.TaskStatus.PENDING);
+
+    private final UserScheduleRepository userScheduleRepository;
+    private final TrackedUserRepository trackedUserRepository;
+    private final FetchTaskRepository fetchTaskRepository;
+    private final ScheduleConfigRepository scheduleConfigRepository;
+    private final ContentRepository contentRepository;
+    private final int minIntervalMinutes;
+    private final int maxIntervalMinutes;
+    private final double backoffFactor;
+    private final double jitter;
+    private final int maxDispatchPerTick;
+
+    /** 到期队列，按 dueAt 排序；同一用户只保留 queued 中记录的那一项，其余出队时丢弃 */
+    private final PriorityQueue<Due> queue = new PriorityQueue<>(Comparator.comparing(Due::dueAt));
+    private final Map<UUID, LocalDateTime> queued = new HashMap<>();
+    /** 本节点已派发、尚未结束的用户 */
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    private FetchTaskQueue fetchTaskQueue;
+
+    record Due(UUID userId, LocalDateTime dueAt) {}
+
+    public FetchPollingScheduler(UserScheduleRepository userScheduleRepository,
+                                 TrackedUserRepository trackedUserRepository,
+                                 FetchTaskRepository fetchTaskRepository,
+                                 ScheduleConfigRepository scheduleConfigRepository,
+                                 ContentRepository contentRepository,
+                                 @Value("${app.fetch.polling.min-interval-minutes:5}") int minIntervalMinutes,
+                                 @Value("${app.fetch.polling.max-interval-minutes:1440}") int maxIntervalMinutes,
+                                 @Value("${app.fetch.polling.backoff-factor:2.0}") double backoffFactor,
+                                 @Value("${app.fetch.polling.jitter:0.15}") double jitter,
+                                 @Value("${app.fetch.polling.max-dispatch-per-tick:10}") int maxDispatchPerTick) {
+        this.userScheduleRepository = userScheduleRepository;
+        this.trackedUserRepository = trackedUserRepository;
+        this.fetchTaskRepository = fetchTaskRepository;
+        this.scheduleConfigRepository = scheduleConfigRepository;
+        this.contentRepository = contentRepository;
+        this.minIntervalMinutes = Math.max(1, minIntervalMinutes);
+        this.maxIntervalMinutes = Math.max(this.minIntervalMinutes, maxIntervalMinutes);
+        this.backoffFactor = Math.max(1.1, backoffFactor);
+        this.jitter = Math.min(0.5, Math.max(0, jitter));
+        this.maxDispatchPerTick = Math.max(1, maxDispatchPerTick);
+    }
+
+    @Lazy
+    @Autowired
+    public void setFetchTaskQueue(FetchTaskQueue fetchTaskQueue) {
+        this.fetchTaskQueue = fetchTaskQueue;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        try {
+            sync();
+        } catch (Exception e) {
+            log.warn("初始化自适应拉取队列失败", e);
+        }
+    }
+
+    /**
+     * 从数据库重建到期队列：为尚无调度记录的活跃用户按发文频率创建记录，再载入全部启用记录的 next_run_at
+     */
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        Set<UUID> scheduled = new HashSet<>(userScheduleRepository.findAllUserIds());
+        int created = 0;
+        for (TrackedUser user : trackedUserRepository.findByIsActiveTrue()) {
+            if (scheduled.contains(user.getId())) {
+                continue;
+            }
+            int interval = estimateInitialInterval(user.getId(), now);
+            UserSchedule schedule = new UserSchedule();
+            schedule.setUser(user);
+            schedule.setIntervalMinutes(interval);
+            // 新用户尽快拉一次，抖动分散到一个最小间隔内
+            schedule.setNextRunAt(now.plusSeconds(ThreadLocalRandom.current().nextLong(minIntervalMinutes * 60L + 1)));
+            userScheduleRepository.save(schedule);
+            created++;
+        }
+        // 结束回调丢失（如任务未开始即被取消）的用户不应一直被视为进行中
+        inFlight.removeIf(userId -> !fetchTaskRepository.existsByUserIdAndStatusIn(userId, IN_FLIGHT));
+        List<UserSchedule> schedules = userScheduleRepository.findEnabledForActiveUsers();
+        synchronized (this) {
+            queue.clear();
+            queued.clear();
+            for (UserSchedule s : schedules) {
+                enqueue(s.getUser().getId(), s.getNextRunAt() != null ? s.getNextRunAt() : now);
+            }
+        }
+        log.info("自适应拉取队列已重建: 用户={}, 新建调度记录={}", schedules.size(), created);
+    }
+
+    @Scheduled(fixedDelayString = "${app.fetch.polling.tick-ms:30000}", initialDelayString = "${app.fetch.polling.tick-ms:30000}")
+    public void tick() {
+        // 在队列锁外提交（发布刷新指令或唤醒本节点认领）
+        for (FetchTask task : dispatchDue(LocalDateTime.now())) {
+            fetchTaskQueue.submit(task);
+        }
+    }
+
+    /**
+     * 派发已到期的用户（写入 PENDING 任务，由 FetchTaskQueue 认领执行），每次最多 max-dispatch-per-tick 个，剩余的留给下一次 tick
+     *
+     * @return 本次写入的任务
+     */
+    synchronized List<FetchTask> dispatchDue(LocalDateTime now) {
+        Due head = queue.peek();
+        if (head == null || head.dueAt().isAfter(now)) {
+            return List.of();
+        }
+        boolean globalEnabled = scheduleConfigRepository.findByType(ScheduleConfig.ConfigType.GLOBAL)
+            .map(ScheduleConfig::getIsEnabled)
+            .orElse(false);
+        if (!globalEnabled) {
+            return List.of();
+        }
+        List<FetchTask> dispatched = new ArrayList<>();
+        while (dispatched.size() < maxDispatchPerTick && (head = queue.peek()) != null && !head.dueAt().isAfter(now)) {
+            queue.poll();
+            if (!head.dueAt().equals(queued.get(head.userId()))) {
+                // 已被更新的到期时间取代
+                continue;
+            }
+            queued.remove(head.userId());
+            try {
+                FetchTask task = dispatch(head.userId(), now);
+                if (task != null) {
+                    dispatched.add(task);
+                }
+            } catch (Exception e) {
+                log.error("派发定时拉取任务失败: userId={}", head.userId(), e);
+                reschedule(head.userId(), now.plusMinutes(minIntervalMinutes));
+            }
+        }
+        if (!dispatched.isEmpty()) {
+            log.info("自适应定时拉取: 本轮派发 {} 个用户，队列剩余 {}", dispatched.size(), queued.size());
+        }
+        return dispatched;
+    }
+
+    private FetchTask dispatch(UUID userId, LocalDateTime now) {
+        if (inFlight.contains(userId)
+                || fetchTaskRepository.existsByUserIdAndStatusIn(userId, IN_FLIGHT)) {
+            // 拉取结束时会重新入队
+            log.debug("用户 {} 有进行中的刷新任务，本次不派发", userId);
+            return null;
+        }
+        TrackedUser user = trackedUserRepository.findById(userId).orElse(null);
+        if (user == null || !Boolean.TRUE.equals(user.getIsActive())) {
+            return null;
+        }
+        boolean userEnabled = scheduleConfigRepository
+            .findByTypeAndUserId(ScheduleConfig.ConfigType.USER, userId)
+            .map(ScheduleConfig::getIsEnabled)
+            .orElse(true);
+        if (!userEnabled) {
+            // 用户关闭了定时任务：按最大间隔再检查，重新开启后由下一次 sync 按记录的时间恢复
+            reschedule(userId, now.plusMinutes(maxIntervalMinutes));
+            return null;
+        }
+
+        LocalDateTime startTime = user.getLastFetchedAt();
+        FetchTask task = new FetchTask();
+        task.setUser(user);
+        task.setTaskType(FetchTask.TaskType.SCHEDULED);
+        task.setStartTime(startTime);
+        task.setEndTime(now);
+        task.setStatus(FetchTask.TaskStatus.PENDING);
+        try {
+            fetchTaskRepository.save(task);
+        } catch (DataIntegrityViolationException e) {
+            // 其他节点刚为该用户写入了定时任务（ux_fetch_task_user_scheduled_inflight），视为已在队列中，结束时会重新入队
+            inFlight.add(userId);
+            log.debug("用户 {} 的定时拉取任务已由其他节点派发", user.getUsername());
+            return null;
+        }
+        inFlight.add(userId);
+        log.debug("已提交用户 {} 的定时拉取任务", user.getUsername());
+        return task;
+    }
+
+    /**
+     * 拉取结束（定时或手动）：按结果调整该用户的间隔并写入下次拉取时间
+     *
+     * @param savedCount 本次保存的新文章数；拉取失败或被取消时为 -1
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onFetchFinished(UUID userId, int savedCount) {
+        inFlight.remove(userId);
+        LocalDateTime now = LocalDateTime.now();
+        UserSchedule schedule = userScheduleRepository.findByUserId(userId).orElse(null);
+        if (schedule == null) {
+            TrackedUser user = trackedUserRepository.findById(userId).orElse(null);
+            if (user == null) {
+                return;
+            }
+            schedule = new UserSchedule();
+            schedule.setUser(user);
+        }
+        int current = schedule.getIntervalMinutes() != null
+            ? schedule.getIntervalMinutes()
+            : estimateInitialInterval(userId, now);
+        int next = nextInterval(current, savedCount);
+        schedule.setIntervalMinutes(next);
+        if (savedCount > 0) {
+            schedule.setEmptyStreak(0);
+        } else if (savedCount == 0) {
+            schedule.setEmptyStreak((schedule.getEmptyStreak() != null ? schedule.getEmptyStreak() : 0) + 1);
+        }
+        if (savedCount >= 0) {
+            schedule.setLastSavedCount(savedCount);
+        }
+        schedule.setLastRunAt(now);
+        LocalDateTime nextRunAt = now.plusSeconds(withJitter(next * 60L));
+        schedule.setNextRunAt(nextRunAt);
+        userScheduleRepository.save(schedule);
+        if (Boolean.TRUE.equals(schedule.getIsEnabled())) {
+            reschedule(userId, nextRunAt);
+        }
+        log.debug("调整自适应拉取间隔: userId={}, saved={}, 间隔 {} -> {} 分钟, 下次 {}",
+            userId, savedCount, current, next, nextRunAt);
+    }
+
+    /**
+     * 拉到新文章时缩短间隔，没有新文章或失败时退避，限定在 [min, max] 之间
+     */
+    int nextInterval(int currentMinutes, int savedCount) {
+        double next = savedCount > 0 ? currentMinutes / backoffFactor : currentMinutes * backoffFactor;
+        return clamp((int) Math.round(next));
+    }
+
+    /** 按近期发文频率估算初始间隔：平均发文间隔的一半，近期没有发文时取最大间隔的四分之一 */
+    int estimateInitialInterval(UUID userId, LocalDateTime now) {
+        long posts = contentRepository.countByUserIdAndPublishedAtBetween(userId, now.minusDays(RATE_WINDOW_DAYS), now);
+        if (posts <= 0) {
+            return clamp(maxIntervalMinutes / 4);
+        }
+        long averageGapMinutes = RATE_WINDOW_DAYS * 24L * 60L / posts;
+        return clamp((int) Math.min(Integer.MAX_VALUE, averageGapMinutes / 2));
+    }
+
+    /** 队列中的用户数（用于监控与测试） */
+    synchronized int queuedCount() {
+        return queued.size();
+    }
+
+    private int clamp(int minutes) {
+        return Math.max(minIntervalMinutes, Math.min(maxIntervalMinutes, minutes));
+    }
+
+    private long withJitter(long seconds) {
+        if (jitter <= 0) {
+            return seconds;
+        }
+        double factor = 1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        return Math.max(60, Math.round(seconds * factor));
+    }
+
+    private synchronized void reschedule(UUID userId, LocalDateTime dueAt) {
+        enqueue(userId, dueAt);
+    }
+
+    private void enqueue(UUID userId, LocalDateTime dueAt) {
+        queued.put(userId, dueAt);
+        queue.add(new Due(userId, dueAt));
+    }
+}
@@ -0,0 +1,80 @@
+package com.caat.service;
+
+import com.caat.entity.FetchTask;
+import com.caat.repository.FetchTaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 刷新任务租约：认领、续约、回收与释放，每个操作独立事务立即提交（不依赖外部事务）
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FetchTaskLeaseService {
+
+    private final FetchTaskRepository fetchTaskRepository;
+
+    /**
+     * 认领一条可执行的任务：行锁 SKIP LOCKED 保证多个节点不会认领同一任务，
+     * ux_fetch_task_user_running 唯一索引保证同一用户不会同时有两个运行中的任务
+     *
+     * @param ttlSeconds    租约时长（到期时间按数据库时钟计算）
+     * @param minAgeSeconds 只认领创建超过该时长的任务，0 表示不限（消息模式下把刚写入的任务留给消息消费方）
+     * @return 已认领的任务（含 user）；没有可认领的任务时为空
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<FetchTask> claimNext(String owner, long ttlSeconds, long minAgeSeconds) {
+        List<String> ids = fetchTaskRepository.lockNextClaimable(minAgeSeconds);
+        if (ids.isEmpty()) {
+            return Optional.empty();
+        }
+        return claimById(UUID.fromString(ids.get(0)), owner, ttlSeconds);
+    }
+
+    /**
+     * 按 ID 认领（消息消费方收到刷新指令时）：仅 PENDING 任务可认领，已被认领、取消或结束时为空
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<FetchTask> claim(UUID taskId, String owner, long ttlSeconds) {
+        return claimById(taskId, owner, ttlSeconds);
+    }
+
+    private Optional<FetchTask> claimById(UUID id, String owner, long ttlSeconds) {
+        if (fetchTaskRepository.claim(id, owner, ttlSeconds) == 0) {
+            return Optional.empty();
+        }
+        return fetchTaskRepository.findByIdWithUser(id);
+    }
+
+    /** 续约，返回续约成功的条数 */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int renew(Collection<UUID> ids, String owner, long ttlSeconds) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return fetchTaskRepository.renewLeases(ids, owner, ttlSeconds);
+    }
+
+    /** 回收过期租约（按数据库时钟判断），任务回到 PENDING 等待任一节点认领续拉 */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean reclaim(UUID taskId) {
+        return fetchTaskRepository.reclaimExpired(taskId) > 0;
+    }
+
+    /** 本节点认领后未能执行时放回队列 */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(UUID taskId, String owner) {
+        if (fetchTaskRepository.releaseLease(taskId, owner) == 0) {
+            log.warn("放回刷新任务失败，租约已不属于本节点: taskId={}", taskId);
+        }
+    }
+}
@@ -75,6 +75,41 @@ public class FetchTaskProgressUpdater {
         }
     }
 
+    /**
+     * 记录断点：每页保存完成后调用，进程重启后从这里续拉（立即提交，不依赖外部事务）
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void updateCheckpoint(UUID taskId, FetchTask.FetchPhase phase, String cursor, int page, int saved,
+                                 LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+        FetchTask task = fetchTaskRepository.findById(taskId).orElse(null);
+        if (task != null) {
+            task.setCheckpointPhase(phase);
+            task.setCheckpointCursor(cursor);
+            task.setCheckpointPage(page);
+            task.setCheckpointSaved(saved);
+            task.setCheckpointRangeStart(rangeStart);
+            task.setCheckpointRangeEnd(rangeEnd);
+            task.setCheckpointAt(LocalDateTime.now());
+            task.setFetchedCount(saved);
+            fetchTaskRepository.saveAndFlush(task);
+        }
+    }
+
+    /**
+     * 记录一次续拉并返回累计续拉次数（立即提交，不依赖外部事务）
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int incrementResumeCount(UUID taskId) {
+        FetchTask task = fetchTaskRepository.findById(taskId).orElse(null);
+        if (task == null) {
+            return 0;
+        }
+        int count = (task.getResumeCount() != null ? task.getResumeCount() : 0) + 1;
+        task.setResumeCount(count);
+        fetchTaskRepository.saveAndFlush(task);
+        return count;
+    }
+
     /**
      * 更新任务完成状态（立即提交，不依赖外部事务）
      */
@@ -98,6 +133,24 @@ public class FetchTaskProgressUpdater {
         }
     }
 
+    /**
+     * 更新任务取消状态（立即提交，不依赖外部事务）；已拉取条数保留最近一次刷写的值
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void updateCancelled(UUID taskId, LocalDateTime completedAt) {
+        FetchTask task = fetchTaskRepository.findById(taskId).orElse(null);
+        if (task != null) {
+            task.setStatus(FetchTask.TaskStatus.CANCELLED);
+            if (completedAt != null) {
+                task.setCompletedAt(completedAt);
+            }
+            fetchTaskRepository.saveAndFlush(task);
+            log.debug("刷新任务取消状态已立即提交: taskId={}", taskId);
+        } else {
+            log.warn("无法更新刷新任务取消状态：任务不存在，taskId={}", taskId);
+        }
+    }
+
     /**
      * 更新任务失败状态（立即提交，不依赖外部事务）
      */
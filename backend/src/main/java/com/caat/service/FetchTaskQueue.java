@@ -0,0 +1,220 @@
+package com.caat.service;
+
+import com.caat.entity.FetchTask;
+import com.caat.repository.FetchTaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 多节点刷新任务队列：fetch_tasks 中的 PENDING 任务即队列，各节点按本地空闲容量（max-concurrent）逐条认领，
+ * 认领后持有租约（lease-ttl-seconds）并由心跳定时续约；节点宕机后租约过期，任务由 FetchTaskRecovery 回收再被任一节点续拉。
+ * 生产方（手动刷新、定时调度）只写入 PENDING 任务并唤醒本节点，其他节点在下一次轮询时参与认领。
+ * 心跳发现本节点持有的任务已在库中被取消（可能由其他节点的接口请求）时，在本地中断该任务；
+ * 发现租约已被回收（本节点失联超过租约时长，任务可能已由其他节点续拉）时，在本地中止该任务且不改写任务状态。
+ * 租约到期时间与过期判断均使用数据库时钟，节点之间的时钟偏差不会导致提前回收。
+ * 消息模式（app.fetch.messaging.enabled）下生产方改为发布刷新指令，由工作节点的 FetchMessageConsumer 按 ID 认领执行；
+ * 本地轮询只认领写入超过 fallback-after-seconds 仍未被认领的任务（消息丢失、broker 不可用时兜底）。
+ */
+@Slf4j
+@Component
+public class FetchTaskQueue {
+
+    private final FetchTaskLeaseService leaseService;
+    private final FetchTaskRepository fetchTaskRepository;
+    private final FetchCancellationRegistry cancellationRegistry;
+    private final int maxConcurrent;
+    private final long leaseTtlSeconds;
+    private final String nodeId;
+    private final long messagingFallbackSeconds;
+
+    /** 本节点运行中的任务 */
+    private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+
+    private ContentFetchService contentFetchService;
+    private FetchMessagePublisher messagePublisher;
+
+    public FetchTaskQueue(FetchTaskLeaseService leaseService,
+                          FetchTaskRepository fetchTaskRepository,
+                          FetchCancellationRegistry cancellationRegistry,
+                          @Value("${app.fetch.queue.max-concurrent:5}") int maxConcurrent,
+                          @Value("${app.fetch.queue.lease-ttl-seconds:90}") long leaseTtlSeconds,
+                          @Value("${app.fetch.queue.node-id:}") String nodeId,
+                          @Value("${app.fetch.messaging.fallback-after-seconds:120}") long messagingFallbackSeconds) {
+        this.leaseService = leaseService;
+        this.fetchTaskRepository = fetchTaskRepository;
+        this.cancellationRegistry = cancellationRegistry;
+        this.maxConcurrent = Math.max(0, maxConcurrent);
+        this.leaseTtlSeconds = Math.max(15, leaseTtlSeconds);
+        this.nodeId = nodeId != null && !nodeId.isBlank() ? nodeId : defaultNodeId();
+        this.messagingFallbackSeconds = Math.max(0, messagingFallbackSeconds);
+    }
+
+    @Lazy
+    @Autowired
+    public void setContentFetchService(ContentFetchService contentFetchService) {
+        this.contentFetchService = contentFetchService;
+    }
+
+    /** 仅消息模式存在 */
+    @Autowired(required = false)
+    public void setMessagePublisher(FetchMessagePublisher messagePublisher) {
+        this.messagePublisher = messagePublisher;
+    }
+
+    /**
+     * 生产方写入 PENDING 任务后调用：消息模式下发布刷新指令，发布失败或未启用消息模式时在本节点认领
+     */
+    public void submit(FetchTask task) {
+        if (messagePublisher != null) {
+            try {
+                messagePublisher.publishFetch(task);
+                return;
+            } catch (Exception e) {
+                log.warn("发布刷新指令失败，改为本节点认领: taskId={}, error={}", task.getId(), e.getMessage());
+            }
+        }
+        wakeUp();
+    }
+
+    /** 定时轮询：认领其他节点或本节点写入的任务 */
+    @Scheduled(fixedDelayString = "${app.fetch.queue.poll-interval-ms:5000}")
+    public void scheduledDispatch() {
+        dispatch();
+    }
+
+    /** 写入新任务或本地任务结束时调用，立即尝试认领 */
+    public void wakeUp() {
+        dispatch();
+    }
+
+    /**
+     * 按本地空闲容量逐条认领并执行
+     */
+    synchronized void dispatch() {
+        while (running.size() < maxConcurrent) {
+            Optional<FetchTask> claimed;
+            // 消息模式下刚写入的任务留给消息消费方，超过宽限期仍为 PENDING 的才由本地兜底
+            long minAgeSeconds = messagePublisher != null ? messagingFallbackSeconds : 0;
+            try {
+                claimed = leaseService.claimNext(nodeId, leaseTtlSeconds, minAgeSeconds);
+            } catch (DataIntegrityViolationException e) {
+                // 同一用户的任务刚被其他节点认领，下一轮会跳过该用户
+                log.debug("认领刷新任务冲突，稍后重试: {}", e.getMostSpecificCause().getMessage());
+                return;
+            } catch (Exception e) {
+                log.warn("认领刷新任务失败: {}", e.getMessage());
+                return;
+            }
+            if (claimed.isEmpty()) {
+                return;
+            }
+            if (start(claimed.get()) == null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 消息消费方按 ID 认领任务：任务已被认领、取消或结束时为空；同一用户已有运行中的任务时抛出 DataIntegrityViolationException
+     */
+    Optional<FetchTask> claim(UUID taskId) {
+        return leaseService.claim(taskId, nodeId, leaseTtlSeconds);
+    }
+
+    /**
+     * 执行已认领的任务，纳入本节点运行中任务（心跳续约、取消检测）
+     *
+     * @return 任务结束时完成的 future；线程池已满、任务已放回队列时为 null
+     */
+    CompletableFuture<Void> start(FetchTask task) {
+        UUID taskId = task.getId();
+        running.add(taskId);
+        log.info("刷新任务出队执行: taskId={}, userId={}, node={}, running={}",
+            taskId, task.getUser().getId(), nodeId, running.size());
+        CompletableFuture<Void> future;
+        try {
+            // 曾经开始过的任务（租约过期被回收）从断点续拉
+            future = task.getStartedAt() != null
+                ? contentFetchService.resumeFetchTaskAsync(taskId)
+                : contentFetchService.fetchUserContentAsync(task.getUser().getId(), task.getStartTime(), task.getEndTime(), taskId);
+        } catch (TaskRejectedException e) {
+            running.remove(taskId);
+            leaseService.release(taskId, nodeId);
+            log.warn("刷新线程池已满，任务放回队列: taskId={}", taskId);
+            return null;
+        }
+        if (future == null) {
+            running.remove(taskId);
+            return null;
+        }
+        return future.whenComplete((r, e) -> {
+            running.remove(taskId);
+            wakeUp();
+        });
+    }
+
+    /**
+     * 心跳：续约本节点运行中的任务；未能续约的任务若已在库中被取消则在本地取消，
+     * 若租约已被回收（已回到 PENDING 或由其他节点持有）则在本地中止，避免两个节点同时拉取同一任务
+     */
+    @Scheduled(fixedDelayString = "${app.fetch.queue.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        Set<UUID> ids = new HashSet<>(running);
+        if (ids.isEmpty()) {
+            return;
+        }
+        int renewed;
+        try {
+            renewed = leaseService.renew(ids, nodeId, leaseTtlSeconds);
+        } catch (Exception e) {
+            log.warn("刷新任务续约失败: {}", e.getMessage());
+            return;
+        }
+        if (renewed == ids.size()) {
+            return;
+        }
+        for (FetchTask task : fetchTaskRepository.findAllById(ids)) {
+            if (task.getStatus() == FetchTask.TaskStatus.CANCELLED) {
+                cancellationRegistry.cancel(task.getId());
+            } else if (task.getStatus() == FetchTask.TaskStatus.PENDING
+                    || (task.getStatus() == FetchTask.TaskStatus.RUNNING && !nodeId.equals(task.getLeaseOwner()))) {
+                log.warn("刷新任务租约已被回收，本节点中止执行: taskId={}, status={}, owner={}",
+                    task.getId(), task.getStatus(), task.getLeaseOwner());
+                cancellationRegistry.abandon(task.getId());
+            }
+        }
+    }
+
+    /** 本节点运行中的任务数（用于监控与测试） */
+    int runningCount() {
+        return running.size();
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+
+    static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,88 @@
+package com.caat.service;
+
+import com.caat.entity.FetchTask;
+import com.caat.repository.FetchTaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 刷新任务恢复：运行中的任务由执行节点持有租约并定时续约，节点宕机或进程重启后租约过期。
+ * 任一节点启动时及定时（app.fetch.queue.reclaim-interval-ms）回收过期租约，把任务放回 PENDING，
+ * 由 FetchTaskQueue 认领后从断点续拉；多次中断仍未完成的任务标记为失败，避免反复重试。
+ * 回收为条件更新，多个节点同时回收同一任务时只有一个成功。
+ */
+@Slf4j
+@Component
+public class FetchTaskRecovery {
+
+    private final FetchTaskRepository fetchTaskRepository;
+    private final FetchTaskLeaseService leaseService;
+    private final FetchTaskProgressUpdater fetchTaskProgressUpdater;
+    private final FetchTaskQueue fetchTaskQueue;
+    private final boolean enabled;
+    private final int maxResumes;
+
+    public FetchTaskRecovery(FetchTaskRepository fetchTaskRepository,
+                             FetchTaskLeaseService leaseService,
+                             FetchTaskProgressUpdater fetchTaskProgressUpdater,
+                             FetchTaskQueue fetchTaskQueue,
+                             @Value("${app.fetch.resume.enabled:true}") boolean enabled,
+                             @Value("${app.fetch.resume.max-attempts:3}") int maxResumes) {
+        this.fetchTaskRepository = fetchTaskRepository;
+        this.leaseService = leaseService;
+        this.fetchTaskProgressUpdater = fetchTaskProgressUpdater;
+        this.fetchTaskQueue = fetchTaskQueue;
+        this.enabled = enabled;
+        this.maxResumes = maxResumes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        reclaimExpiredLeases();
+        fetchTaskQueue.wakeUp();
+    }
+
+    @Scheduled(fixedDelayString = "${app.fetch.queue.reclaim-interval-ms:30000}",
+               initialDelayString = "${app.fetch.queue.reclaim-interval-ms:30000}")
+    public void reclaimExpiredLeases() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<FetchTask> expired;
+        try {
+            expired = fetchTaskRepository.findExpiredLeases();
+        } catch (Exception e) {
+            log.warn("查询租约过期的刷新任务失败", e);
+            return;
+        }
+        int reclaimed = 0;
+        for (FetchTask task : expired) {
+            int previousResumes = task.getResumeCount() != null ? task.getResumeCount() : 0;
+            try {
+                if (previousResumes >= maxResumes) {
+                    log.warn("刷新任务已续拉 {} 次仍未完成，标记为失败: taskId={}", previousResumes, task.getId());
+                    fetchTaskProgressUpdater.updateFailed(task.getId(), now,
+                        "执行节点多次中断，已放弃续拉（已保存 " + task.getFetchedCount() + " 条）");
+                    continue;
+                }
+                if (leaseService.reclaim(task.getId())) {
+                    reclaimed++;
+                }
+            } catch (Exception e) {
+                log.warn("回收刷新任务失败: taskId={}", task.getId(), e);
+            }
+        }
+        if (reclaimed > 0) {
+            log.info("发现 {} 个租约过期的刷新任务，已放回队列 {} 个", expired.size(), reclaimed);
+            fetchTaskQueue.wakeUp();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.caat.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * 派生图片（缩放/压缩后的版本）磁盘缓存。
+ * 以源图片的不可变标识（上传文件存储键、图片 URL）+ 版本参数（目标尺寸、质量等）为键，
+ * 命中时无需再下载或读取源图片；相同图片在不同文章、不同导出任务间复用，重启后仍有效。
+ * 总大小超过配额时按最近访问时间（文件修改时间，命中时刷新）淘汰最旧的条目。
+ * 渲染失败不写入缓存，下次重新尝试。
+ */
+@Slf4j
+@Component
+public class ImageRenditionCache {
+
+    /** 「无需转换」标记（{@link #storeFile}）：渲染结果即源图片时写入空文件，调用方直接使用源文件 */
+    private static final byte[] PASSTHROUGH = new byte[0];
+    /** 超出配额后淘汰到配额的比例，避免每次写入都触发淘汰 */
+    private static final double EVICT_TARGET_RATIO = 0.9;
+
+    private final Path cacheDir;
+    private final long maxSizeBytes;
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final Object evictLock = new Object();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ImageRenditionCache(@Value("${app.image-cache.dir:cache/image-renditions}") String cacheDir,
+                               @Value("${app.image-cache.max-size-mb:1024}") long maxSizeMb,
+                               MeterRegistry meterRegistry) {
+        this.cacheDir = Paths.get(cacheDir).toAbsolutePath().normalize();
+        this.maxSizeBytes = Math.max(1, maxSizeMb) * 1024L * 1024L;
+        this.hits = Counter.builder("image.rendition.cache").tag("result", "hit")
+            .description("派生图片缓存命中次数").register(meterRegistry);
+        this.misses = Counter.builder("image.rendition.cache").tag("result", "miss")
+            .description("派生图片缓存未命中次数").register(meterRegistry);
+        this.evictions = Counter.builder("image.rendition.cache.evictions")
+            .description("派生图片缓存淘汰条目数").register(meterRegistry);
+        Gauge.builder("image.rendition.cache.bytes", totalBytes, AtomicLong::get)
+            .description("派生图片缓存占用字节数").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        try {
+            Files.createDirectories(cacheDir);
+            long size = 0;
+            for (CachedFile f : listFiles()) {
+                size += f.size();
+            }
+            totalBytes.set(size);
+            log.info("派生图片缓存目录: {}, 当前占用 {} 字节, 配额 {} 字节", cacheDir, size, maxSizeBytes);
+        } catch (IOException e) {
+            log.warn("初始化派生图片缓存目录失败: {}", cacheDir, e);
+        }
+    }
+
+    /** 源图片加载（下载或读取存储），返回 null 或空数组表示无可用图片 */
+    public interface SourceLoader {
+        byte[] load() throws IOException;
+    }
+
+    /**
+     * 取源图片的派生版本：命中则读盘返回（不加载源图片），否则加载源图片、调用 renderer 生成并写入缓存。
+     * renderer 返回源数组本身表示无需转换（仍写入缓存，命中时不必再加载源图片）；
+     * 返回 null 表示渲染失败，不缓存，本次返回源数据。
+     *
+     * @param sourceKey 源图片的不可变标识（内容变化时须随之变化），如上传文件 URL 或图片 URL
+     * @param variant   版本参数，需唯一描述渲染方式，如 {@code max1200-q75}
+     * @return 派生图片；源图片不可用时返回 null
+     */
+    public byte[] getOrRender(String sourceKey, String variant, SourceLoader loader,
+                              UnaryOperator<byte[]> renderer) throws IOException {
+        Path file = entryPath(sha256Hex(sourceKey.getBytes(StandardCharsets.UTF_8)), variant);
+        if (Files.isRegularFile(file)) {
+            try {
+                byte[] cached = Files.readAllBytes(file);
+                if (cached.length > 0) {
+                    touch(file);
+                    hits.increment();
+                    return cached;
+                }
+            } catch (IOException e) {
+                log.debug("读取派生图片缓存失败，重新生成: {}", file, e);
+            }
+        }
+        misses.increment();
+        byte[] source = loader.load();
+        if (source == null || source.length == 0) {
+            return null;
+        }
+        byte[] rendered = renderer.apply(source);
+        if (rendered == null || rendered.length == 0) {
+            return source;
+        }
+        store(file, rendered);
+        return rendered;
+    }
+
+    /**
+     * 按源键查找派生文件，命中时刷新访问时间。返回的文件为空表示「无需转换」标记，调用方应直接使用源文件。
+     *
+     * @param sourceKey 源数据的不可变标识（内容变化时须随之变化），如上传文件的存储键
+     */
+    public Optional<Path> findFile(String sourceKey, String variant) {
+        Path file = entryPath(sha256Hex(sourceKey.getBytes(StandardCharsets.UTF_8)), variant);
+        if (Files.isRegularFile(file)) {
+            touch(file);
+            hits.increment();
+            return Optional.of(file);
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * 按源键写入派生文件，data 为 null 时写入「无需转换」标记；写入失败返回 empty
+     */
+    public Optional<Path> storeFile(String sourceKey, String variant, byte[] data) {
+        Path file = entryPath(sha256Hex(sourceKey.getBytes(StandardCharsets.UTF_8)), variant);
+        return store(file, data != null ? data : PASSTHROUGH) ? Optional.of(file) : Optional.empty();
+    }
+
+    /** 当前缓存占用字节数 */
+    public long getTotalBytes() {
+        return totalBytes.get();
+    }
+
+    private Path entryPath(String digest, String variant) {
+        String safeVariant = variant.replaceAll("[^A-Za-z0-9._-]", "_");
+        return cacheDir.resolve(digest.substring(0, 2)).resolve(digest + "-" + safeVariant);
+    }
+
+    /** 先写临时文件再原子改名，并发写同一条目时只保留一份 */
+    private boolean store(Path file, byte[] data) {
+        Path tmp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tmp = file.resolveSibling(file.getFileName() + "." + UUID.randomUUID() + ".tmp");
+            Files.write(tmp, data);
+            if (Files.exists(file)) {
+                Files.deleteIfExists(tmp);
+                return true;
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            if (totalBytes.addAndGet(data.length) > maxSizeBytes) {
+                evict();
+            }
+            return true;
+        } catch (IOException e) {
+            log.debug("写入派生图片缓存失败: {}", file, e);
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {}
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 按最近访问时间淘汰，直到占用降到配额的 90%
+     */
+    void evict() {
+        synchronized (evictLock) {
+            if (totalBytes.get() <= maxSizeBytes) {
+                return;
+            }
+            try {
+                List<CachedFile> files = listFiles();
+                long size = files.stream().mapToLong(CachedFile::size).sum();
+                long target = (long) (maxSizeBytes * EVICT_TARGET_RATIO);
+                files.sort(Comparator.comparing(CachedFile::lastAccess));
+                int removed = 0;
+                for (CachedFile f : files) {
+                    if (size <= target) break;
+                    if (Files.deleteIfExists(f.path())) {
+                        size -= f.size();
+                        removed++;
+                    }
+                }
+                totalBytes.set(size);
+                evictions.increment(removed);
+                log.info("派生图片缓存淘汰 {} 个条目，当前占用 {} 字节", removed, size);
+            } catch (IOException e) {
+                log.warn("派生图片缓存淘汰失败: {}", cacheDir, e);
+            }
+        }
+    }
+
+    private List<CachedFile> listFiles() throws IOException {
+        List<CachedFile> files = new ArrayList<>();
+        if (!Files.isDirectory(cacheDir)) {
+            return files;
+        }
+        try (Stream<Path> walk = Files.walk(cacheDir)) {
+            walk.filter(p -> !p.getFileName().toString().endsWith(".tmp")).forEach(p -> {
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(p, BasicFileAttributes.class);
+                    if (attrs.isRegularFile()) {
+                        files.add(new CachedFile(p, attrs.size(), attrs.lastModifiedTime()));
+                    }
+                } catch (IOException ignored) {
+                    // 并发淘汰时文件可能已被删除
+                }
+            });
+        }
+        return files;
+    }
+
+    private void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // 仅影响淘汰顺序
+        }
+    }
+
+    private static String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    private record CachedFile(Path path, long size, FileTime lastAccess) {}
+}
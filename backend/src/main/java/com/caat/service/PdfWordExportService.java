@@ -4,6 +4,7 @@ import com.caat.entity.Content;
 import com.caat.entity.Platform;
 import com.caat.entity.TrackedUser;
 import com.caat.repository.ContentRepository;
+import com.caat.storage.BlobStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lowagie.text.Chunk;
 import com.lowagie.text.Font;
@@ -20,10 +21,12 @@ import com.lowagie.text.pdf.PdfReader;
 import com.lowagie.text.pdf.PdfWriter;
 import com.lowagie.text.pdf.draw.LineSeparator;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
@@ -37,11 +40,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -59,13 +67,41 @@ public class PdfWordExportService {
     private final ContentRepository contentRepository;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor pdfRenderExecutor;
+    /** 并行批次的内存预算（单位 MB），每个批次按估算占用获取许可 */
+    private final Semaphore renderMemoryBudget;
+    private final int renderMemoryBudgetMb;
+    /** 图片预取：下载与压缩在此线程池中执行，领先写出位置若干篇文章 */
+    private final ThreadPoolTaskExecutor imageDownloadExecutor;
+    private final ImageRenditionCache renditionCache;
+    private final BlobStore blobStore;
+    private final int prefetchLookAhead;
+    private final int prefetchMemoryBudgetMb;
+    private final Duration prefetchWaitTimeout;
 
     public PdfWordExportService(ContentRepository contentRepository,
                                 RestTemplate restTemplate,
-                                ObjectMapper objectMapper) {
+                                ObjectMapper objectMapper,
+                                @Qualifier("exportPdfRenderExecutor") ThreadPoolTaskExecutor pdfRenderExecutor,
+                                @Value("${app.export.pdf.render-memory-budget-mb:512}") int renderMemoryBudgetMb,
+                                @Qualifier("exportImageDownloadExecutor") ThreadPoolTaskExecutor imageDownloadExecutor,
+                                @Value("${app.export.image-prefetch.look-ahead:8}") int prefetchLookAhead,
+                                @Value("${app.export.image-prefetch.memory-budget-mb:64}") int prefetchMemoryBudgetMb,
+                                @Value("${app.export.image-prefetch.wait-timeout:60s}") Duration prefetchWaitTimeout,
+                                ImageRenditionCache renditionCache,
+                                BlobStore blobStore) {
         this.contentRepository = contentRepository;
         this.restTemplate = restTemplate;
         this.objectMapper = objectMapper;
+        this.pdfRenderExecutor = pdfRenderExecutor;
+        this.renderMemoryBudgetMb = Math.max(1, renderMemoryBudgetMb);
+        this.renderMemoryBudget = new Semaphore(this.renderMemoryBudgetMb, true);
+        this.imageDownloadExecutor = imageDownloadExecutor;
+        this.prefetchLookAhead = prefetchLookAhead;
+        this.prefetchMemoryBudgetMb = prefetchMemoryBudgetMb;
+        this.prefetchWaitTimeout = prefetchWaitTimeout;
+        this.renditionCache = renditionCache;
+        this.blobStore = blobStore;
     }
 
     @Value("${app.upload-dir:uploads}")
@@ -82,6 +118,14 @@ public class PdfWordExportService {
     private static final float JPEG_QUALITY = 0.75f;
     private static final DateTimeFormatter EXPORT_TIME_FMT = DateTimeFormatter.ofPattern("yyyy年MM月dd日 HH:mm");
     private static final DateTimeFormatter FILE_TIME_FMT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+    /** PDF 批次天数：每 15 天的文章生成一个临时 PDF */
+    private static final int DAYS_PER_BATCH = 15;
+    /** 批次内存估算：文档、字体与页面缓冲的基础占用（MB） */
+    private static final int BATCH_BASE_MEMORY_MB = 32;
+    /** 批次内存估算：每张图片（解码缩放与待写出的压缩数据）的平均占用（MB） */
+    private static final int BATCH_IMAGE_MEMORY_MB = 2;
+    /** 派生图片缓存的版本参数：与 MAX_IMAGE_DIMENSION、JPEG_QUALITY 一致，调整压缩参数后旧缓存自动失效 */
+    private static final String RENDITION_VARIANT = "max" + MAX_IMAGE_DIMENSION + "-q" + Math.round(JPEG_QUALITY * 100) + ".jpg";
     private static final Pattern IMG_SRC_PATTERN = Pattern.compile("<img[^>]+src\\s*=\\s*[\"']([^\"']+)[\"']", Pattern.CASE_INSENSITIVE);
 
     /** 常见中文字体路径（按优先级尝试）。优先 TTF，TTC 在 OpenPDF 中可能无法正确嵌入中文 */
@@ -98,8 +142,16 @@ public class PdfWordExportService {
 
     public enum SortOrder { ASC, DESC }
 
-    /** 导出结果：字节数据 + 建议下载文件名（username-平台-时间.ext） */
-    public record ExportResult(byte[] data, String suggestedFileName) {}
+    /** 导出结果：写入目标文件的字节数 + 建议下载文件名（username-平台-时间.ext）；无内容时不创建目标文件 */
+    public record ExportResult(long size, String suggestedFileName) {
+        static ExportResult empty() {
+            return new ExportResult(0, null);
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+    }
 
     /** 进度回调：(进度0-100, 日志消息) */
     public interface ProgressCallback {
@@ -107,19 +159,28 @@ public class PdfWordExportService {
     }
 
     /**
-     * 导出为 PDF（带进度回调），返回 ExportResult 含建议文件名
-     * 采用分批生成策略：每15天的文章生成一个临时PDF，最后合并成一个最终PDF
+     * 导出为 PDF（带进度回调）并写入 target，返回 ExportResult 含建议文件名
+     * 采用分批生成策略：每15天的文章生成一个临时PDF，最后直接合并写入目标文件（不经内存缓冲）
+     */
+    @Transactional(readOnly = true)
+    public ExportResult exportToPdf(UUID userId, SortOrder sortOrder, ProgressCallback callback, Path target) throws IOException {
+        return exportToPdf(userId, sortOrder, callback, target, null);
+    }
+
+    /**
+     * 导出为 PDF；volume 为增量卷时只导出上一卷水位线之后新增或更新的文章，并在首页注明卷号、链接上一卷
      */
     @Transactional(readOnly = true)
-    public ExportResult exportToPdf(UUID userId, SortOrder sortOrder, ProgressCallback callback) throws IOException {
+    public ExportResult exportToPdf(UUID userId, SortOrder sortOrder, ProgressCallback callback, Path target,
+                                    ExportVolume volume) throws IOException {
         if (callback != null) callback.onProgress(5, "开始加载文章...");
-        log.info("开始加载用户文章: userId={}, sortOrder={}", userId, sortOrder);
-        List<Content> contents = loadContentsWithPlatformAndUser(userId, sortOrder);
+        log.info("开始加载用户文章: userId={}, sortOrder={}, volume={}", userId, sortOrder, volume);
+        List<Content> contents = loadContentsWithPlatformAndUser(userId, sortOrder, volume);
         log.info("文章加载完成: 共 {} 篇", contents.size());
         if (callback != null) callback.onProgress(15, "已加载 " + contents.size() + " 篇文章");
         if (contents.isEmpty()) {
-            if (callback != null) callback.onProgress(100, "该用户暂无文章");
-            return new ExportResult(new byte[0], null);
+            if (callback != null) callback.onProgress(100, isIncremental(volume) ? "上一卷以来无新增或更新的文章" : "该用户暂无文章");
+            return ExportResult.empty();
         }
         
         Content first = contents.get(0);
@@ -129,8 +190,9 @@ public class PdfWordExportService {
         if (contents.stream().map(c -> c.getPlatform() != null ? c.getPlatform().getName() : "").distinct().count() > 1) {
             platform = "多平台";
         }
-        String docTitle = username + "-" + platform + "-内容合集";
-        String suggestedFileName = sanitizeFileName(username) + "-" + sanitizeFileName(platform) + "-" + LocalDateTime.now().format(FILE_TIME_FMT) + ".pdf";
+        String docTitle = username + "-" + platform + "-内容合集" + volumeTitleSuffix(volume);
+        String suggestedFileName = sanitizeFileName(username) + "-" + sanitizeFileName(platform) + "-" + LocalDateTime.now().format(FILE_TIME_FMT)
+                + volumeFileSuffix(volume) + ".pdf";
 
         // 创建临时目录
         Path tempDir = Paths.get(uploadDir, "temp", "pdf_export_" + System.currentTimeMillis());
@@ -157,71 +219,68 @@ public class PdfWordExportService {
                 return sortOrder == SortOrder.DESC ? -cmp : cmp;
             });
 
-            // 按15天分组生成临时PDF
-            int daysPerBatch = 15;
-            LocalDateTime batchStartDate = null;
-            List<Content> currentBatch = new ArrayList<>();
-            int batchIndex = 0;
+            // 按15天分组，各批次并行生成临时PDF，按批次顺序合并（保证书签与页码顺序）
+            List<List<Content>> batches = splitIntoBatches(contents);
             int total = contents.size();
-            int processed = 0;
-
-            for (Content c : contents) {
-                LocalDateTime publishDate = c.getPublishedAt().toLocalDate().atStartOfDay();
-                
-                if (batchStartDate == null || 
-                    java.time.temporal.ChronoUnit.DAYS.between(batchStartDate.toLocalDate(), publishDate.toLocalDate()) >= daysPerBatch) {
-                    // 保存当前批次（如果有）
-                    if (!currentBatch.isEmpty()) {
-                        if (callback != null) {
-                            callback.onProgress(18 + (int)(50.0 * batchIndex / Math.max(1, (total / 100 + 1))), 
-                                "开始生成第 " + (batchIndex + 1) + " 个批次（" + currentBatch.size() + " 篇文章）...");
-                        }
-                        Path tempPdf = generateBatchPdf(currentBatch, docTitle, username, platform, contents.size(), 
-                                batchIndex, tempDir, callback, processed, total, contents, sortOrder, totalImages);
-                        tempPdfFiles.add(tempPdf);
-                        processed += currentBatch.size();
-                        batchIndex++;
-                        if (callback != null) {
-                            callback.onProgress(18 + (int)(50.0 * batchIndex / Math.max(1, (total / 100 + 1))), 
-                                "第 " + batchIndex + " 个批次生成完成");
-                        }
+            if (callback != null) {
+                callback.onProgress(18, "共 " + batches.size() + " 个批次，开始生成（并行度 "
+                        + pdfRenderExecutor.getMaxPoolSize() + "）...");
+            }
+            ProgressCallback batchCallback = monotonicCallback(callback);
+            java.util.concurrent.atomic.AtomicInteger processed = new java.util.concurrent.atomic.AtomicInteger();
+            java.util.concurrent.atomic.AtomicInteger finishedBatches = new java.util.concurrent.atomic.AtomicInteger();
+            List<Future<Path>> futures = new ArrayList<>();
+            final int imagesTotal = totalImages;
+            final String batchPlatform = platform;
+            for (int i = 0; i < batches.size(); i++) {
+                final int batchIndex = i;
+                final List<Content> batch = batches.get(i);
+                futures.add(pdfRenderExecutor.submit(() -> {
+                    Path tempPdf = generateBatchPdfWithinBudget(batch, docTitle, username, batchPlatform, total,
+                            batchIndex, tempDir, batchCallback, processed, contents, sortOrder, imagesTotal, volume);
+                    if (batchCallback != null) {
+                        int done = finishedBatches.incrementAndGet();
+                        batchCallback.onProgress(18 + (int) (62.0 * done / batches.size()),
+                                "第 " + (batchIndex + 1) + " 个批次生成完成（" + done + "/" + batches.size() + "）");
                     }
-                    // 开始新批次
-                    batchStartDate = publishDate;
-                    currentBatch = new ArrayList<>();
-                }
-                currentBatch.add(c);
+                    return tempPdf;
+                }));
             }
-            
-            // 保存最后一个批次
-            if (!currentBatch.isEmpty()) {
-                if (callback != null) {
-                    callback.onProgress(18 + (int)(50.0 * batchIndex / Math.max(1, (total / 100 + 1))), 
-                        "开始生成第 " + (batchIndex + 1) + " 个批次（" + currentBatch.size() + " 篇文章）...");
+            try {
+                for (Future<Path> future : futures) {
+                    tempPdfFiles.add(future.get());
                 }
-                Path tempPdf = generateBatchPdf(currentBatch, docTitle, username, platform, contents.size(), 
-                        batchIndex, tempDir, callback, processed, total, contents, sortOrder, totalImages);
-                tempPdfFiles.add(tempPdf);
-                if (callback != null) {
-                    callback.onProgress(18 + (int)(50.0 * (batchIndex + 1) / Math.max(1, (total / 100 + 1))), 
-                        "第 " + (batchIndex + 1) + " 个批次生成完成");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                awaitQuietly(futures);
+                throw new IOException("PDF 批次生成被中断", e);
+            } catch (ExecutionException e) {
+                awaitQuietly(futures);
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException ioe) {
+                    throw ioe;
                 }
+                throw new IOException("PDF 批次生成失败: " + cause.getMessage(), cause);
             }
 
             // 合并所有临时PDF
             if (callback != null) callback.onProgress(85, "正在合并 " + tempPdfFiles.size() + " 个PDF文件...");
-            ByteArrayOutputStream finalBaos = mergePdfFiles(tempPdfFiles, callback);
+            long size = mergePdfFiles(tempPdfFiles, callback, target);
             
             if (callback != null) callback.onProgress(100, "导出完成");
-            return new ExportResult(finalBaos.toByteArray(), suggestedFileName);
+            return new ExportResult(size, suggestedFileName);
         } finally {
-            // 清理临时文件
-            for (Path tempFile : tempPdfFiles) {
-                try {
-                    Files.deleteIfExists(tempFile);
-                } catch (IOException e) {
-                    log.warn("无法删除临时PDF文件: {}", tempFile, e);
+            // 清理临时文件（批次失败时已完成的批次文件不在 tempPdfFiles 中，按目录清理）
+            try (var files = Files.list(tempDir)) {
+                for (Path tempFile : files.toList()) {
+                    try {
+                        Files.deleteIfExists(tempFile);
+                    } catch (IOException e) {
+                        log.warn("无法删除临时PDF文件: {}", tempFile, e);
+                    }
                 }
+            } catch (IOException e) {
+                log.warn("无法列出临时目录: {}", tempDir, e);
             }
             try {
                 Files.deleteIfExists(tempDir);
@@ -232,11 +291,84 @@ public class PdfWordExportService {
     }
 
     /**
-     * 生成一个批次的PDF文件（15天的文章）
+     * 按发布日期切分批次：从批次首篇起满 15 天开启新批次（输入须已按日期排序）
+     */
+    private List<List<Content>> splitIntoBatches(List<Content> sortedContents) {
+        List<List<Content>> batches = new ArrayList<>();
+        LocalDateTime batchStartDate = null;
+        List<Content> currentBatch = new ArrayList<>();
+        for (Content c : sortedContents) {
+            LocalDateTime publishDate = c.getPublishedAt().toLocalDate().atStartOfDay();
+            if (batchStartDate == null ||
+                Math.abs(java.time.temporal.ChronoUnit.DAYS.between(batchStartDate.toLocalDate(), publishDate.toLocalDate())) >= DAYS_PER_BATCH) {
+                if (!currentBatch.isEmpty()) {
+                    batches.add(currentBatch);
+                }
+                batchStartDate = publishDate;
+                currentBatch = new ArrayList<>();
+            }
+            currentBatch.add(c);
+        }
+        if (!currentBatch.isEmpty()) {
+            batches.add(currentBatch);
+        }
+        return batches;
+    }
+
+    /**
+     * 在内存预算内生成批次：按批次图片数估算占用并获取许可，预算不足时等待其他批次完成
+     */
+    private Path generateBatchPdfWithinBudget(List<Content> batchContents, String docTitle, String username, String platform,
+                                              int totalArticles, int batchIndex, Path tempDir, ProgressCallback callback,
+                                              java.util.concurrent.atomic.AtomicInteger processed, List<Content> allContents,
+                                              SortOrder sortOrder, int totalImages, ExportVolume volume) throws IOException, InterruptedException {
+        int batchImages = 0;
+        for (Content c : batchContents) {
+            batchImages += collectImageUrls(c).size();
+        }
+        int permits = Math.min(renderMemoryBudgetMb, BATCH_BASE_MEMORY_MB + batchImages * BATCH_IMAGE_MEMORY_MB);
+        renderMemoryBudget.acquire(permits);
+        try {
+            return generateBatchPdf(batchContents, docTitle, username, platform, totalArticles, batchIndex, tempDir,
+                    callback, processed, allContents, sortOrder, totalImages, volume);
+        } finally {
+            renderMemoryBudget.release(permits);
+        }
+    }
+
+    /** 等待已提交的批次全部结束（失败时用于在清理临时目录前收尾），忽略其结果 */
+    private void awaitQuietly(List<Future<Path>> futures) {
+        for (Future<Path> future : futures) {
+            future.cancel(false);
+        }
+        for (Future<Path> future : futures) {
+            try {
+                future.get();
+            } catch (Exception ignored) {
+                // 已取消或失败的批次无需处理
+            }
+        }
+    }
+
+    /** 多个批次线程共享回调：串行化调用并保证进度不回退 */
+    private ProgressCallback monotonicCallback(ProgressCallback callback) {
+        if (callback == null) return null;
+        int[] last = {0};
+        return (progress, message) -> {
+            synchronized (last) {
+                last[0] = Math.max(last[0], progress);
+                callback.onProgress(last[0], message);
+            }
+        };
+    }
+
+    /**
+     * 生成一个批次的PDF文件（15天的文章）；在渲染线程中执行，Document、Writer 与字体均为本批次独占
      */
     private Path generateBatchPdf(List<Content> batchContents, String docTitle, String username, String platform,
                                    int totalArticles, int batchIndex, Path tempDir, ProgressCallback callback,
-                                   int processedBefore, int total, List<Content> allContents, SortOrder sortOrder, int totalImages) throws IOException {
+                                   java.util.concurrent.atomic.AtomicInteger processed, List<Content> allContents,
+                                   SortOrder sortOrder, int totalImages, ExportVolume volume) throws IOException {
         log.info("开始生成第 {} 个批次PDF: 包含 {} 篇文章", batchIndex + 1, batchContents.size());
         com.lowagie.text.Document document = new com.lowagie.text.Document(com.lowagie.text.PageSize.A4);
         Path tempPdfFile = tempDir.resolve("batch_" + batchIndex + ".pdf");
@@ -244,13 +376,14 @@ public class PdfWordExportService {
         writer.setViewerPreferences(PdfWriter.PageModeUseOutlines);
         document.open();
 
-        Font titleFont = createChineseFont(18, Font.BOLD);
-        Font headingFont = createChineseFont(14, Font.BOLD);
-        Font yearFont = createChineseFont(14, Font.BOLD);
-        Font monthFont = createChineseFont(12, Font.BOLD);
-        Font dayFont = createChineseFont(10, Font.BOLD);
-        Font normalFont = createChineseFont(10, Font.NORMAL);
-        Font smallFont = createChineseFont(8, Font.NORMAL);
+        BaseFont baseFont = loadChineseBaseFont();
+        Font titleFont = createChineseFont(baseFont, 18, Font.BOLD);
+        Font headingFont = createChineseFont(baseFont, 14, Font.BOLD);
+        Font yearFont = createChineseFont(baseFont, 14, Font.BOLD);
+        Font monthFont = createChineseFont(baseFont, 12, Font.BOLD);
+        Font dayFont = createChineseFont(baseFont, 10, Font.BOLD);
+        Font normalFont = createChineseFont(baseFont, 10, Font.NORMAL);
+        Font smallFont = createChineseFont(baseFont, 8, Font.NORMAL);
 
         // 只在第一个批次添加标题和统计信息
         if (batchIndex == 0) {
@@ -258,6 +391,15 @@ public class PdfWordExportService {
             document.add(new Paragraph(" "));
             document.add(new Paragraph("导出时间：" + LocalDateTime.now().format(EXPORT_TIME_FMT), normalFont));
             document.add(new Paragraph("导出文章总数：" + totalArticles, normalFont));
+            if (isIncremental(volume)) {
+                document.add(new Paragraph(volume.describe(EXPORT_TIME_FMT), normalFont));
+                if (volume.previousFileName() != null) {
+                    // 指向同目录下上一卷文件的链接
+                    Chunk link = new Chunk("上一卷：" + volume.previousFileName(), normalFont);
+                    link.setRemoteGoto(volume.previousFileName(), 1);
+                    document.add(new Paragraph(link));
+                }
+            }
             document.add(new Paragraph(" "));
 
             // 统计所有文章
@@ -278,34 +420,36 @@ public class PdfWordExportService {
         Map<Integer, Map<Integer, Map<Integer, List<Content>>>> grouped = groupByYearMonthDay(batchContents);
         var yearOrder = grouped.keySet().stream().sorted(sortOrder == SortOrder.DESC ? Comparator.reverseOrder() : Comparator.naturalOrder()).toList();
 
-        int processed = processedBefore;
-        for (Integer year : yearOrder) {
-            Paragraph yearPara = new Paragraph(year + " 年", yearFont);
-            document.add(yearPara);
-            PdfDestination yearDest = new PdfDestination(PdfDestination.FITH, writer.getVerticalPosition(true));
-            PdfOutline yearOutline = new PdfOutline(writer.getRootOutline(), yearDest, year + " 年");
-
-            Map<Integer, Map<Integer, List<Content>>> months = grouped.get(year);
-            for (Integer month : months.keySet().stream().sorted(sortOrder == SortOrder.DESC ? Comparator.reverseOrder() : Comparator.naturalOrder()).toList()) {
-                document.add(new Paragraph(month + " 月", monthFont));
-                PdfDestination monthDest = new PdfDestination(PdfDestination.FITH, writer.getVerticalPosition(true));
-                PdfOutline monthOutline = new PdfOutline(yearOutline, monthDest, month + " 月");
-
-                Map<Integer, List<Content>> days = months.get(month);
-                for (Integer day : days.keySet().stream().sorted(sortOrder == SortOrder.DESC ? Comparator.reverseOrder() : Comparator.naturalOrder()).toList()) {
-                    List<Content> dayContents = days.get(day);
-                    String dayTitle = year + "年" + month + "月" + day + "日（共 " + dayContents.size() + " 篇）";
-                    document.add(new Paragraph(dayTitle, dayFont));
-                    PdfDestination dayDest = new PdfDestination(PdfDestination.FITH, writer.getVerticalPosition(true));
-                    new PdfOutline(monthOutline, dayDest, dayTitle);
-                    java.util.concurrent.atomic.AtomicInteger imageCounter = new java.util.concurrent.atomic.AtomicInteger(0);
-                    for (Content c : dayContents) {
-                        addContentToPdf(document, c, normalFont, smallFont, imageCounter, callback);
-                        processed++;
-                        // 每写入100篇文章显示一条日志
-                        if (callback != null && processed % 100 == 0) {
-                            int pct = 20 + (int) (60.0 * processed / total);
-                            callback.onProgress(Math.min(pct, 80), "已写入 " + processed + "/" + total + " 篇（批次 " + (batchIndex + 1) + "）");
+        int total = allContents.size();
+        java.util.concurrent.atomic.AtomicInteger imageCounter = new java.util.concurrent.atomic.AtomicInteger(0);
+        try (ExportImagePrefetcher prefetcher = newImagePrefetcher(batchContents, imageCounter, callback)) {
+            for (Integer year : yearOrder) {
+                Paragraph yearPara = new Paragraph(year + " 年", yearFont);
+                document.add(yearPara);
+                PdfDestination yearDest = new PdfDestination(PdfDestination.FITH, writer.getVerticalPosition(true));
+                PdfOutline yearOutline = new PdfOutline(writer.getRootOutline(), yearDest, year + " 年");
+
+                Map<Integer, Map<Integer, List<Content>>> months = grouped.get(year);
+                for (Integer month : months.keySet().stream().sorted(sortOrder == SortOrder.DESC ? Comparator.reverseOrder() : Comparator.naturalOrder()).toList()) {
+                    document.add(new Paragraph(month + " 月", monthFont));
+                    PdfDestination monthDest = new PdfDestination(PdfDestination.FITH, writer.getVerticalPosition(true));
+                    PdfOutline monthOutline = new PdfOutline(yearOutline, monthDest, month + " 月");
+
+                    Map<Integer, List<Content>> days = months.get(month);
+                    for (Integer day : days.keySet().stream().sorted(sortOrder == SortOrder.DESC ? Comparator.reverseOrder() : Comparator.naturalOrder()).toList()) {
+                        List<Content> dayContents = days.get(day);
+                        String dayTitle = year + "年" + month + "月" + day + "日（共 " + dayContents.size() + " 篇）";
+                        document.add(new Paragraph(dayTitle, dayFont));
+                        PdfDestination dayDest = new PdfDestination(PdfDestination.FITH, writer.getVerticalPosition(true));
+                        new PdfOutline(monthOutline, dayDest, dayTitle);
+                        for (Content c : dayContents) {
+                            addContentToPdf(document, c, normalFont, smallFont, prefetcher);
+                            int done = processed.incrementAndGet();
+                            // 每写入100篇文章显示一条日志（各批次共享计数）
+                            if (callback != null && done % 100 == 0) {
+                                int pct = 20 + (int) (60.0 * done / total);
+                                callback.onProgress(Math.min(pct, 80), "已写入 " + done + "/" + total + " 篇（批次 " + (batchIndex + 1) + "）");
+                            }
                         }
                     }
                 }
@@ -318,13 +462,38 @@ public class PdfWordExportService {
     }
 
     /**
-     * 合并多个PDF文件，保留各批次的目录书签并设置打开时显示目录导航栏
+     * 合并增量卷链（按卷号从旧到新）为一个 PDF，不重新渲染，仅复制页面与书签
      */
-    private ByteArrayOutputStream mergePdfFiles(List<Path> pdfFiles, ProgressCallback callback) throws IOException {
-        log.info("开始合并PDF文件: 共 {} 个文件", pdfFiles.size());
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    public ExportResult mergeVolumes(List<Path> volumeFiles, String suggestedFileName, ProgressCallback callback,
+                                     Path target) throws IOException {
+        if (callback != null) callback.onProgress(10, "开始合并 " + volumeFiles.size() + " 卷...");
+        long size = mergePdfFiles(volumeFiles, callback, target);
+        if (callback != null) callback.onProgress(100, "合并完成");
+        return new ExportResult(size, suggestedFileName);
+    }
+
+    private static boolean isIncremental(ExportVolume volume) {
+        return volume != null && volume.isIncremental();
+    }
+
+    private static String volumeTitleSuffix(ExportVolume volume) {
+        return isIncremental(volume) ? "-增量第" + volume.number() + "卷" : "";
+    }
+
+    private static String volumeFileSuffix(ExportVolume volume) {
+        return isIncremental(volume) ? "-第" + volume.number() + "卷" : "";
+    }
+
+    /**
+     * 合并多个PDF文件直接写入目标文件，保留各批次的目录书签并设置打开时显示目录导航栏
+     *
+     * @return 目标文件大小（字节）
+     */
+    private long mergePdfFiles(List<Path> pdfFiles, ProgressCallback callback, Path target) throws IOException {
+        log.info("开始合并PDF文件: 共 {} 个文件 -> {}", pdfFiles.size(), target);
+        java.io.OutputStream out = new java.io.BufferedOutputStream(Files.newOutputStream(target));
         com.lowagie.text.Document document = new com.lowagie.text.Document();
-        PdfCopy copy = new PdfCopy(document, baos);
+        PdfCopy copy = new PdfCopy(document, out);
         document.open();
 
         // 设置打开 PDF 时默认显示左侧目录导航栏（书签面板）
@@ -334,49 +503,56 @@ public class PdfWordExportService {
         int totalFiles = pdfFiles.size();
         int totalPages = 0;
 
-        for (int i = 0; i < pdfFiles.size(); i++) {
-            Path pdfFile = pdfFiles.get(i);
-            log.debug("合并第 {} 个PDF文件: {}", i + 1, pdfFile.getFileName());
-            PdfReader reader = new PdfReader(pdfFile.toFile().getAbsolutePath());
-            int pages = reader.getNumberOfPages();
-
-            // 提取当前 PDF 的书签，并按合并后的页码偏移
-            List<Map<String, Object>> bookmarks = SimpleBookmark.getBookmarkList(reader);
-            if (bookmarks != null && !bookmarks.isEmpty()) {
-                SimpleBookmark.shiftPageNumbersInRange(bookmarks, totalPages, null);
-                allOutlines.addAll(bookmarks);
-            }
+        try {
+            for (int i = 0; i < pdfFiles.size(); i++) {
+                Path pdfFile = pdfFiles.get(i);
+                log.debug("合并第 {} 个PDF文件: {}", i + 1, pdfFile.getFileName());
+                // 以文件随机访问方式读取，避免把整个批次PDF读入内存
+                PdfReader reader = new PdfReader(new com.lowagie.text.pdf.RandomAccessFileOrArray(pdfFile.toFile().getAbsolutePath(), false, true), null);
+                int pages = reader.getNumberOfPages();
 
-            totalPages += pages;
-            log.debug("第 {} 个PDF文件包含 {} 页", i + 1, pages);
-            for (int page = 1; page <= pages; page++) {
-                copy.addPage(copy.getImportedPage(reader, page));
-            }
-            copy.freeReader(reader);
-            reader.close();
+                // 提取当前 PDF 的书签，并按合并后的页码偏移
+                List<Map<String, Object>> bookmarks = SimpleBookmark.getBookmarkList(reader);
+                if (bookmarks != null && !bookmarks.isEmpty()) {
+                    SimpleBookmark.shiftPageNumbersInRange(bookmarks, totalPages, null);
+                    allOutlines.addAll(bookmarks);
+                }
 
-            if (callback != null) {
-                int pct = 85 + (int) (10.0 * (i + 1) / totalFiles);
-                callback.onProgress(Math.min(pct, 99), "已合并 " + (i + 1) + "/" + totalFiles + " 个PDF文件（共 " + totalPages + " 页）");
+                totalPages += pages;
+                log.debug("第 {} 个PDF文件包含 {} 页", i + 1, pages);
+                for (int page = 1; page <= pages; page++) {
+                    copy.addPage(copy.getImportedPage(reader, page));
+                }
+                copy.freeReader(reader);
+                reader.close();
+
+                if (callback != null) {
+                    int pct = 85 + (int) (10.0 * (i + 1) / totalFiles);
+                    callback.onProgress(Math.min(pct, 99), "已合并 " + (i + 1) + "/" + totalFiles + " 个PDF文件（共 " + totalPages + " 页）");
+                }
             }
-        }
 
-        // 将合并后的书签写入最终 PDF
-        if (!allOutlines.isEmpty()) {
-            copy.setOutlines(allOutlines);
+            // 将合并后的书签写入最终 PDF
+            if (!allOutlines.isEmpty()) {
+                copy.setOutlines(allOutlines);
+            }
+        } catch (IOException | RuntimeException e) {
+            // 合并失败时释放目标文件句柄，残缺文件由调用方清理
+            try {
+                out.close();
+            } catch (IOException ignored) {}
+            throw e;
         }
 
+        // 关闭 Document 会一并刷新并关闭目标文件输出流
         document.close();
-        log.info("PDF合并完成: 共 {} 个文件，{} 页，书签数 {}，最终大小 {} 字节", totalFiles, totalPages, allOutlines.size(), baos.size());
-        return baos;
+        long size = Files.size(target);
+        log.info("PDF合并完成: 共 {} 个文件，{} 页，书签数 {}，最终大小 {} 字节", totalFiles, totalPages, allOutlines.size(), size);
+        return size;
     }
 
-    private void addContentToPdf(com.lowagie.text.Document document, Content c, com.lowagie.text.Font normalFont, com.lowagie.text.Font smallFont) throws com.lowagie.text.DocumentException {
-        addContentToPdf(document, c, normalFont, smallFont, null, null);
-    }
-
-    private void addContentToPdf(com.lowagie.text.Document document, Content c, com.lowagie.text.Font normalFont, com.lowagie.text.Font smallFont, 
-                                 java.util.concurrent.atomic.AtomicInteger imageCounter, ProgressCallback callback) throws com.lowagie.text.DocumentException {
+    private void addContentToPdf(com.lowagie.text.Document document, Content c, com.lowagie.text.Font normalFont, com.lowagie.text.Font smallFont,
+                                 ExportImagePrefetcher prefetcher) throws com.lowagie.text.DocumentException {
         document.add(new Paragraph(" ", normalFont));
         String body = stripHtml(c.getBody());
         if (body != null && !body.isEmpty()) {
@@ -394,8 +570,8 @@ public class PdfWordExportService {
                 int added = 0;
                 for (String url : imageUrls) {
                     try {
-                        // 直接读取本地文件或下载远程图片，不使用缓存
-                        byte[] imgBytes = fetchImageBytes(url, imageCounter, callback);
+                        // 由预取流水线提前下载并压缩，通常已就绪
+                        byte[] imgBytes = prefetcher.get(c, url);
                         if (imgBytes != null && imgBytes.length > 0) {
                             com.lowagie.text.Image img = com.lowagie.text.Image.getInstance(imgBytes);
                             img.scaleToFit(imgSize, imgSize);
@@ -416,8 +592,8 @@ public class PdfWordExportService {
                 document.add(table);
             } else {
                 try {
-                    // 直接读取本地文件或下载远程图片，不使用缓存
-                    byte[] imgBytes = fetchImageBytes(imageUrls.get(0), imageCounter, callback);
+                    // 由预取流水线提前下载并压缩，通常已就绪
+                    byte[] imgBytes = prefetcher.get(c, imageUrls.get(0));
                     if (imgBytes != null && imgBytes.length > 0) {
                         com.lowagie.text.Image img = com.lowagie.text.Image.getInstance(imgBytes);
                         img.scaleToFit(imgSize, imgSize);
@@ -448,16 +624,19 @@ public class PdfWordExportService {
         return s.replaceAll("[\\\\/:*?\"<>|]", "_").trim();
     }
 
-    /** 创建支持中文的字体，失败时回退到 Helvetica（中文会显示为空白） */
-    private Font createChineseFont(int size, int style) {
+    /**
+     * 加载支持中文的基础字体，每次调用返回独立实例（不走 OpenPDF 全局字体缓存），
+     * 供并行批次各自持有，避免多个 PdfWriter 共享字形子集状态；找不到时返回 null
+     */
+    private BaseFont loadChineseBaseFont() {
         for (String path : CHINESE_FONT_PATHS) {
             try {
                 java.io.File f = new java.io.File(path);
                 if (!f.exists()) continue;
                 String fontKey = path.endsWith(".ttc") ? path + ",0" : path;
-                BaseFont bf = BaseFont.createFont(fontKey, BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
-                log.info("PDF 中文字体已加载: {}", path);
-                return new Font(bf, size, style);
+                BaseFont bf = BaseFont.createFont(fontKey, BaseFont.IDENTITY_H, BaseFont.EMBEDDED, false, null, null);
+                log.debug("PDF 中文字体已加载: {}", path);
+                return bf;
             } catch (Exception e) {
                 log.trace("无法加载字体 {}: {}", path, e.getMessage());
             }
@@ -465,30 +644,47 @@ public class PdfWordExportService {
         try {
             java.io.InputStream is = getClass().getResourceAsStream("/fonts/NotoSansSC-Regular.ttf");
             if (is != null) {
-                byte[] fontBytes = is.readAllBytes();
+                byte[] fontBytes;
+                try (is) {
+                    fontBytes = is.readAllBytes();
+                }
                 BaseFont bf = BaseFont.createFont("NotoSansSC-Regular.ttf", BaseFont.IDENTITY_H,
-                        BaseFont.EMBEDDED, true, fontBytes, null);
-                log.info("PDF 中文字体已从 resources/fonts 加载");
-                return new Font(bf, size, style);
+                        BaseFont.EMBEDDED, false, fontBytes, null);
+                log.debug("PDF 中文字体已从 resources/fonts 加载");
+                return bf;
             }
         } catch (Exception e) {
             log.trace("无法从 resources 加载字体: {}", e.getMessage());
         }
         log.warn("未找到中文字体，PDF 中文将显示为空白。请将 NotoSansSC-Regular.ttf 放入 src/main/resources/fonts/");
-        return new Font(Font.HELVETICA, size, style);
+        return null;
+    }
+
+    /** 创建支持中文的字体，基础字体缺失时回退到 Helvetica（中文会显示为空白） */
+    private Font createChineseFont(BaseFont baseFont, int size, int style) {
+        return baseFont != null ? new Font(baseFont, size, style) : new Font(Font.HELVETICA, size, style);
+    }
+
+    /**
+     * 导出为 Word (docx)（带进度回调）并写入 target，返回 ExportResult 含建议文件名
+     */
+    @Transactional(readOnly = true)
+    public ExportResult exportToWord(UUID userId, SortOrder sortOrder, ProgressCallback callback, Path target) throws IOException {
+        return exportToWord(userId, sortOrder, callback, target, null);
     }
 
     /**
-     * 导出为 Word (docx)（带进度回调），返回 ExportResult 含建议文件名
+     * 导出为 Word；volume 为增量卷时只导出上一卷水位线之后新增或更新的文章，并在开头注明卷号、链接上一卷
      */
     @Transactional(readOnly = true)
-    public ExportResult exportToWord(UUID userId, SortOrder sortOrder, ProgressCallback callback) throws IOException {
+    public ExportResult exportToWord(UUID userId, SortOrder sortOrder, ProgressCallback callback, Path target,
+                                     ExportVolume volume) throws IOException {
         if (callback != null) callback.onProgress(5, "开始加载文章...");
-        List<Content> contents = loadContentsWithPlatformAndUser(userId, sortOrder);
+        List<Content> contents = loadContentsWithPlatformAndUser(userId, sortOrder, volume);
         if (callback != null) callback.onProgress(15, "已加载 " + contents.size() + " 篇文章");
         if (contents.isEmpty()) {
-            if (callback != null) callback.onProgress(100, "该用户暂无文章");
-            return new ExportResult(new byte[0], null);
+            if (callback != null) callback.onProgress(100, isIncremental(volume) ? "上一卷以来无新增或更新的文章" : "该用户暂无文章");
+            return ExportResult.empty();
         }
         
         if (callback != null) callback.onProgress(20, "正在生成 Word 文档...");
@@ -499,8 +695,9 @@ public class PdfWordExportService {
         if (contents.stream().map(c -> c.getPlatform() != null ? c.getPlatform().getName() : "").distinct().count() > 1) {
             platform = "多平台";
         }
-        String docTitle = username + "-" + platform + "-内容合集";
-        String suggestedFileName = sanitizeFileName(username) + "-" + sanitizeFileName(platform) + "-" + LocalDateTime.now().format(FILE_TIME_FMT) + ".docx";
+        String docTitle = username + "-" + platform + "-内容合集" + volumeTitleSuffix(volume);
+        String suggestedFileName = sanitizeFileName(username) + "-" + sanitizeFileName(platform) + "-" + LocalDateTime.now().format(FILE_TIME_FMT)
+                + volumeFileSuffix(volume) + ".docx";
 
         org.apache.poi.xwpf.usermodel.XWPFDocument document = new org.apache.poi.xwpf.usermodel.XWPFDocument();
         org.apache.poi.xwpf.usermodel.XWPFParagraph p;
@@ -517,6 +714,17 @@ public class PdfWordExportService {
         p.createRun().setText("导出时间：" + LocalDateTime.now().format(EXPORT_TIME_FMT));
         p = document.createParagraph();
         p.createRun().setText("导出文章总数：" + contents.size());
+        if (isIncremental(volume)) {
+            p = document.createParagraph();
+            p.createRun().setText(volume.describe(EXPORT_TIME_FMT));
+            if (volume.previousFileName() != null) {
+                p = document.createParagraph();
+                p.createRun().setText("上一卷：");
+                r = p.createHyperlinkRun(volume.previousFileName().replace(" ", "%20"));
+                r.setText(volume.previousFileName());
+                r.setUnderline(org.apache.poi.xwpf.usermodel.UnderlinePatterns.SINGLE);
+            }
+        }
         p = document.createParagraph();
         p.createRun().setText("");
 
@@ -544,37 +752,39 @@ public class PdfWordExportService {
 
         int total = contents.size();
         int[] processed = {0};
-        for (Integer year : grouped.keySet().stream().sorted(sortOrder == SortOrder.DESC ? Comparator.reverseOrder() : Comparator.naturalOrder()).toList()) {
-            p = document.createParagraph();
-            p.setStyle("Heading1");
-            r = p.createRun();
-            r.setText(year + " 年");
-            r.setBold(true);
-            r.setFontSize(14);
-            Map<Integer, Map<Integer, List<Content>>> months = grouped.get(year);
-            for (Integer month : months.keySet().stream().sorted(sortOrder == SortOrder.DESC ? Comparator.reverseOrder() : Comparator.naturalOrder()).toList()) {
+        try (ExportImagePrefetcher prefetcher = newImagePrefetcher(contents, null, null)) {
+            for (Integer year : grouped.keySet().stream().sorted(sortOrder == SortOrder.DESC ? Comparator.reverseOrder() : Comparator.naturalOrder()).toList()) {
                 p = document.createParagraph();
-                p.setStyle("Heading2");
+                p.setStyle("Heading1");
                 r = p.createRun();
-                r.setText(month + " 月");
+                r.setText(year + " 年");
                 r.setBold(true);
-                r.setFontSize(12);
-                Map<Integer, List<Content>> days = months.get(month);
-                for (Integer day : days.keySet().stream().sorted(sortOrder == SortOrder.DESC ? Comparator.reverseOrder() : Comparator.naturalOrder()).toList()) {
-                    List<Content> dayContents = days.get(day);
+                r.setFontSize(14);
+                Map<Integer, Map<Integer, List<Content>>> months = grouped.get(year);
+                for (Integer month : months.keySet().stream().sorted(sortOrder == SortOrder.DESC ? Comparator.reverseOrder() : Comparator.naturalOrder()).toList()) {
                     p = document.createParagraph();
-                    p.setStyle("Heading3");
+                    p.setStyle("Heading2");
                     r = p.createRun();
-                    r.setText(year + "年" + month + "月" + day + "日（共 " + dayContents.size() + " 篇）");
+                    r.setText(month + " 月");
                     r.setBold(true);
-                    r.setFontSize(10);
-                    for (Content c : dayContents) {
-                        addContentToWord(document, c);
-                        processed[0]++;
-                        // 每写入100篇文章显示一条日志
-                        if (callback != null && processed[0] % 100 == 0) {
-                            int pct = 20 + (int) (60.0 * processed[0] / total);
-                            callback.onProgress(Math.min(pct, 85), "已写入 " + processed[0] + "/" + total + " 篇");
+                    r.setFontSize(12);
+                    Map<Integer, List<Content>> days = months.get(month);
+                    for (Integer day : days.keySet().stream().sorted(sortOrder == SortOrder.DESC ? Comparator.reverseOrder() : Comparator.naturalOrder()).toList()) {
+                        List<Content> dayContents = days.get(day);
+                        p = document.createParagraph();
+                        p.setStyle("Heading3");
+                        r = p.createRun();
+                        r.setText(year + "年" + month + "月" + day + "日（共 " + dayContents.size() + " 篇）");
+                        r.setBold(true);
+                        r.setFontSize(10);
+                        for (Content c : dayContents) {
+                            addContentToWord(document, c, prefetcher);
+                            processed[0]++;
+                            // 每写入100篇文章显示一条日志
+                            if (callback != null && processed[0] % 100 == 0) {
+                                int pct = 20 + (int) (60.0 * processed[0] / total);
+                                callback.onProgress(Math.min(pct, 85), "已写入 " + processed[0] + "/" + total + " 篇");
+                            }
                         }
                     }
                 }
@@ -582,14 +792,16 @@ public class PdfWordExportService {
         }
 
         if (callback != null) callback.onProgress(90, "正在保存文件...");
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        document.write(baos);
-        document.close();
+        try (java.io.OutputStream out = new java.io.BufferedOutputStream(Files.newOutputStream(target))) {
+            document.write(out);
+        } finally {
+            document.close();
+        }
         if (callback != null) callback.onProgress(100, "导出完成");
-        return new ExportResult(baos.toByteArray(), suggestedFileName);
+        return new ExportResult(Files.size(target), suggestedFileName);
     }
 
-    private void addContentToWord(org.apache.poi.xwpf.usermodel.XWPFDocument document, Content c) {
+    private void addContentToWord(org.apache.poi.xwpf.usermodel.XWPFDocument document, Content c, ExportImagePrefetcher prefetcher) {
         org.apache.poi.xwpf.usermodel.XWPFParagraph p;
         org.apache.poi.xwpf.usermodel.XWPFRun r;
 
@@ -611,8 +823,8 @@ public class PdfWordExportService {
                 int idx = 0;
                 for (String url : imageUrls) {
                     try {
-                        // 直接读取本地文件或下载远程图片，不使用缓存
-                        byte[] imgBytes = fetchImageBytes(url);
+                        // 由预取流水线提前下载并压缩，通常已就绪
+                        byte[] imgBytes = prefetcher.get(c, url);
                         if (imgBytes != null && imgBytes.length > 0) {
                             int rowIdx = idx / 3;
                             int colIdx = idx % 3;
@@ -633,8 +845,8 @@ public class PdfWordExportService {
                 }
             } else {
                 try {
-                    // 直接读取本地文件或下载远程图片，不使用缓存
-                    byte[] imgBytes = fetchImageBytes(imageUrls.get(0));
+                    // 由预取流水线提前下载并压缩，通常已就绪
+                    byte[] imgBytes = prefetcher.get(c, imageUrls.get(0));
                     if (imgBytes != null && imgBytes.length > 0) {
                         p = document.createParagraph();
                         r = p.createRun();
@@ -663,7 +875,7 @@ public class PdfWordExportService {
     }
 
     @Transactional(readOnly = true)
-    protected List<Content> loadContentsWithPlatformAndUser(UUID userId, SortOrder sortOrder) {
+    protected List<Content> loadContentsWithPlatformAndUser(UUID userId, SortOrder sortOrder, ExportVolume volume) {
         List<Content> all = new ArrayList<>();
         int page = 0;
         int size = 500;
@@ -673,7 +885,10 @@ public class PdfWordExportService {
         log.info("开始分页加载文章: userId={}, pageSize={}, sortOrder={}", userId, size, sortOrder);
         while (true) {
             Pageable pageable = PageRequest.of(page, size, sort);
-            var result = contentRepository.findByUserIdWithPlatformAndUser(userId, pageable);
+            var result = isIncremental(volume)
+                    ? contentRepository.findByUserIdAndContentModifiedAtBetweenWithPlatformAndUser(userId,
+                            volume.changedAfter(), volume.changedUntil(), pageable)
+                    : contentRepository.findByUserIdWithPlatformAndUser(userId, pageable);
             List<Content> pageContents = result.getContent();
             log.debug("加载第 {} 页: 获取到 {} 篇文章", page + 1, pageContents.size());
             // 在同一个事务中初始化延迟加载的 mediaUrls 集合
@@ -722,54 +937,68 @@ public class PdfWordExportService {
         return urls;
     }
 
-    private byte[] fetchImageBytes(String url) throws IOException {
-        return fetchImageBytes(url, null, null);
+    /**
+     * 为一组按写出顺序排列的文章创建图片预取流水线（使用图片下载线程池）
+     */
+    private ExportImagePrefetcher newImagePrefetcher(List<Content> orderedContents,
+                                                     java.util.concurrent.atomic.AtomicInteger imageCounter,
+                                                     ProgressCallback callback) {
+        return new ExportImagePrefetcher(orderedContents, this::collectImageUrls,
+                url -> fetchImageBytes(url, imageCounter, callback), imageDownloadExecutor,
+                prefetchLookAhead, prefetchMemoryBudgetMb * 1024L * 1024L, prefetchWaitTimeout.toMillis());
     }
 
     private byte[] fetchImageBytes(String url, java.util.concurrent.atomic.AtomicInteger imageCounter, ProgressCallback callback) throws IOException {
         if (url == null || url.isEmpty()) return null;
-        byte[] originalBytes = null;
-        
-        if (url.startsWith("/api/v1/uploads/")) {
-            String relPath = url.substring("/api/v1/uploads/".length());
-            Path filePath = Paths.get(uploadDir, relPath).normalize();
-            if (Files.exists(filePath) && Files.isReadable(filePath)) {
-                originalBytes = Files.readAllBytes(filePath);
+        if (!url.startsWith(BlobStore.URL_PREFIX) && !url.startsWith("http://") && !url.startsWith("https://")) {
+            return null;
+        }
+
+        // 压缩图片以减小内存占用；压缩结果按图片 URL 缓存在磁盘，命中时不再下载原图
+        byte[] result = renditionCache.getOrRender(url, RENDITION_VARIANT, () -> loadOriginalImage(url), this::compressImage);
+        if (result == null) {
+            return null;
+        }
+        if (imageCounter != null) {
+            int count = imageCounter.incrementAndGet();
+            // 每100张图片打印一次进度
+            if (count % 100 == 0 && callback != null) {
+                callback.onProgress(17, "已处理 " + count + " 张图片");
             }
-        } else if (url.startsWith("http://") || url.startsWith("https://")) {
-            try {
-                originalBytes = restTemplate.getForObject(URI.create(url), byte[].class);
-            } catch (Exception e) {
-                log.debug("无法通过 HTTP 获取图片: {}", url, e);
+        }
+        return result;
+    }
+
+    /**
+     * 读取原图：上传文件从存储读取，其余按 HTTP 下载；不可用时返回 null
+     */
+    private byte[] loadOriginalImage(String url) throws IOException {
+        if (url.startsWith(BlobStore.URL_PREFIX)) {
+            String key = BlobStore.keyFromUrl(url).orElse(null);
+            if (key == null) {
+                return null;
+            }
+            try (InputStream in = blobStore.get(key)) {
+                return in.readAllBytes();
+            } catch (NoSuchFileException e) {
+                log.debug("上传文件不存在: {}", url);
                 return null;
             }
         }
-        
-        if (originalBytes == null || originalBytes.length == 0) {
+        try {
+            return restTemplate.getForObject(URI.create(url), byte[].class);
+        } catch (Exception e) {
+            log.debug("无法通过 HTTP 获取图片: {}", url, e);
             return null;
         }
-        
-        // 压缩图片以减小内存占用
-        return compressImage(originalBytes, imageCounter, callback);
     }
     
     /**
      * 压缩图片：如果图片尺寸超过限制，则缩放并压缩
      * @param originalBytes 原始图片字节数组
-     * @return 压缩后的图片字节数组（JPEG格式）
+     * @return 压缩后的图片字节数组（JPEG格式）；无需压缩时返回原数组本身，无法解析或压缩失败时返回 null（调用方使用原图，结果不缓存）
      */
     private byte[] compressImage(byte[] originalBytes) {
-        return compressImage(originalBytes, null, null);
-    }
-
-    /**
-     * 压缩图片：如果图片尺寸超过限制，则缩放并压缩
-     * @param originalBytes 原始图片字节数组
-     * @param imageCounter 图片计数器（用于统计和日志）
-     * @param callback 进度回调（用于更新进度）
-     * @return 压缩后的图片字节数组（JPEG格式）
-     */
-    private byte[] compressImage(byte[] originalBytes, java.util.concurrent.atomic.AtomicInteger imageCounter, ProgressCallback callback) {
         if (originalBytes == null || originalBytes.length == 0) {
             return originalBytes;
         }
@@ -777,8 +1006,7 @@ public class PdfWordExportService {
         try {
             BufferedImage originalImage = ImageIO.read(new java.io.ByteArrayInputStream(originalBytes));
             if (originalImage == null) {
-                if (imageCounter != null) imageCounter.incrementAndGet();
-                return originalBytes; // 无法解析，返回原数据
+                return null; // 无法解析
             }
             
             int originalWidth = originalImage.getWidth();
@@ -786,13 +1014,6 @@ public class PdfWordExportService {
             
             // 如果图片尺寸在限制内，直接返回（避免不必要的压缩）
             if (originalWidth <= MAX_IMAGE_DIMENSION && originalHeight <= MAX_IMAGE_DIMENSION) {
-                if (imageCounter != null) {
-                    int count = imageCounter.incrementAndGet();
-                    // 每100张图片打印一次进度
-                    if (count % 100 == 0 && callback != null) {
-                        callback.onProgress(17, "已处理 " + count + " 张图片");
-                    }
-                }
                 return originalBytes;
             }
             
@@ -816,24 +1037,14 @@ public class PdfWordExportService {
             // 转换为JPEG格式并压缩
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
             ImageIO.write(scaledImage, "jpg", baos);
-            byte[] compressed = baos.toByteArray();
             
             // 即使压缩后文件大小没有明显减小，也返回压缩后的图片
             // 因为内存占用主要取决于像素数（width * height），而不是文件大小
             // 缩放后的图片像素数更少，内存占用更小
-            if (imageCounter != null) {
-                int count = imageCounter.incrementAndGet();
-                // 每100张图片打印一次进度
-                if (count % 100 == 0 && callback != null) {
-                    callback.onProgress(17, "已处理 " + count + " 张图片");
-                }
-            }
-            
-            return compressed;
+            return baos.toByteArray();
         } catch (Exception e) {
             log.debug("图片压缩失败，使用原图: {}", e.getMessage());
-            if (imageCounter != null) imageCounter.incrementAndGet();
-            return originalBytes; // 压缩失败，返回原数据
+            return null;
         }
     }
 
@@ -0,0 +1,28 @@
+package com.caat.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 名称到连续整数下标的驻留表（权限名、角色名各一个），只增不减，已分配的下标在进程内保持不变
+ */
+final class PermissionIndex {
+
+    private final ConcurrentHashMap<String, Integer> indexes = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    /** 取名称的下标，首次出现时分配 */
+    int intern(String name) {
+        return indexes.computeIfAbsent(name, n -> next.getAndIncrement());
+    }
+
+    /** 取已分配的下标，从未出现过的名称返回 -1（任何用户都不具备） */
+    int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return index != null ? index : -1;
+    }
+
+    int size() {
+        return next.get();
+    }
+}
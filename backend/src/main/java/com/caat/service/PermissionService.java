@@ -1,90 +1,167 @@
 package com.caat.service;
 
+import com.caat.cache.CacheInvalidationPublisher;
+import com.caat.cache.LocalCacheInvalidator;
 import com.caat.entity.User;
 import com.caat.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.List;
+import java.time.Duration;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 权限检查服务
+ * 权限名与角色名驻留为连续下标，用户的有效权限预先计算为不可变位图并缓存（app.cache.permissions）；
+ * 命中缓存时每次检查是一次 Map 查找加一次位运算，不访问数据库、不分配对象。
+ * 用户角色分配与角色变更提交后失效（UserService、RoleService），并经 Redis pub/sub 通知其他节点。
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
-public class PermissionService {
-    
+public class PermissionService implements LocalCacheInvalidator {
+
+    /** 跨节点失效广播中使用的缓存名 */
+    public static final String CACHE_NAME = "user-permissions";
+
     private final UserRepository userRepository;
-    
+    private final CacheInvalidationPublisher publisher;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final PermissionIndex permissionIndex = new PermissionIndex();
+    private final PermissionIndex roleIndex = new PermissionIndex();
+    private final ConcurrentHashMap<UUID, UserPermissions> cache = new ConcurrentHashMap<>();
+    /** 每次失效加一；加载期间发生失效时不回填 */
+    private final AtomicLong generation = new AtomicLong();
+
+    public PermissionService(UserRepository userRepository,
+                             CacheInvalidationPublisher publisher,
+                             @Value("${app.cache.permissions.max-size:1000}") int maxSize,
+                             @Value("${app.cache.permissions.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.publisher = publisher;
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = ttl.toNanos();
+    }
+
     /**
-     * 检查用户是否有指定权限
+     * 检查用户是否有指定权限（ADMIN 角色或 "*" 权限拥有所有权限）
      */
     public boolean hasPermission(UUID userId, String permission) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("用户不存在: " + userId));
-        
-        // 管理员拥有所有权限
-        boolean isAdmin = user.getRoles().stream()
-                .anyMatch(role -> "ADMIN".equals(role.getName()));
-        if (isAdmin) {
-            return true;
-        }
-        
-        // 检查用户角色是否包含该权限
-        return user.getRoles().stream()
-                .flatMap(role -> role.getPermissions().stream())
-                .anyMatch(p -> p.equals(permission) || p.equals("*"));
+        return resolve(userId).hasPermission(permissionIndex.indexOf(permission));
     }
-    
+
     /**
      * 检查用户是否有任一权限
      */
     public boolean hasAnyPermission(UUID userId, String... permissions) {
+        UserPermissions granted = resolve(userId);
         for (String permission : permissions) {
-            if (hasPermission(userId, permission)) {
+            if (granted.hasPermission(permissionIndex.indexOf(permission))) {
                 return true;
             }
         }
         return false;
     }
-    
+
     /**
      * 检查用户是否有所有权限
      */
     public boolean hasAllPermissions(UUID userId, String... permissions) {
+        UserPermissions granted = resolve(userId);
         for (String permission : permissions) {
-            if (!hasPermission(userId, permission)) {
+            if (!granted.hasPermission(permissionIndex.indexOf(permission))) {
                 return false;
             }
         }
         return true;
     }
-    
+
     /**
      * 获取用户的所有权限
      */
     public Set<String> getUserPermissions(UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("用户不存在: " + userId));
-        
-        return user.getRoles().stream()
-                .flatMap(role -> role.getPermissions().stream())
-                .collect(Collectors.toSet());
+        return resolve(userId).permissionNames();
     }
-    
+
     /**
      * 检查用户是否有指定角色
      */
     public boolean hasRole(UUID userId, String roleName) {
+        return resolve(userId).hasRole(roleIndex.indexOf(roleName));
+    }
+
+    /**
+     * 事务提交后清除该用户的权限缓存（本节点与其他节点）
+     */
+    public void evictUserAfterCommit(UUID userId) {
+        afterCommit(() -> {
+            evictLocal(userId.toString());
+            publisher.publishEvict(CACHE_NAME, userId.toString());
+        });
+    }
+
+    /**
+     * 事务提交后清除全部权限缓存（角色变更影响的用户无法逐个确定）
+     */
+    public void evictAllAfterCommit() {
+        afterCommit(() -> {
+            evictLocal(null);
+            publisher.publishClear(CACHE_NAME);
+        });
+    }
+
+    @Override
+    public String cacheName() {
+        return CACHE_NAME;
+    }
+
+    @Override
+    public void evictLocal(String userId) {
+        generation.incrementAndGet();
+        if (userId == null) {
+            cache.clear();
+        } else {
+            cache.remove(UUID.fromString(userId));
+        }
+    }
+
+    private UserPermissions resolve(UUID userId) {
+        long now = System.nanoTime();
+        UserPermissions cached = cache.get(userId);
+        if (cached != null && !cached.isExpired(now)) {
+            return cached;
+        }
+        long before = generation.get();
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("用户不存在: " + userId));
-        
-        return user.getRoles().stream()
-                .anyMatch(role -> role.getName().equals(roleName));
+        UserPermissions loaded = UserPermissions.of(user.getRoles(), permissionIndex, roleIndex, now + ttlNanos);
+        if (generation.get() == before) {
+            if (cache.size() >= maxSize) {
+                // 超出上限时整体清空，用户数通常远小于上限
+                cache.clear();
+            }
+            cache.put(userId, loaded);
+        }
+        return loaded;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 }
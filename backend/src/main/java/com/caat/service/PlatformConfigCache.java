@@ -0,0 +1,73 @@
+package com.caat.service;
+
+import com.caat.adapter.AdapterFactory;
+import com.caat.entity.Platform;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 已解析平台配置缓存：按平台 ID 缓存合并后的配置 Map 及适配器派生项（如 TimeStore token 中的 uid），
+ * 以 {@code updatedAt} 作为版本号，平台更新后自动重新解析，拉取与附件下载热路径不再重复解析 JSON。
+ * <p>返回的 Map 不可修改，需要改动时调用方应自行复制。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PlatformConfigCache {
+
+    private record Entry(LocalDateTime version, Map<String, Object> config) {}
+
+    private final ObjectMapper objectMapper;
+    private final AdapterFactory adapterFactory;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 获取平台的已合并配置（含 apiBaseUrl 与适配器派生项）
+     */
+    public Map<String, Object> getConfig(Platform platform) {
+        if (platform.getId() == null) {
+            return resolve(platform);
+        }
+        Entry entry = entries.get(platform.getId());
+        if (entry != null && Objects.equals(entry.version(), platform.getUpdatedAt())) {
+            return entry.config();
+        }
+        Map<String, Object> config = resolve(platform);
+        entries.put(platform.getId(), new Entry(platform.getUpdatedAt(), config));
+        log.debug("平台配置已解析并缓存: platformId={}, version={}", platform.getId(), platform.getUpdatedAt());
+        return config;
+    }
+
+    /**
+     * 平台更新或删除时清理缓存
+     */
+    public void evict(UUID platformId) {
+        if (platformId != null) {
+            entries.remove(platformId);
+        }
+    }
+
+    private Map<String, Object> resolve(Platform platform) {
+        Map<String, Object> config = PlatformConfigUtil.mergePlatformConfig(
+            platform,
+            PlatformConfigUtil.parseConfig(objectMapper, platform.getConfig())
+        );
+        if (platform.getType() != null) {
+            try {
+                config = adapterFactory.getAdapter(platform.getType()).prepareConfig(config);
+            } catch (Exception e) {
+                log.warn("平台配置派生项计算失败，使用原始配置: platformType={}, error={}", platform.getType(), e.getMessage());
+            }
+        }
+        return Collections.unmodifiableMap(config);
+    }
+}
@@ -31,6 +31,7 @@ public class PlatformService {
     private final AdapterFactory adapterFactory;
     private final ObjectMapper objectMapper;
     private final PlatformAvatarService platformAvatarService;
+    private final PlatformConfigCache platformConfigCache;
     
     /**
      * 获取所有平台
@@ -88,6 +89,7 @@ public class PlatformService {
         existing.setAvatarUrl(platform.getAvatarUrl());
         existing.setConfig(platform.getConfig());
         existing.setStatus(platform.getStatus());
+        platformConfigCache.evict(id);
         return platformRepository.save(existing);
     }
     
@@ -99,6 +101,7 @@ public class PlatformService {
     public void deletePlatform(UUID id) {
         Platform platform = getPlatformById(id);
         platformRepository.delete(platform);
+        platformConfigCache.evict(id);
     }
     
     /**
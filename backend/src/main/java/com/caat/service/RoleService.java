@@ -4,6 +4,7 @@ import com.caat.entity.Role;
 import com.caat.exception.BusinessException;
 import com.caat.exception.ErrorCode;
 import com.caat.repository.RoleRepository;
+import com.caat.security.AuthPrincipalCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -21,6 +22,8 @@ import java.util.UUID;
 public class RoleService {
     
     private final RoleRepository roleRepository;
+    private final AuthPrincipalCache authPrincipalCache;
+    private final PermissionService permissionService;
     
     /**
      * 获取所有角色
@@ -78,6 +81,9 @@ public class RoleService {
         if (permissions != null) {
             role.setPermissions(permissions);
         }
+        // 角色名与权限进入用户主体与权限位图，持有该角色的用户无法逐个确定，整体失效
+        authPrincipalCache.evictAllAfterCommit();
+        permissionService.evictAllAfterCommit();
         
         return roleRepository.save(role);
     }
@@ -89,5 +95,7 @@ public class RoleService {
     public void deleteRole(UUID id) {
         Role role = getRoleById(id);
         roleRepository.delete(role);
+        authPrincipalCache.evictAllAfterCommit();
+        permissionService.evictAllAfterCommit();
     }
 }
@@ -32,8 +32,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ScheduleService {
 
-    /** 内容拉取定时任务执行间隔（与 QuartzConfig 中一致） */
-    public static final String SCHEDULE_INTERVAL_DESCRIPTION = "每10分钟";
+    /** 内容拉取间隔说明：按作者发文频率自适应（FetchPollingScheduler），Quartz 每 10 分钟同步一次队列 */
+    public static final String SCHEDULE_INTERVAL_DESCRIPTION = "按作者发文频率自适应";
 
     /** Quartz 中内容拉取触发器的名称（与 QuartzConfig 中一致） */
     private static final String CONTENT_FETCH_TRIGGER_NAME = "contentFetchTrigger";
@@ -0,0 +1,446 @@
+package com.caat.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 任务进度总线：运行中任务（抓取、导出）的进度与日志保存在内存中，变化时立即经 SSE 推送给订阅者；
+ * 数据库只在定时合并刷写（app.progress.flush-interval-ms）和任务结束时写入，不再每个进度点提交一次事务。
+ * 日志为每任务有界环形缓冲（app.progress.max-log-lines），推送只发送新增的一行，避免每次重复序列化全部日志。
+ * 推送不在任务线程上写网络：事件进入每个订阅方的有界队列（app.progress.sse-queue-capacity），由推送线程池按序发送；
+ * 积压超限、发送失败或单次发送超时（app.progress.sse-send-timeout-ms）的订阅被关闭，前端重连后重新获取快照。
+ * 仅覆盖本节点执行的任务；其他节点的任务仍由前端低频轮询兜底。
+ */
+@Slf4j
+@Component
+public class TaskProgressBus {
+
+    public static final String KIND_EXPORT = "export";
+    public static final String KIND_FETCH = "fetch";
+
+    /** SSE 事件名：订阅时的完整快照 / 增量进度 / 任务结束 */
+    static final String EVENT_SNAPSHOT = "snapshot";
+    static final String EVENT_PROGRESS = "progress";
+    static final String EVENT_DONE = "done";
+
+    private final int maxLogLines;
+    private final long emitterTimeoutMs;
+    private final Executor sseExecutor;
+    private final int sendQueueCapacity;
+    private final long sendTimeoutNanos;
+
+    private final Map<UUID, TaskState> tasks = new ConcurrentHashMap<>();
+    private final Map<UUID, List<Subscriber>> taskSubscribers = new ConcurrentHashMap<>();
+    private final Map<String, List<Subscriber>> kindSubscribers = new ConcurrentHashMap<>();
+
+    public TaskProgressBus(@Value("${app.progress.max-log-lines:500}") int maxLogLines,
+                           @Value("${app.progress.sse-timeout-ms:1800000}") long emitterTimeoutMs,
+                           @Qualifier("progressSseExecutor") Executor sseExecutor,
+                           @Value("${app.progress.sse-queue-capacity:64}") int sendQueueCapacity,
+                           @Value("${app.progress.sse-send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.maxLogLines = Math.max(10, maxLogLines);
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.sseExecutor = sseExecutor;
+        this.sendQueueCapacity = Math.max(1, sendQueueCapacity);
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, sendTimeoutMs));
+    }
+
+    /**
+     * 推送给前端的进度事件；logs 仅在快照与结束事件中携带，进度事件只带新增的一行 log
+     */
+    public record ProgressEvent(UUID taskId, String kind, String status, int progress,
+                                Integer fetchedCount, Integer totalCount, String log, List<String> logs) {}
+
+    /**
+     * 开始跟踪一个任务
+     *
+     * @param initialLogs 已有日志（如排队阶段写入的日志）
+     * @param persister   合并刷写时调用，把当前快照写入数据库
+     */
+    public void track(UUID taskId, String kind, List<String> initialLogs, Consumer<ProgressEvent> persister) {
+        TaskState state = new TaskState(taskId, kind, persister);
+        if (initialLogs != null) {
+            initialLogs.forEach(state::appendLog);
+        }
+        tasks.put(taskId, state);
+        ProgressEvent event;
+        synchronized (state) {
+            event = state.toEvent(null, false);
+        }
+        push(state, EVENT_PROGRESS, event);
+    }
+
+    public boolean isTracked(UUID taskId) {
+        return tasks.containsKey(taskId);
+    }
+
+    /**
+     * 更新进度（只改内存并推送，数据库由定时刷写合并写入）
+     *
+     * @param message 新增日志，可为 null
+     */
+    public void update(UUID taskId, int progress, Integer fetchedCount, Integer totalCount, String message) {
+        TaskState state = tasks.get(taskId);
+        if (state == null) {
+            return;
+        }
+        ProgressEvent event;
+        synchronized (state) {
+            if (state.closed) {
+                return;
+            }
+            state.progress = progress;
+            if (fetchedCount != null) {
+                state.fetchedCount = fetchedCount;
+            }
+            if (totalCount != null) {
+                state.totalCount = totalCount;
+            }
+            if (message != null) {
+                state.appendLog(message);
+            }
+            state.dirty = true;
+            event = state.toEvent(message, false);
+        }
+        push(state, EVENT_PROGRESS, event);
+    }
+
+    /**
+     * 任务结束：停止跟踪，先由 terminalWriter 同步提交终态（连同完整日志），再推送结束事件，
+     * 订阅方收到 done 后立即查询即可读到终态
+     *
+     * @param status         终态，如 COMPLETED / FAILED / CANCELLED
+     * @param message        最后一条日志，可为 null
+     * @param terminalWriter 写入终态，参数为最终日志
+     * @return 任务是否在跟踪中；未跟踪时不调用 terminalWriter，由调用方自行写入终态
+     */
+    public boolean complete(UUID taskId, String status, Integer progress, String message,
+                            Consumer<List<String>> terminalWriter) {
+        TaskState state = tasks.remove(taskId);
+        if (state == null) {
+            return false;
+        }
+        ProgressEvent event;
+        synchronized (state) {
+            state.closed = true;
+            state.status = status;
+            if (progress != null) {
+                state.progress = progress;
+            }
+            if (message != null) {
+                state.appendLog(message);
+            }
+            event = state.toEvent(message, true);
+        }
+        try {
+            terminalWriter.accept(event.logs());
+        } finally {
+            push(state, EVENT_DONE, event);
+            // 结束事件发送完后再关闭响应
+            List<Subscriber> subscribers = taskSubscribers.remove(taskId);
+            if (subscribers != null) {
+                subscribers.forEach(Subscriber::close);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 合并刷写：把有变化的运行中任务写入数据库
+     */
+    @Scheduled(fixedDelayString = "${app.progress.flush-interval-ms:2000}")
+    public void flush() {
+        for (TaskState state : tasks.values()) {
+            // 持锁写库，避免与 complete 的终态写入交错
+            synchronized (state) {
+                if (!state.dirty || state.closed) {
+                    continue;
+                }
+                state.dirty = false;
+                try {
+                    state.persister.accept(state.toEvent(null, true));
+                } catch (Exception e) {
+                    log.warn("刷写任务进度失败: taskId={}, error={}", state.taskId, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 关闭单次发送超时的订阅（客户端不再读取、网络卡住），释放推送线程上的等待
+     */
+    @Scheduled(fixedDelayString = "${app.progress.flush-interval-ms:2000}")
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        dropStalled(taskSubscribers.values(), now);
+        dropStalled(kindSubscribers.values(), now);
+    }
+
+    private void dropStalled(Iterable<List<Subscriber>> lists, long now) {
+        for (List<Subscriber> list : lists) {
+            for (Subscriber subscriber : list) {
+                if (subscriber.isStalled(now)) {
+                    log.debug("推送任务进度超时，关闭订阅");
+                    list.remove(subscriber);
+                    subscriber.abort();
+                }
+            }
+        }
+    }
+
+    /**
+     * 订阅单个任务；任务正在本节点运行时立即推送一次完整快照
+     */
+    public SseEmitter subscribe(UUID taskId) {
+        Subscriber subscriber = register(taskSubscribers.computeIfAbsent(taskId, k -> new CopyOnWriteArrayList<>()));
+        TaskState state = tasks.get(taskId);
+        if (state != null) {
+            ProgressEvent snapshot;
+            synchronized (state) {
+                snapshot = state.toEvent(null, true);
+            }
+            subscriber.offer(EVENT_SNAPSHOT, snapshot);
+        }
+        return subscriber.emitter;
+    }
+
+    /**
+     * 订阅某类任务的全部进度（如抓取任务列表页），订阅时推送本节点运行中任务的快照（不含日志）
+     */
+    public SseEmitter subscribeKind(String kind) {
+        Subscriber subscriber = register(kindSubscribers.computeIfAbsent(kind, k -> new CopyOnWriteArrayList<>()));
+        for (TaskState state : tasks.values()) {
+            if (!state.kind.equals(kind)) {
+                continue;
+            }
+            ProgressEvent snapshot;
+            synchronized (state) {
+                snapshot = state.toEvent(null, false);
+            }
+            subscriber.offer(EVENT_SNAPSHOT, snapshot);
+        }
+        return subscriber.emitter;
+    }
+
+    /** 订阅者数量（用于监控与测试） */
+    int subscriberCount() {
+        return taskSubscribers.values().stream().mapToInt(List::size).sum()
+                + kindSubscribers.values().stream().mapToInt(List::size).sum();
+    }
+
+    private Subscriber register(List<Subscriber> list) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        list.add(subscriber);
+        emitter.onCompletion(() -> list.remove(subscriber));
+        emitter.onTimeout(() -> {
+            list.remove(subscriber);
+            subscriber.abort();
+        });
+        emitter.onError(e -> list.remove(subscriber));
+        return subscriber;
+    }
+
+    /**
+     * 把事件放入各订阅方的发送队列后立即返回，不在调用线程（抓取、导出线程）上写网络
+     */
+    private void push(TaskState state, String eventName, ProgressEvent event) {
+        List<Subscriber> byTask = taskSubscribers.get(state.taskId);
+        if (byTask != null) {
+            for (Subscriber subscriber : byTask) {
+                if (!subscriber.offer(eventName, event)) {
+                    byTask.remove(subscriber);
+                }
+            }
+        }
+        List<Subscriber> byKind = kindSubscribers.get(state.kind);
+        if (byKind != null) {
+            // 列表页不需要日志
+            ProgressEvent brief = new ProgressEvent(event.taskId(), event.kind(), event.status(), event.progress(),
+                    event.fetchedCount(), event.totalCount(), null, null);
+            for (Subscriber subscriber : byKind) {
+                if (!subscriber.offer(eventName, brief)) {
+                    byKind.remove(subscriber);
+                }
+            }
+        }
+    }
+
+    private boolean send(SseEmitter emitter, String eventName, ProgressEvent event) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(event));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("推送任务进度失败，移除订阅: taskId={}, error={}", event.taskId(), e.getMessage());
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    /** 待发送的事件；name 为 null 表示发送完前面的事件后结束响应 */
+    private record PendingEvent(String name, ProgressEvent event) {}
+
+    private static final PendingEvent END = new PendingEvent(null, null);
+
+    /**
+     * 单个 SSE 订阅：事件进入有界队列，同一时刻至多一个推送线程按序发送；队列状态读写在 synchronized (this) 内
+     */
+    private final class Subscriber {
+        final SseEmitter emitter;
+        private final ArrayDeque<PendingEvent> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+        /** 当前发送开始时刻（nanoTime），0 表示未在发送 */
+        private volatile long sendingSince;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * @return false 表示订阅已关闭（积压超限、发送失败或推送线程池已满）
+         */
+        boolean offer(String name, ProgressEvent event) {
+            return enqueue(new PendingEvent(name, event));
+        }
+
+        /** 已入队的事件发送完后结束响应 */
+        void close() {
+            enqueue(END);
+        }
+
+        /** 立即关闭，丢弃未发送的事件 */
+        void abort() {
+            synchronized (this) {
+                closed = true;
+                queue.clear();
+            }
+            emitter.complete();
+        }
+
+        boolean isStalled(long now) {
+            long since = sendingSince;
+            return since != 0 && now - since > sendTimeoutNanos;
+        }
+
+        private boolean enqueue(PendingEvent pending) {
+            synchronized (this) {
+                if (closed) {
+                    return false;
+                }
+                if (queue.size() < sendQueueCapacity) {
+                    queue.addLast(pending);
+                    if (draining) {
+                        return true;
+                    }
+                    draining = true;
+                } else {
+                    log.debug("订阅方接收过慢，积压超过 {} 条事件，关闭订阅", sendQueueCapacity);
+                    pending = null;
+                }
+            }
+            if (pending == null) {
+                abort();
+                return false;
+            }
+            try {
+                sseExecutor.execute(this::drain);
+                return true;
+            } catch (RejectedExecutionException e) {
+                log.debug("推送线程池已满，关闭订阅");
+                synchronized (this) {
+                    draining = false;
+                }
+                abort();
+                return false;
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                PendingEvent next;
+                synchronized (this) {
+                    next = queue.pollFirst();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                if (next == END) {
+                    abort();
+                    return;
+                }
+                sendingSince = System.nanoTime();
+                boolean sent = send(emitter, next.name(), next.event());
+                sendingSince = 0;
+                if (!sent) {
+                    synchronized (this) {
+                        closed = true;
+                        queue.clear();
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    /** 单个任务的内存状态，读写均在 synchronized (this) 内 */
+    private final class TaskState {
+        final UUID taskId;
+        final String kind;
+        final Consumer<ProgressEvent> persister;
+        final ArrayDeque<String> logs = new ArrayDeque<>();
+        long droppedLogs;
+        String status = "RUNNING";
+        int progress;
+        Integer fetchedCount;
+        Integer totalCount;
+        boolean dirty;
+        boolean closed;
+
+        TaskState(UUID taskId, String kind, Consumer<ProgressEvent> persister) {
+            this.taskId = taskId;
+            this.kind = kind;
+            this.persister = persister;
+        }
+
+        void appendLog(String line) {
+            if (logs.size() >= maxLogLines) {
+                logs.pollFirst();
+                droppedLogs++;
+            }
+            logs.addLast(line);
+        }
+
+        ProgressEvent toEvent(String newLine, boolean withLogs) {
+            List<String> all = null;
+            if (withLogs) {
+                all = new ArrayList<>(logs.size() + 1);
+                if (droppedLogs > 0) {
+                    all.add("（已省略较早的 " + droppedLogs + " 条日志）");
+                }
+                all.addAll(logs);
+            }
+            return new ProgressEvent(taskId, kind, status, progress, fetchedCount, totalCount, newLine, all);
+        }
+    }
+
+}
@@ -9,7 +9,6 @@ import com.caat.exception.ErrorCode;
 import com.caat.repository.ContentRepository;
 import com.caat.repository.PlatformRepository;
 import com.caat.repository.TrackedUserRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
@@ -37,8 +36,8 @@ public class TrackedUserService {
     private final PlatformRepository platformRepository;
     private final ContentRepository contentRepository;
     private final AdapterFactory adapterFactory;
-    private final ObjectMapper objectMapper;
     private final UserAvatarService userAvatarService;
+    private final PlatformConfigCache platformConfigCache;
     
     /**
      * 获取所有用户（分页），一次性加载 platform，避免 N+1
@@ -127,7 +126,7 @@ public class TrackedUserService {
         if (platform == null) {
             throw new BusinessException(ErrorCode.PLATFORM_NOT_FOUND);
         }
-        Map<String, Object> config = buildPlatformConfig(platform);
+        Map<String, Object> config = platformConfigCache.getConfig(platform);
         PlatformAdapter adapter = adapterFactory.getAdapter(platform.getType());
         Optional<Map<String, String>> profile = adapter.getProfileDetail(user.getUserId(), config);
         if (profile.isEmpty()) {
@@ -144,27 +143,6 @@ public class TrackedUserService {
         return trackedUserRepository.save(user);
     }
 
-    private Map<String, Object> buildPlatformConfig(Platform platform) {
-        Map<String, Object> config = parseConfig(platform.getConfig());
-        if (platform.getApiBaseUrl() != null && !platform.getApiBaseUrl().isEmpty() && !config.containsKey("apiBaseUrl")) {
-            config.put("apiBaseUrl", platform.getApiBaseUrl());
-        }
-        return config;
-    }
-
-    private Map<String, Object> parseConfig(String configJson) {
-        if (configJson == null || configJson.trim().isEmpty()) {
-            return new HashMap<>();
-        }
-        try {
-            return objectMapper.readValue(configJson,
-                objectMapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class));
-        } catch (Exception e) {
-            log.warn("解析平台配置失败: {}", e.getMessage());
-            return new HashMap<>();
-        }
-    }
-
     /** 若头像为 http(s) URL 则下载到本地并替换为本地路径 */
     private void resolveAvatarUrl(TrackedUser user) {
         String url = user.getAvatarUrl();
@@ -0,0 +1,265 @@
+package com.caat.service;
+
+import com.caat.repository.ContentRepository;
+import com.caat.storage.BlobStore;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 上传文件孤儿回收：定时删除 contents/ 下不再被任何内容引用的图片与附件（保存失败、资源刷新替换、TimeStore 修复等遗留）。
+ * 先按键集分页扫描 content_media_urls 与正文、元数据中的上传路径，把被引用键的 64 位哈希放入开放寻址集合（约 16 字节/条）；
+ * 再流式遍历存储（本地 Files.walk、对象存储逐页列举），未被引用且早于宽限期的文件删除。内存只与引用数有关，与文件数无关。
+ * 宽限期覆盖「已下载、内容尚未入库」的窗口；哈希碰撞只会让孤儿文件多保留，不会误删。多节点同时运行结果相同，无需互斥。
+ */
+@Slf4j
+@Component
+public class UploadGarbageCollector {
+
+    /** 只回收内容图片与附件；头像由所属用户/平台管理，不在此处理 */
+    static final String PREFIX = "contents/";
+    /** 库中引用的键：contents/<子目录>/<文件名>，兼容 /api/v1/uploads/、backend/uploads/ 等各种前缀写法 */
+    private static final Pattern KEY_PATTERN = Pattern.compile("contents/[A-Za-z0-9_-]+/[A-Za-z0-9._-]+");
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    private final ContentRepository contentRepository;
+    private final BlobStore blobStore;
+    private final boolean enabled;
+    private final boolean dryRun;
+    private final Duration gracePeriod;
+    private final int pageSize;
+    private final int maxDeletesPerRun;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final Counter deletedFiles;
+    private final Counter reclaimedBytes;
+    private final AtomicLong lastOrphans = new AtomicLong();
+
+    /** 单次回收结果 */
+    public record GcResult(long scanned, long references, long orphans, long skippedRecent, long deleted, long reclaimedBytes) {
+    }
+
+    public UploadGarbageCollector(ContentRepository contentRepository,
+                                  BlobStore blobStore,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.uploads.gc.enabled:true}") boolean enabled,
+                                  @Value("${app.uploads.gc.dry-run:false}") boolean dryRun,
+                                  @Value("${app.uploads.gc.grace-hours:24}") long graceHours,
+                                  @Value("${app.uploads.gc.page-size:500}") int pageSize,
+                                  @Value("${app.uploads.gc.max-deletes-per-run:50000}") int maxDeletesPerRun) {
+        this.contentRepository = contentRepository;
+        this.blobStore = blobStore;
+        this.enabled = enabled;
+        this.dryRun = dryRun;
+        this.gracePeriod = Duration.ofHours(Math.max(1, graceHours));
+        this.pageSize = Math.max(1, pageSize);
+        this.maxDeletesPerRun = Math.max(0, maxDeletesPerRun);
+        this.deletedFiles = Counter.builder("uploads.gc.deleted")
+            .description("孤儿上传文件删除数").register(meterRegistry);
+        this.reclaimedBytes = Counter.builder("uploads.gc.reclaimed.bytes")
+            .description("孤儿上传文件回收字节数").register(meterRegistry);
+        Gauge.builder("uploads.gc.orphans", lastOrphans, AtomicLong::get)
+            .description("最近一次回收发现的孤儿文件数（含试运行与超出单次上限未删除的）").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.uploads.gc.cron:0 30 4 * * *}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            collect();
+        } catch (Exception e) {
+            log.warn("上传文件孤儿回收失败", e);
+        }
+    }
+
+    /**
+     * 执行一轮回收；已有回收在运行时返回 null
+     */
+    public GcResult collect() throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            log.info("上传文件孤儿回收正在运行，跳过本次");
+            return null;
+        }
+        try {
+            Instant cutoff = Instant.now().minus(gracePeriod);
+            ReferenceSet references = collectReferences();
+            if (references.size() == 0) {
+                // 库中没有任何引用时多半是连错了库，宁可不删
+                log.warn("未发现任何上传文件引用，跳过孤儿回收（请确认数据库连接）");
+                return new GcResult(0, 0, 0, 0, 0, 0);
+            }
+            long scanned = 0, orphans = 0, recent = 0, deleted = 0, bytes = 0;
+            try (Stream<BlobStore.BlobInfo> files = blobStore.list(PREFIX)) {
+                Iterator<BlobStore.BlobInfo> it = files.iterator();
+                while (it.hasNext()) {
+                    BlobStore.BlobInfo file = it.next();
+                    scanned++;
+                    if (references.contains(file.key())) {
+                        continue;
+                    }
+                    if (file.lastModified() == null || file.lastModified().isAfter(cutoff)) {
+                        recent++;
+                        continue;
+                    }
+                    orphans++;
+                    if (dryRun || deleted >= maxDeletesPerRun) {
+                        continue;
+                    }
+                    try {
+                        if (blobStore.delete(file.key())) {
+                            deleted++;
+                            bytes += Math.max(0, file.size());
+                            deletedFiles.increment();
+                            reclaimedBytes.increment(Math.max(0, file.size()));
+                        }
+                    } catch (IOException e) {
+                        log.warn("删除孤儿上传文件失败: key={}, error={}", file.key(), e.getMessage());
+                    }
+                }
+            }
+            lastOrphans.set(orphans);
+            GcResult result = new GcResult(scanned, references.size(), orphans, recent, deleted, bytes);
+            log.info("上传文件孤儿回收完成{}: 扫描 {} 个文件, 引用 {} 个, 孤儿 {} 个, 宽限期内跳过 {} 个, 删除 {} 个, 回收 {} 字节",
+                dryRun ? "（试运行）" : "", scanned, result.references(), orphans, recent, deleted, bytes);
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 键集分页扫描图片链接表与正文/元数据，收集被引用的键
+     */
+    ReferenceSet collectReferences() {
+        ReferenceSet references = new ReferenceSet();
+        UUID afterContentId = MIN_UUID;
+        String afterUrl = "";
+        while (true) {
+            List<Object[]> page = contentRepository.findMediaUrlPage(afterContentId, afterUrl, pageSize);
+            for (Object[] row : page) {
+                addKeys(references, (String) row[1]);
+            }
+            if (page.size() < pageSize) {
+                break;
+            }
+            Object[] last = page.get(page.size() - 1);
+            afterContentId = (UUID) last[0];
+            afterUrl = (String) last[1];
+        }
+        UUID afterId = MIN_UUID;
+        while (true) {
+            List<Object[]> page = contentRepository.findUploadReferencePage(afterId, pageSize);
+            for (Object[] row : page) {
+                addKeys(references, (String) row[1]);
+                addKeys(references, (String) row[2]);
+            }
+            if (page.size() < pageSize) {
+                break;
+            }
+            afterId = (UUID) page.get(page.size() - 1)[0];
+        }
+        return references;
+    }
+
+    private static void addKeys(ReferenceSet references, String text) {
+        if (text == null || !text.contains(PREFIX)) {
+            return;
+        }
+        Matcher m = KEY_PATTERN.matcher(text);
+        while (m.find()) {
+            String key = m.group();
+            references.add(key);
+            // 句末紧跟的句点会被一并匹配，去掉后的键同样视为引用
+            int end = key.length();
+            while (end > 0 && key.charAt(end - 1) == '.') {
+                end--;
+            }
+            if (end < key.length()) {
+                references.add(key.substring(0, end));
+            }
+        }
+    }
+
+    /**
+     * 存放键的 64 位哈希的开放寻址集合，负载不超过 1/2；不保存键字符串本身
+     */
+    static final class ReferenceSet {
+        private long[] table = new long[1 << 12];
+        private int size;
+
+        void add(String key) {
+            if (size * 2 >= table.length) {
+                grow();
+            }
+            if (insert(table, hash(key))) {
+                size++;
+            }
+        }
+
+        boolean contains(String key) {
+            long h = hash(key);
+            int mask = table.length - 1;
+            for (int i = (int) (h ^ (h >>> 32)) & mask; ; i = (i + 1) & mask) {
+                if (table[i] == 0) {
+                    return false;
+                }
+                if (table[i] == h) {
+                    return true;
+                }
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void grow() {
+            long[] bigger = new long[table.length * 2];
+            for (long h : table) {
+                if (h != 0) {
+                    insert(bigger, h);
+                }
+            }
+            table = bigger;
+        }
+
+        private static boolean insert(long[] table, long h) {
+            int mask = table.length - 1;
+            for (int i = (int) (h ^ (h >>> 32)) & mask; ; i = (i + 1) & mask) {
+                if (table[i] == 0) {
+                    table[i] = h;
+                    return true;
+                }
+                if (table[i] == h) {
+                    return false;
+                }
+            }
+        }
+
+        /** 0 用作空槽标记 */
+        private static long hash(String key) {
+            long h = Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+            return h == 0 ? 1 : h;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.caat.service;
+
+import com.caat.storage.BlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 上传图片缩略图：按请求宽度（向上取整到固定档位）生成一次后存入派生图片磁盘缓存，之后直接返回缓存文件。
+ * 生成在有界线程池中进行，同一缩略图的并发请求只生成一次；队列已满、超时或无法解码时返回 empty，由调用方返回原图。
+ */
+@Slf4j
+@Service
+public class UploadServingService {
+
+    /** 缩略图宽度档位：请求宽度向上取整到最近档位，避免任意宽度撑大缓存 */
+    static final int[] WIDTH_BUCKETS = {64, 128, 160, 320, 480, 640, 960, 1280};
+    /** 可缩放的源格式及缩略图输出格式；GIF（可能是动图）、SVG、WebP 等直接返回原图 */
+    private static final Map<String, String> OUTPUT_FORMATS = Map.of(
+        "jpg", "jpg", "jpeg", "jpg", "bmp", "jpg", "png", "png");
+
+    private final BlobStore blobStore;
+    private final ImageRenditionCache renditionCache;
+    private final Executor thumbnailExecutor;
+    private final long maxSourceBytes;
+    private final long waitMillis;
+    private final Map<String, CompletableFuture<Optional<Path>>> inFlight = new ConcurrentHashMap<>();
+
+    public UploadServingService(BlobStore blobStore,
+                                ImageRenditionCache renditionCache,
+                                @Qualifier("thumbnailExecutor") Executor thumbnailExecutor,
+                                @Value("${app.uploads.thumbnail.max-source-mb:20}") long maxSourceMb,
+                                @Value("${app.uploads.thumbnail.wait-seconds:10}") long waitSeconds) {
+        this.blobStore = blobStore;
+        this.renditionCache = renditionCache;
+        this.thumbnailExecutor = thumbnailExecutor;
+        this.maxSourceBytes = Math.max(1, maxSourceMb) * 1024L * 1024L;
+        this.waitMillis = Math.max(1, waitSeconds) * 1000L;
+    }
+
+    /**
+     * 取上传图片的缩略图文件；返回 empty 表示应返回原图（格式不支持、请求宽度超过最大档位、原图不大于目标宽度等）
+     */
+    public Optional<Path> thumbnail(String key, int requestedWidth) {
+        int width = snapWidth(requestedWidth);
+        String format = outputFormat(key);
+        if (width <= 0 || format == null) {
+            return Optional.empty();
+        }
+        String variant = "w" + width + "." + format;
+        Optional<Path> cached = renditionCache.findFile(key, variant);
+        if (cached.isPresent()) {
+            return nonPassthrough(cached.get());
+        }
+        String taskKey = key + "#" + variant;
+        CompletableFuture<Optional<Path>> task;
+        try {
+            task = inFlight.computeIfAbsent(taskKey, k -> CompletableFuture.supplyAsync(
+                () -> generate(key, width, format, variant), thumbnailExecutor));
+        } catch (RejectedExecutionException e) {
+            log.debug("缩略图生成队列已满，返回原图: key={}", key);
+            return Optional.empty();
+        }
+        task.whenComplete((r, e) -> inFlight.remove(taskKey, task));
+        try {
+            return task.get(waitMillis, TimeUnit.MILLISECONDS).flatMap(UploadServingService::nonPassthrough);
+        } catch (TimeoutException e) {
+            log.debug("缩略图生成超时，本次返回原图: key={}", key);
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            log.warn("生成缩略图失败: key={}, error={}", key, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+
+    /** 缩略图的内容类型 */
+    public static MediaType thumbnailMediaType(String key) {
+        return "png".equals(outputFormat(key)) ? MediaType.IMAGE_PNG : MediaType.IMAGE_JPEG;
+    }
+
+    /** 向上取整到宽度档位；超过最大档位或非正数返回 0（返回原图） */
+    static int snapWidth(int requestedWidth) {
+        if (requestedWidth <= 0) {
+            return 0;
+        }
+        for (int bucket : WIDTH_BUCKETS) {
+            if (requestedWidth <= bucket) {
+                return bucket;
+            }
+        }
+        return 0;
+    }
+
+    private static String outputFormat(String key) {
+        int dot = key.lastIndexOf('.');
+        return dot < 0 ? null : OUTPUT_FORMATS.get(key.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /** 空文件是「无需缩放」标记 */
+    private static Optional<Path> nonPassthrough(Path file) {
+        try {
+            return Files.size(file) > 0 ? Optional.of(file) : Optional.empty();
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 读取原图生成缩略图并写入缓存；原图过大、无法解码或不大于目标宽度时写入「无需缩放」标记，不再重复尝试
+     */
+    private Optional<Path> generate(String key, int width, String format, String variant) {
+        Optional<Path> source;
+        try {
+            source = blobStore.localFile(key);
+        } catch (IOException e) {
+            throw new IllegalStateException("读取原图失败: " + e.getMessage(), e);
+        }
+        if (source.isEmpty()) {
+            return Optional.empty();
+        }
+        byte[] rendered = null;
+        try {
+            if (Files.size(source.get()) <= maxSourceBytes) {
+                rendered = render(source.get(), width, format);
+            } else {
+                log.debug("原图超过缩略图大小上限，返回原图: key={}", key);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("缩略图解码失败，返回原图: key={}, error={}", key, e.getMessage());
+        }
+        return renditionCache.storeFile(key, variant, rendered);
+    }
+
+    /**
+     * 按目标宽度等比缩放；解码时按倍数降采样，大图不必完整载入内存。原图不大于目标宽度或无法解码时返回 null。
+     */
+    static byte[] render(Path source, int width, String format) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if (sourceWidth <= width) {
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                // 降采样后至少保留两倍目标宽度，再平滑缩放，兼顾内存与画质
+                int step = Math.max(1, sourceWidth / (width * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage image = reader.read(0, param);
+                int height = Math.max(1, (int) Math.round((double) sourceHeight * width / sourceWidth));
+                boolean alpha = "png".equals(format);
+                BufferedImage scaled = new BufferedImage(width, height,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+                Graphics2D g2d = scaled.createGraphics();
+                g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g2d.drawImage(image, 0, 0, width, height, null);
+                g2d.dispose();
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                if (!ImageIO.write(scaled, format, out)) {
+                    return null;
+                }
+                return out.toByteArray();
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
@@ -2,8 +2,8 @@ package com.caat.service;
 
 import com.caat.exception.BusinessException;
 import com.caat.exception.ErrorCode;
+import com.caat.storage.BlobStore;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
@@ -14,17 +14,15 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
 
 /**
- * 用户（追踪用户）头像：上传文件或从 URL 下载并保存到本地，返回可访问路径。
+ * 用户（追踪用户）头像：上传文件或从 URL 下载并保存到上传存储，返回可访问路径。
  */
 @Slf4j
 @Service
@@ -34,17 +32,16 @@ public class UserAvatarService {
     private static final List<String> ALLOWED_EXT = Arrays.asList("png", "jpg", "jpeg", "gif", "webp", "svg");
     private static final int MAX_SIZE_BYTES = 2 * 1024 * 1024; // 2MB
 
-    @Value("${app.upload-dir:uploads}")
-    private String uploadDir;
-
     private final RestTemplate restTemplate;
+    private final BlobStore blobStore;
 
-    public UserAvatarService(RestTemplate restTemplate) {
+    public UserAvatarService(RestTemplate restTemplate, BlobStore blobStore) {
         this.restTemplate = restTemplate;
+        this.blobStore = blobStore;
     }
 
     /**
-     * 保存上传的文件到 uploads/users/，返回访问路径（如 /api/v1/uploads/users/xxx.png）
+     * 保存上传的文件到上传存储 users/，返回访问路径（如 /api/v1/uploads/users/xxx.png）
      */
     public String saveUploadedFile(MultipartFile file) {
         if (file == null || file.isEmpty()) {
@@ -57,21 +54,18 @@ public class UserAvatarService {
         if (ext == null || !ALLOWED_EXT.contains(ext.toLowerCase(Locale.ROOT))) {
             throw new BusinessException(ErrorCode.BAD_REQUEST, "仅支持图片格式：png、jpg、jpeg、gif、webp、svg");
         }
-        String filename = UUID.randomUUID() + "." + ext;
-        Path dir = Paths.get(uploadDir, SUBDIR).toAbsolutePath().normalize();
-        Path target = dir.resolve(filename);
-        try {
-            Files.createDirectories(dir);
-            file.transferTo(target.toFile());
+        String key = SUBDIR + "/" + UUID.randomUUID() + "." + ext;
+        try (InputStream in = file.getInputStream()) {
+            blobStore.put(key, in, file.getSize(), file.getContentType());
         } catch (IOException e) {
             log.warn("保存用户头像上传文件失败: {}", e.getMessage());
             throw new BusinessException(ErrorCode.INTERNAL_ERROR, "保存图片失败");
         }
-        return "/api/v1/uploads/" + SUBDIR + "/" + filename;
+        return BlobStore.urlFor(key);
     }
 
     /**
-     * 从 URL 下载图片并保存到本地，返回访问路径。若下载失败则抛出业务异常。
+     * 从 URL 下载图片并保存到上传存储，返回访问路径。若下载失败则抛出业务异常。
      */
     public String downloadAndSave(String imageUrl) {
         if (imageUrl == null || imageUrl.isBlank()) {
@@ -103,12 +97,9 @@ public class UserAvatarService {
             if (ext == null || !ALLOWED_EXT.contains(ext.toLowerCase(Locale.ROOT))) {
                 ext = "png";
             }
-            String filename = UUID.randomUUID() + "." + ext;
-            Path dir = Paths.get(uploadDir, SUBDIR).toAbsolutePath().normalize();
-            Path target = dir.resolve(filename);
-            Files.createDirectories(dir);
-            Files.write(target, resp.getBody());
-            return "/api/v1/uploads/" + SUBDIR + "/" + filename;
+            String key = SUBDIR + "/" + UUID.randomUUID() + "." + ext;
+            blobStore.put(key, resp.getBody(), resp.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+            return BlobStore.urlFor(key);
         } catch (BusinessException e) {
             throw e;
         } catch (Exception e) {
@@ -0,0 +1,86 @@
+package com.caat.service;
+
+import com.caat.entity.Role;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 用户有效权限的不可变位图：权限、角色各一组，下标来自 PermissionIndex；
+ * 检查只做一次位运算，不分配对象。ADMIN 角色或 "*" 权限视为拥有全部权限。
+ */
+final class UserPermissions {
+
+    static final String ADMIN_ROLE = "ADMIN";
+    static final String WILDCARD = "*";
+
+    private final long[] permissionBits;
+    private final long[] roleBits;
+    private final boolean allPermissions;
+    private final Set<String> permissionNames;
+    private final long expiresAtNanos;
+
+    private UserPermissions(long[] permissionBits, long[] roleBits, boolean allPermissions,
+                            Set<String> permissionNames, long expiresAtNanos) {
+        this.permissionBits = permissionBits;
+        this.roleBits = roleBits;
+        this.allPermissions = allPermissions;
+        this.permissionNames = permissionNames;
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    static UserPermissions of(Collection<Role> roles, PermissionIndex permissionIndex, PermissionIndex roleIndex,
+                              long expiresAtNanos) {
+        Set<String> names = new HashSet<>();
+        boolean all = false;
+        long[] rolesSet = new long[0];
+        for (Role role : roles) {
+            rolesSet = set(rolesSet, roleIndex.intern(role.getName()));
+            all |= ADMIN_ROLE.equals(role.getName());
+            names.addAll(role.getPermissions());
+        }
+        long[] permissionsSet = new long[0];
+        for (String name : names) {
+            permissionsSet = set(permissionsSet, permissionIndex.intern(name));
+        }
+        all |= names.contains(WILDCARD);
+        return new UserPermissions(permissionsSet, rolesSet, all, Set.copyOf(names), expiresAtNanos);
+    }
+
+    boolean hasPermission(int index) {
+        return allPermissions || test(permissionBits, index);
+    }
+
+    boolean hasRole(int index) {
+        return test(roleBits, index);
+    }
+
+    /** 角色中配置的原始权限名（含 "*"） */
+    Set<String> permissionNames() {
+        return permissionNames;
+    }
+
+    boolean isExpired(long nowNanos) {
+        return nowNanos - expiresAtNanos >= 0;
+    }
+
+    private static boolean test(long[] bits, int index) {
+        if (index < 0) {
+            return false;
+        }
+        int word = index >>> 6;
+        return word < bits.length && (bits[word] & (1L << index)) != 0;
+    }
+
+    private static long[] set(long[] bits, int index) {
+        int word = index >>> 6;
+        if (word >= bits.length) {
+            long[] bigger = new long[word + 1];
+            System.arraycopy(bits, 0, bigger, 0, bits.length);
+            bits = bigger;
+        }
+        bits[word] |= 1L << index;
+        return bits;
+    }
+}
@@ -6,6 +6,7 @@ import com.caat.exception.BusinessException;
 import com.caat.exception.ErrorCode;
 import com.caat.repository.RoleRepository;
 import com.caat.repository.UserRepository;
+import com.caat.security.AuthPrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -24,6 +25,8 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final RoleRepository roleRepository;
+    private final AuthPrincipalCache authPrincipalCache;
+    private final PermissionService permissionService;
     
     /**
      * 根据用户名查找用户
@@ -77,6 +80,8 @@ public class UserService {
         User user = findById(userId);
         List<Role> roles = roleRepository.findAllById(roleIds);
         user.setRoles(roles);
+        authPrincipalCache.evictUserAfterCommit(user.getUsername());
+        permissionService.evictUserAfterCommit(userId);
         return userRepository.save(user);
     }
     
@@ -87,6 +92,8 @@ public class UserService {
     public User removeRoles(UUID userId, List<UUID> roleIds) {
         User user = findById(userId);
         user.getRoles().removeIf(role -> roleIds.contains(role.getId()));
+        authPrincipalCache.evictUserAfterCommit(user.getUsername());
+        permissionService.evictUserAfterCommit(userId);
         return userRepository.save(user);
     }
 }
@@ -0,0 +1,134 @@
+package com.caat.service;
+
+import com.caat.storage.BlobStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 流式 ZIP 写出：文本条目 DEFLATED 压缩；上传存储中的附件（图片等已压缩格式）以 STORED 方式原样写入，
+ * 通过 FileChannel 分块读取本地文件（对象存储时为本地读缓存）、复用同一缓冲区，不整体载入内存；超过 4GB 时由 ZipOutputStream 自动使用 ZIP64。
+ * 同一附件只写入一次。不关闭调用方的输出流。非线程安全。
+ */
+@Slf4j
+class ZipArchiveWriter {
+
+    static final String ASSET_DIR = "assets/";
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final ZipOutputStream zip;
+    private final BlobStore blobStore;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CRC32 crc = new CRC32();
+    /** 已处理的附件相对路径 -> 包内路径（null 表示文件不存在，避免重复探测） */
+    private final Map<String, String> assets = new HashMap<>();
+
+    ZipArchiveWriter(OutputStream out, BlobStore blobStore) {
+        this.zip = new ZipOutputStream(new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                // 由调用方关闭
+                flush();
+            }
+        });
+        this.blobStore = blobStore;
+    }
+
+    /** 写入 UTF-8 文本条目（DEFLATED） */
+    void addText(String name, String text) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.DEFLATED);
+        zip.putNextEntry(entry);
+        zip.write(text.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    /**
+     * 把上传存储中的附件以 STORED 方式写入 assets/ 下（保持相对路径）
+     *
+     * @param relPath 存储键，如 contents/images/xxx.png
+     * @return 包内路径；文件不存在或键不合法时返回 null
+     */
+    String addUpload(String relPath) throws IOException {
+        if (assets.containsKey(relPath)) {
+            return assets.get(relPath);
+        }
+        Optional<Path> file = Optional.empty();
+        if (BlobStore.isValidKey(relPath)) {
+            try {
+                file = blobStore.localFile(relPath);
+            } catch (IOException e) {
+                log.warn("ZIP 导出读取附件失败，跳过: {}, error={}", relPath, e.getMessage());
+            }
+        }
+        String entryName = null;
+        if (file.isPresent()) {
+            entryName = ASSET_DIR + relPath;
+            copyStored(file.get(), entryName);
+        } else {
+            log.debug("ZIP 导出跳过不存在的附件: {}", relPath);
+        }
+        assets.put(relPath, entryName);
+        return entryName;
+    }
+
+    /** 已写入的附件数 */
+    long assetCount() {
+        return assets.values().stream().filter(v -> v != null).count();
+    }
+
+    /** 写出中央目录并刷新，不关闭底层输出流 */
+    void finish() throws IOException {
+        zip.finish();
+        zip.flush();
+    }
+
+    /**
+     * STORED 条目需预先提供大小与 CRC：先顺序读一遍计算 CRC，再读一遍写出（第二遍通常命中页缓存）
+     */
+    private void copyStored(Path file, String entryName) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            crc.reset();
+            buffer.clear();
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+            ZipEntry entry = new ZipEntry(entryName);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(size);
+            entry.setCompressedSize(size);
+            entry.setCrc(crc.getValue());
+            entry.setTime(Files.getLastModifiedTime(file).toMillis());
+            zip.putNextEntry(entry);
+            channel.position(0);
+            int n;
+            while ((n = channel.read(buffer)) > 0) {
+                zip.write(buffer.array(), 0, n);
+                buffer.clear();
+            }
+            zip.closeEntry();
+        }
+    }
+}
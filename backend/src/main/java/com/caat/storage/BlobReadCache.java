@@ -0,0 +1,153 @@
+package com.caat.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 对象存储的本地读缓存：按键落盘，总大小超过配额时按最近访问时间（文件修改时间，命中时刷新）淘汰。
+ * 只缓存读取过的对象，写入与删除时使对应条目失效；各节点各自缓存，不需要共享。
+ */
+@Slf4j
+class BlobReadCache {
+
+    /** 超出配额后淘汰到配额的比例，避免每次写入都触发淘汰 */
+    private static final double EVICT_TARGET_RATIO = 0.9;
+
+    private final Path dir;
+    private final long maxSizeBytes;
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final Object evictLock = new Object();
+
+    BlobReadCache(Path dir, long maxSizeBytes) {
+        this.dir = dir.toAbsolutePath().normalize();
+        this.maxSizeBytes = Math.max(1, maxSizeBytes);
+        try {
+            Files.createDirectories(this.dir);
+            totalBytes.set(listFiles().stream().mapToLong(CachedFile::size).sum());
+            log.info("对象存储读缓存目录: {}, 当前占用 {} 字节, 配额 {} 字节", this.dir, totalBytes.get(), this.maxSizeBytes);
+        } catch (IOException e) {
+            log.warn("初始化对象存储读缓存目录失败: {}", this.dir, e);
+        }
+    }
+
+    /** 命中时返回缓存文件并刷新访问时间 */
+    Optional<Path> lookup(String key) {
+        Path file = entryPath(key);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // 仅影响淘汰顺序
+        }
+        return Optional.of(file);
+    }
+
+    /** 把对象内容写入缓存（先写临时文件再原子改名），返回缓存文件 */
+    Path store(String key, InputStream in) throws IOException {
+        Path file = entryPath(key);
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            long size = Files.copy(in, tmp);
+            long previous = Files.isRegularFile(file) ? Files.size(file) : 0;
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (totalBytes.addAndGet(size - previous) > maxSizeBytes) {
+                evict();
+            }
+            return file;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    void invalidate(String key) {
+        Path file = entryPath(key);
+        try {
+            long size = Files.isRegularFile(file) ? Files.size(file) : 0;
+            if (Files.deleteIfExists(file)) {
+                totalBytes.addAndGet(-size);
+            }
+        } catch (IOException e) {
+            log.debug("清除对象存储读缓存失败: {}", file, e);
+        }
+    }
+
+    long getTotalBytes() {
+        return totalBytes.get();
+    }
+
+    /**
+     * 按最近访问时间淘汰，直到占用降到配额的 90%
+     */
+    void evict() {
+        synchronized (evictLock) {
+            if (totalBytes.get() <= maxSizeBytes) {
+                return;
+            }
+            try {
+                List<CachedFile> files = listFiles();
+                long size = files.stream().mapToLong(CachedFile::size).sum();
+                long target = (long) (maxSizeBytes * EVICT_TARGET_RATIO);
+                files.sort(Comparator.comparing(CachedFile::lastAccess));
+                int removed = 0;
+                for (CachedFile f : files) {
+                    if (size <= target) break;
+                    if (Files.deleteIfExists(f.path())) {
+                        size -= f.size();
+                        removed++;
+                    }
+                }
+                totalBytes.set(size);
+                log.info("对象存储读缓存淘汰 {} 个条目，当前占用 {} 字节", removed, size);
+            } catch (IOException e) {
+                log.warn("对象存储读缓存淘汰失败: {}", dir, e);
+            }
+        }
+    }
+
+    private Path entryPath(String key) {
+        Path file = dir.resolve(BlobStore.requireValidKey(key)).normalize();
+        if (!file.startsWith(dir)) {
+            throw new IllegalArgumentException("非法的存储键: " + key);
+        }
+        return file;
+    }
+
+    private List<CachedFile> listFiles() throws IOException {
+        List<CachedFile> files = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return files;
+        }
+        try (Stream<Path> walk = Files.walk(dir)) {
+            walk.filter(p -> !p.getFileName().toString().endsWith(".tmp")).forEach(p -> {
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(p, BasicFileAttributes.class);
+                    if (attrs.isRegularFile()) {
+                        files.add(new CachedFile(p, attrs.size(), attrs.lastModifiedTime()));
+                    }
+                } catch (IOException ignored) {
+                    // 并发淘汰时文件可能已被删除
+                }
+            });
+        }
+        return files;
+    }
+
+    private record CachedFile(Path path, long size, FileTime lastAccess) {}
+}
@@ -0,0 +1,127 @@
+package com.caat.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * 上传文件存储（头像、文章图片与附件）。对象以相对键寻址，如 contents/images/xxx.png，
+ * 对外访问路径统一为 /api/v1/uploads/&lt;键&gt;，与存储后端无关，切换后端不需要改写库中的链接。
+ * 实现：本地目录（LocalBlobStore，单节点默认）与 S3 兼容对象存储（S3BlobStore，多节点共享）。
+ */
+public interface BlobStore {
+
+    /** 上传文件的访问路径前缀 */
+    String URL_PREFIX = "/api/v1/uploads/";
+
+    /**
+     * 流式写入对象，已存在时覆盖
+     *
+     * @param contentLength 字节数，未知时传 -1
+     */
+    void put(String key, InputStream in, long contentLength, String contentType) throws IOException;
+
+    default void put(String key, byte[] data, String contentType) throws IOException {
+        put(key, new ByteArrayInputStream(data), data.length, contentType);
+    }
+
+    /**
+     * 流式读取对象，调用方负责关闭
+     *
+     * @throws java.nio.file.NoSuchFileException 对象不存在
+     */
+    InputStream get(String key) throws IOException;
+
+    /** 对象元数据，不存在时为空 */
+    Optional<BlobInfo> stat(String key) throws IOException;
+
+    /** 删除对象，返回是否存在并已删除 */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * 对象的本地文件：本地存储直接返回原文件，对象存储下载到本地读缓存后返回缓存文件（需随机读或多次读取时使用）
+     */
+    Optional<Path> localFile(String key) throws IOException;
+
+    /**
+     * 流式列出目录前缀（以 / 结尾，如 contents/）下的全部对象，元数据只含键、大小与修改时间。
+     * 逐目录/逐页读取，内存占用与对象总数无关；调用方负责关闭返回的流。
+     */
+    Stream<BlobInfo> list(String prefix) throws IOException;
+
+    /** 限时下载链接（对象存储直连下载），不支持时为空 */
+    Optional<URI> presignedUrl(String key, Duration ttl);
+
+    /** 对象元数据 */
+    record BlobInfo(String key, long size, Instant lastModified, String contentType, String etag) {
+    }
+
+    /** 键对应的访问路径 */
+    static String urlFor(String key) {
+        return URL_PREFIX + key;
+    }
+
+    /**
+     * 从访问路径（可带 origin）提取键；不是上传路径或键不合法时为空
+     */
+    static Optional<String> keyFromUrl(String url) {
+        if (url == null || url.isBlank()) {
+            return Optional.empty();
+        }
+        String u = url.trim();
+        int idx = u.lastIndexOf(URL_PREFIX);
+        if (idx < 0) {
+            return Optional.empty();
+        }
+        String key = u.substring(idx + URL_PREFIX.length());
+        int end = indexOfAny(key, '?', '#');
+        if (end >= 0) {
+            key = key.substring(0, end);
+        }
+        return isValidKey(key) ? Optional.of(key) : Optional.empty();
+    }
+
+    /** 键为非空相对路径，不含 ..、反斜杠与空段 */
+    static boolean isValidKey(String key) {
+        if (key == null || key.isEmpty() || key.startsWith("/") || key.indexOf('\\') >= 0) {
+            return false;
+        }
+        for (String segment : key.split("/", -1)) {
+            if (segment.isEmpty() || segment.equals(".") || segment.equals("..")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String requireValidKey(String key) {
+        if (!isValidKey(key)) {
+            throw new IllegalArgumentException("非法的存储键: " + key);
+        }
+        return key;
+    }
+
+    /** 校验目录前缀（以 / 结尾），返回去掉末尾 / 的目录键 */
+    static String requireDirectoryPrefix(String prefix) {
+        if (prefix == null || !prefix.endsWith("/")) {
+            throw new IllegalArgumentException("列举前缀须以 / 结尾: " + prefix);
+        }
+        return requireValidKey(prefix.substring(0, prefix.length() - 1));
+    }
+
+    private static int indexOfAny(String s, char a, char b) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == a || c == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,112 @@
+package com.caat.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * 本地目录存储：键即上传目录下的相对路径。写入先落临时文件再原子改名，读方不会看到写了一半的文件。
+ */
+@Slf4j
+public class LocalBlobStore implements BlobStore {
+
+    private final Path root;
+
+    public LocalBlobStore(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void put(String key, InputStream in, long contentLength, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.copy(in, tmp);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        Path file = resolve(key);
+        if (!Files.isRegularFile(file)) {
+            throw new NoSuchFileException(key);
+        }
+        return Files.newInputStream(file);
+    }
+
+    @Override
+    public Optional<BlobInfo> stat(String key) throws IOException {
+        Path file = resolve(key);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        return Optional.of(new BlobInfo(key, attrs.size(), attrs.lastModifiedTime().toInstant(),
+            Files.probeContentType(file), null));
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        Path file = resolve(key);
+        return Files.isRegularFile(file) && Files.deleteIfExists(file);
+    }
+
+    @Override
+    public Optional<Path> localFile(String key) {
+        Path file = resolve(key);
+        return Files.isRegularFile(file) && Files.isReadable(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    @Override
+    public Stream<BlobInfo> list(String prefix) throws IOException {
+        Path dir = resolve(BlobStore.requireDirectoryPrefix(prefix));
+        if (!Files.isDirectory(dir)) {
+            return Stream.empty();
+        }
+        return Files.walk(dir)
+            .map(this::toBlobInfo)
+            .flatMap(Optional::stream);
+    }
+
+    @Override
+    public Optional<URI> presignedUrl(String key, Duration ttl) {
+        return Optional.empty();
+    }
+
+    /** 普通文件转为对象元数据；目录与遍历期间被删除的文件跳过 */
+    private Optional<BlobInfo> toBlobInfo(Path file) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!attrs.isRegularFile()) {
+                return Optional.empty();
+            }
+            String key = root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+            return Optional.of(new BlobInfo(key, attrs.size(), attrs.lastModifiedTime().toInstant(), null, null));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Path resolve(String key) {
+        Path file = root.resolve(BlobStore.requireValidKey(key)).normalize();
+        if (!file.startsWith(root)) {
+            throw new IllegalArgumentException("非法的存储键: " + key);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,349 @@
+package com.caat.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * S3 兼容对象存储（AWS S3、MinIO、OSS 等）：基于 JDK HttpClient 与 SigV4 签名，不依赖厂商 SDK。
+ * 写入按 part-size 分块读取输入流：不足一块时单次 PUT，否则走分片上传（失败时中止，不留残片），内存占用不超过一块；
+ * 读取经本地读缓存（BlobReadCache），下载链接可签发限时直连地址，由客户端直接从存储下载。
+ */
+@Slf4j
+public class S3BlobStore implements BlobStore {
+
+    private static final Pattern UPLOAD_ID = Pattern.compile("<UploadId>([^<]+)</UploadId>");
+    private static final Pattern LIST_CONTENTS = Pattern.compile("<Contents>(.*?)</Contents>", Pattern.DOTALL);
+    private static final Pattern LIST_KEY = Pattern.compile("<Key>([^<]*)</Key>");
+    private static final Pattern LIST_SIZE = Pattern.compile("<Size>(\\d+)</Size>");
+    private static final Pattern LIST_LAST_MODIFIED = Pattern.compile("<LastModified>([^<]+)</LastModified>");
+    private static final Pattern LIST_NEXT_TOKEN = Pattern.compile("<NextContinuationToken>([^<]+)</NextContinuationToken>");
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+    private static final int LIST_PAGE_SIZE = 1000;
+
+    /** 连接参数 */
+    public record Settings(String endpoint, String publicEndpoint, String region, String bucket,
+                           String accessKey, String secretKey, boolean pathStyle,
+                           int partSizeBytes, Duration requestTimeout) {
+    }
+
+    private final HttpClient http;
+    private final URI endpoint;
+    private final URI publicEndpoint;
+    private final String bucket;
+    private final boolean pathStyle;
+    private final int partSize;
+    private final Duration requestTimeout;
+    private final S3Signer signer;
+    private final BlobReadCache cache;
+
+    public S3BlobStore(Settings settings, Path cacheDir, long cacheMaxBytes) {
+        this(settings, new BlobReadCache(cacheDir, cacheMaxBytes), MIN_PART_SIZE);
+    }
+
+    /** minPartSize 仅供测试放宽（S3 要求除最后一块外每块至少 5MB） */
+    S3BlobStore(Settings settings, BlobReadCache cache, int minPartSize) {
+        this.endpoint = normalizeEndpoint(settings.endpoint());
+        this.publicEndpoint = settings.publicEndpoint() != null && !settings.publicEndpoint().isBlank()
+            ? normalizeEndpoint(settings.publicEndpoint()) : this.endpoint;
+        this.bucket = settings.bucket();
+        this.pathStyle = settings.pathStyle();
+        this.partSize = Math.max(minPartSize, settings.partSizeBytes());
+        this.requestTimeout = settings.requestTimeout() != null ? settings.requestTimeout() : Duration.ofMinutes(2);
+        this.signer = new S3Signer(settings.accessKey(), settings.secretKey(), settings.region());
+        this.cache = cache;
+        this.http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    }
+
+    @Override
+    public void put(String key, InputStream in, long contentLength, String contentType) throws IOException {
+        BlobStore.requireValidKey(key);
+        byte[] first = in.readNBytes(partSize);
+        try {
+            if (first.length < partSize) {
+                expectSuccess(send("PUT", key, Map.of(), first, contentType, HttpResponse.BodyHandlers.ofString()), "PUT", key);
+                return;
+            }
+            putMultipart(key, first, in, contentType);
+        } finally {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * 分片上传：逐块读取输入流并上传，完成后合并；任一步失败时中止上传释放已传分片
+     */
+    private void putMultipart(String key, byte[] first, InputStream in, String contentType) throws IOException {
+        HttpResponse<String> init = send("POST", key, Map.of("uploads", ""), new byte[0], contentType,
+            HttpResponse.BodyHandlers.ofString());
+        expectSuccess(init, "CreateMultipartUpload", key);
+        Matcher m = UPLOAD_ID.matcher(init.body());
+        if (!m.find()) {
+            throw new IOException("分片上传初始化未返回 UploadId: " + key);
+        }
+        String uploadId = m.group(1);
+        List<String> etags = new ArrayList<>();
+        try {
+            byte[] part = first;
+            while (part.length > 0) {
+                Map<String, String> query = Map.of("partNumber", String.valueOf(etags.size() + 1), "uploadId", uploadId);
+                HttpResponse<String> resp = send("PUT", key, query, part, null, HttpResponse.BodyHandlers.ofString());
+                expectSuccess(resp, "UploadPart", key);
+                etags.add(resp.headers().firstValue("ETag")
+                    .orElseThrow(() -> new IOException("分片上传未返回 ETag: " + key)));
+                part = part.length < partSize ? new byte[0] : in.readNBytes(partSize);
+            }
+            StringBuilder xml = new StringBuilder("<CompleteMultipartUpload>");
+            for (int i = 0; i < etags.size(); i++) {
+                xml.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+                    .append(etags.get(i)).append("</ETag></Part>");
+            }
+            xml.append("</CompleteMultipartUpload>");
+            HttpResponse<String> done = send("POST", key, Map.of("uploadId", uploadId),
+                xml.toString().getBytes(StandardCharsets.UTF_8), "application/xml", HttpResponse.BodyHandlers.ofString());
+            expectSuccess(done, "CompleteMultipartUpload", key);
+            // 合并失败时 S3 也可能返回 200，错误在响应体中
+            if (done.body() != null && done.body().contains("<Error>")) {
+                throw new IOException("分片合并失败: " + key + " " + abbreviate(done.body()));
+            }
+            log.debug("分片上传完成: key={}, parts={}", key, etags.size());
+        } catch (IOException | RuntimeException e) {
+            abortQuietly(key, uploadId);
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return Files.newInputStream(localFile(key).orElseThrow(() -> new NoSuchFileException(key)));
+    }
+
+    /**
+     * 读穿缓存：未命中时从对象存储流式下载到缓存目录
+     */
+    @Override
+    public Optional<Path> localFile(String key) throws IOException {
+        BlobStore.requireValidKey(key);
+        Optional<Path> cached = cache.lookup(key);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        HttpResponse<InputStream> resp = send("GET", key, Map.of(), null, null, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = resp.body()) {
+            if (resp.statusCode() == 404) {
+                return Optional.empty();
+            }
+            if (resp.statusCode() / 100 != 2) {
+                throw new IOException("S3 GET 失败: key=" + key + ", HTTP " + resp.statusCode()
+                    + " " + abbreviate(new String(body.readNBytes(512), StandardCharsets.UTF_8)));
+            }
+            return Optional.of(cache.store(key, body));
+        }
+    }
+
+    @Override
+    public Optional<BlobInfo> stat(String key) throws IOException {
+        BlobStore.requireValidKey(key);
+        HttpResponse<Void> resp = send("HEAD", key, Map.of(), null, null, HttpResponse.BodyHandlers.discarding());
+        if (resp.statusCode() == 404) {
+            return Optional.empty();
+        }
+        if (resp.statusCode() / 100 != 2) {
+            throw new IOException("S3 HEAD 失败: key=" + key + ", HTTP " + resp.statusCode());
+        }
+        long size = resp.headers().firstValueAsLong("Content-Length").orElse(-1);
+        Instant lastModified = resp.headers().firstValue("Last-Modified")
+            .map(v -> ZonedDateTime.parse(v, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant())
+            .orElse(null);
+        return Optional.of(new BlobInfo(key, size, lastModified,
+            resp.headers().firstValue("Content-Type").orElse(null),
+            resp.headers().firstValue("ETag").orElse(null)));
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        // S3 删除不存在的对象同样返回 204，先确认是否存在
+        if (stat(key).isEmpty()) {
+            cache.invalidate(key);
+            return false;
+        }
+        HttpResponse<String> resp = send("DELETE", key, Map.of(), null, null, HttpResponse.BodyHandlers.ofString());
+        expectSuccess(resp, "DELETE", key);
+        cache.invalidate(key);
+        return true;
+    }
+
+    /**
+     * ListObjectsV2 逐页拉取（每页最多 1000 个），流被消费到页尾时才请求下一页
+     */
+    @Override
+    public Stream<BlobInfo> list(String prefix) {
+        BlobStore.requireDirectoryPrefix(prefix);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+            new ListingIterator(prefix), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private final class ListingIterator implements Iterator<BlobInfo> {
+        private final String prefix;
+        private Iterator<BlobInfo> page = Collections.emptyIterator();
+        private String continuationToken;
+        private boolean more = true;
+
+        ListingIterator(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext() && more) {
+                try {
+                    page = fetchPage().iterator();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public BlobInfo next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+
+        private List<BlobInfo> fetchPage() throws IOException {
+            Map<String, String> query = new HashMap<>();
+            query.put("list-type", "2");
+            query.put("prefix", prefix);
+            query.put("max-keys", String.valueOf(LIST_PAGE_SIZE));
+            if (continuationToken != null) {
+                query.put("continuation-token", continuationToken);
+            }
+            HttpResponse<String> resp = send("GET", "", query, null, null, HttpResponse.BodyHandlers.ofString());
+            expectSuccess(resp, "ListObjectsV2", prefix);
+            String body = resp.body();
+            List<BlobInfo> items = new ArrayList<>();
+            Matcher contents = LIST_CONTENTS.matcher(body);
+            while (contents.find()) {
+                String item = contents.group(1);
+                Matcher key = LIST_KEY.matcher(item);
+                if (!key.find()) {
+                    continue;
+                }
+                Matcher size = LIST_SIZE.matcher(item);
+                Matcher lastModified = LIST_LAST_MODIFIED.matcher(item);
+                items.add(new BlobInfo(xmlUnescape(key.group(1)),
+                    size.find() ? Long.parseLong(size.group(1)) : -1,
+                    lastModified.find() ? Instant.parse(lastModified.group(1)) : null, null, null));
+            }
+            Matcher next = LIST_NEXT_TOKEN.matcher(body);
+            continuationToken = body.contains("<IsTruncated>true</IsTruncated>") && next.find()
+                ? xmlUnescape(next.group(1)) : null;
+            more = continuationToken != null;
+            return items;
+        }
+    }
+
+    @Override
+    public Optional<URI> presignedUrl(String key, Duration ttl) {
+        URI uri = objectUri(publicEndpoint, key, Map.of());
+        return Optional.of(URI.create(uri + "?" + signer.presignQuery("GET", uri, ttl, Instant.now())));
+    }
+
+    private <T> HttpResponse<T> send(String method, String key, Map<String, String> query, byte[] body,
+                                     String contentType, HttpResponse.BodyHandler<T> handler) throws IOException {
+        URI uri = objectUri(endpoint, key, query);
+        String payloadHash = body != null ? S3Signer.sha256Hex(body, 0, body.length) : S3Signer.EMPTY_SHA256;
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+            .timeout(requestTimeout)
+            .method(method, body != null ? HttpRequest.BodyPublishers.ofByteArray(body) : HttpRequest.BodyPublishers.noBody());
+        signer.sign(method, uri, query, payloadHash, Instant.now()).forEach(builder::header);
+        if (contentType != null) {
+            builder.header("Content-Type", contentType);
+        }
+        try {
+            return http.send(builder.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("对象存储请求被中断: " + method + " " + key);
+        }
+    }
+
+    private URI objectUri(URI base, String key, Map<String, String> query) {
+        String encodedKey = S3Signer.uriEncode(key, false);
+        String authority = base.getRawAuthority();
+        String url = pathStyle
+            ? base.getScheme() + "://" + authority + "/" + bucket + "/" + encodedKey
+            : base.getScheme() + "://" + bucket + "." + authority + "/" + encodedKey;
+        String q = S3Signer.canonicalQuery(query);
+        return URI.create(q.isEmpty() ? url : url + "?" + q);
+    }
+
+    private void abortQuietly(String key, String uploadId) {
+        try {
+            send("DELETE", key, Map.of("uploadId", uploadId), null, null,
+                HttpResponse.BodyHandlers.discarding());
+        } catch (Exception e) {
+            log.warn("中止分片上传失败（需依赖存储桶生命周期规则清理）: key={}, uploadId={}", key, uploadId, e);
+        }
+    }
+
+    private static void expectSuccess(HttpResponse<String> resp, String op, String key) throws IOException {
+        if (resp.statusCode() / 100 != 2) {
+            throw new IOException("S3 " + op + " 失败: key=" + key + ", HTTP " + resp.statusCode() + " " + abbreviate(resp.body()));
+        }
+    }
+
+    /** 去掉默认端口（HttpClient 发送的 Host 头不带默认端口，签名需一致）与末尾斜杠 */
+    private static URI normalizeEndpoint(String endpoint) {
+        URI uri = URI.create(endpoint.trim());
+        int port = uri.getPort();
+        boolean defaultPort = ("https".equalsIgnoreCase(uri.getScheme()) && port == 443)
+            || ("http".equalsIgnoreCase(uri.getScheme()) && port == 80);
+        return URI.create(uri.getScheme() + "://" + uri.getHost() + (port == -1 || defaultPort ? "" : ":" + port));
+    }
+
+    private static String xmlUnescape(String s) {
+        return s.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+            .replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+    private static String abbreviate(String s) {
+        if (s == null) return "";
+        return s.length() > 300 ? s.substring(0, 300) + "..." : s;
+    }
+}
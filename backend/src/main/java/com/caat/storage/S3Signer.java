@@ -0,0 +1,155 @@
+package com.caat.storage;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * AWS Signature Version 4 签名（S3 及 MinIO 等兼容存储）：请求头签名与查询串预签名。
+ * 只签 host 与 x-amz-* 头，路径与查询参数需已按 RFC 3986 编码。
+ */
+class S3Signer {
+
+    static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    static final String EMPTY_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String SERVICE = "s3";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter DATE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+
+    S3Signer(String accessKey, String secretKey, String region) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+    }
+
+    /**
+     * 计算请求头签名
+     *
+     * @param query 未编码的查询参数
+     * @return 需附加到请求上的头（x-amz-date、x-amz-content-sha256、Authorization）
+     */
+    Map<String, String> sign(String method, URI uri, Map<String, String> query, String payloadSha256, Instant now) {
+        String amzDate = AMZ_DATE.format(now);
+        String dateStamp = DATE_STAMP.format(now);
+        TreeMap<String, String> headers = new TreeMap<>();
+        headers.put("host", hostHeader(uri));
+        headers.put("x-amz-content-sha256", payloadSha256);
+        headers.put("x-amz-date", amzDate);
+
+        String signedHeaders = String.join(";", headers.keySet());
+        StringBuilder canonicalHeaders = new StringBuilder();
+        headers.forEach((k, v) -> canonicalHeaders.append(k).append(':').append(v.trim()).append('\n'));
+        String canonicalRequest = method + "\n" + uri.getRawPath() + "\n" + canonicalQuery(query) + "\n"
+            + canonicalHeaders + "\n" + signedHeaders + "\n" + payloadSha256;
+        String scope = dateStamp + "/" + region + "/" + SERVICE + "/aws4_request";
+        String signature = signature(dateStamp, amzDate, scope, canonicalRequest);
+
+        Map<String, String> result = new TreeMap<>();
+        result.put("x-amz-date", amzDate);
+        result.put("x-amz-content-sha256", payloadSha256);
+        result.put("Authorization", ALGORITHM + " Credential=" + accessKey + "/" + scope
+            + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature);
+        return result;
+    }
+
+    /**
+     * 预签名查询串（不含 ?），拼到对象地址后即可在有效期内直接访问
+     */
+    String presignQuery(String method, URI uri, Duration ttl, Instant now) {
+        String amzDate = AMZ_DATE.format(now);
+        String dateStamp = DATE_STAMP.format(now);
+        String scope = dateStamp + "/" + region + "/" + SERVICE + "/aws4_request";
+        TreeMap<String, String> query = new TreeMap<>();
+        query.put("X-Amz-Algorithm", ALGORITHM);
+        query.put("X-Amz-Credential", accessKey + "/" + scope);
+        query.put("X-Amz-Date", amzDate);
+        query.put("X-Amz-Expires", String.valueOf(Math.max(1, Math.min(ttl.toSeconds(), 604800))));
+        query.put("X-Amz-SignedHeaders", "host");
+        String canonicalQuery = canonicalQuery(query);
+        String canonicalRequest = method + "\n" + uri.getRawPath() + "\n" + canonicalQuery + "\n"
+            + "host:" + hostHeader(uri) + "\n\nhost\n" + UNSIGNED_PAYLOAD;
+        return canonicalQuery + "&X-Amz-Signature=" + signature(dateStamp, amzDate, scope, canonicalRequest);
+    }
+
+    /** 按键排序并编码的查询串 */
+    static String canonicalQuery(Map<String, String> query) {
+        if (query == null || query.isEmpty()) {
+            return "";
+        }
+        StringJoiner joiner = new StringJoiner("&");
+        new TreeMap<>(query).forEach((k, v) -> joiner.add(uriEncode(k, true) + "=" + uriEncode(v != null ? v : "", true)));
+        return joiner.toString();
+    }
+
+    /**
+     * RFC 3986 编码：仅保留非保留字符；encodeSlash 为 false 时保留路径分隔符
+     */
+    static String uriEncode(String s, boolean encodeSlash) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (c == '/' && !encodeSlash)) {
+                sb.append(c);
+            } else {
+                sb.append('%').append(String.format("%02X", b & 0xff));
+            }
+        }
+        return sb.toString();
+    }
+
+    static String sha256Hex(byte[] data, int offset, int length) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(data, offset, length);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    private static String hostHeader(URI uri) {
+        int port = uri.getPort();
+        boolean defaultPort = port == -1
+            || ("https".equalsIgnoreCase(uri.getScheme()) && port == 443)
+            || ("http".equalsIgnoreCase(uri.getScheme()) && port == 80);
+        return defaultPort ? uri.getHost() : uri.getHost() + ":" + port;
+    }
+
+    private String signature(String dateStamp, String amzDate, String scope, String canonicalRequest) {
+        byte[] request = canonicalRequest.getBytes(StandardCharsets.UTF_8);
+        String stringToSign = ALGORITHM + "\n" + amzDate + "\n" + scope + "\n" + sha256Hex(request, 0, request.length);
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), dateStamp);
+        key = hmac(key, region);
+        key = hmac(key, SERVICE);
+        key = hmac(key, "aws4_request");
+        return HexFormat.of().formatHex(hmac(key, stringToSign));
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException("HmacSHA256 不可用", e);
+        }
+    }
+}
@@ -57,6 +57,13 @@ public class JwtUtil {
                 .compact();
     }
     
+    /**
+     * 验签并解析Token，签名无效或已过期时抛出异常
+     */
+    public Claims parseToken(String token) {
+        return getAllClaimsFromToken(token);
+    }
+    
     /**
      * 从Token中获取用户名
      */
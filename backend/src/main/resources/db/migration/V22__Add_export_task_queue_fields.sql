@@ -0,0 +1,6 @@
+-- 导出任务排队：优先级（数值越大越先执行）、预估成本（按文章数与图片数估算，用于准入控制）
+ALTER TABLE export_tasks ADD COLUMN IF NOT EXISTS priority INTEGER NOT NULL DEFAULT 5;
+ALTER TABLE export_tasks ADD COLUMN IF NOT EXISTS estimated_cost BIGINT;
+
+-- 调度器按 status=PENDING、priority DESC、created_at ASC 取队首
+CREATE INDEX IF NOT EXISTS idx_export_task_queue ON export_tasks(status, priority DESC, created_at);
@@ -0,0 +1,12 @@
+-- 增量导出：按（作者, 格式）记录水位线，增量任务只导出水位线之后新增或更新的文章，作为新的一卷
+ALTER TABLE export_tasks ADD COLUMN IF NOT EXISTS incremental BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE export_tasks ADD COLUMN IF NOT EXISTS compaction BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE export_tasks ADD COLUMN IF NOT EXISTS since_watermark TIMESTAMP;
+ALTER TABLE export_tasks ADD COLUMN IF NOT EXISTS watermark TIMESTAMP;
+ALTER TABLE export_tasks ADD COLUMN IF NOT EXISTS previous_task_id UUID;
+ALTER TABLE export_tasks ADD COLUMN IF NOT EXISTS volume_number INTEGER;
+
+-- 查找（作者, 格式）最近一卷
+CREATE INDEX IF NOT EXISTS idx_export_task_watermark ON export_tasks(user_id, export_format, status, watermark DESC);
+-- 增量导出按更新时间取变更文章
+CREATE INDEX IF NOT EXISTS idx_contents_user_updated ON contents(user_id, updated_at);
@@ -0,0 +1,12 @@
+-- 刷新任务断点：每拉完一页记录阶段、下一页游标与已保存条数，进程重启后从断点续拉，不重复已完成的页
+ALTER TABLE fetch_tasks ADD COLUMN IF NOT EXISTS checkpoint_phase VARCHAR(30);
+ALTER TABLE fetch_tasks ADD COLUMN IF NOT EXISTS checkpoint_cursor VARCHAR(1000);
+ALTER TABLE fetch_tasks ADD COLUMN IF NOT EXISTS checkpoint_page INTEGER;
+ALTER TABLE fetch_tasks ADD COLUMN IF NOT EXISTS checkpoint_saved INTEGER;
+ALTER TABLE fetch_tasks ADD COLUMN IF NOT EXISTS checkpoint_range_start TIMESTAMP;
+ALTER TABLE fetch_tasks ADD COLUMN IF NOT EXISTS checkpoint_range_end TIMESTAMP;
+ALTER TABLE fetch_tasks ADD COLUMN IF NOT EXISTS checkpoint_at TIMESTAMP;
+ALTER TABLE fetch_tasks ADD COLUMN IF NOT EXISTS resume_count INTEGER NOT NULL DEFAULT 0;
+
+-- 按用户查找进行中的任务（定时拉取跳过已有进行中任务的用户）
+CREATE INDEX IF NOT EXISTS idx_fetch_task_user_status ON fetch_tasks(user_id, status);
@@ -0,0 +1,4 @@
+-- 自适应拉取间隔：按作者发文频率调整，有新文章时缩短、连续无新文章时指数退避，下次拉取时间写入 next_run_at
+ALTER TABLE user_schedules ADD COLUMN IF NOT EXISTS interval_minutes INTEGER;
+ALTER TABLE user_schedules ADD COLUMN IF NOT EXISTS empty_streak INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE user_schedules ADD COLUMN IF NOT EXISTS last_saved_count INTEGER;
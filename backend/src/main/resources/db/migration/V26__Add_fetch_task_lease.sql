@@ -0,0 +1,16 @@
+-- 多节点刷新任务队列：各节点以 FOR UPDATE SKIP LOCKED 从 PENDING 任务中认领，认领后持有租约并定时续约，
+-- 租约过期（节点宕机）的任务由其他节点回收后续拉
+ALTER TABLE fetch_tasks ADD COLUMN IF NOT EXISTS lease_owner VARCHAR(200);
+ALTER TABLE fetch_tasks ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMP;
+
+-- 认领：按创建时间取最早的待执行任务
+CREATE INDEX IF NOT EXISTS idx_fetch_task_pending_created ON fetch_tasks(created_at) WHERE status = 'PENDING';
+
+-- 同一用户最多一个运行中的任务：升级前并发遗留的重复 RUNNING 只保留最新一条
+UPDATE fetch_tasks t SET status = 'FAILED', error_message = '同一用户存在多个运行中的任务，升级时已终止'
+WHERE t.status = 'RUNNING' AND EXISTS (
+    SELECT 1 FROM fetch_tasks r
+    WHERE r.user_id = t.user_id AND r.status = 'RUNNING'
+      AND (r.created_at > t.created_at OR (r.created_at = t.created_at AND r.id > t.id))
+);
+CREATE UNIQUE INDEX IF NOT EXISTS ux_fetch_task_user_running ON fetch_tasks(user_id) WHERE status = 'RUNNING';
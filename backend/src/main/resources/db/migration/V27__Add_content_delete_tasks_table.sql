@@ -0,0 +1,20 @@
+-- 按作者批量删除内容的后台任务：按 id 键集分批删除并逐批提交，记录进度供前端轮询
+CREATE TABLE IF NOT EXISTS content_delete_tasks (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    progress INTEGER NOT NULL DEFAULT 0,
+    total_count INTEGER,
+    deleted_count INTEGER NOT NULL DEFAULT 0,
+    files_deleted INTEGER NOT NULL DEFAULT 0,
+    error_message TEXT,
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_content_delete_task_user_status ON content_delete_tasks(user_id, status);
+
+-- 按作者键集分页扫描内容 id
+CREATE INDEX IF NOT EXISTS idx_content_user_id_id ON contents(user_id, id);
@@ -0,0 +1,15 @@
+-- 增量导出按导出内容的修改时间取变更：已读、收藏等标记变更只更新 updated_at，不再使整篇文章进入下一卷
+ALTER TABLE contents ADD COLUMN IF NOT EXISTS content_modified_at TIMESTAMP;
+UPDATE contents SET content_modified_at = updated_at WHERE content_modified_at IS NULL;
+ALTER TABLE contents ALTER COLUMN content_modified_at SET DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE contents ALTER COLUMN content_modified_at SET NOT NULL;
+
+DROP INDEX IF EXISTS idx_contents_user_updated;
+CREATE INDEX IF NOT EXISTS idx_contents_user_content_modified ON contents(user_id, content_modified_at);
+
+-- 只有不限时间范围、指定作者的导出才能作为增量卷起点：清除此前限定发布时间范围的文本导出记录的水位线
+-- （PDF/Word 始终导出作者全部文章，不受时间范围影响）
+UPDATE export_tasks SET watermark = NULL
+WHERE watermark IS NOT NULL
+  AND (user_id IS NULL
+       OR (export_format NOT IN ('PDF', 'WORD') AND (start_time IS NOT NULL OR end_time IS NOT NULL)));
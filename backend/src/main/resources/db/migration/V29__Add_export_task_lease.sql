@@ -0,0 +1,6 @@
+-- 多节点导出队列：认领任务的节点持有租约并定时续约，租约过期（节点宕机）的任务由任一节点放回队列；
+-- 启动时只放回租约过期或属于本节点的任务，不影响其他存活节点正在执行的任务
+ALTER TABLE export_tasks ADD COLUMN IF NOT EXISTS lease_owner VARCHAR(200);
+ALTER TABLE export_tasks ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_export_task_running_lease ON export_tasks(lease_expires_at) WHERE status = 'RUNNING';
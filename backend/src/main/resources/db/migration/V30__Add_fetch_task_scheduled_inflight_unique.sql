@@ -0,0 +1,15 @@
+-- 多节点各自从 user_schedules 加载到期队列，同一用户可能被多个节点同时派发：
+-- 同一用户最多一个排队中或运行中的定时任务，重复写入违反唯一索引，派发方视为已在队列中
+-- （手动刷新允许在运行中的任务之后排队，不受此约束）
+
+-- 升级前遗留的重复定时任务：保留运行中的一条（没有则保留最早的一条），其余取消
+UPDATE fetch_tasks t SET status = 'CANCELLED', error_message = '同一用户存在重复的定时任务，升级时已取消'
+WHERE t.task_type = 'SCHEDULED' AND t.status IN ('PENDING', 'RUNNING') AND EXISTS (
+    SELECT 1 FROM fetch_tasks r
+    WHERE r.user_id = t.user_id AND r.task_type = 'SCHEDULED' AND r.status IN ('PENDING', 'RUNNING') AND r.id <> t.id
+      AND ((r.status = 'RUNNING' AND t.status = 'PENDING')
+           OR (r.status = t.status AND (r.created_at < t.created_at OR (r.created_at = t.created_at AND r.id < t.id))))
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_fetch_task_user_scheduled_inflight ON fetch_tasks(user_id)
+    WHERE task_type = 'SCHEDULED' AND status IN ('PENDING', 'RUNNING');
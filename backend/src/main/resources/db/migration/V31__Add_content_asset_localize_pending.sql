@@ -0,0 +1,7 @@
+-- 消息模式下图片本地化待办：保存文章时记录，图片队列处理完成后清除；
+-- 指令发布失败、进入死信队列或丢失时由定时补偿任务按该列重试
+ALTER TABLE contents ADD COLUMN IF NOT EXISTS assets_pending_since TIMESTAMP;
+ALTER TABLE contents ADD COLUMN IF NOT EXISTS asset_localize_attempts INT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_contents_assets_pending ON contents(assets_pending_since)
+    WHERE assets_pending_since IS NOT NULL;
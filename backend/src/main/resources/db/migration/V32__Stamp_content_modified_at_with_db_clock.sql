@@ -0,0 +1,25 @@
+-- 导出内容修改时间改由数据库时钟写入，与增量导出水位线（SELECT LOCALTIMESTAMP）同源，
+-- 应用节点时钟落后于数据库时，修改也不会被记到水位线之前而漏出下一卷。
+-- 插入时总是取数据库时间；更新时导出字段有变化，或应用写入了新的修改标记（图片列表在子表，由实体改写该列表示）时取数据库时间，
+-- 否则保留原值（已读、收藏等标记变更不影响）。
+CREATE OR REPLACE FUNCTION contents_stamp_content_modified_at() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT'
+       OR NEW.content_modified_at IS DISTINCT FROM OLD.content_modified_at
+       OR NEW.title IS DISTINCT FROM OLD.title
+       OR NEW.body IS DISTINCT FROM OLD.body
+       OR NEW.url IS DISTINCT FROM OLD.url
+       OR NEW.content_type IS DISTINCT FROM OLD.content_type
+       OR NEW.published_at IS DISTINCT FROM OLD.published_at
+       OR NEW.metadata IS DISTINCT FROM OLD.metadata
+       OR NEW.notes IS DISTINCT FROM OLD.notes THEN
+        NEW.content_modified_at := LOCALTIMESTAMP;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_contents_content_modified_at ON contents;
+CREATE TRIGGER trg_contents_content_modified_at
+    BEFORE INSERT OR UPDATE ON contents
+    FOR EACH ROW EXECUTE FUNCTION contents_stamp_content_modified_at();
@@ -0,0 +1,136 @@
+package com.caat.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+/**
+ * TwoLevelCache 单元测试（L2 用 ConcurrentMapCache 代替 Redis）
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("二级缓存测试")
+class TwoLevelCacheTest {
+
+    @Mock
+    private CacheInvalidationPublisher publisher;
+
+    private ConcurrentMapCache remote;
+    private SimpleMeterRegistry registry;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCache("platforms", false);
+        registry = new SimpleMeterRegistry();
+        cache = new TwoLevelCache("platforms", remote, 100, Duration.ofMinutes(1),
+            new GenericJackson2JsonRedisSerializer(), publisher, registry);
+    }
+
+    @Test
+    @DisplayName("L2 命中后回填 L1，后续读取不再访问 L2")
+    void testRemoteHitPopulatesLocal() {
+        UUID id = UUID.randomUUID();
+        remote.put(id, "value");
+
+        assertEquals("value", cache.get(id).get());
+        remote.evict(id);
+        assertEquals("value", cache.get(id).get());
+
+        assertEquals(1.0, hits("l1"));
+        assertEquals(1.0, hits("l2"));
+    }
+
+    @Test
+    @DisplayName("两级均未命中返回 null")
+    void testMiss() {
+        assertNull(cache.get("missing"));
+        assertEquals(1.0, registry.get("cache.tier.gets").tag("tier", "l2").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    @DisplayName("evict 清理两级并广播失效")
+    void testEvictPublishes() {
+        UUID id = UUID.randomUUID();
+        remote.put(id, "value");
+        cache.get(id);
+
+        cache.evict(id);
+
+        assertNull(cache.get(id));
+        assertNull(remote.get(id));
+        verify(publisher).publishEvict("platforms", id.toString());
+    }
+
+    @Test
+    @DisplayName("put 写入两级并广播失效，其他节点丢弃旧的 L1")
+    void testPutPublishes() {
+        cache.put("all", "v1");
+
+        assertEquals("v1", remote.get("all").get());
+        verify(publisher).publishEvict("platforms", "all");
+    }
+
+    @Test
+    @DisplayName("L1 返回独立副本，修改返回值或写入后的原对象不影响缓存")
+    void testLocalReturnsDetachedCopies() {
+        List<String> value = new ArrayList<>(List.of("a"));
+        cache.put("all", value);
+        remote.evict("all");
+        value.add("b");
+
+        @SuppressWarnings("unchecked")
+        List<String> first = (List<String>) cache.get("all").get();
+        first.add("c");
+
+        assertEquals(List.of("a"), cache.get("all").get());
+        assertEquals(2.0, hits("l1"));
+    }
+
+    @Test
+    @DisplayName("clear 清空两级并广播失效")
+    void testClearPublishes() {
+        cache.put("all", "value");
+
+        cache.clear();
+
+        assertNull(cache.get("all"));
+        verify(publisher).publishClear("platforms");
+    }
+
+    @Test
+    @DisplayName("远端广播只清理本地 L1")
+    void testEvictLocalKeepsRemote() {
+        cache.put("all", "v1");
+        remote.put("all", "v2");
+
+        cache.evictLocal("all");
+
+        assertEquals("v2", cache.get("all").get());
+    }
+
+    @Test
+    @DisplayName("valueLoader 加载结果写入两级")
+    void testGetWithLoader() {
+        assertEquals("loaded", cache.get("k", () -> "loaded"));
+        assertEquals("loaded", remote.get("k").get());
+        assertEquals("loaded", cache.get("k", String.class));
+    }
+
+    private double hits(String tier) {
+        return registry.get("cache.tier.gets").tag("tier", tier).tag("result", "hit").counter().count();
+    }
+}
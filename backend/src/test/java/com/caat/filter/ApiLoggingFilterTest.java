@@ -0,0 +1,68 @@
+package com.caat.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ApiLoggingFilter 单元测试
+ */
+@DisplayName("接口日志过滤器测试")
+class ApiLoggingFilterTest {
+
+    private ApiLoggingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ApiLoggingFilter();
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "maxBodyLength", 2048);
+    }
+
+    @Test
+    @DisplayName("普通接口经缓存包装，结束时写回响应")
+    void testRegularResponseIsWrappedAndCopied() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/platforms"), response, chain);
+
+        assertInstanceOf(ContentCachingResponseWrapper.class, chain.getResponse());
+    }
+
+    @Test
+    @DisplayName("流式导出直接使用原始响应，不经缓存包装")
+    void testStreamingExportBypassesWrapper() throws Exception {
+        assertPassThrough("/api/v1/export/json");
+    }
+
+    @Test
+    @DisplayName("导出文件下载直接使用原始响应")
+    void testExportDownloadBypassesWrapper() throws Exception {
+        assertPassThrough("/api/v1/export/tasks/" + UUID.randomUUID() + "/download");
+    }
+
+    @Test
+    @DisplayName("上传文件直接使用原始响应，不在堆中缓冲")
+    void testUploadsBypassWrapper() throws Exception {
+        assertPassThrough("/api/v1/uploads/2024/01/photo.jpg");
+    }
+
+    private void assertPassThrough(String uri) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", uri), response, chain);
+
+        assertSame(response, chain.getResponse());
+    }
+}
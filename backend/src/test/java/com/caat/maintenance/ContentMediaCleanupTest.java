@@ -29,6 +29,7 @@ import java.util.stream.Stream;
 
 /**
  * 杂项维护工具（测试模块使用），用于清理 uploads/contents/images 下的孤儿图片。
+ * 日常的孤儿文件回收已由 UploadGarbageCollector 定时执行（app.uploads.gc），这里保留排查空白图片等一次性工具。
  *
  * 注意：
  * - 该类放在 test 模块中，仅在手动执行对应测试方法时才会生效；
@@ -61,7 +61,6 @@ public class PerformanceTest {
         
         statsService.getPlatformDistribution();
         statsService.getUserStats();
-        statsService.getTagUserStatistics();
         statsService.getContentTypeDistribution();
         statsService.getActiveUsersRanking(10);
         statsService.getContentGrowthTrend(30);
@@ -0,0 +1,85 @@
+package com.caat.performance;
+
+import com.caat.cache.CacheInvalidationPublisher;
+import com.caat.entity.Role;
+import com.caat.entity.User;
+import com.caat.repository.UserRepository;
+import com.caat.service.PermissionService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 权限检查微基准：预热后测量缓存命中时单次 hasPermission / hasRole 的耗时（纳秒/次），数值输出到日志。
+ * 耗时受机器负载影响，不做断言；只断言全部检查只查询一次用户（未退化为逐次查询）。
+ * 默认构建跳过（benchmark 标签），运行方式：mvn test -Pbenchmark -Dtest=PermissionCheckBenchmarkTest
+ */
+@Slf4j
+@Tag("benchmark")
+@DisplayName("权限检查微基准")
+class PermissionCheckBenchmarkTest {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 2_000_000;
+
+    @Test
+    @DisplayName("缓存命中时的单次检查耗时")
+    void benchmarkPermissionChecks() {
+        UUID userId = UUID.randomUUID();
+        List<Role> roles = new ArrayList<>();
+        for (int r = 0; r < 5; r++) {
+            Role role = new Role();
+            role.setName("ROLE_" + r);
+            List<String> permissions = new ArrayList<>();
+            for (int p = 0; p < 40; p++) {
+                permissions.add("resource" + r + ":action" + p);
+            }
+            role.setPermissions(permissions);
+            roles.add(role);
+        }
+        User user = new User();
+        user.setId(userId);
+        user.setRoles(roles);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        PermissionService service = new PermissionService(userRepository, mock(CacheInvalidationPublisher.class),
+            1000, Duration.ofMinutes(5));
+
+        String[] probes = {"resource4:action39", "resource0:action0", "missing:permission", "resource2:action17"};
+        int granted = run(service, userId, probes, WARMUP);
+        long start = System.nanoTime();
+        granted += run(service, userId, probes, ITERATIONS);
+        long elapsed = System.nanoTime() - start;
+        double nsPerCheck = (double) elapsed / ITERATIONS;
+
+        log.info("权限检查: {} 次, 共 {} ms, {} ns/次", ITERATIONS, String.format("%.1f", elapsed / 1e6),
+            String.format("%.1f", nsPerCheck));
+        assertTrue(granted > 0);
+        verify(userRepository, times(1)).findById(userId);
+    }
+
+    private static int run(PermissionService service, UUID userId, String[] probes, int iterations) {
+        int granted = 0;
+        for (int i = 0; i < iterations; i++) {
+            if ((i & 7) == 0) {
+                granted += service.hasRole(userId, "ROLE_3") ? 1 : 0;
+            } else {
+                granted += service.hasPermission(userId, probes[i & 3]) ? 1 : 0;
+            }
+        }
+        return granted;
+    }
+}
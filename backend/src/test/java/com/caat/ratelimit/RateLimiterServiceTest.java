@@ -0,0 +1,147 @@
+package com.caat.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * RateLimiterService 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("分布式限流测试")
+class RateLimiterServiceTest {
+
+    @Mock
+    private RedisTokenBucketStore redisStore;
+
+    private final AtomicLong clock = new AtomicLong(-5_000_000_000L);
+    private RateLimiterService service;
+
+    @BeforeEach
+    void setUp() {
+        Map<RateLimitClass, RateLimiterService.Limit> limits = new EnumMap<>(RateLimitClass.class);
+        for (RateLimitClass limitClass : RateLimitClass.values()) {
+            limits.put(limitClass, new RateLimiterService.Limit(3, 1.0));
+        }
+        service = new RateLimiterService(redisStore, limits, new RateLimiterService.Limit(2, 1.0), new SimpleMeterRegistry(),
+            true, 100, Duration.ofMinutes(10), clock::get);
+    }
+
+    @Test
+    @DisplayName("Redis 允许时返回全局剩余配额，桶键包含类别与主体")
+    void testAllowedByRedis() {
+        when(redisStore.tryAcquire("search:u:alice", 3, 1.0)).thenReturn(new RateLimitDecision(true, 3, 1, 0));
+
+        RateLimitDecision decision = service.tryAcquire(RateLimitClass.SEARCH, "u:alice");
+
+        assertTrue(decision.allowed());
+        assertEquals(1, decision.remaining());
+    }
+
+    @Test
+    @DisplayName("本地令牌桶耗尽时直接拒绝，不访问 Redis")
+    void testLocalBucketRejectsWithoutRedis() {
+        when(redisStore.tryAcquire(anyString(), anyInt(), anyDouble())).thenReturn(new RateLimitDecision(true, 3, 2, 0));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(service.tryAcquire(RateLimitClass.DEFAULT, "u:alice").allowed());
+        }
+        RateLimitDecision rejected = service.tryAcquire(RateLimitClass.DEFAULT, "u:alice");
+
+        assertFalse(rejected.allowed());
+        assertTrue(rejected.retryAfterMillis() > 0);
+        verify(redisStore, times(3)).tryAcquire(anyString(), anyInt(), anyDouble());
+    }
+
+    @Test
+    @DisplayName("Redis 拒绝后在等待期内直接拒绝，期满后再次询问 Redis")
+    void testRedisRejectionCachedUntilRetryAfter() {
+        when(redisStore.tryAcquire(eq("export:u:bob"), anyInt(), anyDouble()))
+            .thenReturn(new RateLimitDecision(false, 3, 0, 2000))
+            .thenReturn(new RateLimitDecision(true, 3, 0, 0));
+
+        assertFalse(service.tryAcquire(RateLimitClass.EXPORT, "u:bob").allowed());
+        RateLimitDecision blocked = service.tryAcquire(RateLimitClass.EXPORT, "u:bob");
+        assertFalse(blocked.allowed());
+        verify(redisStore, times(1)).tryAcquire(anyString(), anyInt(), anyDouble());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(2001));
+        assertTrue(service.tryAcquire(RateLimitClass.EXPORT, "u:bob").allowed());
+        verify(redisStore, times(2)).tryAcquire(anyString(), anyInt(), anyDouble());
+    }
+
+    @Test
+    @DisplayName("Redis 不可用时按本地令牌桶限流，退避期内不再访问 Redis")
+    void testFallbackToLocalWhenRedisDown() {
+        when(redisStore.tryAcquire(anyString(), anyInt(), anyDouble()))
+            .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertTrue(service.tryAcquire(RateLimitClass.FETCH, "u:carol").allowed());
+        assertTrue(service.tryAcquire(RateLimitClass.FETCH, "u:carol").allowed());
+        assertTrue(service.tryAcquire(RateLimitClass.FETCH, "u:carol").allowed());
+        assertFalse(service.tryAcquire(RateLimitClass.FETCH, "u:carol").allowed());
+        verify(redisStore, times(1)).tryAcquire(anyString(), anyInt(), anyDouble());
+    }
+
+    @Test
+    @DisplayName("不同类别、不同主体的令牌桶相互独立")
+    void testBucketsIsolatedByClassAndPrincipal() {
+        RateLimiterService local = new RateLimiterService(redisStore, Map.of(
+            RateLimitClass.DEFAULT, new RateLimiterService.Limit(1, 1.0),
+            RateLimitClass.SEARCH, new RateLimiterService.Limit(1, 1.0),
+            RateLimitClass.EXPORT, new RateLimiterService.Limit(1, 1.0),
+            RateLimitClass.FETCH, new RateLimiterService.Limit(1, 1.0)),
+            null, new SimpleMeterRegistry(), false, 100, Duration.ofMinutes(10), clock::get);
+
+        assertTrue(local.tryAcquire(RateLimitClass.SEARCH, "u:alice").allowed());
+        assertFalse(local.tryAcquire(RateLimitClass.SEARCH, "u:alice").allowed());
+        assertTrue(local.tryAcquire(RateLimitClass.DEFAULT, "u:alice").allowed());
+        assertTrue(local.tryAcquire(RateLimitClass.SEARCH, "u:bob").allowed());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(local.tryAcquire(RateLimitClass.SEARCH, "u:alice").allowed());
+        verifyNoInteractions(redisStore);
+    }
+
+    @Test
+    @DisplayName("nanoTime 为负时启动后也立即使用 Redis")
+    void testRedisUsedWithNegativeNanoTime() {
+        when(redisStore.tryAcquire(anyString(), anyInt(), anyDouble())).thenReturn(new RateLimitDecision(true, 3, 2, 0));
+
+        service.tryAcquire(RateLimitClass.DEFAULT, "u:dave");
+
+        verify(redisStore).tryAcquire("default:u:dave", 3, 1.0);
+    }
+
+    @Test
+    @DisplayName("未登录请求共享全局令牌桶，更换地址也受限")
+    void testAnonymousGlobalBucket() {
+        when(redisStore.tryAcquire(eq(RateLimiterService.ANONYMOUS_GLOBAL_KEY), anyInt(), anyDouble()))
+            .thenReturn(new RateLimitDecision(true, 2, 1, 0));
+
+        assertTrue(service.tryAcquireAnonymousGlobal().allowed());
+        assertTrue(service.tryAcquireAnonymousGlobal().allowed());
+        RateLimitDecision rejected = service.tryAcquireAnonymousGlobal();
+
+        assertFalse(rejected.allowed());
+        verify(redisStore, times(2)).tryAcquire(eq(RateLimiterService.ANONYMOUS_GLOBAL_KEY), eq(2), eq(1.0));
+    }
+}
@@ -0,0 +1,104 @@
+package com.caat.security;
+
+import com.caat.cache.CacheInvalidationPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+/**
+ * AuthPrincipalCache 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("认证缓存测试")
+class AuthPrincipalCacheTest {
+
+    @Mock
+    private CacheInvalidationPublisher publisher;
+
+    private AuthPrincipalCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<String, UserDetails> loader = username -> {
+        loads.incrementAndGet();
+        return User.withUsername(username).password("x").roles("USER").build();
+    };
+
+    @BeforeEach
+    void setUp() {
+        cache = new AuthPrincipalCache(publisher, new SimpleMeterRegistry(), 100, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("已验签 Token 命中时返回用户名，过期后不再返回")
+    void testVerifiedTokenExpiry() {
+        cache.putVerifiedToken("token-a", "alice", new Date(System.currentTimeMillis() + 60_000));
+        cache.putVerifiedToken("token-b", "bob", new Date(System.currentTimeMillis() - 1));
+
+        assertEquals("alice", cache.getVerifiedUsername("token-a"));
+        assertNull(cache.getVerifiedUsername("token-b"));
+        assertNull(cache.getVerifiedUsername("token-c"));
+    }
+
+    @Test
+    @DisplayName("用户主体加载一次后命中缓存")
+    void testPrincipalLoadedOnce() {
+        UserDetails first = cache.getPrincipal("alice", loader);
+        UserDetails second = cache.getPrincipal("alice", loader);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("用户变更后清除该用户主体并广播，其他用户不受影响")
+    void testEvictUser() {
+        cache.getPrincipal("alice", loader);
+        cache.getPrincipal("bob", loader);
+
+        cache.evictUserAfterCommit("alice");
+        cache.getPrincipal("alice", loader);
+        cache.getPrincipal("bob", loader);
+
+        assertEquals(3, loads.get());
+        verify(publisher).publishEvict(AuthPrincipalCache.CACHE_NAME, "alice");
+    }
+
+    @Test
+    @DisplayName("角色变更后清空全部主体并广播")
+    void testEvictAll() {
+        cache.getPrincipal("alice", loader);
+        cache.getPrincipal("bob", loader);
+
+        cache.evictAllAfterCommit();
+        cache.getPrincipal("alice", loader);
+        cache.getPrincipal("bob", loader);
+
+        assertEquals(4, loads.get());
+        verify(publisher).publishClear(AuthPrincipalCache.CACHE_NAME);
+    }
+
+    @Test
+    @DisplayName("加载期间发生失效时不回填旧主体")
+    void testEvictDuringLoadNotCached() {
+        cache.getPrincipal("alice", username -> {
+            cache.evictLocal(username);
+            return loader.apply(username);
+        });
+        cache.getPrincipal("alice", loader);
+
+        assertEquals(2, loads.get());
+    }
+}
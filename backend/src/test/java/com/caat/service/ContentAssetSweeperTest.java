@@ -0,0 +1,53 @@
+package com.caat.service;
+
+import com.caat.repository.ContentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * ContentAssetSweeper 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("图片本地化补偿测试")
+class ContentAssetSweeperTest {
+
+    @Mock
+    private ContentRepository contentRepository;
+    @Mock
+    private ContentFetchService contentFetchService;
+
+    private ContentAssetSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        sweeper = new ContentAssetSweeper(contentRepository, contentFetchService, 600, 50, 5);
+    }
+
+    @Test
+    @DisplayName("只补偿本节点认领成功的文章，单篇失败不影响其他文章")
+    void testSweepRetriesClaimedContents() {
+        UUID claimed = UUID.randomUUID();
+        UUID taken = UUID.randomUUID();
+        UUID failing = UUID.randomUUID();
+        when(contentRepository.findStaleAssetLocalizations(600, 50)).thenReturn(List.of(failing, taken, claimed));
+        when(contentRepository.claimAssetLocalization(failing, 600)).thenReturn(1);
+        when(contentRepository.claimAssetLocalization(taken, 600)).thenReturn(0);
+        when(contentRepository.claimAssetLocalization(claimed, 600)).thenReturn(1);
+        when(contentFetchService.localizeContentImages(failing)).thenThrow(new IllegalStateException("timeout"));
+
+        sweeper.sweep();
+
+        verify(contentRepository).abandonAssetLocalizations(5);
+        verify(contentFetchService).localizeContentImages(claimed);
+        verify(contentFetchService, never()).localizeContentImages(taken);
+    }
+}
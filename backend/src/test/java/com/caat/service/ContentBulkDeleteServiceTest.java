@@ -0,0 +1,173 @@
+package com.caat.service;
+
+import com.caat.entity.ContentDeleteTask;
+import com.caat.exception.BusinessException;
+import com.caat.repository.ContentDeleteTaskRepository;
+import com.caat.repository.ContentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * ContentBulkDeleteService 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("按作者批量删除测试")
+class ContentBulkDeleteServiceTest {
+
+    @Mock
+    private ContentRepository contentRepository;
+    @Mock
+    private ContentDeleteTaskRepository contentDeleteTaskRepository;
+    @Mock
+    private ContentDeleteTaskProgressUpdater progressUpdater;
+    @Mock
+    private ContentAssetService contentAssetService;
+    @Mock
+    private ElasticsearchService elasticsearchService;
+
+    private final UUID taskId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private ContentBulkDeleteService service;
+
+    @BeforeEach
+    void setUp() {
+        service = newService(Runnable::run);
+    }
+
+    private ContentBulkDeleteService newService(Executor taskExecutor) {
+        return new ContentBulkDeleteService(contentRepository, contentDeleteTaskRepository, progressUpdater,
+            contentAssetService, elasticsearchService, taskExecutor, Runnable::run, 2, 10);
+    }
+
+    private static Object[] row(Object... values) {
+        return values;
+    }
+
+    @Test
+    @DisplayName("按 id 键集分批删除，下一批从上一批最后一个 id 之后开始，最后单次清理索引")
+    void testDeletesInKeysetChunks() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        when(contentRepository.countByUserId(userId)).thenReturn(3L);
+        when(contentRepository.findIdPageByUserId(eq(userId), eq(new UUID(0L, 0L)), eq(2))).thenReturn(List.of(a, b));
+        when(contentRepository.findIdPageByUserId(eq(userId), eq(b), eq(2))).thenReturn(List.of(c));
+        when(contentRepository.findMediaUrlsByContentIds(anyList())).thenReturn(List.of());
+        when(contentRepository.findAssetColumnsByIds(anyList())).thenReturn(List.of());
+        when(progressUpdater.deleteChunk(eq(taskId), anyList(), anyInt())).thenReturn(2, 1);
+
+        service.run(taskId, userId);
+
+        verify(progressUpdater).markRunning(taskId, 3);
+        verify(progressUpdater).deleteChunk(taskId, List.of(a, b), 0);
+        verify(progressUpdater).deleteChunk(taskId, List.of(c), 0);
+        verify(progressUpdater).markCompleted(taskId, 0);
+        verify(elasticsearchService, times(1)).deleteByUserId(userId);
+    }
+
+    @Test
+    @DisplayName("删除该批内容后再删除其图片与附件，并累计文件数")
+    void testDeletesFilesAfterRows() {
+        UUID a = UUID.randomUUID();
+        when(contentRepository.countByUserId(userId)).thenReturn(1L);
+        when(contentRepository.findIdPageByUserId(eq(userId), any(), eq(2))).thenReturn(List.of(a));
+        when(contentRepository.findMediaUrlsByContentIds(List.of(a)))
+            .thenReturn(List.<Object[]>of(row(a, "/api/v1/uploads/contents/images/1.jpg")));
+        when(contentRepository.findAssetColumnsByIds(List.of(a))).thenReturn(List.<Object[]>of(row(a, "<p>正文</p>", null)));
+        when(contentAssetService.collectLocalUrls(List.of("/api/v1/uploads/contents/images/1.jpg"), "<p>正文</p>", null))
+            .thenReturn(Set.of("/api/v1/uploads/contents/images/1.jpg"));
+        when(progressUpdater.deleteChunk(taskId, List.of(a), 0)).thenReturn(1);
+        when(contentAssetService.deleteLocalFileByUrl("/api/v1/uploads/contents/images/1.jpg")).thenReturn(true);
+
+        service.run(taskId, userId);
+
+        verify(progressUpdater).markCompleted(taskId, 1);
+    }
+
+    @Test
+    @DisplayName("中途失败时标记任务失败，仍清理搜索索引")
+    void testFailureMarksTaskFailed() {
+        when(contentRepository.countByUserId(userId)).thenReturn(5L);
+        when(contentRepository.findIdPageByUserId(eq(userId), any(), eq(2))).thenThrow(new RuntimeException("db down"));
+
+        service.run(taskId, userId);
+
+        verify(progressUpdater).markFailed(taskId, "db down");
+        verify(progressUpdater, never()).markCompleted(any(), anyInt());
+        verify(elasticsearchService).deleteByUserId(userId);
+    }
+
+    @Test
+    @DisplayName("该作者已有未结束的删除任务时直接返回，不重复提交")
+    void testSubmitReturnsActiveTask() {
+        ContentDeleteTask active = new ContentDeleteTask();
+        active.setId(taskId);
+        when(contentDeleteTaskRepository.findFirstByUserIdAndStatusInOrderByCreatedAtDesc(eq(userId), anyList()))
+            .thenReturn(Optional.of(active));
+
+        assertSame(active, service.submit(userId));
+        verify(contentDeleteTaskRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("已有任务长时间未更新（执行节点中断）时标记失败并重新发起")
+    void testSubmitReplacesStaleTask() {
+        ContentDeleteTask orphaned = new ContentDeleteTask();
+        orphaned.setId(UUID.randomUUID());
+        orphaned.setUpdatedAt(LocalDateTime.now().minusMinutes(30));
+        when(contentDeleteTaskRepository.findFirstByUserIdAndStatusInOrderByCreatedAtDesc(eq(userId), anyList()))
+            .thenReturn(Optional.of(orphaned));
+        when(contentDeleteTaskRepository.save(any())).thenAnswer(inv -> {
+            ContentDeleteTask task = inv.getArgument(0);
+            task.setId(taskId);
+            return task;
+        });
+        ContentBulkDeleteService queued = newService(task -> { });
+
+        ContentDeleteTask submitted = queued.submit(userId);
+
+        assertEquals(taskId, submitted.getId());
+        verify(progressUpdater).markFailed(eq(orphaned.getId()), anyString());
+    }
+
+    @Test
+    @DisplayName("线程池已满时标记任务失败并报错")
+    void testSubmitRejected() {
+        when(contentDeleteTaskRepository.findFirstByUserIdAndStatusInOrderByCreatedAtDesc(eq(userId), anyList()))
+            .thenReturn(Optional.empty());
+        when(contentDeleteTaskRepository.save(any())).thenAnswer(inv -> {
+            ContentDeleteTask task = inv.getArgument(0);
+            task.setId(taskId);
+            return task;
+        });
+        ContentBulkDeleteService rejecting = newService(task -> {
+            throw new RejectedExecutionException("full");
+        });
+
+        assertThrows(BusinessException.class, () -> rejecting.submit(userId));
+        verify(progressUpdater).markFailed(eq(taskId), anyString());
+    }
+}
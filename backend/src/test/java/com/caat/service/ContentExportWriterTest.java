@@ -0,0 +1,198 @@
+package com.caat.service;
+
+import com.caat.entity.Content;
+import com.caat.entity.ExportTask;
+import com.caat.entity.Platform;
+import com.caat.entity.TrackedUser;
+import com.caat.repository.ContentRepository;
+import com.caat.storage.LocalBlobStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * ContentExportWriter 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("流式内容导出测试")
+class ContentExportWriterTest {
+
+    @Mock
+    private ContentRepository contentRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @TempDir
+    Path uploadDir;
+
+    private ContentExportWriter writer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        Files.createDirectories(uploadDir.resolve("contents/images"));
+        writer = new ContentExportWriter(contentRepository, objectMapper, new LocalBlobStore(uploadDir));
+        ReflectionTestUtils.setField(writer, "entityManager", entityManager);
+    }
+
+    @Test
+    @DisplayName("CSV 导出逐条写出并分离实体、关闭游标")
+    void testWriteCsvStreamsRows() throws Exception {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        AtomicBoolean closed = new AtomicBoolean(false);
+        Content first = content("第一篇", "a\"b", LocalDateTime.of(2024, 3, 1, 8, 0));
+        Content second = content("第二篇", "https://example.com/2", LocalDateTime.of(2024, 2, 1, 8, 0));
+        when(contentRepository.streamByUserIdAndPublishedAtBetween(eq(userId), eq(start), any()))
+            .thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = writer.write(userId, ExportTask.ExportFormat.CSV, start, null, out);
+
+        assertEquals(2, count);
+        assertTrue(closed.get());
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertTrue(csv.startsWith("标题,平台,作者,发布时间,链接,已读,收藏"));
+        assertTrue(csv.contains("\"第一篇\",\"GitHub\",\"alice\",\"2024-03-01T08:00:00\",\"a\"\"b\",false,false"));
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    @DisplayName("JSON 导出输出数组且不关闭调用方的输出流")
+    void testWriteJsonArray() throws Exception {
+        when(contentRepository.streamByPublishedAtBetween(any(), any()))
+            .thenReturn(Stream.of(content("标题", "https://example.com/1", LocalDateTime.of(2024, 1, 2, 3, 4))));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                fail("不应关闭调用方的输出流");
+            }
+        };
+        long count = writer.write(null, ExportTask.ExportFormat.JSON, null, null, out);
+
+        assertEquals(1, count);
+        String json = out.toString(StandardCharsets.UTF_8).trim();
+        assertTrue(json.startsWith("["));
+        assertTrue(json.endsWith("]"));
+        assertTrue(json.contains("https://example.com/1"));
+    }
+
+    @Test
+    @DisplayName("增量卷按更新时间窗口取文章并链接上一卷")
+    void testWriteMarkdownIncrementalVolume() throws Exception {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime after = LocalDateTime.of(2024, 5, 1, 8, 0);
+        LocalDateTime until = LocalDateTime.of(2024, 5, 2, 8, 0);
+        when(contentRepository.streamByUserIdAndContentModifiedAtBetween(userId, after, until))
+            .thenReturn(Stream.of(content("新文章", "https://example.com/new", LocalDateTime.of(2024, 5, 1, 12, 0))));
+        when(contentRepository.countByUserIdAndContentModifiedAtBetween(userId, after, until)).thenReturn(1L);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportVolume volume = new ExportVolume(3, after, until, "export_20240501_080000_v2.md");
+        long count = writer.write(userId, ExportTask.ExportFormat.MARKDOWN, null, null, volume, out);
+
+        assertEquals(1, count);
+        String markdown = out.toString(StandardCharsets.UTF_8);
+        assertTrue(markdown.startsWith("# 内容导出（增量第 3 卷）"));
+        assertTrue(markdown.contains("[export_20240501_080000_v2.md](export_20240501_080000_v2.md)"));
+        assertTrue(markdown.contains("## 新文章"));
+        verify(contentRepository, never()).streamByUserIdAndPublishedAtBetween(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("ZIP 导出按年/月存放 Markdown，本地附件原样写入并改写为相对链接")
+    void testWriteZipWithStoredAssets() throws Exception {
+        byte[] image = new byte[300 * 1024];
+        for (int i = 0; i < image.length; i++) {
+            image[i] = (byte) (i * 31);
+        }
+        Files.write(uploadDir.resolve("contents/images/a.png"), image);
+        Content content = content("带图文章", "https://example.com/img", LocalDateTime.of(2024, 3, 5, 8, 0));
+        content.setBody("<p>正文</p><img src=\"http://localhost:8080/api/v1/uploads/contents/images/a.png\">"
+                + "<img src=\"/api/v1/uploads/contents/images/missing.png\">");
+        content.setMediaUrls(List.of("/api/v1/uploads/contents/images/a.png", "https://cdn.example.com/b.jpg"));
+        when(contentRepository.streamByPublishedAtBetween(any(), any())).thenReturn(Stream.of(content));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = writer.write(null, ExportTask.ExportFormat.ZIP, null, null, out);
+
+        assertEquals(1, count);
+        Map<String, byte[]> entries = new HashMap<>();
+        Map<String, Integer> methods = new HashMap<>();
+        try (ZipInputStream zin = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zin.getNextEntry()) != null) {
+                entries.put(entry.getName(), zin.readAllBytes());
+                methods.put(entry.getName(), entry.getMethod());
+            }
+        }
+        assertTrue(entries.containsKey("README.md"));
+        assertArrayEquals(image, entries.get("assets/contents/images/a.png"));
+        assertEquals(ZipEntry.STORED, methods.get("assets/contents/images/a.png"));
+        String mdName = "2024/03/2024-03-05-带图文章-" + content.getId().toString().substring(0, 8) + ".md";
+        String md = new String(entries.get(mdName), StandardCharsets.UTF_8);
+        assertTrue(md.contains("src=\"../../assets/contents/images/a.png\""));
+        // 不存在的附件保留原地址；远程媒体列为链接；已在正文中的附件不重复列出
+        assertTrue(md.contains("/api/v1/uploads/contents/images/missing.png"));
+        assertTrue(md.contains("- <https://cdn.example.com/b.jpg>"));
+        assertFalse(md.contains("[a.png]"));
+        assertEquals(3, entries.size());
+    }
+
+    @Test
+    @DisplayName("PDF/Word 不支持流式导出")
+    void testWritePdfUnsupported() {
+        assertThrows(UnsupportedOperationException.class,
+            () -> writer.write(null, ExportTask.ExportFormat.PDF, null, null, new ByteArrayOutputStream()));
+        verifyNoInteractions(contentRepository);
+    }
+
+    private Content content(String title, String url, LocalDateTime publishedAt) {
+        Platform platform = new Platform();
+        platform.setName("GitHub");
+        TrackedUser user = new TrackedUser();
+        user.setUsername("alice");
+        Content content = new Content();
+        content.setId(UUID.randomUUID());
+        content.setTitle(title);
+        content.setUrl(url);
+        content.setPublishedAt(publishedAt);
+        content.setPlatform(platform);
+        content.setUser(user);
+        content.setIsRead(false);
+        content.setIsFavorite(false);
+        return content;
+    }
+}
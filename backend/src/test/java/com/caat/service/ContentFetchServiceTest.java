@@ -2,6 +2,7 @@ package com.caat.service;
 
 import com.caat.adapter.AdapterFactory;
 import com.caat.adapter.PlatformAdapter;
+import com.caat.adapter.model.FetchResult;
 import com.caat.adapter.model.PlatformContent;
 import com.caat.entity.Content;
 import com.caat.entity.FetchTask;
@@ -16,11 +17,19 @@ import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -40,6 +49,8 @@ class ContentFetchServiceTest {
     private ZsxqFileService zsxqFileService;
     private FetchTaskProgressUpdater fetchTaskProgressUpdater;
     private ScheduleService scheduleService;
+    private PlatformConfigCache platformConfigCache;
+    private FetchCancellationRegistry cancellationRegistry;
 
     private ContentFetchService service;
 
@@ -56,6 +67,8 @@ class ContentFetchServiceTest {
         zsxqFileService = mock(ZsxqFileService.class);
         fetchTaskProgressUpdater = mock(FetchTaskProgressUpdater.class);
         scheduleService = mock(ScheduleService.class);
+        platformConfigCache = mock(PlatformConfigCache.class);
+        cancellationRegistry = new FetchCancellationRegistry();
 
         service = new ContentFetchService(
             trackedUserRepository,
@@ -68,7 +81,10 @@ class ContentFetchServiceTest {
             contentAssetService,
             zsxqFileService,
             fetchTaskProgressUpdater,
-            scheduleService
+            scheduleService,
+            platformConfigCache,
+            new TaskProgressBus(100, 1000, Runnable::run, 64, 10_000),
+            cancellationRegistry
         );
     }
 
@@ -125,5 +141,90 @@ class ContentFetchServiceTest {
         assertThat(saved.getMediaUrls()).isNotEmpty();
         verify(contentAssetService).downloadImageAndSave(any());
     }
-}
 
+    @Test
+    void resumeFetchTask_shouldContinueFromCheckpointCursor() throws Exception {
+        Platform platform = new Platform();
+        platform.setType("GITHUB");
+        TrackedUser user = new TrackedUser();
+        user.setId(UUID.randomUUID());
+        user.setUserId("octocat");
+        user.setPlatform(platform);
+
+        FetchTask task = new FetchTask();
+        task.setId(UUID.randomUUID());
+        task.setUser(user);
+        task.setStatus(FetchTask.TaskStatus.RUNNING);
+        task.setCheckpointPhase(FetchTask.FetchPhase.RANGE);
+        task.setCheckpointCursor("5");
+        task.setCheckpointPage(4);
+        task.setCheckpointSaved(40);
+
+        PlatformAdapter adapter = mock(PlatformAdapter.class);
+        FetchResult lastPage = new FetchResult();
+        lastPage.setContents(Collections.emptyList());
+        lastPage.setHasMore(false);
+        when(fetchTaskRepository.findByIdWithUser(task.getId())).thenReturn(Optional.of(task));
+        when(trackedUserRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(adapterFactory.getAdapter("GITHUB")).thenReturn(adapter);
+        when(adapter.getUserContents(eq("octocat"), any(), isNull(), isNull(), eq("5"), anyInt())).thenReturn(lastPage);
+
+        service.resumeFetchTaskAsync(task.getId());
+
+        // 从断点游标继续，不回到第一页；已保存条数沿用断点
+        verify(adapter).getUserContents(eq("octocat"), any(), isNull(), isNull(), eq("5"), anyInt());
+        verify(adapter, never()).getUserContents(any(), any(), any(), any(), isNull(), anyInt());
+        verify(fetchTaskProgressUpdater).incrementResumeCount(task.getId());
+        verify(fetchTaskProgressUpdater).updateCompleted(eq(task.getId()), any(), eq(40), eq(40));
+    }
+
+    @Test
+    void cancelFetchTask_shouldInterruptRetryBackoffPromptly() throws Exception {
+        Platform platform = new Platform();
+        platform.setType("GITHUB");
+        TrackedUser user = new TrackedUser();
+        user.setId(UUID.randomUUID());
+        user.setUserId("octocat");
+        user.setPlatform(platform);
+
+        FetchTask task = new FetchTask();
+        task.setId(UUID.randomUUID());
+        task.setUser(user);
+        task.setStatus(FetchTask.TaskStatus.PENDING);
+        task.setStartTime(LocalDateTime.now().minusDays(1));
+        task.setEndTime(LocalDateTime.now());
+
+        PlatformAdapter adapter = mock(PlatformAdapter.class);
+        when(trackedUserRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(fetchTaskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+        when(adapterFactory.getAdapter("GITHUB")).thenReturn(adapter);
+        // 首次请求失败后进入 10～60 秒的重试退避
+        CountDownLatch requested = new CountDownLatch(1);
+        when(adapter.getUserContents(any(), any(), any(), any(), any(), anyInt())).thenAnswer(inv -> {
+            requested.countDown();
+            throw new RuntimeException("connection reset");
+        });
+
+        Thread canceller = new Thread(() -> {
+            try {
+                requested.await(5, TimeUnit.SECONDS);
+                Thread.sleep(200);
+            } catch (InterruptedException ignored) {
+                return;
+            }
+            cancellationRegistry.cancel(task.getId());
+        });
+        canceller.start();
+        long started = System.nanoTime();
+        service.fetchUserContentAsync(user.getId(), task.getStartTime(), task.getEndTime(), task.getId());
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        canceller.join(1000);
+
+        assertThat(elapsedMs).isLessThan(5000);
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+        assertThat(cancellationRegistry.isCancelled(task.getId())).isFalse();
+        verify(adapter, times(1)).getUserContents(any(), any(), any(), any(), any(), anyInt());
+        verify(fetchTaskProgressUpdater).updateCancelled(eq(task.getId()), any());
+        verify(fetchTaskProgressUpdater, never()).updateFailed(any(), any(), any());
+    }
+}
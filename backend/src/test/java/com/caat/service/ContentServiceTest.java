@@ -1,8 +1,10 @@
 package com.caat.service;
 
+import com.caat.dto.ContentBatchUpdateRequest;
 import com.caat.entity.Content;
 import com.caat.entity.Platform;
 import com.caat.entity.TrackedUser;
+import com.caat.exception.BusinessException;
 import com.caat.repository.ContentRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -18,6 +20,7 @@ import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -36,6 +39,12 @@ class ContentServiceTest {
     @Mock
     private ContentRepository contentRepository;
 
+    @Mock
+    private ContentAssetService contentAssetService;
+
+    @Mock
+    private ElasticsearchService elasticsearchService;
+
     @InjectMocks
     private ContentService contentService;
 
@@ -186,4 +195,68 @@ class ContentServiceTest {
         assertEquals(1, result.getTotalElements());
         verify(contentRepository, times(1)).findByPlatformId(platformId, pageable);
     }
+
+    @Test
+    @DisplayName("测试按 id 列表批量标记已读 - 单条 UPDATE 并同步索引")
+    void testBatchUpdateFlags_ByIds() {
+        // Given
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        ContentBatchUpdateRequest request = new ContentBatchUpdateRequest();
+        request.setIds(ids);
+        request.setIsRead(true);
+        when(contentRepository.updateIsReadByIdIn(eq(ids), eq(true), any(LocalDateTime.class))).thenReturn(2);
+
+        // When
+        ContentService.BatchUpdateResult result = contentService.batchUpdateFlags(request);
+
+        // Then
+        assertEquals(2, result.readUpdated());
+        assertEquals(0, result.favoriteUpdated());
+        verify(contentRepository, never()).updateIsFavoriteByIdIn(any(), anyBoolean(), any());
+        verify(contentRepository, never()).save(any(Content.class));
+        verify(elasticsearchService, times(1)).updateFlags(request);
+    }
+
+    @Test
+    @DisplayName("测试按作者批量标记已读与收藏 - 无改动时不同步索引")
+    void testBatchUpdateFlags_ByAuthor() {
+        // Given
+        UUID userId = testUser.getId();
+        ContentBatchUpdateRequest request = new ContentBatchUpdateRequest();
+        request.setUserId(userId);
+        request.setIsRead(true);
+        request.setIsFavorite(false);
+        when(contentRepository.updateIsReadByFilter(eq(userId), isNull(), isNull(), isNull(), eq(true), any(LocalDateTime.class)))
+            .thenReturn(0);
+        when(contentRepository.updateIsFavoriteByFilter(eq(userId), isNull(), isNull(), isNull(), eq(false), any(LocalDateTime.class)))
+            .thenReturn(0);
+
+        // When
+        ContentService.BatchUpdateResult result = contentService.batchUpdateFlags(request);
+
+        // Then
+        assertEquals(0, result.readUpdated());
+        verify(elasticsearchService, never()).updateFlags(any());
+    }
+
+    @Test
+    @DisplayName("测试批量标记参数校验 - 未指定标记、ids 与条件同时指定、超过上限")
+    void testBatchUpdateFlags_Invalid() {
+        ContentBatchUpdateRequest noFlag = new ContentBatchUpdateRequest();
+        noFlag.setIds(List.of(UUID.randomUUID()));
+        assertThrows(BusinessException.class, () -> contentService.batchUpdateFlags(noFlag));
+
+        ContentBatchUpdateRequest mixed = new ContentBatchUpdateRequest();
+        mixed.setIds(List.of(UUID.randomUUID()));
+        mixed.setUserId(testUser.getId());
+        mixed.setIsRead(true);
+        assertThrows(BusinessException.class, () -> contentService.batchUpdateFlags(mixed));
+
+        ContentBatchUpdateRequest tooMany = new ContentBatchUpdateRequest();
+        tooMany.setIds(Collections.nCopies(ContentService.MAX_BATCH_UPDATE_IDS + 1, UUID.randomUUID()));
+        tooMany.setIsFavorite(true);
+        assertThrows(BusinessException.class, () -> contentService.batchUpdateFlags(tooMany));
+
+        verifyNoInteractions(elasticsearchService);
+    }
 }
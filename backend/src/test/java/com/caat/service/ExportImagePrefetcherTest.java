@@ -0,0 +1,143 @@
+package com.caat.service;
+
+import com.caat.entity.Content;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ExportImagePrefetcher 单元测试
+ */
+@DisplayName("导出图片预取测试")
+class ExportImagePrefetcherTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("按写出顺序取图，结果与直接加载一致")
+    void testGetReturnsLoadedBytes() {
+        List<Content> contents = contents(5);
+        Map<String, Integer> loads = new ConcurrentHashMap<>();
+        try (ExportImagePrefetcher prefetcher = new ExportImagePrefetcher(contents, this::urls,
+                url -> {
+                    loads.merge(url, 1, Integer::sum);
+                    return url.getBytes();
+                }, executor, 2, 1024 * 1024, 10_000)) {
+            for (Content c : contents) {
+                for (String url : urls(c)) {
+                    assertArrayEquals(url.getBytes(), prefetcher.get(c, url));
+                }
+            }
+            assertEquals(0, prefetcher.readyBytes());
+        }
+        // 每张图片只加载一次
+        assertEquals(10, loads.size());
+        assertTrue(loads.values().stream().allMatch(n -> n == 1));
+    }
+
+    @Test
+    @DisplayName("预取不超过领先窗口")
+    void testLookAheadBounded() {
+        List<Content> contents = contents(10);
+        Set<String> requested = ConcurrentHashMap.newKeySet();
+        try (ExportImagePrefetcher prefetcher = new ExportImagePrefetcher(contents, this::urls,
+                url -> {
+                    requested.add(url);
+                    return new byte[1];
+                }, Runnable::run, 2, 1024 * 1024, 10_000)) {
+            prefetcher.get(contents.get(0), urls(contents.get(0)).get(0));
+            // 当前文章 + 领先 2 篇，每篇 2 张
+            assertEquals(6, requested.size());
+            assertFalse(requested.contains(urls(contents.get(3)).get(0)));
+        }
+    }
+
+    @Test
+    @DisplayName("内存预算用尽时停止领先预取")
+    void testMemoryBudgetStopsPrefetch() {
+        List<Content> contents = contents(10);
+        Set<String> requested = ConcurrentHashMap.newKeySet();
+        try (ExportImagePrefetcher prefetcher = new ExportImagePrefetcher(contents, this::urls,
+                url -> {
+                    requested.add(url);
+                    return new byte[100];
+                }, Runnable::run, 8, 150, 10_000)) {
+            prefetcher.get(contents.get(0), urls(contents.get(0)).get(0));
+            // 当前文章总会调度（200 字节就绪），超过预算后不再领先
+            assertEquals(2, requested.size());
+        }
+    }
+
+    @Test
+    @DisplayName("单张图片失败返回 null，不影响其他图片")
+    void testFailureTolerant() {
+        List<Content> contents = contents(2);
+        String broken = urls(contents.get(0)).get(0);
+        try (ExportImagePrefetcher prefetcher = new ExportImagePrefetcher(contents, this::urls,
+                url -> {
+                    if (url.equals(broken)) {
+                        throw new IllegalStateException("下载失败");
+                    }
+                    return url.getBytes();
+                }, executor, 4, 1024 * 1024, 10_000)) {
+            assertNull(prefetcher.get(contents.get(0), broken));
+            String ok = urls(contents.get(0)).get(1);
+            assertArrayEquals(ok.getBytes(), prefetcher.get(contents.get(0), ok));
+        }
+    }
+
+    @Test
+    @DisplayName("预取图片等待超时后跳过该图，不阻塞导出")
+    void testWaitTimeoutSkipsStalledImage() throws Exception {
+        List<Content> contents = contents(1);
+        String stalled = urls(contents.get(0)).get(0);
+        String ok = urls(contents.get(0)).get(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExportImagePrefetcher prefetcher = new ExportImagePrefetcher(contents, this::urls,
+                url -> {
+                    if (url.equals(stalled)) {
+                        release.await();
+                    }
+                    return url.getBytes();
+                }, executor, 0, 1024 * 1024, 50)) {
+            assertNull(prefetcher.get(contents.get(0), stalled));
+            assertArrayEquals(ok.getBytes(), prefetcher.get(contents.get(0), ok));
+            release.countDown();
+            // 被取消的下载稍后完成时不占用预算
+            Thread.sleep(100);
+            assertEquals(0, prefetcher.readyBytes());
+        }
+    }
+
+    private List<Content> contents(int n) {
+        List<Content> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Content c = new Content();
+            c.setId(UUID.randomUUID());
+            list.add(c);
+        }
+        return list;
+    }
+
+    private List<String> urls(Content c) {
+        return List.of("https://img.example.com/" + c.getId() + "/a.jpg",
+                "https://img.example.com/" + c.getId() + "/b.jpg");
+    }
+}
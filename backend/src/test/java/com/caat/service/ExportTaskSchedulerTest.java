@@ -0,0 +1,182 @@
+package com.caat.service;
+
+import com.caat.entity.ExportTask;
+import com.caat.repository.ExportTaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * ExportTaskScheduler 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("导出任务队列调度测试")
+class ExportTaskSchedulerTest {
+
+    @Mock
+    private ExportTaskRepository exportTaskRepository;
+
+    @Mock
+    private ExportService exportService;
+
+    /** 提交的任务先挂起，由测试决定何时执行完，模拟运行中的导出 */
+    private final List<Runnable> submitted = new ArrayList<>();
+
+    private ExportTaskScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new ExportTaskScheduler(exportTaskRepository, submitted::add, 2, 100, 90, "node-a");
+        scheduler.setExportService(exportService);
+        lenient().when(exportTaskRepository.claimWithLease(any(), eq("node-a"), eq(90L))).thenReturn(1);
+    }
+
+    @Test
+    @DisplayName("并发数不超过上限")
+    void testMaxConcurrent() {
+        pending(task(10), task(10), task(10));
+
+        scheduler.dispatch();
+
+        assertEquals(2, submitted.size());
+        assertEquals(2, scheduler.runningCount());
+    }
+
+    @Test
+    @DisplayName("超出成本预算时队首等待，不跳过它执行后面的小任务")
+    void testCostBudgetHeadOfLine() {
+        ExportTask big = task(80);
+        ExportTask next = task(50);
+        ExportTask small = task(1);
+        pending(big, next, small);
+
+        scheduler.dispatch();
+
+        assertEquals(1, submitted.size());
+        verify(exportTaskRepository, never()).claimWithLease(eq(small.getId()), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("空闲时放行单个超出预算的任务")
+    void testIdleAdmitsOversizedTask() {
+        pending(task(1000));
+
+        scheduler.dispatch();
+
+        assertEquals(1, submitted.size());
+    }
+
+    @Test
+    @DisplayName("任务结束后释放名额并派发下一个")
+    void testCompletionDispatchesNext() {
+        ExportTask first = task(80);
+        ExportTask second = task(50);
+        pending(first, second);
+        scheduler.dispatch();
+        assertEquals(1, submitted.size());
+
+        pending(second);
+        submitted.get(0).run();
+
+        verify(exportService).executeExportTask(first.getId());
+        assertEquals(2, submitted.size());
+        assertEquals(1, scheduler.runningCount());
+    }
+
+    @Test
+    @DisplayName("取消排队中的任务直接改状态，运行中的任务设置取消标记")
+    void testCancel() {
+        UUID queued = UUID.randomUUID();
+        when(exportTaskRepository.updateStatusIfCurrent(queued, ExportTask.TaskStatus.PENDING, ExportTask.TaskStatus.CANCELLED))
+                .thenReturn(1);
+        assertTrue(scheduler.cancel(queued));
+        assertFalse(scheduler.isCancelRequested(queued));
+
+        ExportTask running = task(10);
+        pending(running);
+        scheduler.dispatch();
+        assertTrue(scheduler.cancel(running.getId()));
+        assertTrue(scheduler.isCancelRequested(running.getId()));
+
+        assertFalse(scheduler.cancel(UUID.randomUUID()));
+    }
+
+    @Test
+    @DisplayName("启动时只放回本节点持有或租约过期的运行中任务")
+    void testRequeueOnlyOwnedOrExpired() {
+        pending();
+
+        scheduler.requeueInterruptedTasks();
+
+        verify(exportTaskRepository).requeueLeasesOwnedBy("node-a");
+        verify(exportTaskRepository).requeueExpiredLeases();
+    }
+
+    @Test
+    @DisplayName("续约发现租约已被回收时中止本地执行")
+    void testHeartbeatDetectsLostLease() {
+        ExportTask kept = task(10);
+        ExportTask lost = task(10);
+        pending(kept, lost);
+        scheduler.dispatch();
+        kept.setStatus(ExportTask.TaskStatus.RUNNING);
+        kept.setLeaseOwner("node-a");
+        lost.setStatus(ExportTask.TaskStatus.RUNNING);
+        lost.setLeaseOwner("node-b");
+        when(exportTaskRepository.renewLeases(any(), eq("node-a"), eq(90L))).thenReturn(1);
+        when(exportTaskRepository.findAllById(any())).thenReturn(List.of(kept, lost));
+
+        scheduler.heartbeat();
+
+        assertFalse(scheduler.isLeaseLost(kept.getId()));
+        assertTrue(scheduler.isLeaseLost(lost.getId()));
+        assertFalse(scheduler.isCancelRequested(lost.getId()));
+    }
+
+    @Test
+    @DisplayName("排队位置只查 ID，单个任务按排在前面的任务计数")
+    void testQueuePositions() {
+        ExportTask first = task(1);
+        ExportTask second = task(1);
+        when(exportTaskRepository.findIdsByStatusInQueueOrder(ExportTask.TaskStatus.PENDING))
+                .thenReturn(List.of(first.getId(), second.getId()));
+        assertEquals(2, scheduler.queuePositions().get(second.getId()));
+
+        second.setPriority(5);
+        second.setCreatedAt(LocalDateTime.now());
+        when(exportTaskRepository.countQueuedAhead(ExportTask.TaskStatus.PENDING, 5, second.getCreatedAt()))
+                .thenReturn(1L);
+        assertEquals(2, scheduler.queuePosition(second));
+
+        second.setStatus(ExportTask.TaskStatus.RUNNING);
+        assertNull(scheduler.queuePosition(second));
+        verify(exportTaskRepository, never()).findByStatusOrderByPriorityDescCreatedAtAsc(any());
+    }
+
+    private void pending(ExportTask... tasks) {
+        when(exportTaskRepository.findByStatusOrderByPriorityDescCreatedAtAsc(ExportTask.TaskStatus.PENDING))
+                .thenReturn(List.of(tasks));
+    }
+
+    private ExportTask task(long cost) {
+        ExportTask task = new ExportTask();
+        task.setId(UUID.randomUUID());
+        task.setStatus(ExportTask.TaskStatus.PENDING);
+        task.setEstimatedCost(cost);
+        return task;
+    }
+}
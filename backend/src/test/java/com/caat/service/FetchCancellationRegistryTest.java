@@ -0,0 +1,71 @@
+package com.caat.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.HttpURLConnection;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * FetchCancellationRegistry 单元测试
+ */
+@DisplayName("刷新任务取消注册表测试")
+class FetchCancellationRegistryTest {
+
+    private final FetchCancellationRegistry registry = new FetchCancellationRegistry();
+
+    @Test
+    @DisplayName("取消立即唤醒等待并断开登记的连接")
+    void testCancelWakesSleepAndDisconnects() throws Exception {
+        UUID taskId = UUID.randomUUID();
+        HttpURLConnection connection = mock(HttpURLConnection.class);
+        CountDownLatch registered = new CountDownLatch(1);
+        Throwable[] thrown = new Throwable[1];
+        Thread worker = new Thread(() -> {
+            registry.register(taskId);
+            registry.bindConnection(connection);
+            registered.countDown();
+            try {
+                registry.sleep(taskId, 60_000);
+            } catch (Throwable t) {
+                thrown[0] = t;
+            } finally {
+                registry.release(taskId);
+            }
+        });
+        worker.start();
+        assertTrue(registered.await(5, TimeUnit.SECONDS));
+
+        assertTrue(registry.cancel(taskId));
+        worker.join(2000);
+
+        assertFalse(worker.isAlive());
+        assertTrue(thrown[0] instanceof FetchCancellationRegistry.FetchCancelledException
+            || thrown[0] instanceof InterruptedException);
+        verify(connection).disconnect();
+    }
+
+    @Test
+    @DisplayName("未在本节点运行或已结束的任务取消返回 false，结束时清除中断标记")
+    void testCancelAfterRelease() {
+        UUID taskId = UUID.randomUUID();
+        assertFalse(registry.cancel(taskId));
+
+        registry.register(taskId);
+        assertFalse(registry.isCancelled(taskId));
+        assertTrue(registry.cancel(taskId));
+        assertTrue(registry.isCancelled(taskId));
+        assertThrows(FetchCancellationRegistry.FetchCancelledException.class, () -> registry.checkCancelled(taskId));
+
+        registry.release(taskId);
+        assertFalse(Thread.currentThread().isInterrupted());
+        assertFalse(registry.isCancelled(taskId));
+        assertFalse(registry.cancel(taskId));
+    }
+}
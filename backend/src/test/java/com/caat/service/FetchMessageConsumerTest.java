@@ -0,0 +1,93 @@
+package com.caat.service;
+
+import com.caat.entity.FetchTask;
+import com.caat.entity.TrackedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * FetchMessageConsumer 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("刷新指令消费测试")
+class FetchMessageConsumerTest {
+
+    @Mock
+    private FetchTaskQueue fetchTaskQueue;
+    @Mock
+    private ContentFetchService contentFetchService;
+
+    private FetchMessageConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new FetchMessageConsumer(fetchTaskQueue, contentFetchService);
+    }
+
+    @Test
+    @DisplayName("认领成功后等待任务结束再确认，任务失败不重投")
+    void testClaimAndRunUntilFinished() {
+        FetchTask task = task();
+        when(fetchTaskQueue.claim(task.getId())).thenReturn(Optional.of(task));
+        when(fetchTaskQueue.start(task)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("adapter error")));
+
+        assertDoesNotThrow(() -> consumer.handleFetch(command(task)));
+        verify(fetchTaskQueue).start(task);
+    }
+
+    @Test
+    @DisplayName("任务已被认领或已结束时忽略重复指令")
+    void testDuplicateCommandIgnored() {
+        FetchTask task = task();
+        when(fetchTaskQueue.claim(task.getId())).thenReturn(Optional.empty());
+
+        consumer.handleFetch(command(task));
+
+        verify(fetchTaskQueue, never()).start(any());
+    }
+
+    @Test
+    @DisplayName("同一用户已有运行中的任务时确认消息，任务留待本地兜底认领")
+    void testUserBusyLeavesTaskPending() {
+        FetchTask task = task();
+        when(fetchTaskQueue.claim(task.getId())).thenThrow(new DataIntegrityViolationException("ux_fetch_task_user_running"));
+
+        assertDoesNotThrow(() -> consumer.handleFetch(command(task)));
+        verify(fetchTaskQueue, never()).start(any());
+    }
+
+    @Test
+    @DisplayName("无法处理的指令抛出异常进入死信队列")
+    void testMalformedCommandRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> consumer.handleFetch(new FetchMessagePublisher.FetchCommand(null, null, "ZSXQ")));
+        assertThrows(IllegalArgumentException.class,
+            () -> consumer.handleAsset(new FetchMessagePublisher.AssetCommand(null)));
+    }
+
+    private static FetchMessagePublisher.FetchCommand command(FetchTask task) {
+        return new FetchMessagePublisher.FetchCommand(task.getId(), task.getUser().getId(), "ZSXQ");
+    }
+
+    private static FetchTask task() {
+        TrackedUser user = new TrackedUser();
+        user.setId(UUID.randomUUID());
+        FetchTask task = new FetchTask();
+        task.setId(UUID.randomUUID());
+        task.setUser(user);
+        return task;
+    }
+}
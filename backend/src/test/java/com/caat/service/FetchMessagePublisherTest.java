@@ -0,0 +1,66 @@
+package com.caat.service;
+
+import com.caat.config.FetchMessagingConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.net.ConnectException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * FetchMessagePublisher 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("刷新指令发布测试")
+class FetchMessagePublisherTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private FetchMessagePublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new FetchMessagePublisher(rabbitTemplate, true);
+    }
+
+    @Test
+    @DisplayName("图片指令发布成功时不在本节点下载")
+    void testPublishAssetSucceeds() {
+        AtomicInteger inline = new AtomicInteger();
+
+        publisher.publishAssetAfterCommit(UUID.randomUUID(), inline::incrementAndGet);
+
+        verify(rabbitTemplate).convertAndSend(eq(FetchMessagingConfig.FETCH_EXCHANGE),
+            eq(FetchMessagingConfig.ASSET_ROUTING_KEY), any(FetchMessagePublisher.AssetCommand.class));
+        assertEquals(0, inline.get());
+    }
+
+    @Test
+    @DisplayName("图片指令发布失败时改为本节点下载，下载失败不向外抛出")
+    void testPublishAssetFailureFallsBackInline() {
+        doThrow(new AmqpConnectException(new ConnectException("down")))
+            .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class));
+        AtomicInteger inline = new AtomicInteger();
+
+        publisher.publishAssetAfterCommit(UUID.randomUUID(), inline::incrementAndGet);
+        assertDoesNotThrow(() -> publisher.publishAssetAfterCommit(UUID.randomUUID(), () -> {
+            throw new IllegalStateException("download failed");
+        }));
+
+        assertEquals(1, inline.get());
+    }
+}
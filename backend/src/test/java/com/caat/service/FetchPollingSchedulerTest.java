@@ -0,0 +1,170 @@
+package com.caat.service;
+
+import com.caat.entity.FetchTask;
+import com.caat.entity.ScheduleConfig;
+import com.caat.entity.TrackedUser;
+import com.caat.entity.UserSchedule;
+import com.caat.repository.ContentRepository;
+import com.caat.repository.FetchTaskRepository;
+import com.caat.repository.ScheduleConfigRepository;
+import com.caat.repository.TrackedUserRepository;
+import com.caat.repository.UserScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * FetchPollingScheduler 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("自适应拉取调度测试")
+class FetchPollingSchedulerTest {
+
+    @Mock
+    private UserScheduleRepository userScheduleRepository;
+    @Mock
+    private TrackedUserRepository trackedUserRepository;
+    @Mock
+    private FetchTaskRepository fetchTaskRepository;
+    @Mock
+    private ScheduleConfigRepository scheduleConfigRepository;
+    @Mock
+    private ContentRepository contentRepository;
+    @Mock
+    private FetchTaskQueue fetchTaskQueue;
+
+    private FetchPollingScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new FetchPollingScheduler(userScheduleRepository, trackedUserRepository, fetchTaskRepository,
+                scheduleConfigRepository, contentRepository, 5, 1440, 2.0, 0, 10);
+        scheduler.setFetchTaskQueue(fetchTaskQueue);
+    }
+
+    @Test
+    @DisplayName("有新文章时缩短间隔，无新文章或失败时退避，限定在上下限之间")
+    void testNextInterval() {
+        assertEquals(30, scheduler.nextInterval(60, 3));
+        assertEquals(120, scheduler.nextInterval(60, 0));
+        assertEquals(120, scheduler.nextInterval(60, -1));
+        assertEquals(5, scheduler.nextInterval(6, 1));
+        assertEquals(1440, scheduler.nextInterval(1000, 0));
+    }
+
+    @Test
+    @DisplayName("初始间隔取近期平均发文间隔的一半，近期无发文时取最大间隔的四分之一")
+    void testEstimateInitialInterval() {
+        UUID active = UUID.randomUUID();
+        UUID quiet = UUID.randomUUID();
+        when(contentRepository.countByUserIdAndPublishedAtBetween(eq(active), any(), any())).thenReturn(120L);
+        when(contentRepository.countByUserIdAndPublishedAtBetween(eq(quiet), any(), any())).thenReturn(0L);
+
+        // 30 天 120 篇：平均 6 小时一篇
+        assertEquals(180, scheduler.estimateInitialInterval(active, LocalDateTime.now()));
+        assertEquals(360, scheduler.estimateInitialInterval(quiet, LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("只派发到期用户，已有进行中任务的用户不派发")
+    void testDispatchOnlyDueAndIdleUsers() {
+        LocalDateTime now = LocalDateTime.now();
+        TrackedUser due = user();
+        TrackedUser busy = user();
+        TrackedUser later = user();
+        when(userScheduleRepository.findEnabledForActiveUsers()).thenReturn(List.of(
+                schedule(due, now.minusMinutes(1)), schedule(busy, now.minusMinutes(2)), schedule(later, now.plusHours(1))));
+        scheduler.sync();
+
+        ScheduleConfig global = new ScheduleConfig();
+        global.setIsEnabled(true);
+        when(scheduleConfigRepository.findByType(ScheduleConfig.ConfigType.GLOBAL)).thenReturn(Optional.of(global));
+        when(fetchTaskRepository.existsByUserIdAndStatusIn(eq(busy.getId()), anyList())).thenReturn(true);
+        when(trackedUserRepository.findById(due.getId())).thenReturn(Optional.of(due));
+
+        assertEquals(1, scheduler.dispatchDue(now).size());
+
+        ArgumentCaptor<FetchTask> task = ArgumentCaptor.forClass(FetchTask.class);
+        verify(fetchTaskRepository).save(task.capture());
+        assertSame(due, task.getValue().getUser());
+        assertEquals(FetchTask.TaskType.SCHEDULED, task.getValue().getTaskType());
+        assertEquals(FetchTask.TaskStatus.PENDING, task.getValue().getStatus());
+        assertEquals(now, task.getValue().getEndTime());
+        assertEquals(1, scheduler.queuedCount());
+
+        // 派发后在结束前不再派发
+        assertTrue(scheduler.dispatchDue(now.plusHours(2)).isEmpty());
+        verify(fetchTaskRepository, times(1)).save(any(FetchTask.class));
+    }
+
+    @Test
+    @DisplayName("其他节点已派发同一用户时视为已在队列中，不重复派发")
+    void testConcurrentDispatchTreatedAsQueued() {
+        LocalDateTime now = LocalDateTime.now();
+        TrackedUser due = user();
+        when(userScheduleRepository.findEnabledForActiveUsers()).thenReturn(List.of(schedule(due, now.minusMinutes(1))));
+        scheduler.sync();
+
+        ScheduleConfig global = new ScheduleConfig();
+        global.setIsEnabled(true);
+        when(scheduleConfigRepository.findByType(ScheduleConfig.ConfigType.GLOBAL)).thenReturn(Optional.of(global));
+        when(trackedUserRepository.findById(due.getId())).thenReturn(Optional.of(due));
+        when(fetchTaskRepository.save(any(FetchTask.class)))
+                .thenThrow(new DataIntegrityViolationException("ux_fetch_task_user_scheduled_inflight"));
+
+        assertTrue(scheduler.dispatchDue(now).isEmpty());
+        assertEquals(0, scheduler.queuedCount());
+        verify(userScheduleRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("拉取结束后写入新的间隔与下次拉取时间并重新入队")
+    void testOnFetchFinishedReschedules() {
+        TrackedUser user = user();
+        UserSchedule schedule = schedule(user, null);
+        schedule.setIntervalMinutes(60);
+        schedule.setEmptyStreak(2);
+        when(userScheduleRepository.findByUserId(user.getId())).thenReturn(Optional.of(schedule));
+
+        LocalDateTime before = LocalDateTime.now();
+        scheduler.onFetchFinished(user.getId(), 4);
+
+        ArgumentCaptor<UserSchedule> saved = ArgumentCaptor.forClass(UserSchedule.class);
+        verify(userScheduleRepository).save(saved.capture());
+        assertEquals(30, saved.getValue().getIntervalMinutes());
+        assertEquals(0, saved.getValue().getEmptyStreak());
+        assertEquals(4, saved.getValue().getLastSavedCount());
+        assertFalse(saved.getValue().getNextRunAt().isBefore(before.plusMinutes(30)));
+        assertEquals(1, scheduler.queuedCount());
+    }
+
+    private static TrackedUser user() {
+        TrackedUser user = new TrackedUser();
+        user.setId(UUID.randomUUID());
+        user.setUsername("u-" + user.getId());
+        return user;
+    }
+
+    private static UserSchedule schedule(TrackedUser user, LocalDateTime nextRunAt) {
+        UserSchedule schedule = new UserSchedule();
+        schedule.setUser(user);
+        schedule.setNextRunAt(nextRunAt);
+        return schedule;
+    }
+}
@@ -0,0 +1,189 @@
+package com.caat.service;
+
+import com.caat.entity.FetchTask;
+import com.caat.entity.TrackedUser;
+import com.caat.repository.FetchTaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * FetchTaskQueue 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("刷新任务队列认领测试")
+class FetchTaskQueueTest {
+
+    @Mock
+    private FetchTaskLeaseService leaseService;
+    @Mock
+    private FetchTaskRepository fetchTaskRepository;
+    @Mock
+    private ContentFetchService contentFetchService;
+
+    private final FetchCancellationRegistry cancellationRegistry = new FetchCancellationRegistry();
+    /** 执行中的任务先挂起，由测试决定何时结束 */
+    private final List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+    private FetchTaskQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new FetchTaskQueue(leaseService, fetchTaskRepository, cancellationRegistry, 2, 60, "node-a", 120);
+        queue.setContentFetchService(contentFetchService);
+        lenient().when(contentFetchService.fetchUserContentAsync(any(), any(), any(), any())).thenAnswer(inv -> pending());
+        lenient().when(contentFetchService.resumeFetchTaskAsync(any())).thenAnswer(inv -> pending());
+    }
+
+    @Test
+    @DisplayName("按本地容量认领，任务结束后继续认领")
+    void testClaimUpToCapacity() {
+        FetchTask a = task(null);
+        FetchTask b = task(null);
+        FetchTask c = task(null);
+        when(leaseService.claimNext(eq("node-a"), anyLong(), anyLong()))
+            .thenReturn(Optional.of(a), Optional.of(b), Optional.of(c), Optional.empty());
+
+        queue.dispatch();
+
+        assertEquals(2, queue.runningCount());
+        verify(leaseService, times(2)).claimNext(eq("node-a"), anyLong(), anyLong());
+
+        futures.get(0).complete(null);
+
+        assertEquals(2, queue.runningCount());
+        verify(contentFetchService).fetchUserContentAsync(c.getUser().getId(), c.getStartTime(), c.getEndTime(), c.getId());
+    }
+
+    @Test
+    @DisplayName("曾经开始过的任务（租约过期被回收）从断点续拉")
+    void testReclaimedTaskResumes() {
+        FetchTask reclaimed = task(LocalDateTime.now().minusMinutes(5));
+        when(leaseService.claimNext(eq("node-a"), anyLong(), anyLong())).thenReturn(Optional.of(reclaimed), Optional.empty());
+
+        queue.dispatch();
+
+        verify(contentFetchService).resumeFetchTaskAsync(reclaimed.getId());
+        verify(contentFetchService, never()).fetchUserContentAsync(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("同一用户被其他节点同时认领时停止本轮认领")
+    void testClaimConflictStopsRound() {
+        when(leaseService.claimNext(eq("node-a"), anyLong(), anyLong()))
+            .thenThrow(new DataIntegrityViolationException("ux_fetch_task_user_running"));
+
+        queue.dispatch();
+
+        assertEquals(0, queue.runningCount());
+        verify(leaseService, times(1)).claimNext(any(), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("心跳续约失败且任务已被取消时在本地中断")
+    void testHeartbeatCancelsTasksCancelledElsewhere() {
+        FetchTask running = task(null);
+        when(leaseService.claimNext(eq("node-a"), anyLong(), anyLong())).thenReturn(Optional.of(running), Optional.empty());
+        queue.dispatch();
+        cancellationRegistry.register(running.getId());
+
+        FetchTask cancelled = task(null);
+        cancelled.setId(running.getId());
+        cancelled.setStatus(FetchTask.TaskStatus.CANCELLED);
+        when(leaseService.renew(anyCollection(), eq("node-a"), anyLong())).thenReturn(0);
+        when(fetchTaskRepository.findAllById(Set.of(running.getId()))).thenReturn(List.of(cancelled));
+
+        queue.heartbeat();
+
+        assertTrue(cancellationRegistry.isCancelled(running.getId()));
+        cancellationRegistry.release(running.getId());
+    }
+
+    @Test
+    @DisplayName("心跳发现租约已被其他节点回收时中止本地执行，不标记为取消")
+    void testHeartbeatAbandonsTasksReclaimedElsewhere() {
+        FetchTask running = task(null);
+        when(leaseService.claimNext(eq("node-a"), anyLong(), anyLong())).thenReturn(Optional.of(running), Optional.empty());
+        queue.dispatch();
+        cancellationRegistry.register(running.getId());
+
+        FetchTask reclaimed = task(null);
+        reclaimed.setId(running.getId());
+        reclaimed.setLeaseOwner("node-b");
+        when(leaseService.renew(anyCollection(), eq("node-a"), anyLong())).thenReturn(0);
+        when(fetchTaskRepository.findAllById(Set.of(running.getId()))).thenReturn(List.of(reclaimed));
+
+        queue.heartbeat();
+
+        assertTrue(cancellationRegistry.isCancelled(running.getId()));
+        assertTrue(cancellationRegistry.isAbandoned(running.getId()));
+        cancellationRegistry.release(running.getId());
+    }
+
+    @Test
+    @DisplayName("消息模式下提交任务只发布指令，本地只认领超过宽限期的任务")
+    void testMessagingModeLeavesFreshTasksToConsumers() {
+        FetchMessagePublisher publisher = mock(FetchMessagePublisher.class);
+        queue.setMessagePublisher(publisher);
+        FetchTask fresh = task(null);
+        when(leaseService.claimNext(eq("node-a"), anyLong(), anyLong())).thenReturn(Optional.empty());
+
+        queue.submit(fresh);
+        verify(publisher).publishFetch(fresh);
+        verify(leaseService, never()).claimNext(any(), anyLong(), anyLong());
+
+        queue.dispatch();
+        verify(leaseService).claimNext("node-a", 60L, 120L);
+    }
+
+    @Test
+    @DisplayName("发布刷新指令失败时回退为本节点认领")
+    void testPublishFailureFallsBackToLocalClaim() {
+        FetchMessagePublisher publisher = mock(FetchMessagePublisher.class);
+        queue.setMessagePublisher(publisher);
+        FetchTask task = task(null);
+        doThrow(new IllegalStateException("broker down")).when(publisher).publishFetch(task);
+        when(leaseService.claimNext(eq("node-a"), anyLong(), anyLong())).thenReturn(Optional.of(task), Optional.empty());
+
+        queue.submit(task);
+
+        assertEquals(1, queue.runningCount());
+    }
+
+    private CompletableFuture<Void> pending() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        futures.add(future);
+        return future;
+    }
+
+    private static FetchTask task(LocalDateTime startedAt) {
+        TrackedUser user = new TrackedUser();
+        user.setId(UUID.randomUUID());
+        FetchTask task = new FetchTask();
+        task.setId(UUID.randomUUID());
+        task.setUser(user);
+        task.setStatus(FetchTask.TaskStatus.RUNNING);
+        task.setEndTime(LocalDateTime.now());
+        task.setStartedAt(startedAt);
+        return task;
+    }
+}
@@ -0,0 +1,121 @@
+package com.caat.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ImageRenditionCache 单元测试
+ */
+@DisplayName("派生图片磁盘缓存测试")
+class ImageRenditionCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ImageRenditionCache newCache(long maxSizeMb) {
+        ImageRenditionCache cache = new ImageRenditionCache(tempDir.toString(), maxSizeMb, new SimpleMeterRegistry());
+        cache.init();
+        return cache;
+    }
+
+    @Test
+    @DisplayName("相同源键与版本只加载、渲染一次，重启后仍命中")
+    void testHitAvoidsLoadAndRender() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        AtomicInteger renders = new AtomicInteger();
+        String url = "https://img.example.com/a.jpg";
+        ImageRenditionCache cache = newCache(10);
+
+        byte[] first = cache.getOrRender(url, "max1200-q75.jpg", () -> {
+            loads.incrementAndGet();
+            return "source-image".getBytes();
+        }, b -> {
+            renders.incrementAndGet();
+            return "rendered".getBytes();
+        });
+        byte[] second = newCache(10).getOrRender(url, "max1200-q75.jpg", () -> {
+            loads.incrementAndGet();
+            return "source-image".getBytes();
+        }, b -> {
+            renders.incrementAndGet();
+            return "other".getBytes();
+        });
+
+        assertArrayEquals("rendered".getBytes(), first);
+        assertArrayEquals("rendered".getBytes(), second);
+        assertEquals(1, loads.get());
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    @DisplayName("不同版本参数分别缓存")
+    void testVariantIsPartOfKey() throws Exception {
+        String url = "https://img.example.com/a.jpg";
+        ImageRenditionCache cache = newCache(10);
+
+        cache.getOrRender(url, "w320", () -> "source".getBytes(), b -> "small".getBytes());
+        byte[] large = cache.getOrRender(url, "w1200", () -> "source".getBytes(), b -> "large".getBytes());
+
+        assertArrayEquals("large".getBytes(), large);
+    }
+
+    @Test
+    @DisplayName("无需转换时缓存源数据，命中时不再加载源图片")
+    void testPassthroughCached() throws Exception {
+        byte[] source = "small-image".getBytes();
+        ImageRenditionCache cache = newCache(10);
+
+        assertSame(source, cache.getOrRender("k", "max1200", () -> source, b -> b));
+        byte[] again = cache.getOrRender("k", "max1200", () -> fail("不应重新加载"), b -> fail("不应重新渲染"));
+
+        assertArrayEquals(source, again);
+    }
+
+    @Test
+    @DisplayName("渲染失败返回源数据且不缓存，下次重新尝试")
+    void testFailureNotCached() throws Exception {
+        byte[] source = "broken-image".getBytes();
+        AtomicInteger renders = new AtomicInteger();
+        ImageRenditionCache cache = newCache(10);
+
+        assertSame(source, cache.getOrRender("k", "v", () -> source, b -> {
+            renders.incrementAndGet();
+            return null;
+        }));
+        assertArrayEquals("fixed".getBytes(), cache.getOrRender("k", "v", () -> source, b -> {
+            renders.incrementAndGet();
+            return "fixed".getBytes();
+        }));
+
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    @DisplayName("源图片不可用时返回 null 且不缓存")
+    void testMissingSource() throws Exception {
+        ImageRenditionCache cache = newCache(10);
+
+        assertNull(cache.getOrRender("k", "v", () -> null, b -> fail("不应渲染")));
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+    @Test
+    @DisplayName("超出配额时淘汰条目直至低于配额")
+    void testEvictsWhenOverQuota() throws Exception {
+        ImageRenditionCache cache = newCache(1);
+        byte[] chunk = new byte[400 * 1024];
+        for (int i = 0; i < 4; i++) {
+            cache.getOrRender("source-" + i, "v", () -> new byte[1], b -> chunk);
+        }
+
+        assertTrue(cache.getTotalBytes() <= 1024 * 1024);
+        assertTrue(cache.getTotalBytes() > 0);
+    }
+}
@@ -0,0 +1,116 @@
+package com.caat.service;
+
+import com.caat.cache.CacheInvalidationPublisher;
+import com.caat.entity.Role;
+import com.caat.entity.User;
+import com.caat.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * PermissionService 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("权限检查服务测试")
+class PermissionServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CacheInvalidationPublisher publisher;
+
+    private PermissionService permissionService;
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        permissionService = new PermissionService(userRepository, publisher, 100, Duration.ofMinutes(5));
+    }
+
+    private void givenUserWithRoles(Role... roles) {
+        User user = new User();
+        user.setId(userId);
+        user.setRoles(new ArrayList<>(List.of(roles)));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+    }
+
+    private static Role role(String name, String... permissions) {
+        Role role = new Role();
+        role.setName(name);
+        role.setPermissions(new ArrayList<>(List.of(permissions)));
+        return role;
+    }
+
+    @Test
+    @DisplayName("按角色权限检查，多次检查只查询一次用户")
+    void testPermissionsCached() {
+        givenUserWithRoles(role("EDITOR", "content:read", "content:write"), role("VIEWER", "stats:read"));
+
+        assertTrue(permissionService.hasPermission(userId, "content:write"));
+        assertTrue(permissionService.hasPermission(userId, "stats:read"));
+        assertFalse(permissionService.hasPermission(userId, "user:delete"));
+        assertFalse(permissionService.hasPermission(userId, "never-seen"));
+        assertTrue(permissionService.hasAnyPermission(userId, "user:delete", "content:read"));
+        assertFalse(permissionService.hasAllPermissions(userId, "content:read", "user:delete"));
+        assertTrue(permissionService.hasRole(userId, "EDITOR"));
+        assertFalse(permissionService.hasRole(userId, "ADMIN"));
+        assertEquals(Set.of("content:read", "content:write", "stats:read"), permissionService.getUserPermissions(userId));
+
+        verify(userRepository, times(1)).findById(userId);
+    }
+
+    @Test
+    @DisplayName("ADMIN 角色与 * 权限拥有所有权限")
+    void testAdminAndWildcard() {
+        givenUserWithRoles(role("ADMIN"));
+        assertTrue(permissionService.hasPermission(userId, "any:permission"));
+
+        UUID other = UUID.randomUUID();
+        User wildcard = new User();
+        wildcard.setId(other);
+        wildcard.setRoles(new ArrayList<>(List.of(role("OPS", "*"))));
+        when(userRepository.findById(other)).thenReturn(Optional.of(wildcard));
+        assertTrue(permissionService.hasAllPermissions(other, "a", "b"));
+        assertFalse(permissionService.hasRole(other, "ADMIN"));
+    }
+
+    @Test
+    @DisplayName("失效后重新计算权限并广播到其他节点")
+    void testEvict() {
+        givenUserWithRoles(role("VIEWER", "stats:read"));
+        permissionService.hasPermission(userId, "stats:read");
+
+        permissionService.evictUserAfterCommit(userId);
+        permissionService.hasPermission(userId, "stats:read");
+        permissionService.evictAllAfterCommit();
+        permissionService.hasPermission(userId, "stats:read");
+
+        verify(userRepository, times(3)).findById(userId);
+        verify(publisher).publishEvict(PermissionService.CACHE_NAME, userId.toString());
+        verify(publisher).publishClear(PermissionService.CACHE_NAME);
+    }
+
+    @Test
+    @DisplayName("用户不存在时抛出异常")
+    void testUserNotFound() {
+        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        assertThrows(IllegalArgumentException.class, () -> permissionService.hasPermission(userId, "x"));
+    }
+}
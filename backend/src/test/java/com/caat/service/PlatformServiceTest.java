@@ -41,6 +41,9 @@ class PlatformServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private PlatformConfigCache platformConfigCache;
+
     @InjectMocks
     private PlatformService platformService;
 
@@ -0,0 +1,117 @@
+package com.caat.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TaskProgressBus 单元测试
+ */
+@DisplayName("任务进度总线测试")
+class TaskProgressBusTest {
+
+    private TaskProgressBus bus;
+    private final List<TaskProgressBus.ProgressEvent> persisted = new ArrayList<>();
+    private final List<List<String>> terminal = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        bus = new TaskProgressBus(10, 60_000, Runnable::run, 64, 10_000);
+    }
+
+    @Test
+    @DisplayName("多次进度更新在一次刷写中合并写库，无变化时不写")
+    void testCoalescedFlush() {
+        UUID taskId = UUID.randomUUID();
+        bus.track(taskId, TaskProgressBus.KIND_EXPORT, List.of("任务已开始执行..."), persisted::add);
+
+        bus.flush();
+        assertTrue(persisted.isEmpty());
+
+        for (int i = 1; i <= 5; i++) {
+            bus.update(taskId, i * 10, null, null, "第 " + i + " 批");
+        }
+        bus.flush();
+        bus.flush();
+
+        assertEquals(1, persisted.size());
+        assertEquals(50, persisted.get(0).progress());
+        assertEquals(6, persisted.get(0).logs().size());
+    }
+
+    @Test
+    @DisplayName("日志超过上限时丢弃最早的并注明省略条数")
+    void testBoundedLogs() {
+        UUID taskId = UUID.randomUUID();
+        bus.track(taskId, TaskProgressBus.KIND_EXPORT, null, persisted::add);
+        for (int i = 1; i <= 15; i++) {
+            bus.update(taskId, i, null, null, "line-" + i);
+        }
+
+        assertTrue(bus.complete(taskId, "COMPLETED", 100, "导出完成", terminal::add));
+
+        List<String> logs = terminal.get(0);
+        assertEquals(11, logs.size());
+        assertEquals("（已省略较早的 6 条日志）", logs.get(0));
+        assertEquals("line-7", logs.get(1));
+        assertEquals("导出完成", logs.get(10));
+    }
+
+    @Test
+    @DisplayName("结束后停止跟踪，后续更新与刷写不再写库")
+    void testCompleteStopsTracking() {
+        UUID taskId = UUID.randomUUID();
+        bus.track(taskId, TaskProgressBus.KIND_FETCH, null, persisted::add);
+        bus.update(taskId, 99, 20, 20, null);
+
+        assertTrue(bus.complete(taskId, "COMPLETED", 100, null, terminal::add));
+        assertFalse(bus.isTracked(taskId));
+        bus.update(taskId, 50, 1, 1, null);
+        bus.flush();
+
+        assertTrue(persisted.isEmpty());
+        assertFalse(bus.complete(taskId, "COMPLETED", 100, null, terminal::add));
+        assertEquals(1, terminal.size());
+    }
+
+    @Test
+    @DisplayName("任务结束时关闭该任务的订阅")
+    void testSubscribersReleasedOnComplete() {
+        UUID taskId = UUID.randomUUID();
+        bus.track(taskId, TaskProgressBus.KIND_EXPORT, null, persisted::add);
+        bus.subscribe(taskId);
+        bus.subscribeKind(TaskProgressBus.KIND_EXPORT);
+        assertEquals(2, bus.subscriberCount());
+
+        bus.complete(taskId, "FAILED", null, "导出失败", terminal::add);
+
+        assertEquals(1, bus.subscriberCount());
+    }
+
+    @Test
+    @DisplayName("推送在独立线程执行，订阅方积压超过上限时关闭该订阅")
+    void testSlowSubscriberDoesNotBlockAndIsDropped() {
+        List<Runnable> pendingSends = new ArrayList<>();
+        TaskProgressBus asyncBus = new TaskProgressBus(10, 60_000, pendingSends::add, 4, 10_000);
+        UUID taskId = UUID.randomUUID();
+        asyncBus.track(taskId, TaskProgressBus.KIND_EXPORT, null, persisted::add);
+        asyncBus.subscribe(taskId);
+
+        // 推送线程未执行发送时，任务线程的更新立即返回（快照 + 3 条进度在队列中）
+        for (int i = 1; i <= 3; i++) {
+            asyncBus.update(taskId, i, null, null, "line-" + i);
+        }
+        assertEquals(1, pendingSends.size());
+        assertEquals(1, asyncBus.subscriberCount());
+
+        asyncBus.update(taskId, 4, null, null, "line-4");
+
+        assertEquals(0, asyncBus.subscriberCount());
+    }
+}
@@ -0,0 +1,165 @@
+package com.caat.service;
+
+import com.caat.repository.ContentRepository;
+import com.caat.storage.LocalBlobStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * UploadGarbageCollector 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("上传文件孤儿回收测试")
+class UploadGarbageCollectorTest {
+
+    @TempDir
+    Path uploadDir;
+
+    @Mock
+    private ContentRepository contentRepository;
+
+    private LocalBlobStore blobStore;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new LocalBlobStore(uploadDir);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private UploadGarbageCollector newCollector(boolean dryRun, int pageSize) {
+        return new UploadGarbageCollector(contentRepository, blobStore, meterRegistry, true, dryRun, 24, pageSize, 1000);
+    }
+
+    private void putFile(String key, int size, Duration age) throws IOException {
+        blobStore.put(key, new byte[size], null);
+        Files.setLastModifiedTime(uploadDir.resolve(key), FileTime.from(Instant.now().minus(age)));
+    }
+
+    private static Object[] row(Object... values) {
+        return values;
+    }
+
+    @Test
+    @DisplayName("删除早于宽限期且未被引用的文件，保留图片链接、正文与元数据引用的文件及新文件")
+    void testDeletesOnlyOldOrphans() throws IOException {
+        UUID id = UUID.randomUUID();
+        putFile("contents/images/media.jpg", 10, Duration.ofDays(3));
+        putFile("contents/images/body.png", 10, Duration.ofDays(3));
+        putFile("contents/files/attachment.pdf", 10, Duration.ofDays(3));
+        putFile("contents/images/orphan.jpg", 100, Duration.ofDays(3));
+        putFile("contents/images/fresh.jpg", 10, Duration.ofHours(1));
+        putFile("users/avatar.png", 10, Duration.ofDays(3));
+        when(contentRepository.findMediaUrlPage(any(), anyString(), anyInt()))
+            .thenReturn(List.<Object[]>of(row(id, "/api/v1/uploads/contents/images/media.jpg")));
+        when(contentRepository.findUploadReferencePage(any(), anyInt()))
+            .thenReturn(List.<Object[]>of(row(id,
+                "<p>见图。<img src=\"http://host/api/v1/uploads/contents/images/body.png\"></p>",
+                "{\"downloaded_file_urls\": [\"/api/v1/uploads/contents/files/attachment.pdf\"]}")));
+
+        UploadGarbageCollector.GcResult result = newCollector(false, 500).collect();
+
+        assertEquals(5, result.scanned());
+        assertEquals(1, result.orphans());
+        assertEquals(1, result.skippedRecent());
+        assertEquals(1, result.deleted());
+        assertEquals(100, result.reclaimedBytes());
+        assertFalse(Files.exists(uploadDir.resolve("contents/images/orphan.jpg")));
+        assertTrue(Files.exists(uploadDir.resolve("contents/images/media.jpg")));
+        assertTrue(Files.exists(uploadDir.resolve("contents/images/body.png")));
+        assertTrue(Files.exists(uploadDir.resolve("contents/files/attachment.pdf")));
+        assertTrue(Files.exists(uploadDir.resolve("contents/images/fresh.jpg")));
+        assertTrue(Files.exists(uploadDir.resolve("users/avatar.png")));
+        assertEquals(100, meterRegistry.get("uploads.gc.reclaimed.bytes").counter().count());
+    }
+
+    @Test
+    @DisplayName("试运行只统计不删除")
+    void testDryRunKeepsFiles() throws IOException {
+        putFile("contents/images/orphan.jpg", 10, Duration.ofDays(3));
+        when(contentRepository.findMediaUrlPage(any(), anyString(), anyInt()))
+            .thenReturn(List.<Object[]>of(row(UUID.randomUUID(), "/api/v1/uploads/contents/images/other.jpg")));
+        when(contentRepository.findUploadReferencePage(any(), anyInt())).thenReturn(List.of());
+
+        UploadGarbageCollector.GcResult result = newCollector(true, 500).collect();
+
+        assertEquals(1, result.orphans());
+        assertEquals(0, result.deleted());
+        assertTrue(Files.exists(uploadDir.resolve("contents/images/orphan.jpg")));
+        assertEquals(1.0, meterRegistry.get("uploads.gc.orphans").gauge().value());
+    }
+
+    @Test
+    @DisplayName("库中没有任何引用时不删除文件")
+    void testNoReferencesSkipsRun() throws IOException {
+        putFile("contents/images/a.jpg", 10, Duration.ofDays(3));
+        when(contentRepository.findMediaUrlPage(any(), anyString(), anyInt())).thenReturn(List.of());
+        when(contentRepository.findUploadReferencePage(any(), anyInt())).thenReturn(List.of());
+
+        UploadGarbageCollector.GcResult result = newCollector(false, 500).collect();
+
+        assertEquals(0, result.deleted());
+        assertTrue(Files.exists(uploadDir.resolve("contents/images/a.jpg")));
+    }
+
+    @Test
+    @DisplayName("按键集分页扫描引用，下一页从上一页最后一行之后开始")
+    void testKeysetPaging() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        List<Object[]> fullPage = new ArrayList<>();
+        fullPage.add(row(first, "contents/images/1.jpg"));
+        fullPage.add(row(second, "contents/images/2.jpg"));
+        when(contentRepository.findMediaUrlPage(any(), anyString(), eq(2))).thenReturn(fullPage);
+        when(contentRepository.findMediaUrlPage(eq(second), eq("contents/images/2.jpg"), eq(2)))
+            .thenReturn(List.<Object[]>of(row(second, "contents/images/3.jpg")));
+        when(contentRepository.findUploadReferencePage(any(), eq(2))).thenReturn(List.of());
+
+        UploadGarbageCollector.ReferenceSet references = newCollector(false, 2).collectReferences();
+
+        assertEquals(3, references.size());
+        assertTrue(references.contains("contents/images/3.jpg"));
+        assertFalse(references.contains("contents/images/4.jpg"));
+        verify(contentRepository).findMediaUrlPage(eq(second), eq("contents/images/2.jpg"), eq(2));
+    }
+
+    @Test
+    @DisplayName("引用集合扩容后仍能查到全部键")
+    void testReferenceSetGrows() {
+        UploadGarbageCollector.ReferenceSet references = new UploadGarbageCollector.ReferenceSet();
+        for (int i = 0; i < 10000; i++) {
+            references.add("contents/images/" + i + ".jpg");
+        }
+        references.add("contents/images/0.jpg");
+
+        assertEquals(10000, references.size());
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(references.contains("contents/images/" + i + ".jpg"));
+        }
+        assertFalse(references.contains("contents/images/10000.jpg"));
+    }
+}
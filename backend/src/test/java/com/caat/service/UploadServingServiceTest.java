@@ -0,0 +1,114 @@
+package com.caat.service;
+
+import com.caat.storage.LocalBlobStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UploadServingService 单元测试
+ */
+@DisplayName("上传图片缩略图测试")
+class UploadServingServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private LocalBlobStore blobStore;
+    private ImageRenditionCache renditionCache;
+    private final AtomicInteger submitted = new AtomicInteger();
+    private final Executor countingExecutor = task -> {
+        submitted.incrementAndGet();
+        task.run();
+    };
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new LocalBlobStore(tempDir.resolve("uploads"));
+        renditionCache = new ImageRenditionCache(tempDir.resolve("cache").toString(), 10, new SimpleMeterRegistry());
+        renditionCache.init();
+    }
+
+    private UploadServingService newService(Executor executor) {
+        return new UploadServingService(blobStore, renditionCache, executor, 20, 10);
+    }
+
+    @Test
+    @DisplayName("请求宽度向上取整到档位，超过最大档位返回原图")
+    void testSnapWidth() {
+        assertEquals(64, UploadServingService.snapWidth(40));
+        assertEquals(320, UploadServingService.snapWidth(300));
+        assertEquals(320, UploadServingService.snapWidth(320));
+        assertEquals(0, UploadServingService.snapWidth(2000));
+        assertEquals(0, UploadServingService.snapWidth(0));
+    }
+
+    @Test
+    @DisplayName("大图按档位缩放，生成一次后命中磁盘缓存")
+    void testThumbnailGeneratedOnce() throws IOException {
+        blobStore.put("contents/images/a.png", png(1000, 500), "image/png");
+        UploadServingService service = newService(countingExecutor);
+
+        Optional<Path> first = service.thumbnail("contents/images/a.png", 300);
+        Optional<Path> second = service.thumbnail("contents/images/a.png", 310);
+
+        assertTrue(first.isPresent());
+        assertEquals(first, second);
+        assertEquals(1, submitted.get());
+        BufferedImage thumb = ImageIO.read(first.get().toFile());
+        assertEquals(320, thumb.getWidth());
+        assertEquals(160, thumb.getHeight());
+    }
+
+    @Test
+    @DisplayName("原图不大于目标宽度时返回原图，且不重复尝试")
+    void testSmallImagePassthrough() throws IOException {
+        blobStore.put("users/small.png", png(100, 100), "image/png");
+        UploadServingService service = newService(countingExecutor);
+
+        assertTrue(service.thumbnail("users/small.png", 320).isEmpty());
+        assertTrue(service.thumbnail("users/small.png", 320).isEmpty());
+        assertEquals(1, submitted.get());
+    }
+
+    @Test
+    @DisplayName("GIF 等不缩放格式直接返回原图，不占用生成线程")
+    void testUnsupportedFormatSkipped() throws IOException {
+        blobStore.put("users/anim.gif", new byte[]{1, 2, 3}, "image/gif");
+        UploadServingService service = newService(countingExecutor);
+
+        assertTrue(service.thumbnail("users/anim.gif", 64).isEmpty());
+        assertEquals(0, submitted.get());
+    }
+
+    @Test
+    @DisplayName("生成队列已满时返回原图")
+    void testRejectedFallsBackToOriginal() throws IOException {
+        blobStore.put("contents/images/b.png", png(1000, 500), "image/png");
+        UploadServingService service = newService(task -> {
+            throw new RejectedExecutionException("full");
+        });
+
+        assertTrue(service.thumbnail("contents/images/b.png", 320).isEmpty());
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -2,7 +2,7 @@ import { useEffect, useState } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
 import { Card, Descriptions, Space, Button, Tag, message, Spin, Form, Input, Image, Modal } from 'antd';
 import { ArrowLeftOutlined, LinkOutlined, StarOutlined, StarFilled, EyeOutlined, ReloadOutlined, LeftOutlined, RightOutlined, DeleteOutlined } from '@ant-design/icons';
-import { contentApi, getApiErrorMessage, getPlatformAvatarSrc, getContentImageSrc, getContentAttachmentUrl } from '../services/api';
+import { contentApi, getApiErrorMessage, getPlatformAvatarSrc, getContentImageSrc, getContentAttachmentUrl, getThumbnailSrc } from '../services/api';
 import MainLayout from '../components/Layout/MainLayout';
 import { getContentOriginalUrl, parseContentMetadata } from '../utils/contentUtils';
 
@@ -362,7 +362,8 @@ function ContentDetail() {
                     {content.mediaUrls.map((src, i) => (
                       <Image
                         key={i}
-                        src={getContentImageSrc(src) || src}
+                        src={getThumbnailSrc(src, 200) || src}
+                        preview={{ src: getContentImageSrc(src) || src }}
                         alt=""
                         width={200}
                         height={200}
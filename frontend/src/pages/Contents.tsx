@@ -15,6 +15,7 @@ import {
   Avatar,
   Tooltip,
   Modal,
+  Popconfirm,
 } from 'antd';
 import {
   EyeOutlined,
@@ -27,8 +28,9 @@ import {
   AppstoreOutlined,
   RightOutlined,
   FileTextOutlined,
+  CheckOutlined,
 } from '@ant-design/icons';
-import { contentApi, platformApi, userApi, getApiErrorMessage, getAvatarSrc } from '../services/api';
+import { contentApi, platformApi, userApi, getApiErrorMessage, getThumbnailSrc, ContentDeleteTask } from '../services/api';
 import MainLayout from '../components/Layout/MainLayout';
 import { useNavigate } from 'react-router-dom';
 import SearchBar from '../components/Search/SearchBar';
@@ -383,6 +385,24 @@ function Contents() {
     }
   };
 
+  /** 将当前筛选（平台、作者）下的内容全部标为已读，不选筛选时为全部内容 */
+  const handleMarkAllRead = async () => {
+    try {
+      const response: any = await contentApi.batchUpdate({
+        platformId: filters.platformId,
+        userId: filters.userId,
+        isRead: true,
+      });
+      if (response.code === 200) {
+        message.success(`已标记 ${response.data?.readUpdated ?? 0} 条为已读`);
+        if (viewMode === 'timeline') loadGroupedCounts();
+        else loadContents(pagination.current, pagination.pageSize);
+      }
+    } catch (error) {
+      message.error(getApiErrorMessage(error, '操作失败'));
+    }
+  };
+
   const openDeleteByAuthorModal = () => {
     setDeleteByAuthorModalVisible(true);
     setDeleteByAuthorUserId(null);
@@ -417,23 +437,41 @@ function Contents() {
   const handleDeleteByAuthorConfirm = async () => {
     if (!deleteByAuthorUserId || deleteByAuthorConfirmText !== '删除') return;
     setDeleteByAuthorLoading(true);
+    const progressKey = 'delete-by-author';
     try {
       const response: any = await contentApi.deleteContentsByAuthor(deleteByAuthorUserId);
-      if (response.code === 200) {
-        const deleted = response.data ?? 0;
-        message.success(`已删除该作者 ${deleted} 篇文章`);
-        setDeleteByAuthorModalVisible(false);
-        if (viewMode === 'timeline') {
-          setMonthContentsMap({});
-          setExpandedMonthKey(null);
-          setExpandedYearKey(null);
-          loadGroupedCounts();
-        } else {
-          loadContents(1, pagination.pageSize);
-        }
+      if (response.code !== 200 || !response.data?.id) return;
+      setDeleteByAuthorModalVisible(false);
+      // 后台分批删除，轮询任务进度直至结束
+      let task: ContentDeleteTask = response.data;
+      while (task.status === 'PENDING' || task.status === 'RUNNING') {
+        message.loading({
+          key: progressKey,
+          content: `正在删除：${task.deletedCount}${task.totalCount != null ? ` / ${task.totalCount}` : ''} 篇`,
+          duration: 0,
+        });
+        await new Promise((resolve) => setTimeout(resolve, 1000));
+        const res: any = await contentApi.getDeleteTask(task.id);
+        if (res.code !== 200 || !res.data) break;
+        task = res.data;
+      }
+      if (task.status === 'COMPLETED') {
+        message.success({ key: progressKey, content: `已删除该作者 ${task.deletedCount} 篇文章（${task.filesDeleted} 个图片/附件）` });
+      } else if (task.status === 'FAILED') {
+        message.error({ key: progressKey, content: `删除中断：已删除 ${task.deletedCount} 篇，${task.errorMessage ?? ''}` });
+      } else {
+        message.destroy(progressKey);
+      }
+      if (viewMode === 'timeline') {
+        setMonthContentsMap({});
+        setExpandedMonthKey(null);
+        setExpandedYearKey(null);
+        loadGroupedCounts();
+      } else {
+        loadContents(1, pagination.pageSize);
       }
     } catch (error) {
-      message.error(getApiErrorMessage(error, '删除失败'));
+      message.error({ key: progressKey, content: getApiErrorMessage(error, '删除失败') });
     } finally {
       setDeleteByAuthorLoading(false);
     }
@@ -491,7 +529,7 @@ function Contents() {
             <div className="content-timeline-card__meta">
               <Tag className="content-timeline-card__platform">{record.platform?.name ?? '-'}</Tag>
               <Space size="small" className="content-timeline-card__author">
-                {record.user?.avatarUrl && <Avatar src={getAvatarSrc(record.user.avatarUrl)} size={22} />}
+                {record.user?.avatarUrl && <Avatar src={getThumbnailSrc(record.user.avatarUrl, 22)} size={22} />}
                 <Text type="secondary" className="content-timeline-card__author-name">
                   {nickName ?? record.user?.username ?? '-'}
                 </Text>
@@ -574,7 +612,7 @@ function Contents() {
         if (!nickName && !record.user?.avatarUrl) return <Text type="secondary">-</Text>;
         return (
           <Space size="small">
-            {record.user?.avatarUrl && <Avatar src={getAvatarSrc(record.user.avatarUrl)} size={24} />}
+            {record.user?.avatarUrl && <Avatar src={getThumbnailSrc(record.user.avatarUrl, 24)} size={24} />}
             <span style={{ fontSize: 13 }}>{nickName ?? '-'}</span>
           </Space>
         );
@@ -679,6 +717,12 @@ function Contents() {
                 <Button icon={<FilterOutlined />} onClick={() => setAdvancedSearchVisible(true)} className="contents-page__filter-btn">
                   高级搜索
                 </Button>
+                <Popconfirm
+                  title={filters.platformId || filters.userId ? '将当前筛选下的内容全部标为已读？' : '将全部内容标为已读？'}
+                  onConfirm={handleMarkAllRead}
+                >
+                  <Button icon={<CheckOutlined />}>全部标为已读</Button>
+                </Popconfirm>
                 <Button danger icon={<DeleteOutlined />} onClick={openDeleteByAuthorModal}>
                   删除指定作者文章
                 </Button>
@@ -12,7 +12,7 @@ import {
   DownOutlined,
   UpOutlined,
 } from '@ant-design/icons';
-import { contentApi, userApi, platformApi, getApiErrorMessage, getPlatformAvatarSrc } from '../services/api';
+import { contentApi, userApi, platformApi, getApiErrorMessage, getThumbnailSrc } from '../services/api';
 import { getContentOriginalUrl, parseContentMetadata } from '../utils/contentUtils';
 import MainLayout from '../components/Layout/MainLayout';
 import { useNavigate } from 'react-router-dom';
@@ -33,7 +33,7 @@ function AuthorColumn({
     <>
       <div className="dashboard-author-column__head">
         {col.authorAvatar ? (
-          <Avatar src={getPlatformAvatarSrc(col.authorAvatar) || col.authorAvatar} size={40} className="dashboard-author-column__avatar" />
+          <Avatar src={getThumbnailSrc(col.authorAvatar, 40) || col.authorAvatar} size={40} className="dashboard-author-column__avatar" />
         ) : (
           <Avatar size={40} icon={<UserOutlined />} className="dashboard-author-column__avatar dashboard-author-column__avatar--default" />
         )}
@@ -1,19 +1,31 @@
 import { useState, useEffect, useRef } from 'react';
-import { Card, Select, Button, Space, message, Progress, List, Modal, Table, Tag, Tooltip, Popconfirm } from 'antd';
-import { DownloadOutlined, ReloadOutlined, EyeOutlined, DeleteOutlined } from '@ant-design/icons';
-import { userApi, getToken, exportApi, getApiErrorMessage } from '../services/api';
+import { Card, Select, Button, Space, message, Progress, List, Modal, Table, Tag, Tooltip, Popconfirm, Checkbox } from 'antd';
+import { DownloadOutlined, ReloadOutlined, EyeOutlined, DeleteOutlined, StopOutlined, MergeCellsOutlined } from '@ant-design/icons';
+import { userApi, getToken, exportApi, getApiErrorMessage, TaskProgressEvent } from '../services/api';
 import MainLayout from '../components/Layout/MainLayout';
 
-const POLL_INTERVAL = 60000; // 60秒刷新一次，降低服务器压力
+const POLL_INTERVAL = 60000; // 进度经 SSE 实时推送；轮询仅作兜底（排队中、其他节点执行的任务）
 const TERMINAL_STATUSES = ['COMPLETED', 'FAILED', 'CANCELLED'];
 
+function parseLogs(logMessages: string | undefined): string[] {
+  if (!logMessages) return [];
+  try {
+    const arr = JSON.parse(logMessages);
+    return Array.isArray(arr) ? arr : [];
+  } catch {
+    return [];
+  }
+}
+
 function Export() {
   const [users, setUsers] = useState<any[]>([]);
   const [userId, setUserId] = useState<string | undefined>(undefined);
   const [sortOrder, setSortOrder] = useState<'ASC' | 'DESC'>('DESC');
+  const [incremental, setIncremental] = useState(false);
   const [loading, setLoading] = useState<string | null>(null);
   const [exportTask, setExportTask] = useState<any | null>(null);
   const pollRef = useRef<ReturnType<typeof setInterval> | null>(null);
+  const eventsRef = useRef<(() => void) | null>(null);
   const [taskList, setTaskList] = useState<any[]>([]);
   const [taskListLoading, setTaskListLoading] = useState(false);
   const [taskListPagination, setTaskListPagination] = useState({ current: 1, pageSize: 10, total: 0 });
@@ -73,8 +85,7 @@ function Export() {
     setExportTask(task);
     // 如果任务还在运行中，开始轮询
     if (task.status === 'PENDING' || task.status === 'RUNNING') {
-      pollTask(task.id);
-      pollRef.current = setInterval(() => pollTask(task.id), POLL_INTERVAL);
+      watchTask(task.id);
     }
   };
 
@@ -83,6 +94,37 @@ function Export() {
       clearInterval(pollRef.current);
       pollRef.current = null;
     }
+    if (eventsRef.current) {
+      eventsRef.current();
+      eventsRef.current = null;
+    }
+  };
+
+  /** 推送事件只带新增的一行日志，快照与结束事件带完整日志 */
+  const applyProgressEvent = (name: string, ev: TaskProgressEvent) => {
+    setExportTask((prev: any) => {
+      if (!prev || prev.id !== ev.taskId) return prev;
+      let logs: string[] | undefined = ev.logs;
+      if (!logs && ev.log) {
+        logs = [...parseLogs(prev.logMessages), ev.log];
+      }
+      return {
+        ...prev,
+        status: ev.status,
+        progress: ev.progress,
+        ...(logs ? { logMessages: JSON.stringify(logs) } : {}),
+      };
+    });
+    // 结束事件在终态提交之后发出，此时拉取详情即可拿到文件大小等信息
+    if (name === 'done') pollTask(ev.taskId);
+  };
+
+  /** 订阅进度推送，并保留低频轮询兜底 */
+  const watchTask = (taskId: string) => {
+    stopPolling();
+    pollTask(taskId);
+    pollRef.current = setInterval(() => pollTask(taskId), POLL_INTERVAL);
+    eventsRef.current = exportApi.subscribeTask(taskId, applyProgressEvent);
   };
 
   const pollTask = async (taskId: string) => {
@@ -103,6 +145,7 @@ function Export() {
           }, 500);
           if (res.data.status === 'COMPLETED') message.success('导出完成');
           if (res.data.status === 'FAILED') message.error(res.data.errorMessage || '导出失败');
+          if (res.data.status === 'CANCELLED') message.info('导出已取消');
         }
       }
     } catch (e) {
@@ -112,7 +155,7 @@ function Export() {
     }
   };
 
-  const handleDownload = async (format: 'json' | 'markdown' | 'csv' | 'html' | 'pdf' | 'word') => {
+  const handleDownload = async (format: 'json' | 'markdown' | 'csv' | 'html' | 'zip' | 'pdf' | 'word') => {
     if (format === 'pdf' || format === 'word') {
       if (!userId) {
         message.warning('PDF/Word 导出需先选择用户');
@@ -129,6 +172,7 @@ function Export() {
           format: fmt,
           userId,
           sortOrder,
+          incremental,
         });
         console.log('createAsync 响应:', res);
         if (res?.code === 200 && res.data?.id) {
@@ -138,8 +182,7 @@ function Export() {
           setExportTask(res.data);
           console.log('已设置 exportTask，开始轮询...');
           // 立即开始第一次轮询，然后设置定时轮询
-          pollTask(res.data.id);
-          pollRef.current = setInterval(() => pollTask(res.data.id), POLL_INTERVAL);
+          watchTask(res.data.id);
           console.log('轮询已启动');
           // 刷新任务列表
           loadTaskList(1, 10);
@@ -174,8 +217,7 @@ function Export() {
               if (recentTask) {
                 console.log('找到最近创建的任务:', recentTask);
                 setExportTask(recentTask);
-                pollTask(recentTask.id);
-                pollRef.current = setInterval(() => pollTask(recentTask.id), POLL_INTERVAL);
+                watchTask(recentTask.id);
                 message.warning('请求超时，但已找到最近创建的任务，正在显示进度...', 3);
                 // 刷新任务列表
                 loadTaskList(1, 10);
@@ -201,12 +243,13 @@ function Export() {
       return;
     }
 
-    // 同步下载：JSON/Markdown/CSV/HTML
+    // 同步下载：JSON/Markdown/CSV/HTML/ZIP
     let url: string;
     let filename: string;
     url = format === 'json' ? exportApi.getJsonUrl({ userId })
       : format === 'markdown' ? exportApi.getMarkdownUrl({ userId })
       : format === 'csv' ? exportApi.getCsvUrl({ userId })
+      : format === 'zip' ? exportApi.getZipUrl({ userId })
       : exportApi.getHtmlUrl({ userId });
     filename = `export.${format === 'json' ? 'json' : format === 'markdown' ? 'md' : format}`;
     setLoading(format);
@@ -261,6 +304,32 @@ function Export() {
     setLoading(null); // 关闭弹窗时清除 loading 状态
   };
 
+  const handleCompactTask = async (taskId: string) => {
+    try {
+      const res: any = await exportApi.compactTask(taskId);
+      if (res?.code === 200 && res.data?.id) {
+        message.success('合并任务已创建');
+        handleViewTask(res.data);
+        loadTaskList(1, taskListPagination.pageSize);
+      }
+    } catch (e) {
+      message.error(getApiErrorMessage(e, '创建合并任务失败'));
+    }
+  };
+
+  const handleCancelTask = async (taskId: string) => {
+    try {
+      await exportApi.cancelTask(taskId);
+      message.success('已请求取消导出任务');
+      if (exportTask?.id === taskId) {
+        pollTask(taskId);
+      }
+      loadTaskList(taskListPagination.current, taskListPagination.pageSize);
+    } catch (e) {
+      message.error(getApiErrorMessage(e, '取消导出任务失败'));
+    }
+  };
+
   const handleDeleteTask = async (taskId: string) => {
     setDeletingTaskId(taskId);
     try {
@@ -329,15 +398,7 @@ function Export() {
 
   useEffect(() => () => stopPolling(), []);
 
-  const logMessages: string[] = (() => {
-    if (!exportTask?.logMessages) return [];
-    try {
-      const arr = JSON.parse(exportTask.logMessages);
-      return Array.isArray(arr) ? arr : [];
-    } catch {
-      return [];
-    }
-  })();
+  const logMessages: string[] = parseLogs(exportTask?.logMessages);
 
   return (
     <MainLayout>
@@ -373,6 +434,9 @@ function Export() {
                 ]}
               />
             </Space>
+            <Checkbox checked={incremental} onChange={(e) => setIncremental(e.target.checked)}>
+              增量导出（PDF/Word 生效）：只导出上次导出以来新增或更新的文章，生成新的一卷并链接上一卷
+            </Checkbox>
           </Space>
         </Card>
         <Card title="导出格式">
@@ -381,6 +445,7 @@ function Export() {
             <Button icon={<DownloadOutlined />} loading={loading === 'markdown'} onClick={() => handleDownload('markdown')}>Markdown</Button>
             <Button icon={<DownloadOutlined />} loading={loading === 'csv'} onClick={() => handleDownload('csv')}>CSV</Button>
             <Button icon={<DownloadOutlined />} loading={loading === 'html'} onClick={() => handleDownload('html')}>HTML</Button>
+            <Button icon={<DownloadOutlined />} loading={loading === 'zip'} onClick={() => handleDownload('zip')}>ZIP（Markdown+附件）</Button>
             <Button icon={<DownloadOutlined />} loading={loading === 'pdf'} onClick={() => handleDownload('pdf')}>PDF</Button>
             <Button icon={<DownloadOutlined />} loading={loading === 'word'} onClick={() => handleDownload('word')}>Word</Button>
           </Space>
@@ -396,8 +461,13 @@ function Export() {
                 下载文件
               </Button>
             ) : null,
+            exportTask?.status === 'PENDING' || exportTask?.status === 'RUNNING' ? (
+              <Button key="cancel-task" danger icon={<StopOutlined />} onClick={() => handleCancelTask(exportTask.id)}>
+                取消导出
+              </Button>
+            ) : null,
             <Button key="close" onClick={closeExportModal}>
-              {exportTask?.status === 'COMPLETED' || exportTask?.status === 'FAILED' ? '关闭' : '取消'}
+              {exportTask?.status === 'PENDING' || exportTask?.status === 'RUNNING' ? '后台运行' : '关闭'}
             </Button>,
           ].filter(Boolean)}
           width={520}
@@ -414,7 +484,7 @@ function Export() {
               }
               format={(percent) => {
                 if (exportTask?.status === 'PENDING') {
-                  return '准备中...';
+                  return exportTask?.queuePosition ? `排队中（第${exportTask.queuePosition}位）` : '排队中...';
                 }
                 return `${percent ?? 0}%`;
               }}
@@ -515,24 +585,32 @@ function Export() {
                 title: '格式',
                 dataIndex: 'exportFormat',
                 key: 'exportFormat',
-                width: 100,
-                render: (format: string) => (
-                  <Tag color={format === 'PDF' ? 'red' : format === 'WORD' ? 'blue' : 'default'}>
-                    {format}
-                  </Tag>
+                width: 160,
+                render: (format: string, record: any) => (
+                  <Space size={4}>
+                    <Tag color={format === 'PDF' ? 'red' : format === 'WORD' ? 'blue' : 'default'}>
+                      {format}
+                    </Tag>
+                    {record.compaction ? (
+                      <Tag>合订本</Tag>
+                    ) : record.sinceWatermark && record.volumeNumber ? (
+                      <Tag color="cyan">第{record.volumeNumber}卷</Tag>
+                    ) : null}
+                  </Space>
                 ),
               },
               {
                 title: '状态',
                 dataIndex: 'status',
                 key: 'status',
-                width: 100,
-                render: (status: string) => {
+                width: 140,
+                render: (status: string, record: any) => {
                   const statusConfig: Record<string, { color: string; text: string }> = {
-                    PENDING: { color: 'default', text: '等待中' },
+                    PENDING: { color: 'default', text: record.queuePosition ? `排队中（第${record.queuePosition}位）` : '排队中' },
                     RUNNING: { color: 'processing', text: '执行中' },
                     COMPLETED: { color: 'success', text: '已完成' },
                     FAILED: { color: 'error', text: '失败' },
+                    CANCELLED: { color: 'warning', text: '已取消' },
                   };
                   const config = statusConfig[status] || { color: 'default', text: status };
                   return <Tag color={config.color}>{config.text}</Tag>;
@@ -599,7 +677,7 @@ function Export() {
               {
                 title: '操作',
                 key: 'action',
-                width: 220,
+                width: 280,
                 render: (_: any, record: any) => (
                   <Space>
                     <Button
@@ -642,6 +720,28 @@ function Export() {
                         下载
                       </Button>
                     )}
+                    {record.status === 'COMPLETED' && record.exportFormat === 'PDF' && record.sinceWatermark && record.filePath && (
+                      <Tooltip title="把此卷及之前各卷合并为一个 PDF">
+                        <Button
+                          type="link"
+                          size="small"
+                          icon={<MergeCellsOutlined />}
+                          onClick={() => handleCompactTask(record.id)}
+                        >
+                          合并
+                        </Button>
+                      </Tooltip>
+                    )}
+                    {(record.status === 'PENDING' || record.status === 'RUNNING') && (
+                      <Button
+                        type="link"
+                        size="small"
+                        icon={<StopOutlined />}
+                        onClick={() => handleCancelTask(record.id)}
+                      >
+                        取消
+                      </Button>
+                    )}
                     <Popconfirm
                       title="确认删除该导出任务？"
                       description="将删除任务记录及对应导出文件，此操作不可恢复。"
@@ -16,7 +16,7 @@ import {
   ReloadOutlined,
   FileTextOutlined,
 } from '@ant-design/icons';
-import { contentApi, getApiErrorMessage, getAvatarSrc } from '../services/api';
+import { contentApi, getApiErrorMessage, getThumbnailSrc } from '../services/api';
 import MainLayout from '../components/Layout/MainLayout';
 import { useNavigate } from 'react-router-dom';
 import { parseContentMetadata } from '../utils/contentUtils';
@@ -129,7 +129,7 @@ function Favorites() {
         const { nickName } = parseContentMetadata(record.metadata);
         return (
           <Space size="small">
-            {record.user?.avatarUrl && <Avatar src={getAvatarSrc(record.user.avatarUrl)} size={24} />}
+            {record.user?.avatarUrl && <Avatar src={getThumbnailSrc(record.user.avatarUrl, 24)} size={24} />}
             <span style={{ fontSize: 13 }}>{nickName ?? record.user?.username ?? '-'}</span>
           </Space>
         );
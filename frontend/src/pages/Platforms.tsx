@@ -1,7 +1,7 @@
 import { useState, useEffect } from 'react';
 import { Table, Button, Space, Modal, Form, Input, Select, message, Popconfirm, Tag, Avatar, Upload, Card, Typography } from 'antd';
 import { PlusOutlined, EditOutlined, DeleteOutlined, CheckCircleOutlined, ReloadOutlined, UserOutlined, UploadOutlined, ToolOutlined } from '@ant-design/icons';
-import { platformApi, contentApi, getApiErrorMessage, getPlatformAvatarSrc } from '../services/api';
+import { platformApi, contentApi, getApiErrorMessage, getThumbnailSrc } from '../services/api';
 import MainLayout from '../components/Layout/MainLayout';
 
 interface Platform {
@@ -179,7 +179,7 @@ function Platforms() {
       render: (_: any, record: Platform) => (
         <Space size={8}>
           <Avatar
-            src={getPlatformAvatarSrc(record.avatarUrl)}
+            src={getThumbnailSrc(record.avatarUrl, 28)}
             icon={!record.avatarUrl ? <UserOutlined /> : undefined}
             shape="square"
             size={28}
@@ -157,7 +157,9 @@ function useFetchHistory() {
   const [fetchHistoryTotal, setFetchHistoryTotal] = useState(0);
 
   const fetchHistoryPollTimerRef = useRef<ReturnType<typeof setInterval> | null>(null);
-  const POLL_INTERVAL_MS = 2000;
+  const fetchEventsRef = useRef<(() => void) | null>(null);
+  /** 进度经 SSE 推送并原地更新；轮询仅作兜底（排队中、其他节点执行的任务） */
+  const POLL_INTERVAL_MS = 10000;
 
   const loadFetchHistory = async (page?: number, size?: number) => {
     const rawP = Number(page ?? fetchHistoryPage);
@@ -181,7 +183,14 @@ function useFetchHistory() {
     }
   };
 
-  // 当存在 RUNNING 或 PENDING 的刷新任务时，自动轮询以实时更新进度
+  const stopFetchEvents = () => {
+    if (fetchEventsRef.current) {
+      fetchEventsRef.current();
+      fetchEventsRef.current = null;
+    }
+  };
+
+  // 当存在 RUNNING 或 PENDING 的刷新任务时，订阅进度推送并低频轮询兜底
   useEffect(() => {
     const hasActive = (fetchHistory || []).some(
       (r: any) => r?.status === 'RUNNING' || r?.status === 'PENDING'
@@ -189,19 +198,41 @@ function useFetchHistory() {
     if (hasActive && !fetchHistoryPollTimerRef.current) {
       fetchHistoryPollTimerRef.current = setInterval(() => loadFetchHistory(), POLL_INTERVAL_MS);
     }
+    if (hasActive && !fetchEventsRef.current) {
+      fetchEventsRef.current = taskApi.subscribeFetchEvents(
+        (name, ev) => {
+          if (name === 'done') {
+            loadFetchHistory();
+            return;
+          }
+          setFetchHistory((prev) =>
+            prev.map((r: any) =>
+              r?.id === ev.taskId
+                ? { ...r, status: ev.status, progress: ev.progress, fetchedCount: ev.fetchedCount ?? r.fetchedCount, totalCount: ev.totalCount ?? r.totalCount }
+                : r
+            )
+          );
+        },
+        () => { fetchEventsRef.current = null; }
+      );
+    }
     if (!hasActive && fetchHistoryPollTimerRef.current) {
       clearInterval(fetchHistoryPollTimerRef.current);
       fetchHistoryPollTimerRef.current = null;
     }
-    return () => {
-      if (fetchHistoryPollTimerRef.current) {
-        clearInterval(fetchHistoryPollTimerRef.current);
-        fetchHistoryPollTimerRef.current = null;
-      }
-    };
+    if (!hasActive) stopFetchEvents();
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [fetchHistory]);
 
+  useEffect(() => () => {
+    if (fetchHistoryPollTimerRef.current) {
+      clearInterval(fetchHistoryPollTimerRef.current);
+      fetchHistoryPollTimerRef.current = null;
+    }
+    stopFetchEvents();
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, []);
+
   return {
     fetchHistory,
     fetchHistoryLoading,
@@ -2,7 +2,7 @@ import { useEffect, useRef, useState } from 'react';
 import { Table, Button, Space, Modal, Form, Input, Select, message, Popconfirm, Switch, Progress, Upload } from 'antd';
 import { PlusOutlined, EditOutlined, DeleteOutlined, ReloadOutlined, UserOutlined, UserAddOutlined, TeamOutlined, UploadOutlined } from '@ant-design/icons';
 import { Avatar, Typography } from 'antd';
-import { userApi, platformApi, taskApi, getApiErrorMessage, getAvatarSrc, getPlatformAvatarSrc } from '../services/api';
+import { userApi, platformApi, taskApi, getApiErrorMessage, getAvatarSrc, getPlatformAvatarSrc, getThumbnailSrc } from '../services/api';
 import MainLayout from '../components/Layout/MainLayout';
 
 interface Platform {
@@ -42,6 +42,7 @@ function Users() {
   const [currentTask, setCurrentTask] = useState<any | null>(null);
   const [currentProgress, setCurrentProgress] = useState(0);
   const progressTimerRef = useRef<number | null>(null);
+  const progressEventsRef = useRef<(() => void) | null>(null);
   const [refreshingProfileId, setRefreshingProfileId] = useState<string | null>(null);
   const [contentCounts, setContentCounts] = useState<ContentCountsMap>({});
   const [form] = Form.useForm();
@@ -175,42 +176,54 @@ function Users() {
     return null;
   };
 
+  const stopProgressTracking = () => {
+    if (progressTimerRef.current) {
+      window.clearInterval(progressTimerRef.current);
+      progressTimerRef.current = null;
+    }
+    if (progressEventsRef.current) {
+      progressEventsRef.current();
+      progressEventsRef.current = null;
+    }
+  };
+
+  /** 任务进入终态时停止跟踪并提示；返回是否已结束 */
+  const finishIfTerminal = (t: any) => {
+    if (t?.status === 'COMPLETED' || t?.status === 'FAILED' || t?.status === 'CANCELLED') {
+      stopProgressTracking();
+      if (t.status === 'COMPLETED') message.success('刷新完成');
+      else if (t.status === 'FAILED') message.error(t.errorMessage || '刷新失败');
+      return true;
+    }
+    return false;
+  };
+
+  /** 进度经 SSE 实时推送；轮询仅作兜底（排队中、其他节点执行的任务） */
   const startProgressPolling = (task: any) => {
     const taskId = task?.id;
     if (!taskId) return;
     setCurrentTask(task);
     setCurrentProgress(task?.progress ?? 0);
-    if (progressTimerRef.current) {
-      window.clearInterval(progressTimerRef.current);
-    }
+    stopProgressTracking();
     // 立即请求一次任务详情，避免弹窗一直显示 PENDING（后端异步启动后状态会变为 RUNNING）
-    pollTaskOnce(taskId).then((t) => {
-      if (t?.status === 'COMPLETED' || t?.status === 'FAILED' || t?.status === 'CANCELLED') {
-        if (progressTimerRef.current) {
-          window.clearInterval(progressTimerRef.current);
-          progressTimerRef.current = null;
-        }
-        if (t.status === 'COMPLETED') message.success('刷新完成');
-        else if (t.status === 'FAILED') message.error(t.errorMessage || '刷新失败');
+    pollTaskOnce(taskId).then(finishIfTerminal);
+    progressEventsRef.current = taskApi.subscribeFetchEvents((name, ev) => {
+      if (ev.taskId !== taskId) return;
+      if (name === 'done') {
+        // 结束事件在终态提交之后发出，拉取详情以获得错误信息等
+        pollTaskOnce(taskId).then(finishIfTerminal);
+        return;
       }
+      setCurrentTask((prev: any) => (prev ? { ...prev, status: ev.status, progress: ev.progress, fetchedCount: ev.fetchedCount } : prev));
+      setCurrentProgress(ev.progress ?? 0);
     });
-    const timer = window.setInterval(async () => {
+    progressTimerRef.current = window.setInterval(async () => {
       try {
-        const t = await pollTaskOnce(taskId);
-        if (t?.status === 'COMPLETED' || t?.status === 'FAILED' || t?.status === 'CANCELLED') {
-          window.clearInterval(timer);
-          progressTimerRef.current = null;
-          if (t.status === 'COMPLETED') {
-            message.success('刷新完成');
-          } else if (t.status === 'FAILED') {
-            message.error(t.errorMessage || '刷新失败');
-          }
-        }
+        finishIfTerminal(await pollTaskOnce(taskId));
       } catch {
         // ignore polling errors
       }
-    }, 1000);
-    progressTimerRef.current = timer;
+    }, 5000);
   };
 
   const handleConfirmRefresh = async () => {
@@ -263,7 +276,7 @@ function Users() {
       key: 'user',
       width: 180,
       render: (_: any, record: User) => {
-        const src = getAvatarSrc(record.avatarUrl);
+        const src = getThumbnailSrc(record.avatarUrl, 40);
         return (
           <div className="users-table-user-cell">
             <Avatar src={src} size={40} icon={<UserOutlined />} className={!src ? 'users-table-avatar-placeholder' : ''} />
@@ -559,10 +572,7 @@ function Users() {
           footer={null}
           onCancel={() => {
             setProgressModalVisible(false);
-            if (progressTimerRef.current) {
-              window.clearInterval(progressTimerRef.current);
-              progressTimerRef.current = null;
-            }
+            stopProgressTracking();
           }}
         >
           {(currentTask || refreshUser) && (
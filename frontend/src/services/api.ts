@@ -62,6 +62,72 @@ export function getApiErrorMessage(error: any, fallback: string = '请求失败'
   return (typeof msg === 'string' ? msg : fallback) || fallback;
 }
 
+/** 任务进度推送事件（后端 TaskProgressBus.ProgressEvent） */
+export interface TaskProgressEvent {
+  taskId: string;
+  kind: 'export' | 'fetch';
+  status: string;
+  progress: number;
+  fetchedCount?: number;
+  totalCount?: number;
+  /** progress 事件中新增的一行日志 */
+  log?: string;
+  /** snapshot / done 事件中的完整日志 */
+  logs?: string[];
+}
+
+/**
+ * 订阅任务进度 SSE。用 fetch 读取事件流以便携带 JWT（EventSource 不能设置请求头）。
+ * 连接断开或出错时调用 onClose，由调用方回退到轮询；返回取消订阅函数。
+ */
+export function subscribeTaskEvents(
+  path: string,
+  onEvent: (name: string, event: TaskProgressEvent) => void,
+  onClose?: () => void
+): () => void {
+  const controller = new AbortController();
+  const token = getToken();
+  (async () => {
+    try {
+      const res = await fetch(`${API_BASE_URL}${path}`, {
+        headers: { Accept: 'text/event-stream', ...(token ? { Authorization: `Bearer ${token}` } : {}) },
+        signal: controller.signal,
+      });
+      if (!res.ok || !res.body) throw new Error(`订阅失败 ${res.status}`);
+      const reader = res.body.getReader();
+      const decoder = new TextDecoder();
+      let buffer = '';
+      for (;;) {
+        const { done, value } = await reader.read();
+        if (done) break;
+        buffer += decoder.decode(value, { stream: true });
+        let sep: number;
+        while ((sep = buffer.indexOf('\n\n')) >= 0) {
+          const block = buffer.slice(0, sep);
+          buffer = buffer.slice(sep + 2);
+          let name = 'message';
+          const data: string[] = [];
+          for (const line of block.split('\n')) {
+            if (line.startsWith('event:')) name = line.slice(6).trim();
+            else if (line.startsWith('data:')) data.push(line.slice(5));
+          }
+          if (data.length > 0) {
+            try {
+              onEvent(name, JSON.parse(data.join('\n')));
+            } catch {
+              // ignore malformed event
+            }
+          }
+        }
+      }
+    } catch (e: any) {
+      if (e?.name === 'AbortError') return;
+    }
+    onClose?.();
+  })();
+  return () => controller.abort();
+}
+
 export interface ApiResponse<T> {
   code: number;
   message: string;
@@ -69,6 +135,35 @@ export interface ApiResponse<T> {
   timestamp: string;
 }
 
+/** 按作者批量删除任务（后端 ContentDeleteTask） */
+export interface ContentDeleteTask {
+  id: string;
+  userId: string;
+  status: 'PENDING' | 'RUNNING' | 'COMPLETED' | 'FAILED';
+  progress: number;
+  totalCount?: number;
+  deletedCount: number;
+  filesDeleted: number;
+  errorMessage?: string;
+}
+
+/** 批量标记已读/收藏：ids（最多 1000 条）与 userId/platformId/时间范围二选一，均不填为全部内容 */
+export interface ContentBatchUpdateRequest {
+  ids?: string[];
+  userId?: string;
+  platformId?: string;
+  startTime?: string;
+  endTime?: string;
+  isRead?: boolean;
+  isFavorite?: boolean;
+}
+
+/** 批量标记结果：已读、收藏各自实际改动的条数 */
+export interface ContentBatchUpdateResult {
+  readUpdated: number;
+  favoriteUpdated: number;
+}
+
 // 平台相关API：附件/图片完整 URL 需指向后端，与 apiClient baseURL 同源
 const API_BASE_ORIGIN =
   API_BASE_URL.startsWith('http') ? new URL(API_BASE_URL).origin : (typeof window !== 'undefined' ? window.location.origin : '');
@@ -139,6 +234,17 @@ export function getContentImageSrc(imageUrl: string | undefined): string | undef
   return getPlatformAvatarSrc(imageUrl);
 }
 
+/**
+ * 上传图片缩略图 URL：仅对本地上传路径追加 ?w=（后端按档位生成并长期缓存），外部 URL 原样返回。
+ * width 为显示宽度（CSS 像素），按设备像素比放大以保证高分屏清晰。
+ */
+export function getThumbnailSrc(imageUrl: string | undefined, width: number): string | undefined {
+  const src = getPlatformAvatarSrc(imageUrl);
+  if (!src || !src.includes('/api/v1/uploads/') || src.includes('?')) return src;
+  const dpr = typeof window !== 'undefined' ? Math.min(window.devicePixelRatio || 1, 3) : 1;
+  return `${src}?w=${Math.ceil(width * dpr)}`;
+}
+
 /** 内容附件完整 URL（用于 metadata.downloaded_file_urls 等），统一使用 backend/uploads */
 export function getContentAttachmentUrl(localUrl: string | undefined): string | undefined {
   return getPlatformAvatarSrc(localUrl);
@@ -208,8 +314,13 @@ export const contentApi = {
     apiClient.post<ApiResponse<any>>(`/contents/${id}/refresh-assets`),
   update: (id: string, data: any) => apiClient.put<ApiResponse<any>>(`/contents/${id}`, data),
   delete: (id: string) => apiClient.delete<ApiResponse<void>>(`/contents/${id}`),
-  /** 按作者删除：删除指定作者（追踪用户）下的全部内容，返回删除条数 */
-  deleteContentsByAuthor: (userId: string) => apiClient.delete<ApiResponse<number>>(`/contents/by-author/${userId}`),
+  /** 批量标记已读/收藏（单条 UPDATE，无需逐条请求） */
+  batchUpdate: (data: ContentBatchUpdateRequest) =>
+    apiClient.post<ApiResponse<ContentBatchUpdateResult>>('/contents/batch-update', data),
+  /** 按作者删除：后台分批删除指定作者（追踪用户）下的全部内容，返回删除任务 */
+  deleteContentsByAuthor: (userId: string) => apiClient.delete<ApiResponse<ContentDeleteTask>>(`/contents/by-author/${userId}`),
+  /** 查询按作者删除任务的进度 */
+  getDeleteTask: (taskId: string) => apiClient.get<ApiResponse<ContentDeleteTask>>(`/contents/delete-tasks/${taskId}`),
   getStats: (userId?: string) => apiClient.get<ApiResponse<any>>('/contents/stats', { params: userId ? { userId } : {} }),
   search: (query: string, params?: { page?: number; size?: number }) =>
     apiClient.get<ApiResponse<any>>('/contents/search', { params: { query, ...params } }),
@@ -258,6 +369,9 @@ export const taskApi = {
     apiClient.get<ApiResponse<Record<string, boolean>>>('/tasks/schedule/users/status'),
   getFetchQueue: () => apiClient.get<ApiResponse<any>>('/tasks/fetch/queue'),
   getFetchTask: (taskId: string) => apiClient.get<ApiResponse<any>>(`/tasks/fetch/${taskId}`),
+  /** 订阅本节点运行中刷新任务的进度推送，返回取消订阅函数 */
+  subscribeFetchEvents: (onEvent: (name: string, event: TaskProgressEvent) => void, onClose?: () => void) =>
+    subscribeTaskEvents('/tasks/fetch/events', onEvent, onClose),
   /** 刷新任务记录。taskType=MANUAL 仅手动，SCHEDULED 仅定时，不传则全部 */
   getFetchHistory: (params?: { page?: number; size?: number; taskType?: 'MANUAL' | 'SCHEDULED' }) =>
     apiClient.get<ApiResponse<any>>('/tasks/fetch/history', { params }),
@@ -323,13 +437,20 @@ export const exportApi = {
     `${API_BASE_URL}/export/csv` + (params?.userId ? `?userId=${params.userId}` : ''),
   getHtmlUrl: (params?: { userId?: string }) =>
     `${API_BASE_URL}/export/html` + (params?.userId ? `?userId=${params.userId}` : ''),
+  /** Markdown 文章 + 本地附件打包的 ZIP（按年/月分目录） */
+  getZipUrl: (params?: { userId?: string }) =>
+    `${API_BASE_URL}/export/zip` + (params?.userId ? `?userId=${params.userId}` : ''),
   /** 创建异步导出任务（支持进度与日志，PDF/Word 需 userId、sortOrder） */
   createAsync: (params: {
-    format: 'JSON' | 'MARKDOWN' | 'CSV' | 'HTML' | 'PDF' | 'WORD';
+    format: 'JSON' | 'MARKDOWN' | 'CSV' | 'HTML' | 'ZIP' | 'PDF' | 'WORD';
     userId?: string;
     startTime?: string;
     endTime?: string;
     sortOrder?: string;
+    /** 排队优先级 0-9，越大越先执行，默认 5 */
+    priority?: number;
+    /** 增量导出：只导出该作者同格式上一卷以来新增或更新的文章，作为新的一卷 */
+    incremental?: boolean;
   }) =>
     apiClient.post<ApiResponse<any>>('/export/async', null, {
       params: {
@@ -338,11 +459,16 @@ export const exportApi = {
         startTime: params.startTime,
         endTime: params.endTime,
         sortOrder: params.sortOrder ?? 'DESC',
+        priority: params.priority,
+        incremental: params.incremental,
       },
       timeout: 60000, // 创建任务时使用60秒超时，确保有足够时间完成数据库操作
     }),
   /** 获取导出任务详情（含 progress、logMessages） */
   getTask: (taskId: string) => apiClient.get<ApiResponse<any>>(`/export/tasks/${taskId}`),
+  /** 订阅导出任务进度推送（snapshot / progress / done），返回取消订阅函数 */
+  subscribeTask: (taskId: string, onEvent: (name: string, event: TaskProgressEvent) => void, onClose?: () => void) =>
+    subscribeTaskEvents(`/export/tasks/${taskId}/events`, onEvent, onClose),
   /** 获取导出任务列表（分页） */
   getTasks: (params?: { userId?: string; page?: number; size?: number }) => {
     const queryParams: any = {};
@@ -354,6 +480,10 @@ export const exportApi = {
   /** 下载导出文件 URL（需带 token） */
   getDownloadUrl: (taskId: string) =>
     `${API_BASE_URL}/export/tasks/${taskId}/download`,
+  /** 合并 PDF 增量卷链为一个文件 */
+  compactTask: (taskId: string) => apiClient.post<ApiResponse<any>>(`/export/tasks/${taskId}/compact`),
+  /** 取消排队中或运行中的导出任务 */
+  cancelTask: (taskId: string) => apiClient.put<ApiResponse<void>>(`/export/tasks/${taskId}/cancel`),
   /** 删除导出任务（同时删除本地导出文件） */
   deleteTask: (taskId: string) => apiClient.delete<ApiResponse<void>>(`/export/tasks/${taskId}`),
   /** 批量删除导出任务 */